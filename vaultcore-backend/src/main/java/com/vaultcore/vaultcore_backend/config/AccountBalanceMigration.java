@@ -0,0 +1,59 @@
+package com.vaultcore.vaultcore_backend.config;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject.Type;
+import org.springframework.stereotype.Component;
+
+/**
+ * Converts account balances written as strings (the old BigDecimal mapping)
+ * to Decimal128, so they can be updated with $inc, then rounds balances with
+ * more decimal places than the currency has. Money rounds those when reading,
+ * so unless the stored value matches, compare-and-set updates never apply and
+ * reconciliation reports the account. $round is half-even, like Money.rounded.
+ * Idempotent - once every balance is numeric and rounded the filters match nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "vaultcore.storage", havingValue = "mongo", matchIfMissing = true)
+public class AccountBalanceMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    public AccountBalanceMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Query legacyBalances = new Query(Criteria.where("balance").type(2)); // BSON type 2 = string
+        AggregationUpdate toDecimal = AggregationUpdate.update()
+                .set("balance").toValue(ConvertOperators.valueOf("balance").convertToDecimal());
+
+        long converted = mongoTemplate.updateMulti(legacyBalances, toDecimal, Account.class).getModifiedCount();
+        if (converted > 0) {
+            System.out.println("✅ Converted " + converted + " account balances to Decimal128");
+        }
+
+        int places = Money.DEFAULT_CURRENCY.getDefaultFractionDigits();
+        ArithmeticOperators.Round roundedBalance = ArithmeticOperators.valueOf("balance").round().place(places);
+        Query unroundedBalances = new Query(new Criteria().andOperator(
+                Criteria.where("balance").type(Type.DOUBLE, Type.DECIMAL_128), // integers need no rounding
+                Criteria.expr(ComparisonOperators.valueOf("balance").notEqualTo(roundedBalance))));
+        AggregationUpdate toScale = AggregationUpdate.update().set("balance").toValue(roundedBalance);
+
+        long rounded = mongoTemplate.updateMulti(unroundedBalances, toScale, Account.class).getModifiedCount();
+        if (rounded > 0) {
+            System.out.println("✅ Rounded " + rounded + " account balances to " + places + " decimal places");
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.vaultcore.vaultcore_backend.config;
+
+import com.mongodb.DBRef;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rewrites documents stored with @DBRef links (user / account) to the plain
+ * userId / accountId fields, and copies accountType onto transactions so a
+ * history read needs no lookup. Idempotent - migrated documents no longer
+ * have the old fields, so the filters match nothing on later starts.
+ */
+@Component
+@ConditionalOnProperty(name = "vaultcore.storage", havingValue = "mongo", matchIfMissing = true)
+@Order(0) // before AccountBalanceMigration and anything that reads by userId
+public class DbRefMigration implements ApplicationRunner {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public DbRefMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        report("accounts", migrate("accounts", false));
+        report("transactions", migrate("transactions", true));
+        report("ledger", migrate("ledger", false));
+    }
+
+    private long migrate(String collection, boolean withAccountType) {
+        Query legacy = new Query(new Criteria().orOperator(
+                Criteria.where("user").exists(true), Criteria.where("account").exists(true)));
+        legacy.fields().include("user").include("account");
+
+        long migrated = 0;
+        List<Document> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (var docs = mongoTemplate.stream(legacy, Document.class, collection)) {
+            for (Document doc : (Iterable<Document>) docs::iterator) {
+                chunk.add(doc);
+                if (chunk.size() == CHUNK_SIZE) {
+                    migrated += writeChunk(collection, chunk, withAccountType);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            migrated += writeChunk(collection, chunk, withAccountType);
+        }
+        return migrated;
+    }
+
+    private int writeChunk(String collection, List<Document> chunk, boolean withAccountType) {
+        Map<String, String> accountTypes = withAccountType ? accountTypes(chunk) : Map.of();
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        for (Document doc : chunk) {
+            Update update = new Update().unset("user").unset("account");
+            String userId = refId(doc.get("user"));
+            if (userId != null) {
+                update.set("userId", userId);
+            }
+            String accountId = refId(doc.get("account"));
+            if (accountId != null) {
+                update.set("accountId", accountId);
+                if (accountTypes.containsKey(accountId)) {
+                    update.set("accountType", accountTypes.get(accountId));
+                }
+            }
+            bulk.updateOne(new Query(Criteria.where("_id").is(doc.get("_id"))), update);
+        }
+        bulk.execute();
+        return chunk.size();
+    }
+
+    /**
+     * One $in query per chunk instead of one lookup per transaction
+     */
+    private Map<String, String> accountTypes(List<Document> chunk) {
+        List<Object> ids = new ArrayList<>();
+        for (Document doc : chunk) {
+            if (doc.get("account") instanceof DBRef ref) {
+                ids.add(ref.getId());
+            }
+        }
+        Map<String, String> types = new HashMap<>();
+        if (ids.isEmpty()) {
+            return types;
+        }
+        Query query = new Query(Criteria.where("_id").in(ids));
+        query.fields().include("accountType");
+        for (Document account : mongoTemplate.find(query, Document.class, "accounts")) {
+            types.put(account.get("_id").toString(), account.getString("accountType"));
+        }
+        return types;
+    }
+
+    private static String refId(Object value) {
+        return value instanceof DBRef ref ? ref.getId().toString() : null;
+    }
+
+    private static void report(String collection, long migrated) {
+        if (migrated > 0) {
+            System.out.println("✅ Migrated " + migrated + " " + collection + " documents from DBRef to ids");
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.vaultcore.vaultcore_backend.config;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.bson.types.Decimal128;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Money is stored as Decimal128 in major units (125.50), the type balances already
+ * had, so $inc, $gte guards, compare-and-set matches and $sum keep working on the
+ * server and existing documents need no migration. Reads also accept the strings
+ * older ledger entries were written as. Values read are rounded to the currency's
+ * scale (Money#rounded) - old documents were not written with a fixed one.
+ */
+public final class MoneyConverters {
+
+    private MoneyConverters() {
+    }
+
+    public static List<Converter<?, ?>> all() {
+        return List.of(MoneyToDecimal128.INSTANCE, Decimal128ToMoney.INSTANCE, StringToMoney.INSTANCE);
+    }
+
+    /**
+     * A MongoTemplate that maps Money the way the application's does - for code that builds its own
+     */
+    public static MongoTemplate mongoTemplate(MongoDatabaseFactory factory) {
+        MongoCustomConversions conversions = new MongoCustomConversions(all());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return new MongoTemplate(factory, converter);
+    }
+
+    public static Decimal128 toDecimal128(Money money) {
+        return new Decimal128(money.toBigDecimal());
+    }
+
+    /**
+     * A numeric value from a raw Document or an aggregation result - Decimal128, string or number
+     */
+    public static Money toMoney(Object value) {
+        if (value == null) {
+            return Money.ZERO;
+        }
+        if (value instanceof Decimal128 decimal) {
+            return Money.rounded(decimal.bigDecimalValue());
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return Money.of(BigDecimal.valueOf(((Number) value).longValue()));
+        }
+        return Money.rounded(new BigDecimal(value.toString()));
+    }
+
+    @WritingConverter
+    enum MoneyToDecimal128 implements Converter<Money, Decimal128> {
+        INSTANCE;
+
+        @Override
+        public Decimal128 convert(Money source) {
+            return toDecimal128(source);
+        }
+    }
+
+    @ReadingConverter
+    enum Decimal128ToMoney implements Converter<Decimal128, Money> {
+        INSTANCE;
+
+        @Override
+        public Money convert(Decimal128 source) {
+            return Money.rounded(source.bigDecimalValue());
+        }
+    }
+
+    @ReadingConverter
+    enum StringToMoney implements Converter<String, Money> {
+        INSTANCE;
+
+        @Override
+        public Money convert(String source) {
+            return Money.rounded(new BigDecimal(source));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.vaultcore.vaultcore_backend.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Driver command listener - latency per command and collection, and how many
+ * documents each command returned (cursor batches, findAndModify value) or
+ * wrote (n on insert / update / delete). The collection is only named in the
+ * started event, so it is held by request id until the command finishes.
+ * Meters are cached per command and collection, which keeps the callbacks
+ * free of builder work after the first call.
+ *
+ * Metrics: vaultcore.mongo.command {command, collection, status} and
+ * vaultcore.mongo.command.documents {command, collection}.
+ */
+public class MongoCommandMetrics implements CommandListener {
+
+    private static final String UNKNOWN = "none";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, String> collections = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Meters>> meters = new ConcurrentHashMap<>(); // command -> collection
+
+    public MongoCommandMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        collections.put(event.getRequestId(), collectionOf(event.getCommandName(), event.getCommand()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Meters commandMeters = metersFor(event.getCommandName(), collections.remove(event.getRequestId()));
+        commandMeters.success.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        long documents = documentsIn(event.getResponse());
+        if (documents >= 0) {
+            commandMeters.documents.record(documents);
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        metersFor(event.getCommandName(), collections.remove(event.getRequestId()))
+                .failure.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    private Meters metersFor(String command, String collection) {
+        String name = collection == null ? UNKNOWN : collection;
+        Map<String, Meters> byCollection = meters.computeIfAbsent(command, key -> new ConcurrentHashMap<>());
+        Meters found = byCollection.get(name);
+        return found != null ? found : byCollection.computeIfAbsent(name, key -> new Meters(command, name));
+    }
+
+    /**
+     * Collection-level commands name the collection as the value of their first key;
+     * getMore names it in its own field
+     */
+    static String collectionOf(String command, BsonDocument body) {
+        if (body == null || body.isEmpty()) {
+            return UNKNOWN;
+        }
+        BsonValue value = "getMore".equals(command) ? body.get("collection") : body.get(body.getFirstKey());
+        return value != null && value.isString() ? value.asString().getValue() : UNKNOWN;
+    }
+
+    /**
+     * Documents returned or written by one reply, -1 when the command carries no count
+     */
+    static long documentsIn(BsonDocument response) {
+        if (response == null) {
+            return -1;
+        }
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument()) {
+            BsonDocument batches = cursor.asDocument();
+            BsonValue batch = batches.containsKey("firstBatch") ? batches.get("firstBatch") : batches.get("nextBatch");
+            return batch instanceof BsonArray array ? array.size() : -1;
+        }
+        if (response.containsKey("value")) {
+            return response.get("value").isNull() ? 0 : 1;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().longValue() : -1;
+    }
+
+    private final class Meters {
+
+        private final Timer success;
+        private final Timer failure;
+        private final DistributionSummary documents;
+
+        private Meters(String command, String collection) {
+            this.success = timer(command, collection, "success");
+            this.failure = timer(command, collection, "failure");
+            this.documents = DistributionSummary.builder("vaultcore.mongo.command.documents")
+                    .description("Documents returned or written per Mongo command")
+                    .tags("command", command, "collection", collection)
+                    .register(meterRegistry);
+        }
+
+        private Timer timer(String command, String collection, String status) {
+            return Timer.builder("vaultcore.mongo.command")
+                    .description("Mongo command latency as seen by the driver")
+                    .tags("command", command, "collection", collection, "status", status)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,28 +1,80 @@
 package com.vaultcore.vaultcore_backend.config;
 
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.vaultcore.vaultcore_backend.service.ServiceMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
 
 @Configuration
+@ConditionalOnProperty(name = "vaultcore.storage", havingValue = "mongo", matchIfMissing = true)
 public class MongoConfig {
 
+    /**
+     * Money as Decimal128 - replaces Boot's empty default, used by the blocking and reactive templates
+     */
     @Bean
-    public MongoClient mongoClient() {
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(MoneyConverters.all());
+    }
+
+    @Bean
+    public MongoCommandMetrics mongoCommandMetrics(MeterRegistry meterRegistry) {
+        return new MongoCommandMetrics(meterRegistry);
+    }
+
+    @Bean
+    public MongoClient mongoClient(@Value("${spring.data.mongodb.uri:mongodb://localhost:27017/vaultcore_db}") String uri,
+                                   @Value("${vaultcore.mongo.max-pool-size:100}") int maxPoolSize,
+                                   MongoCommandMetrics commandMetrics) {
         try {
-            MongoClient client = MongoClients.create(
-                "mongodb://localhost:27017/vaultcore_db"
-            );
+            // With virtual threads every request can reach the driver at once; the pool
+            // size, not the thread count, then bounds concurrent operations on the server
+            MongoClient client = MongoClients.create(MongoClientSettings.builder()
+                    .applyConnectionString(new ConnectionString(uri))
+                    .applyToConnectionPoolSettings(pool -> pool.maxSize(maxPoolSize))
+                    .addCommandListener(commandMetrics)
+                    .build());
             // Test connection
             client.listDatabaseNames().first();
             System.out.println("✅ MongoDB Connected");
             return client;
         } catch (Exception e) {
             System.err.println("❌ MongoDB connection failed: " + e.getMessage());
-            System.err.println("⚠️  Please ensure MongoDB is running on localhost:27017");
+            System.err.println("⚠️  Please ensure MongoDB is reachable at spring.data.mongodb.uri");
             // Don't exit - let Spring Boot handle the failure more gracefully
             throw new RuntimeException("MongoDB connection failed. Please start MongoDB.", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Transactions for the operations set to transactional in vaultcore.transactions.* -
+     * these need a replica set, e.g. mongodb://localhost:27017/vaultcore_db?replicaSet=rs0
+     */
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory, ServiceMetrics metrics,
+                                                      @Value("${vaultcore.transactions.max-attempts:5}") int maxAttempts,
+                                                      @Value("${vaultcore.transactions.backoff-ms:5}") long backoffMs) {
+        return new RetryingMongoTransactionManager(databaseFactory, maxAttempts, backoffMs,
+                metrics.retries("transaction-commit"));
+    }
+
+    /**
+     * Same pool bound and command metrics for the auto-configured reactive client behind /api/reactive
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer reactivePoolSize(@Value("${vaultcore.mongo.max-pool-size:100}") int maxPoolSize,
+                                                                 MongoCommandMetrics commandMetrics) {
+        return settings -> settings.applyToConnectionPoolSettings(pool -> pool.maxSize(maxPoolSize))
+                .addCommandListener(commandMetrics);
+    }
+}
@@ -0,0 +1,81 @@
+package com.vaultcore.vaultcore_backend.config;
+
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on the entities (@Indexed, @CompoundIndex) at startup.
+ * Every repository query has a matching index there, so none of them scans a collection.
+ * Indexes are requested as background builds; creating an index that already
+ * exists is a no-op, so this is safe on every start.
+ */
+@Component
+@ConditionalOnProperty(name = "vaultcore.storage", havingValue = "mongo", matchIfMissing = true)
+@Order(1) // after DbRefMigration, so indexes are built on the migrated field names
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        ensureIndexes();
+    }
+
+    /**
+     * Ensure the indexes of every mapped @Document class - returns how many were ensured
+     */
+    public int ensureIndexes() {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+                mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+
+        int ensured = 0;
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            IndexOperations indexOps = mongoTemplate.indexOps(entity.getType());
+            for (IndexDefinition index : resolver.resolveIndexFor(entity.getType())) {
+                try {
+                    indexOps.createIndex(inBackground(index));
+                    ensured++;
+                } catch (RuntimeException e) {
+                    // e.g. an index with the same name but other options - keep starting, but say so
+                    System.err.println("❌ Could not create index " + index.getIndexKeys()
+                            + " on " + entity.getCollection() + ": " + e.getMessage());
+                }
+            }
+        }
+        System.out.println("✅ Ensured " + ensured + " MongoDB indexes");
+        return ensured;
+    }
+
+    private static IndexDefinition inBackground(IndexDefinition index) {
+        return new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return index.getIndexKeys();
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return new Document(index.getIndexOptions()).append("background", true);
+            }
+        };
+    }
+}
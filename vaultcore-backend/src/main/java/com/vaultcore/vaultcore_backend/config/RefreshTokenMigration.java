@@ -0,0 +1,90 @@
+package com.vaultcore.vaultcore_backend.config;
+
+import com.mongodb.DBRef;
+import com.vaultcore.vaultcore_backend.util.Hashes;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Rewrites refresh tokens stored in the clear with a @DBRef user to the hashed
+ * form (tokenHash, userId, createdAt) and drops the old token / user indexes -
+ * a unique index on token would reject every new document, which has no token.
+ * Revoked tokens are deleted. Idempotent - migrated documents have no token field.
+ */
+@Component
+@ConditionalOnProperty(name = "vaultcore.storage", havingValue = "mongo", matchIfMissing = true)
+@Order(0) // before MongoIndexInitializer builds the tokenHash index
+public class RefreshTokenMigration implements ApplicationRunner {
+
+    private static final String COLLECTION = "refresh_tokens";
+    private static final Set<String> LEGACY_INDEXES = Set.of("token", "user");
+    private static final int CHUNK_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public RefreshTokenMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        IndexOperations indexOps = mongoTemplate.indexOps(COLLECTION);
+        indexOps.getIndexInfo().stream()
+                .filter(index -> LEGACY_INDEXES.contains(index.getName()))
+                .forEach(index -> indexOps.dropIndex(index.getName()));
+
+        Query legacy = new Query(Criteria.where("token").exists(true));
+        long migrated = 0;
+        List<Document> chunk = new ArrayList<>(CHUNK_SIZE);
+        try (var docs = mongoTemplate.stream(legacy, Document.class, COLLECTION)) {
+            for (Document doc : (Iterable<Document>) docs::iterator) {
+                chunk.add(doc);
+                if (chunk.size() == CHUNK_SIZE) {
+                    migrated += writeChunk(chunk);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            migrated += writeChunk(chunk);
+        }
+        if (migrated > 0) {
+            System.out.println("✅ Migrated " + migrated + " refresh tokens to hashed storage");
+        }
+    }
+
+    private int writeChunk(List<Document> chunk) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, COLLECTION);
+        for (Document doc : chunk) {
+            Query byId = new Query(Criteria.where("_id").is(doc.get("_id")));
+            if (Boolean.TRUE.equals(doc.getBoolean("revoked")) || !(doc.get("user") instanceof DBRef user)) {
+                bulk.remove(byId);
+                continue;
+            }
+            Update update = new Update()
+                    .set("tokenHash", Hashes.sha256(doc.getString("token")))
+                    .set("userId", user.getId().toString())
+                    .set("createdAt", doc.get("_id") instanceof ObjectId id ? id.getDate() : new Date())
+                    .unset("token").unset("user").unset("revoked");
+            bulk.updateOne(byId, update);
+        }
+        bulk.execute();
+        return chunk.size();
+    }
+}
@@ -0,0 +1,51 @@
+package com.vaultcore.vaultcore_backend.config;
+
+import com.mongodb.MongoException;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MongoTransactionManager that retries a commit whose outcome is unknown
+ * A commit labelled UnknownTransactionCommitResult (a primary stepping down, a
+ * dropped connection, a write concern timeout) may or may not have been applied.
+ * commitTransaction is safe to send again - the server answers with the outcome of
+ * the first one - so it is retried up to maxAttempts times with jittered backoff.
+ * Transactions that have to start over (TransientTransactionError) are left to
+ * TransactionRunner, which owns the unit of work.
+ */
+public class RetryingMongoTransactionManager extends MongoTransactionManager {
+
+    private static final long MAX_BACKOFF_MS = 200;
+
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final Counter commitRetries;
+
+    public RetryingMongoTransactionManager(MongoDatabaseFactory databaseFactory, int maxAttempts,
+                                           long backoffMs, Counter commitRetries) {
+        super(databaseFactory);
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.commitRetries = commitRetries;
+    }
+
+    @Override
+    protected void doCommit(MongoTransactionObject transactionObject) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionObject.commitTransaction();
+                return;
+            } catch (MongoException e) {
+                if (attempt >= maxAttempts || !e.hasErrorLabel(MongoException.UNKNOWN_TRANSACTION_COMMIT_RESULT_LABEL)) {
+                    throw e;
+                }
+                commitRetries.increment();
+                long ceiling = Math.min(backoffMs << (attempt - 1), MAX_BACKOFF_MS);
+                Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            }
+        }
+    }
+}
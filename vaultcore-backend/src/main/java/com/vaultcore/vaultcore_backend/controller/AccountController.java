@@ -1,15 +1,28 @@
 package com.vaultcore.vaultcore_backend.controller;
 
 import com.vaultcore.vaultcore_backend.dto.AccountRequest;
+import com.vaultcore.vaultcore_backend.dto.DailyBalance;
+import com.vaultcore.vaultcore_backend.dto.HistoryPage;
 import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.service.AccountService;
+import com.vaultcore.vaultcore_backend.service.BalanceCheckpointService;
+import com.vaultcore.vaultcore_backend.service.LedgerService;
+import com.vaultcore.vaultcore_backend.service.StatementService;
 import com.vaultcore.vaultcore_backend.service.UserService;
+import com.vaultcore.vaultcore_backend.util.Money;
 import jakarta.validation.Valid;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,16 +32,22 @@ public class AccountController {
 
     private final AccountService accountService;
     private final UserService userService;
+    private final LedgerService ledgerService;
+    private final StatementService statementService;
+    private final BalanceCheckpointService checkpointService;
 
-    public AccountController(AccountService accountService, UserService userService) {
+    public AccountController(AccountService accountService, UserService userService, LedgerService ledgerService,
+                             StatementService statementService, BalanceCheckpointService checkpointService) {
         this.accountService = accountService;
         this.userService = userService;
+        this.ledgerService = ledgerService;
+        this.statementService = statementService;
+        this.checkpointService = checkpointService;
     }
 
     @PostMapping
     public ResponseEntity<Account> createAccount(@Valid @RequestBody AccountRequest request, Authentication authentication) {
-        String email = authentication.getName();
-        Optional<User> user = userService.findByEmail(email);
+        Optional<User> user = userService.currentUser(authentication);
         if (user.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -36,7 +55,7 @@ public class AccountController {
         Account account = new Account();
         account.setAccountType(request.getAccountType());
         account.setBalance(request.getInitialBalance());
-        account.setUser(user.get());
+        account.setUserId(user.get().getId());
 
         Account savedAccount = accountService.createAccount(account);
         return ResponseEntity.ok(savedAccount);
@@ -44,8 +63,7 @@ public class AccountController {
 
     @GetMapping
     public ResponseEntity<List<Account>> getAccounts(Authentication authentication) {
-        String email = authentication.getName();
-        Optional<User> user = userService.findByEmail(email);
+        Optional<User> user = userService.currentUser(authentication);
         if (user.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
@@ -53,4 +71,110 @@ public class AccountController {
         List<Account> accounts = accountService.getAccountsByUser(user.get());
         return ResponseEntity.ok(accounts);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/{id}/ledger")
+    public ResponseEntity<?> getLedger(@PathVariable String id,
+                                       @RequestParam(required = false) String cursor,
+                                       @RequestParam(required = false) Integer limit,
+                                       Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Optional<Account> account = accountService.getAccountById(id);
+        if (account.isEmpty() || !user.get().getId().equals(account.get().getUserId())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            HistoryPage<Ledger> page = ledgerService.getLedgerEntriesByAccount(id, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream the account's ledger for a date range (inclusive, both optional) as NDJSON or CSV
+     */
+    @GetMapping("/{id}/statement")
+    public ResponseEntity<?> getStatement(@PathVariable String id,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(required = false) String format,
+                                          Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Optional<Account> account = accountService.getAccountById(id);
+        if (account.isEmpty() || !user.get().getId().equals(account.get().getUserId())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        StatementService.Format statementFormat;
+        try {
+            statementFormat = StatementService.Format.parse(format);
+            statementService.validateRange(from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
+        }
+
+        // Written on an async thread after this method returns - errors past this point end the stream
+        StreamingResponseBody body = out -> statementService.writeStatement(id, from, to, statementFormat, out);
+        String filename = "statement-" + id + "." + statementFormat.getExtension();
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(statementFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
+    /**
+     * Balance as of a past moment - nearest checkpoint plus the ledger entries after it
+     */
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<?> getBalanceAt(@PathVariable String id,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at,
+                                          Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Optional<Account> account = accountService.getAccountById(id);
+        if (account.isEmpty() || !user.get().getId().equals(account.get().getUserId())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Money balance = checkpointService.balanceAt(id, at);
+        return ResponseEntity.ok(java.util.Map.of("accountId", id, "at", at, "balance", balance));
+    }
+
+    /**
+     * Closing balance of each day in a range (inclusive, at most a year)
+     */
+    @GetMapping("/{id}/closing-balances")
+    public ResponseEntity<?> getClosingBalances(@PathVariable String id,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Optional<Account> account = accountService.getAccountById(id);
+        if (account.isEmpty() || !user.get().getId().equals(account.get().getUserId())) {
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            List<DailyBalance> closings = checkpointService.closingBalances(id, from, to);
+            return ResponseEntity.ok(closings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
+        }
+    }
+}
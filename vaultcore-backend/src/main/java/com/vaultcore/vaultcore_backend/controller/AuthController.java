@@ -4,7 +4,6 @@ import com.vaultcore.vaultcore_backend.dto.AuthRequest;
 import com.vaultcore.vaultcore_backend.dto.AuthResponse;
 import com.vaultcore.vaultcore_backend.dto.RefreshTokenRequest;
 import com.vaultcore.vaultcore_backend.dto.SignupRequest;
-import com.vaultcore.vaultcore_backend.entity.RefreshToken;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.service.RefreshTokenService;
 import com.vaultcore.vaultcore_backend.service.UserService;
@@ -46,36 +45,32 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody AuthRequest request) {
-        if (userService.authenticate(request.getEmail(), request.getPassword())) {
-            Optional<User> userOpt = userService.findByEmail(request.getEmail());
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                String accessToken = jwtUtil.generateToken(request.getEmail());
-                RefreshToken refreshToken = refreshTokenService.createRefreshToken(user);
-                return ResponseEntity.ok(new AuthResponse(accessToken, refreshToken.getToken()));
-            }
+        Optional<User> userOpt = userService.authenticate(request.getEmail(), request.getPassword());
+        if (userOpt.isPresent()) {
+            User user = userOpt.get();
+            String accessToken = jwtUtil.generateToken(user);
+            String refreshToken = refreshTokenService.createRefreshToken(user);
+            return ResponseEntity.ok(new AuthResponse(accessToken, refreshToken));
         }
         return ResponseEntity.badRequest().body(java.util.Map.of("message", "Invalid credentials"));
     }
 
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
-        Optional<RefreshToken> refreshTokenOpt = refreshTokenService.findByToken(request.getRefreshToken());
-        
-        if (refreshTokenOpt.isEmpty()) {
+        Optional<User> user = refreshTokenService.findValid(request.getRefreshToken())
+                .flatMap(refreshToken -> userService.findById(refreshToken.getUserId()));
+
+        if (user.isEmpty()) {
             return ResponseEntity.badRequest().body(java.util.Map.of("message", "Invalid refresh token"));
         }
 
-        RefreshToken refreshToken = refreshTokenService.verifyExpiration(refreshTokenOpt.get());
-        User user = refreshToken.getUser();
-        String newAccessToken = jwtUtil.generateToken(user.getEmail());
-        
-        return ResponseEntity.ok(new AuthResponse(newAccessToken, refreshToken.getToken()));
+        String newAccessToken = jwtUtil.generateToken(user.get());
+        return ResponseEntity.ok(new AuthResponse(newAccessToken, request.getRefreshToken()));
     }
 
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@Valid @RequestBody RefreshTokenRequest request) {
-        refreshTokenService.deleteByToken(request.getRefreshToken());
+        refreshTokenService.revoke(request.getRefreshToken());
         return ResponseEntity.ok(java.util.Map.of("message", "Logged out successfully"));
     }
 }
\ No newline at end of file
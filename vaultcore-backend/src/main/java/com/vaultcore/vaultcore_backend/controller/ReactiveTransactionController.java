@@ -0,0 +1,90 @@
+package com.vaultcore.vaultcore_backend.controller;
+
+import com.vaultcore.vaultcore_backend.dto.TransactionRequest;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.service.ReactiveTransactionService;
+import com.vaultcore.vaultcore_backend.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking twin of TransactionController plus the account ledger
+ * History is streamed: ask for application/x-ndjson to get one JSON document per
+ * line as rows arrive, or application/json for a single array. Without a limit
+ * the whole history is streamed; the cursor works as in the paged endpoints.
+ * The history bodies must stay typed as Flux<T>: the JSON array form is collected
+ * into a list, which needs the element type.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveTransactionController {
+
+    private final ReactiveTransactionService transactionService;
+    private final UserService userService;
+
+    public ReactiveTransactionController(ReactiveTransactionService transactionService, UserService userService) {
+        this.transactionService = transactionService;
+        this.userService = userService;
+    }
+
+    @PostMapping("/transactions")
+    public Mono<ResponseEntity<?>> performTransaction(@Valid @RequestBody TransactionRequest request,
+                                                      Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+
+        return transactionService.performTransaction(request.getAccountId(), request.getType(),
+                        request.getAmount(), user.get())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(ResponseEntity.badRequest().body(Map.of("message", e.getMessage()))));
+    }
+
+    @GetMapping(value = "/transactions", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Flux<Transaction>> getTransactions(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return ResponseEntity.ok(transactionService.getTransactionsByUser(user.get(), cursor, limit));
+    }
+
+    @GetMapping(value = "/accounts/{id}/ledger", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<Flux<Ledger>>> getLedger(@PathVariable String id,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer limit,
+                                                        Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+
+        return transactionService.findOwnedAccount(id, user.get())
+                .map(account -> ResponseEntity.ok(
+                        transactionService.getLedgerEntriesByAccount(account.getId(), cursor, limit)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Bad cursor or limit on the history endpoints
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleBadRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+    }
+}
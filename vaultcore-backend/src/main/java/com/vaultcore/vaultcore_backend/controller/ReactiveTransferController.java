@@ -0,0 +1,46 @@
+package com.vaultcore.vaultcore_backend.controller;
+
+import com.vaultcore.vaultcore_backend.dto.TransferRequest;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.service.ReactiveTransferService;
+import com.vaultcore.vaultcore_backend.service.UserService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking twin of TransferController - the request thread is released as soon
+ * as the pipeline is assembled and the response is written when MongoDB answers
+ */
+@RestController
+@RequestMapping("/api/reactive/transfers")
+public class ReactiveTransferController {
+
+    private final ReactiveTransferService transferService;
+    private final UserService userService;
+
+    public ReactiveTransferController(ReactiveTransferService transferService, UserService userService) {
+        this.transferService = transferService;
+        this.userService = userService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<?>> transfer(@Valid @RequestBody TransferRequest request, Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return Mono.just(ResponseEntity.notFound().build());
+        }
+
+        return transferService.transfer(request.getFromAccountId(), request.getToAccountId(),
+                        request.getAmount(), user.get())
+                .then(Mono.<ResponseEntity<?>>fromSupplier(() ->
+                        ResponseEntity.ok(Map.of("message", "Transfer completed successfully"))))
+                .onErrorResume(IllegalArgumentException.class, e ->
+                        Mono.just(ResponseEntity.badRequest().body(Map.of("message", e.getMessage()))));
+    }
+}
@@ -1,10 +1,12 @@
 package com.vaultcore.vaultcore_backend.controller;
 
+import com.vaultcore.vaultcore_backend.dto.HistoryPage;
 import com.vaultcore.vaultcore_backend.dto.TransactionRequest;
 import com.vaultcore.vaultcore_backend.entity.Account;
 import com.vaultcore.vaultcore_backend.entity.Transaction;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.service.AccountService;
+import com.vaultcore.vaultcore_backend.service.IdempotencyService;
 import com.vaultcore.vaultcore_backend.service.TransactionService;
 import com.vaultcore.vaultcore_backend.service.UserService;
 import jakarta.validation.Valid;
@@ -12,7 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -22,23 +23,35 @@ public class TransactionController {
     private final TransactionService transactionService;
     private final AccountService accountService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
-    public TransactionController(TransactionService transactionService, AccountService accountService, UserService userService) {
+    public TransactionController(TransactionService transactionService, AccountService accountService, UserService userService,
+                                 IdempotencyService idempotencyService) {
         this.transactionService = transactionService;
         this.accountService = accountService;
         this.userService = userService;
+        this.idempotencyService = idempotencyService;
     }
 
+    /**
+     * With an Idempotency-Key header a retried request replays the first response instead of posting again
+     */
     @PostMapping
-    public ResponseEntity<?> performTransaction(@Valid @RequestBody TransactionRequest request, Authentication authentication) {
-        String email = authentication.getName();
-        Optional<User> user = userService.findByEmail(email);
+    public ResponseEntity<?> performTransaction(@Valid @RequestBody TransactionRequest request,
+                                                @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                                Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
         if (user.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
+        return idempotencyService.execute(idempotencyKey, "transactions", user.get(), request,
+                () -> applyTransaction(request, user.get()));
+    }
+
+    private ResponseEntity<?> applyTransaction(TransactionRequest request, User user) {
         Optional<Account> account = accountService.getAccountById(request.getAccountId());
-        if (account.isEmpty() || !account.get().getUser().getId().equals(user.get().getId())) {
+        if (account.isEmpty() || !user.getId().equals(account.get().getUserId())) {
             return ResponseEntity.badRequest().body("Invalid account");
         }
 
@@ -46,8 +59,9 @@ public class TransactionController {
             Transaction transaction = new Transaction();
             transaction.setAmount(request.getAmount());
             transaction.setType(request.getType());
-            transaction.setAccount(account.get());
-            transaction.setUser(user.get());
+            transaction.setAccountId(account.get().getId());
+            transaction.setAccountType(account.get().getAccountType());
+            transaction.setUserId(user.getId());
 
             Transaction savedTransaction = transactionService.performTransaction(transaction);
             return ResponseEntity.ok(savedTransaction);
@@ -57,14 +71,19 @@ public class TransactionController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Transaction>> getTransactions(Authentication authentication) {
-        String email = authentication.getName();
-        Optional<User> user = userService.findByEmail(email);
+    public ResponseEntity<?> getTransactions(@RequestParam(required = false) String cursor,
+                                             @RequestParam(required = false) Integer limit,
+                                             Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
         if (user.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
-        List<Transaction> transactions = transactionService.getTransactionsByUser(user.get());
-        return ResponseEntity.ok(transactions);
+        try {
+            HistoryPage<Transaction> page = transactionService.getTransactionsByUser(user.get(), cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
+        }
     }
 }
\ No newline at end of file
@@ -1,7 +1,12 @@
 package com.vaultcore.vaultcore_backend.controller;
 
+import com.vaultcore.vaultcore_backend.dto.BatchTransferResult;
+import com.vaultcore.vaultcore_backend.dto.MultiLegTransferRequest;
 import com.vaultcore.vaultcore_backend.dto.TransferRequest;
 import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.service.BatchTransferService;
+import com.vaultcore.vaultcore_backend.service.IdempotencyService;
+import com.vaultcore.vaultcore_backend.service.MultiLegTransferService;
 import com.vaultcore.vaultcore_backend.service.TransferService;
 import com.vaultcore.vaultcore_backend.service.UserService;
 import jakarta.validation.Valid;
@@ -9,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -16,28 +22,88 @@ import java.util.Optional;
 public class TransferController {
 
     private final TransferService transferService;
+    private final BatchTransferService batchTransferService;
+    private final MultiLegTransferService multiLegTransferService;
     private final UserService userService;
+    private final IdempotencyService idempotencyService;
 
-    public TransferController(TransferService transferService, UserService userService) {
+    public TransferController(TransferService transferService, BatchTransferService batchTransferService,
+                              MultiLegTransferService multiLegTransferService,
+                              UserService userService, IdempotencyService idempotencyService) {
         this.transferService = transferService;
+        this.batchTransferService = batchTransferService;
+        this.multiLegTransferService = multiLegTransferService;
         this.userService = userService;
+        this.idempotencyService = idempotencyService;
     }
 
+    /**
+     * With an Idempotency-Key header a retried request replays the first response instead of transferring again
+     */
     @PostMapping
-    public ResponseEntity<?> transfer(@Valid @RequestBody TransferRequest request, Authentication authentication) {
-        String email = authentication.getName();
-        Optional<User> user = userService.findByEmail(email);
+    public ResponseEntity<?> transfer(@Valid @RequestBody TransferRequest request,
+                                      @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                      Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
         if (user.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
 
+        return idempotencyService.execute(idempotencyKey, "transfers", user.get(), request, () -> {
+            try {
+                transferService.transfer(request.getFromAccountId(), request.getToAccountId(),
+                                       request.getAmount(), user.get());
+                return ResponseEntity.ok(java.util.Map.of("message", "Transfer completed successfully"));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
+            }
+        });
+    }
+
+    /**
+     * Apply many transfers in one call - each item succeeds or fails on its own
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> transferBatch(@RequestBody List<TransferRequest> requests, Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.badRequest().body(java.util.Map.of("message", "Batch must contain at least one transfer"));
+        }
+
         try {
-            transferService.transfer(request.getFromAccountId(), request.getToAccountId(), 
-                                   request.getAmount(), user.get());
-            return ResponseEntity.ok(java.util.Map.of("message", "Transfer completed successfully"));
+            List<BatchTransferResult> results = batchTransferService.transferBatch(requests, user.get());
+            long succeeded = results.stream().filter(BatchTransferResult::isSuccess).count();
+            return ResponseEntity.ok(java.util.Map.of(
+                    "succeeded", succeeded,
+                    "failed", results.size() - succeeded,
+                    "results", results));
         } catch (IllegalArgumentException | IllegalStateException e) {
             return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
         }
     }
-}
 
+    /**
+     * Debit several accounts and credit several others as one transfer - all legs or none
+     */
+    @PostMapping("/multi-leg")
+    public ResponseEntity<?> transferMultiLeg(@Valid @RequestBody MultiLegTransferRequest request,
+                                              @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                              Authentication authentication) {
+        Optional<User> user = userService.currentUser(authentication);
+        if (user.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        return idempotencyService.execute(idempotencyKey, "transfers/multi-leg", user.get(), request, () -> {
+            try {
+                multiLegTransferService.transfer(request.getDebits(), request.getCredits(), user.get());
+                return ResponseEntity.ok(java.util.Map.of("message", "Transfer completed successfully"));
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                return ResponseEntity.badRequest().body(java.util.Map.of("message", e.getMessage()));
+            }
+        });
+    }
+}
@@ -20,8 +20,7 @@ public class UserController {
 
     @GetMapping("/me")
     public ResponseEntity<User> getCurrentUser(Authentication authentication) {
-        String email = authentication.getName();
-        Optional<User> user = userService.findByEmail(email);
+        Optional<User> user = userService.currentUser(authentication);
         return user.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
     }
 
@@ -1,11 +1,10 @@
 package com.vaultcore.vaultcore_backend.dto;
 
+import com.vaultcore.vaultcore_backend.util.Money;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import java.math.BigDecimal;
-
 public class AccountRequest {
 
     @NotBlank(message = "Account type is required")
@@ -13,7 +12,7 @@ public class AccountRequest {
 
     @NotNull(message = "Initial balance is required")
     @DecimalMin(value = "0.0", message = "Initial balance must be non-negative")
-    private BigDecimal initialBalance;
+    private Money initialBalance;
 
     // Getters and setters
     public String getAccountType() {
@@ -24,11 +23,11 @@ public class AccountRequest {
         this.accountType = accountType;
     }
 
-    public BigDecimal getInitialBalance() {
+    public Money getInitialBalance() {
         return initialBalance;
     }
 
-    public void setInitialBalance(BigDecimal initialBalance) {
+    public void setInitialBalance(Money initialBalance) {
         this.initialBalance = initialBalance;
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.vaultcore.vaultcore_backend.dto;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+
+public class BatchTransferResult {
+
+    private final int index;
+    private final String fromAccountId;
+    private final String toAccountId;
+    private final Money amount;
+    private final boolean success;
+    private final String message;
+
+    public BatchTransferResult(int index, String fromAccountId, String toAccountId, Money amount,
+                               boolean success, String message) {
+        this.index = index;
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.success = success;
+        this.message = message;
+    }
+
+    // Getters
+    public int getIndex() { return index; }
+    public String getFromAccountId() { return fromAccountId; }
+    public String getToAccountId() { return toAccountId; }
+    public Money getAmount() { return amount; }
+    public boolean isSuccess() { return success; }
+    public String getMessage() { return message; }
+}
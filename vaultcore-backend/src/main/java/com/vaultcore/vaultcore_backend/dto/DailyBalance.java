@@ -0,0 +1,20 @@
+package com.vaultcore.vaultcore_backend.dto;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+
+import java.time.LocalDate;
+
+public class DailyBalance {
+
+    private final LocalDate date;
+    private final Money closingBalance;
+
+    public DailyBalance(LocalDate date, Money closingBalance) {
+        this.date = date;
+        this.closingBalance = closingBalance;
+    }
+
+    // Getters
+    public LocalDate getDate() { return date; }
+    public Money getClosingBalance() { return closingBalance; }
+}
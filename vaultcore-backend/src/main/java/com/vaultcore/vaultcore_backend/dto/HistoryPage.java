@@ -0,0 +1,21 @@
+package com.vaultcore.vaultcore_backend.dto;
+
+import java.util.List;
+
+/**
+ * One page of a newest-first history. nextCursor is null on the last page.
+ */
+public class HistoryPage<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public HistoryPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,34 @@
+package com.vaultcore.vaultcore_backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Debits from the caller's accounts and credits to any accounts - the two sides must add up
+ */
+public class MultiLegTransferRequest {
+
+    @NotEmpty(message = "At least one debit is required")
+    private List<@Valid TransferLeg> debits;
+
+    @NotEmpty(message = "At least one credit is required")
+    private List<@Valid TransferLeg> credits;
+
+    public List<TransferLeg> getDebits() {
+        return debits;
+    }
+
+    public void setDebits(List<TransferLeg> debits) {
+        this.debits = debits;
+    }
+
+    public List<TransferLeg> getCredits() {
+        return credits;
+    }
+
+    public void setCredits(List<TransferLeg> credits) {
+        this.credits = credits;
+    }
+}
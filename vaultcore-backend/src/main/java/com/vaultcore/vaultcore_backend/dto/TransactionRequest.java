@@ -1,11 +1,10 @@
 package com.vaultcore.vaultcore_backend.dto;
 
+import com.vaultcore.vaultcore_backend.util.Money;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import java.math.BigDecimal;
-
 public class TransactionRequest {
 
     @NotBlank(message = "Account ID is required")
@@ -13,7 +12,7 @@ public class TransactionRequest {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
-    private BigDecimal amount;
+    private Money amount;
 
     @NotBlank(message = "Type is required")
     private String type; // DEBIT or CREDIT
@@ -27,11 +26,11 @@ public class TransactionRequest {
         this.accountId = accountId;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
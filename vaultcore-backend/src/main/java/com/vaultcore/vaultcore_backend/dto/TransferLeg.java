@@ -0,0 +1,43 @@
+package com.vaultcore.vaultcore_backend.dto;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One debit or credit of a multi-leg transfer
+ */
+public class TransferLeg {
+
+    @NotBlank(message = "Account ID is required")
+    private String accountId;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
+    private Money amount;
+
+    public TransferLeg() {
+    }
+
+    public TransferLeg(String accountId, Money amount) {
+        this.accountId = accountId;
+        this.amount = amount;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public Money getAmount() {
+        return amount;
+    }
+
+    public void setAmount(Money amount) {
+        this.amount = amount;
+    }
+}
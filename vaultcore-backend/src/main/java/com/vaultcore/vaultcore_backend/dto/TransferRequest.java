@@ -1,11 +1,10 @@
 package com.vaultcore.vaultcore_backend.dto;
 
+import com.vaultcore.vaultcore_backend.util.Money;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
-import java.math.BigDecimal;
-
 public class TransferRequest {
 
     @NotBlank(message = "From account ID is required")
@@ -16,7 +15,7 @@ public class TransferRequest {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
-    private BigDecimal amount;
+    private Money amount;
 
     public String getFromAccountId() {
         return fromAccountId;
@@ -34,11 +33,11 @@ public class TransferRequest {
         this.toAccountId = toAccountId;
     }
 
-    public BigDecimal getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(BigDecimal amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 }
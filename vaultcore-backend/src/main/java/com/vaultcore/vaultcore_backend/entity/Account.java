@@ -1,14 +1,17 @@
 package com.vaultcore.vaultcore_backend.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.vaultcore.vaultcore_backend.util.Money;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
+
+import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "accounts")
@@ -22,9 +25,15 @@ public class Account {
 
     @NotNull(message = "Balance is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Balance must be positive")
-    private BigDecimal balance;
+    private Money balance; // Decimal128 in BSON (MoneyConverters) so balance updates can use $inc
+
+    @NotBlank(message = "User is required")
+    @Indexed // findByUserId
+    private String userId;
+
+    @JsonIgnore
+    private Long balanceVersion; // incremented by every balance update - orders AccountCache writes
 
-    @DBRef
-    @NotNull(message = "User is required")
-    private User user;
+    @JsonIgnore
+    private LocalDateTime balanceAsOf; // set by the sequencer engine: the balance covers every change applied before it
 }
\ No newline at end of file
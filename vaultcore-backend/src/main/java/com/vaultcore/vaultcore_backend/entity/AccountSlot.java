@@ -0,0 +1,42 @@
+package com.vaultcore.vaultcore_backend.entity;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * One sub-balance of a hot account (see HotAccountService)
+ * The account's balance is its own balance plus the balance of each of its slots.
+ * Slots are created by the first credit that lands on them and are never deleted;
+ * pendingSweep is set while the consolidator moves the slot's funds to the account,
+ * and sweeps numbers those moves so the account can apply each one once.
+ */
+@Data
+@Document(collection = "account_slots")
+@CompoundIndex(name = "accountId_balance", def = "{'accountId': 1, 'balance': -1}") // a slot that can cover a debit
+public class AccountSlot {
+
+    @Id
+    private String id; // accountId:slot
+
+    private String accountId;
+
+    private int slot;
+
+    private Money balance;
+
+    private long sweeps; // sweeps started on this slot - the pending one is number 'sweeps'
+
+    private PendingSweep pendingSweep;
+
+    public static String idOf(String accountId, int slot) {
+        return accountId + ":" + slot;
+    }
+
+    /**
+     * Funds already taken from the slot and not yet confirmed on the account
+     */
+    public record PendingSweep(Money amount) {}
+}
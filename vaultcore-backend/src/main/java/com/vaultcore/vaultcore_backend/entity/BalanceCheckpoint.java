@@ -0,0 +1,40 @@
+package com.vaultcore.vaultcore_backend.entity;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Balance Checkpoint - an account's balance as of a moment
+ * The balance covers every ledger entry with a timestamp before 'timestamp',
+ * so a past balance is this value plus the (short) run of entries after it.
+ * Written by BalanceCheckpointService and never modified.
+ */
+@Getter
+@NoArgsConstructor
+@Document(collection = "balance_checkpoints")
+@CompoundIndex(name = "accountId_timestamp", def = "{'accountId': 1, 'timestamp': -1}") // nearest checkpoint to T
+public class BalanceCheckpoint {
+
+    @Id
+    private String id;
+
+    private String accountId;
+
+    @Indexed // latest checkpoint overall - where the next run starts
+    private LocalDateTime timestamp;
+
+    private Money balance;
+
+    public BalanceCheckpoint(String accountId, LocalDateTime timestamp, Money balance) {
+        this.accountId = accountId;
+        this.timestamp = timestamp;
+        this.balance = balance;
+    }
+}
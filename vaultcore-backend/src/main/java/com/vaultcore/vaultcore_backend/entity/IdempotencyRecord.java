@@ -0,0 +1,39 @@
+package com.vaultcore.vaultcore_backend.entity;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * The outcome of the first request sent with an Idempotency-Key
+ * The id is a hash of user, endpoint and key, so a claim is a plain insert on _id
+ * and one user's keys can never replay another user's response. A record without
+ * a status is still being processed by some instance.
+ */
+@Data
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord {
+
+    @Id
+    private String id;
+
+    private String requestHash; // SHA-256 of the request body - the key may not be reused for another request
+
+    private Integer status; // null while pending
+
+    private String contentType;
+
+    private String body;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Indexed(expireAfter = "0s") // MongoDB deletes the record once expiresAt has passed
+    private LocalDateTime expiresAt;
+
+    public boolean isPending() {
+        return status == null;
+    }
+}
@@ -1,16 +1,19 @@
 package com.vaultcore.vaultcore_backend.entity;
 
+import com.vaultcore.vaultcore_backend.util.Money;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Version;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 /**
@@ -22,6 +25,11 @@ import java.time.LocalDateTime;
 @Getter
 @NoArgsConstructor
 @Document(collection = "ledger")
+@CompoundIndexes({
+        // Paged history per account / per user; also serves ascending timestamp reads of an account
+        @CompoundIndex(name = "accountId_timestamp_id", def = "{'accountId': 1, 'timestamp': -1, '_id': -1}"),
+        @CompoundIndex(name = "userId_timestamp_id", def = "{'userId': 1, 'timestamp': -1, '_id': -1}")
+})
 public class Ledger {
 
     @Id
@@ -29,49 +37,50 @@ public class Ledger {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
-    private BigDecimal amount;
+    private Money amount;
 
     @NotBlank(message = "Transaction type is required")
     private String transactionType; // "DEBIT" or "CREDIT"
 
     @NotNull(message = "Balance after transaction is required")
     @DecimalMin(value = "0.0", message = "Balance must be non-negative")
-    private BigDecimal balanceAfter; // Balance after this transaction
+    private Money balanceAfter; // Balance after this transaction
 
     @NotNull(message = "Timestamp is required")
+    @Indexed // time windows across all accounts - balance checkpoints
     private LocalDateTime timestamp;
 
-    @DBRef
-    @NotNull(message = "Account is required")
-    private Account account;
+    @NotBlank(message = "Account is required")
+    private String accountId;
 
-    @DBRef
-    @NotNull(message = "User is required")
-    private User user;
+    @NotBlank(message = "User is required")
+    private String userId;
 
     @Version
     private Long version; // Optimistic locking to prevent concurrent modifications
 
     // Constructor for creating new ledger entries - enforces immutability
-    public Ledger(BigDecimal amount, String transactionType, BigDecimal balanceAfter, 
-                  Account account, User user) {
+    public Ledger(Money amount, String transactionType, Money balanceAfter, 
+                  String accountId, String userId) {
         // Validate constraints
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (amount == null || !amount.isPositive()) {
             throw new IllegalArgumentException("Amount must be positive. Constraint violation.");
         }
-        if (balanceAfter == null || balanceAfter.compareTo(BigDecimal.ZERO) < 0) {
+        if (balanceAfter == null || balanceAfter.isNegative()) {
             throw new IllegalArgumentException("Balance cannot be negative. Constraint violation.");
         }
         if (transactionType == null || (!"DEBIT".equals(transactionType) && !"CREDIT".equals(transactionType))) {
             throw new IllegalArgumentException("Transaction type must be DEBIT or CREDIT. Constraint violation.");
         }
         
+        // Id is assigned up front so batched inserts know it without reading it back
+        this.id = new ObjectId().toHexString();
         this.amount = amount;
         this.transactionType = transactionType;
         this.balanceAfter = balanceAfter;
         this.timestamp = LocalDateTime.now();
-        this.account = account;
-        this.user = user;
+        this.accountId = accountId;
+        this.userId = userId;
     }
 
     // No setters provided - immutability enforced at application level
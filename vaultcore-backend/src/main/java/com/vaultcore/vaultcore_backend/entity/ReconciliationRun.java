@@ -0,0 +1,60 @@
+package com.vaultcore.vaultcore_backend.entity;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One reconciliation of the ledger against account balances (see ReconciliationService)
+ * The run covers ledger entries with fromLedgerId <= _id < upToLedgerId; the next
+ * incremental run starts at upToLedgerId. A run is saved only once every account
+ * state it wrote is in place, so the latest run is also the last one that completed.
+ * breaks holds the first max-reported-breaks breaks, breakCount all of them.
+ */
+@Data
+@Document(collection = "reconciliation_runs")
+public class ReconciliationRun {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true) // latest run - where the next one starts
+    private long number;
+
+    private boolean full;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String fromLedgerId; // null when the run started at the beginning of the ledger
+
+    private String upToLedgerId;
+
+    private int partitions;
+
+    private long entries;
+
+    private long accountsChecked;
+
+    private long breakCount;
+
+    private List<Break> breaks = new ArrayList<>();
+
+    public enum BreakType {
+        BALANCE_MISMATCH, // the account balance is not the opening balance plus its entries
+        BROKEN_CHAIN, // some entry's balanceAfter does not follow from the balance before it
+        MISSING_ACCOUNT // entries for an account that does not exist
+    }
+
+    /**
+     * ledgerBalance is what the entries add up to, accountBalance what the account holds (null if missing)
+     */
+    public record Break(String accountId, BreakType type, Money ledgerBalance, Money accountBalance) {}
+}
@@ -0,0 +1,35 @@
+package com.vaultcore.vaultcore_backend.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * An account's ledger sums as of a reconciliation run - the base the next incremental run adds to
+ * current is written by the latest run that saw the account; previous is what it replaced,
+ * so the writes of a run that failed before it was recorded can be undone and the
+ * run's entries are never counted twice. All amounts are in minor units (see AccountSums).
+ */
+@Getter
+@NoArgsConstructor
+@Document(collection = "reconciliation_state")
+@CompoundIndex(name = "current_run", def = "{'current.run': 1}") // states left by a failed run
+public class ReconciliationState {
+
+    @Id
+    private String accountId;
+
+    private Totals current;
+
+    private Totals previous;
+
+    public ReconciliationState(String accountId, Totals current, Totals previous) {
+        this.accountId = accountId;
+        this.current = current;
+        this.previous = previous;
+    }
+
+    public record Totals(long run, String firstLedgerId, long opening, long net, long chain, long entries) {}
+}
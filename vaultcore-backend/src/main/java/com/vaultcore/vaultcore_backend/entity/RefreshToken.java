@@ -2,27 +2,27 @@ package com.vaultcore.vaultcore_backend.entity;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
-import org.springframework.data.mongodb.core.mapping.DBRef;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "refresh_tokens")
+@CompoundIndex(name = "userId_createdAt", def = "{'userId': 1, 'createdAt': -1}") // revoke all / per-user cap
 public class RefreshToken {
 
     @Id
     private String id;
 
     @Indexed(unique = true)
-    private String token;
+    private String tokenHash; // SHA-256 of the token handed to the client - the token itself is never stored
 
-    @DBRef
-    private User user;
+    private String userId;
 
-    private LocalDateTime expiryDate;
+    private LocalDateTime createdAt = LocalDateTime.now();
 
-    private boolean revoked = false;
+    @Indexed(expireAfter = "0s") // MongoDB deletes the document once expiryDate has passed
+    private LocalDateTime expiryDate;
 }
-
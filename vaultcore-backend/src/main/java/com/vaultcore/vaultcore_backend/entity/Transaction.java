@@ -1,18 +1,19 @@
 package com.vaultcore.vaultcore_backend.entity;
 
+import com.vaultcore.vaultcore_backend.util.Money;
 import lombok.Data;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "transactions")
+@CompoundIndex(name = "userId_timestamp_id", def = "{'userId': 1, 'timestamp': -1, '_id': -1}") // paged history
 public class Transaction {
 
     @Id
@@ -20,18 +21,18 @@ public class Transaction {
 
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.0", inclusive = false, message = "Amount must be positive")
-    private BigDecimal amount;
+    private Money amount;
 
     @NotBlank(message = "Type is required")
     private String type; // "DEBIT" or "CREDIT"
 
     private LocalDateTime timestamp = LocalDateTime.now();
 
-    @DBRef
-    @NotNull(message = "Account is required")
-    private Account account;
+    @NotBlank(message = "Account is required")
+    private String accountId;
 
-    @DBRef
-    @NotNull(message = "User is required")
-    private User user;
+    private String accountType; // Denormalized from the account so history needs no extra lookup
+
+    @NotBlank(message = "User is required")
+    private String userId;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.vaultcore.vaultcore_backend.exception;
+
+/**
+ * A bounded resource is saturated - answered with 503 so clients back off and retry
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
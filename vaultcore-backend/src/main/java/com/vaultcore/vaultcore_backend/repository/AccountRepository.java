@@ -1,13 +1,12 @@
 package com.vaultcore.vaultcore_backend.repository;
 
 import com.vaultcore.vaultcore_backend.entity.Account;
-import com.vaultcore.vaultcore_backend.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface AccountRepository extends MongoRepository<Account, String> {
-    List<Account> findByUser(User user);
+public interface AccountRepository extends MongoRepository<Account, String>, AccountRepositoryCustom {
+    List<Account> findByUserId(String userId);
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Custom AccountRepository fragment - guarded atomic balance updates
+ * Each method is a single server-side findAndModify, so there is no
+ * read-modify-write window between concurrent callers. Every balance write
+ * also increments balanceVersion.
+ */
+public interface AccountRepositoryCustom {
+
+    /**
+     * Atomically subtract amount from the balance, but only if the account
+     * belongs to ownerId and the balance is at least amount.
+     * Returns the balance and balanceVersion after the debit, or empty if any guard failed.
+     */
+    Optional<BalanceUpdate> debitIfSufficient(String accountId, String ownerId, Money amount);
+
+    /**
+     * Atomically add amount to the balance.
+     * When ownerId is null the ownership guard is skipped (e.g. transfer destination).
+     * Returns the balance and balanceVersion after the credit, or empty if the account was not matched.
+     */
+    Optional<BalanceUpdate> credit(String accountId, String ownerId, Money amount);
+
+    /**
+     * Overwrite balances with values owned by the caller (one unordered bulk write), recording
+     * asOf as the moment they are current as of (Account#balanceAsOf).
+     * Only for components that are the single writer of these accounts, e.g. the sequencer engine.
+     */
+    void setBalances(Map<String, Money> balances, LocalDateTime asOf);
+
+    /**
+     * Balance, owner and recent batch tokens for many accounts in one $in query.
+     * Missing accounts are simply absent.
+     */
+    Map<String, BalanceSnapshot> findBalanceSnapshots(Collection<String> accountIds);
+
+    /**
+     * One unordered bulk write of compare-and-set balance updates. An update only
+     * applies if the balance still equals the expected value; applied updates also
+     * record the token so callers can tell which ones won (see BalanceSnapshot#recentBatchOps).
+     * Returns the number of updates applied.
+     */
+    long compareAndSetBalances(List<BalanceChange> changes, String token);
+
+    /**
+     * Atomically add funds swept from a hot-account slot, once per sweep: the account
+     * keeps the number of the last sweep applied from each slot and only takes a
+     * higher one, so finishing a sweep again - even after later sweeps - credits
+     * nothing. Returns false when nothing was applied.
+     */
+    boolean creditSweep(String accountId, int slot, long sweep, Money amount);
+
+    /**
+     * Take the account's lease for token, valid for ttl - only if no other unexpired
+     * lease is held on it. Returns false when the account is leased or does not exist.
+     */
+    boolean acquireLease(String accountId, String token, Duration ttl);
+
+    /**
+     * Drop every lease token still holds on these accounts (one updateMany).
+     * A lease taken over by someone else after it expired is left alone.
+     */
+    void releaseLeases(Collection<String> accountIds, String token);
+
+    record BalanceSnapshot(String accountId, String ownerId, Money balance, List<String> recentBatchOps) {}
+
+    record BalanceChange(String accountId, Money expected, Money updated) {}
+
+    /**
+     * A balance as written by one update, with the balanceVersion that update produced
+     */
+    record BalanceUpdate(Money balance, long version) {}
+}
@@ -0,0 +1,160 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.config.MoneyConverters;
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Guarded balance updates implemented with findAndModify.
+ * The guard (owner, balance >= amount) and the $inc are evaluated by MongoDB
+ * in one document-level atomic operation, which is what makes concurrent
+ * withdrawals safe without any application-level locking.
+ */
+class AccountRepositoryCustomImpl implements AccountRepositoryCustom {
+
+    // Bounded list of batch tokens applied to an account, used to tell which bulk updates won
+    private static final String RECENT_BATCH_OPS = "recentBatchOps";
+    private static final int RECENT_BATCH_OPS_KEPT = 32;
+    private static final String BALANCE_VERSION = "balanceVersion";
+    // Number of the last sweep applied from each hot-account slot, keyed by slot
+    private static final String SLOT_SWEEPS = "slotSweeps";
+    // {token, expiresAt} of the multi-leg transfer holding the account, if any
+    private static final String LEASE = "lease";
+
+    private final MongoTemplate mongoTemplate;
+
+    AccountRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<BalanceUpdate> debitIfSufficient(String accountId, String ownerId, Money amount) {
+        Criteria criteria = ownedBy(Criteria.where("_id").is(accountId), ownerId)
+                .and("balance").gte(MoneyConverters.toDecimal128(amount));
+        return incrementBalance(criteria, amount.negate());
+    }
+
+    @Override
+    public Optional<BalanceUpdate> credit(String accountId, String ownerId, Money amount) {
+        Criteria criteria = ownedBy(Criteria.where("_id").is(accountId), ownerId);
+        return incrementBalance(criteria, amount);
+    }
+
+    @Override
+    public void setBalances(Map<String, Money> balances, LocalDateTime asOf) {
+        if (balances.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        balances.forEach((accountId, balance) -> bulk.updateOne(
+                new Query(Criteria.where("_id").is(accountId)),
+                new Update().set("balance", MoneyConverters.toDecimal128(balance)).set("balanceAsOf", asOf)
+                        .inc(BALANCE_VERSION, 1)));
+        bulk.execute();
+    }
+
+    @Override
+    public Map<String, BalanceSnapshot> findBalanceSnapshots(Collection<String> accountIds) {
+        Query query = new Query(Criteria.where("_id").in(accountIds.stream().map(this::toObjectId).toList()));
+        query.fields().include("balance").include("userId").include(RECENT_BATCH_OPS);
+
+        Map<String, BalanceSnapshot> snapshots = new HashMap<>();
+        for (Document doc : mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(Account.class))) {
+            String id = doc.get("_id").toString();
+            String ownerId = doc.getString("userId");
+            Object balance = doc.get("balance");
+            List<String> tokens = doc.getList(RECENT_BATCH_OPS, String.class, List.of());
+            snapshots.put(id, new BalanceSnapshot(id, ownerId, MoneyConverters.toMoney(balance), tokens));
+        }
+        return snapshots;
+    }
+
+    @Override
+    public long compareAndSetBalances(List<BalanceChange> changes, String token) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        for (BalanceChange change : changes) {
+            bulk.updateOne(
+                    new Query(Criteria.where("_id").is(change.accountId())
+                            .and("balance").is(MoneyConverters.toDecimal128(change.expected()))),
+                    new Update().set("balance", MoneyConverters.toDecimal128(change.updated())).inc(BALANCE_VERSION, 1)
+                            .push(RECENT_BATCH_OPS).slice(-RECENT_BATCH_OPS_KEPT).each(token));
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public boolean creditSweep(String accountId, int slot, long sweep, Money amount) {
+        String applied = SLOT_SWEEPS + "." + slot;
+        Query query = new Query(Criteria.where("_id").is(accountId).and(applied).not().gte(sweep)); // or missing
+        Update update = new Update().inc("balance", MoneyConverters.toDecimal128(amount)).inc(BALANCE_VERSION, 1)
+                .set(applied, sweep);
+        return mongoTemplate.updateFirst(query, update, Account.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean acquireLease(String accountId, String token, Duration ttl) {
+        // Expiry is compared against this instance's clock, so ttl should dwarf any clock skew
+        Instant now = Instant.now();
+        Query query = new Query(Criteria.where("_id").is(accountId).orOperator(
+                Criteria.where(LEASE).is(null),
+                Criteria.where(LEASE + ".expiresAt").lte(Date.from(now))));
+        Update update = new Update().set(LEASE, new Document("token", token)
+                .append("expiresAt", Date.from(now.plus(ttl))));
+        return mongoTemplate.updateFirst(query, update, Account.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public void releaseLeases(Collection<String> accountIds, String token) {
+        if (accountIds.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(accountIds).and(LEASE + ".token").is(token)),
+                new Update().unset(LEASE),
+                Account.class);
+    }
+
+    private Optional<BalanceUpdate> incrementBalance(Criteria criteria, Money delta) {
+        Query query = new Query(criteria);
+        // Only the new balance and its version are needed
+        query.fields().include("balance").include(BALANCE_VERSION);
+
+        Update update = new Update().inc("balance", MoneyConverters.toDecimal128(delta)).inc(BALANCE_VERSION, 1);
+        Account updated = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+        return Optional.ofNullable(updated)
+                .map(account -> new BalanceUpdate(account.getBalance(), account.getBalanceVersion()));
+    }
+
+    private Criteria ownedBy(Criteria criteria, String ownerId) {
+        if (ownerId == null) {
+            return criteria;
+        }
+        return criteria.and("userId").is(ownerId);
+    }
+
+    private Object toObjectId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
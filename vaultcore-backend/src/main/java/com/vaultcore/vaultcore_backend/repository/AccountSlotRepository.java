@@ -0,0 +1,12 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.AccountSlot;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AccountSlotRepository extends MongoRepository<AccountSlot, String>, AccountSlotRepositoryCustom {
+    List<AccountSlot> findByAccountId(String accountId);
+}
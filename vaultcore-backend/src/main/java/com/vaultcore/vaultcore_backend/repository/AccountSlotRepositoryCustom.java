@@ -0,0 +1,42 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.AccountSlot;
+import com.vaultcore.vaultcore_backend.util.Money;
+
+import java.util.Optional;
+
+/**
+ * Custom AccountSlotRepository fragment - every slot update is a single guarded
+ * write on one slot document, so a slot can never go negative either
+ */
+public interface AccountSlotRepositoryCustom {
+
+    /**
+     * Atomically add amount to one slot, creating the slot on its first credit (upsert)
+     */
+    void credit(String accountId, int slot, Money amount);
+
+    /**
+     * Atomically subtract amount from the fullest slot of the account, but only if
+     * that slot holds at least amount. Returns false when no single slot could cover it.
+     */
+    boolean debitAnySlot(String accountId, Money amount);
+
+    /**
+     * Sum of the account's slot balances, computed on the server
+     */
+    Money totalBalance(String accountId);
+
+    /**
+     * First half of a sweep: take amount out of the slot, record it as pendingSweep and
+     * number the sweep, only if the slot holds at least amount and has no sweep pending.
+     * Returns the slot after the change, or empty when a guard failed.
+     */
+    Optional<AccountSlot> startSweep(String slotId, Money amount);
+
+    /**
+     * Second half of a sweep, once the account has been credited: clear pendingSweep
+     * if it still belongs to that sweep number
+     */
+    void finishSweep(String slotId, long sweep);
+}
@@ -0,0 +1,83 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.config.MoneyConverters;
+import com.vaultcore.vaultcore_backend.entity.AccountSlot;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+
+/**
+ * Slot updates as single-document writes - the guard and the $inc are applied by
+ * MongoDB atomically, as in AccountRepositoryCustomImpl
+ */
+class AccountSlotRepositoryCustomImpl implements AccountSlotRepositoryCustom {
+
+    private static final String PENDING_SWEEP = "pendingSweep";
+    private static final String SWEEPS = "sweeps";
+
+    private final MongoTemplate mongoTemplate;
+
+    AccountSlotRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void credit(String accountId, int slot, Money amount) {
+        mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(AccountSlot.idOf(accountId, slot))),
+                new Update().inc("balance", MoneyConverters.toDecimal128(amount))
+                        .setOnInsert("accountId", accountId)
+                        .setOnInsert("slot", slot),
+                AccountSlot.class);
+    }
+
+    @Override
+    public boolean debitAnySlot(String accountId, Money amount) {
+        Query query = new Query(Criteria.where("accountId").is(accountId)
+                .and("balance").gte(MoneyConverters.toDecimal128(amount)))
+                .with(Sort.by(Sort.Direction.DESC, "balance")); // the fullest slot, on the {accountId, balance} index
+        query.fields().include("_id");
+        Update update = new Update().inc("balance", MoneyConverters.toDecimal128(amount.negate()));
+        return mongoTemplate.findAndModify(query, update, AccountSlot.class) != null;
+    }
+
+    @Override
+    public Money totalBalance(String accountId) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(Criteria.where("accountId").is(accountId)),
+                group().sum("balance").as("total"));
+        Document result = mongoTemplate.aggregate(aggregation, AccountSlot.class, Document.class).getUniqueMappedResult();
+        return result == null ? Money.ZERO : MoneyConverters.toMoney(result.get("total"));
+    }
+
+    @Override
+    public Optional<AccountSlot> startSweep(String slotId, Money amount) {
+        Query query = new Query(Criteria.where("_id").is(slotId)
+                .and(PENDING_SWEEP).is(null)
+                .and("balance").gte(MoneyConverters.toDecimal128(amount)));
+        Update update = new Update().inc("balance", MoneyConverters.toDecimal128(amount.negate()))
+                .inc(SWEEPS, 1)
+                .set(PENDING_SWEEP, new Document("amount", MoneyConverters.toDecimal128(amount)));
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), AccountSlot.class));
+    }
+
+    @Override
+    public void finishSweep(String slotId, long sweep) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(slotId).and(SWEEPS).is(sweep).and(PENDING_SWEEP).ne(null)),
+                new Update().unset(PENDING_SWEEP),
+                AccountSlot.class);
+    }
+}
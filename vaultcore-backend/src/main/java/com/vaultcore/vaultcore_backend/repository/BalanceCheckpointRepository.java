@@ -0,0 +1,24 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.BalanceCheckpoint;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends MongoRepository<BalanceCheckpoint, String>,
+        BalanceCheckpointRepositoryCustom {
+
+    // Nearest checkpoint at or before a moment
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc(
+            String accountId, LocalDateTime timestamp);
+
+    // Nearest checkpoint after a moment - for moments before an account's first checkpoint
+    Optional<BalanceCheckpoint> findFirstByAccountIdAndTimestampGreaterThanOrderByTimestampAsc(
+            String accountId, LocalDateTime timestamp);
+
+    // Most recent checkpoint of any account
+    Optional<BalanceCheckpoint> findFirstByOrderByTimestampDesc();
+}
@@ -0,0 +1,17 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.BalanceCheckpoint;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Custom BalanceCheckpointRepository fragment
+ */
+public interface BalanceCheckpointRepositoryCustom {
+
+    /**
+     * Latest checkpoint of each given account (accounts without one are absent), in one aggregation
+     */
+    Map<String, BalanceCheckpoint> findLatestByAccountIds(Collection<String> accountIds);
+}
@@ -0,0 +1,44 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.BalanceCheckpoint;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.replaceRoot;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+
+class BalanceCheckpointRepositoryCustomImpl implements BalanceCheckpointRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    BalanceCheckpointRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<String, BalanceCheckpoint> findLatestByAccountIds(Collection<String> accountIds) {
+        Map<String, BalanceCheckpoint> latest = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return latest;
+        }
+        // Sorted on the {accountId, timestamp} index, so $first is each account's newest checkpoint
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(Criteria.where("accountId").in(accountIds)),
+                sort(Sort.by(Sort.Order.asc("accountId"), Sort.Order.desc("timestamp"))),
+                group("accountId").first("$$ROOT").as("checkpoint"),
+                replaceRoot("checkpoint"));
+        for (BalanceCheckpoint checkpoint : mongoTemplate.aggregate(aggregation, BalanceCheckpoint.class,
+                BalanceCheckpoint.class)) {
+            latest.put(checkpoint.getAccountId(), checkpoint);
+        }
+        return latest;
+    }
+}
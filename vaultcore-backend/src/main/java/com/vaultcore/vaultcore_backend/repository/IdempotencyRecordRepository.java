@@ -0,0 +1,10 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.IdempotencyRecord;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+/**
+ * Claims are insert() on _id (DuplicateKeyException when taken), outcomes are save()
+ */
+public interface IdempotencyRecordRepository extends MongoRepository<IdempotencyRecord, String> {
+}
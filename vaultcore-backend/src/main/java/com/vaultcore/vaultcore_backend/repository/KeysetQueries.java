@@ -0,0 +1,38 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Keyset pagination on (timestamp, _id), newest first
+ * Each page starts strictly after the cursor row, so the cost of a page does not
+ * depend on how deep into the history it is (no skip), and rows inserted
+ * meanwhile never shift or repeat entries.
+ *
+ * After a cursor the filter is a rooted $or whose branches both carry the owner
+ * equality, so each branch gets tight bounds on the {owner, timestamp, _id}
+ * index and the branches are merged in index order.
+ */
+final class KeysetQueries {
+
+    private KeysetQueries() {
+    }
+
+    static Query newestFirst(String ownerField, String ownerId, HistoryCursor after, int limit) {
+        Criteria criteria;
+        if (after == null) {
+            criteria = Criteria.where(ownerField).is(ownerId);
+        } else {
+            Object id = ObjectId.isValid(after.id()) ? new ObjectId(after.id()) : after.id();
+            criteria = new Criteria().orOperator(
+                    Criteria.where(ownerField).is(ownerId).and("timestamp").lt(after.timestamp()),
+                    Criteria.where(ownerField).is(ownerId).and("timestamp").is(after.timestamp()).and("_id").lt(id));
+        }
+        return new Query(criteria)
+                .with(Sort.by(Sort.Order.desc("timestamp"), Sort.Order.desc("_id")))
+                .limit(limit);
+    }
+}
@@ -1,8 +1,6 @@
 package com.vaultcore.vaultcore_backend.repository;
 
-import com.vaultcore.vaultcore_backend.entity.Account;
 import com.vaultcore.vaultcore_backend.entity.Ledger;
-import com.vaultcore.vaultcore_backend.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
@@ -13,13 +11,9 @@ import java.util.List;
  * Only save (insert) and read operations are allowed.
  */
 @Repository
-public interface LedgerRepository extends MongoRepository<Ledger, String> {
+public interface LedgerRepository extends MongoRepository<Ledger, String>, LedgerRepositoryCustom {
     
-    // Find all ledger entries for a specific account
-    List<Ledger> findByAccountOrderByTimestampDesc(Account account);
-    
-    // Find all ledger entries for a specific user
-    List<Ledger> findByUserOrderByTimestampDesc(User user);
+    // Newest-first history is paged - see LedgerRepositoryCustom#findPageByAccountId / findPageByUserId
     
     // Find ledger entries for an account sorted by timestamp
     List<Ledger> findByAccountIdOrderByTimestampAsc(String accountId);
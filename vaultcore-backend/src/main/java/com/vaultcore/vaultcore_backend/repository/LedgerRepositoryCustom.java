@@ -0,0 +1,83 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import com.vaultcore.vaultcore_backend.util.Money;
+
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Custom LedgerRepository fragment - batched inserts for the group-commit writer, paged history,
+ * streamed statements, the sums behind balance checkpoints and the scans behind reconciliation
+ */
+public interface LedgerRepositoryCustom {
+
+    /**
+     * Insert all entries in one unordered bulk write (a single insertMany round trip).
+     * A failure of one entry does not stop the others; failed positions are reported
+     * through BulkOperationException#getErrors.
+     */
+    void insertUnordered(List<Ledger> entries);
+
+    /**
+     * Up to limit entries of an account, newest first, starting after the cursor (null = newest)
+     */
+    List<Ledger> findPageByAccountId(String accountId, HistoryCursor after, int limit);
+
+    /**
+     * Up to limit entries of a user across all accounts, newest first, starting after the cursor
+     */
+    List<Ledger> findPageByUserId(String userId, HistoryCursor after, int limit);
+
+    /**
+     * Entries of an account with from <= timestamp < to (either bound may be null), oldest first,
+     * read lazily from a server cursor. The stream holds the cursor open and must be closed.
+     */
+    Stream<Ledger> streamByAccountId(String accountId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Net change (credits minus debits) of an account's entries with from <= timestamp < to;
+     * either bound may be null. Summed on the server - nothing is loaded.
+     */
+    Money sumSignedAmounts(String accountId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Net change per account over from <= timestamp < to (from may be null), with each
+     * account's first entry in the window so an opening balance can be derived
+     */
+    List<AccountActivity> summarizeActivity(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Entries with fromId <= _id < toId (either bound may be null), optionally only of the given
+     * accounts, in _id order and reduced to postings - only the fields a posting needs are read.
+     * Read lazily from a server cursor; the stream holds the cursor open and must be closed.
+     */
+    Stream<LedgerPosting> streamPostings(ObjectId fromId, ObjectId toId, Collection<String> accountIds);
+
+    /**
+     * Lowest ledger _id, empty when the ledger is empty
+     */
+    Optional<ObjectId> findFirstLedgerId();
+
+    /**
+     * One ledger entry in minor units - signedAmount is negative for debits
+     */
+    record LedgerPosting(ObjectId id, String accountId, long signedAmount, long balanceAfter) {}
+
+    record AccountActivity(String accountId, Money delta,
+                           Money firstBalanceAfter, Money firstSignedAmount) {
+
+        /**
+         * Balance just before the first entry of the window
+         */
+        public Money openingBalance() {
+            return firstBalanceAfter.minus(firstSignedAmount);
+        }
+    }
+}
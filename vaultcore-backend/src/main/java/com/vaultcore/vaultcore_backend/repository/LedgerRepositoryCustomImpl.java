@@ -0,0 +1,162 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.config.MoneyConverters;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+class LedgerRepositoryCustomImpl implements LedgerRepositoryCustom {
+
+    // Documents per getMore while streaming - bounds memory to one batch, whatever the range
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    // Older entries hold amounts as strings (the default BigDecimal mapping), so convert before summing
+    private static final AggregationExpression AMOUNT = ConvertOperators.valueOf("amount").convertToDecimal();
+    private static final AggregationExpression SIGNED_AMOUNT = ConditionalOperators
+            .when(Criteria.where("transactionType").is("CREDIT"))
+            .then(AMOUNT)
+            .otherwise(ArithmeticOperators.valueOf(AMOUNT).multiplyBy(-1));
+
+    private final MongoTemplate mongoTemplate;
+
+    LedgerRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void insertUnordered(List<Ledger> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Ledger.class)
+                .insert(entries)
+                .execute();
+    }
+
+    @Override
+    public List<Ledger> findPageByAccountId(String accountId, HistoryCursor after, int limit) {
+        return mongoTemplate.find(
+                KeysetQueries.newestFirst("accountId", accountId, after, limit), Ledger.class);
+    }
+
+    @Override
+    public List<Ledger> findPageByUserId(String userId, HistoryCursor after, int limit) {
+        return mongoTemplate.find(
+                KeysetQueries.newestFirst("userId", userId, after, limit), Ledger.class);
+    }
+
+    @Override
+    public Stream<Ledger> streamByAccountId(String accountId, LocalDateTime from, LocalDateTime to) {
+        Query query = new Query(inWindow(Criteria.where("accountId").is(accountId), from, to))
+                .with(Sort.by(Sort.Order.asc("timestamp"), Sort.Order.asc("_id")))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Ledger.class);
+    }
+
+    @Override
+    public Money sumSignedAmounts(String accountId, LocalDateTime from, LocalDateTime to) {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(inWindow(Criteria.where("accountId").is(accountId), from, to)),
+                Aggregation.group().sum(SIGNED_AMOUNT).as("delta"));
+        Document result = mongoTemplate.aggregate(aggregation, Ledger.class, Document.class).getUniqueMappedResult();
+        return result != null ? MoneyConverters.toMoney(result.get("delta")) : Money.ZERO;
+    }
+
+    @Override
+    public List<AccountActivity> summarizeActivity(LocalDateTime from, LocalDateTime to) {
+        Criteria window = Criteria.where("timestamp").lt(to);
+        if (from != null) {
+            window.gte(from);
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(window),
+                Aggregation.sort(Sort.by(Sort.Order.asc("timestamp"), Sort.Order.asc("_id"))),
+                Aggregation.group("accountId")
+                        .sum(SIGNED_AMOUNT).as("delta")
+                        .first(ConvertOperators.valueOf("balanceAfter").convertToDecimal()).as("firstBalanceAfter")
+                        .first(SIGNED_AMOUNT).as("firstSignedAmount"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        List<AccountActivity> activity = new ArrayList<>();
+        for (Document doc : mongoTemplate.aggregate(aggregation, Ledger.class, Document.class)) {
+            activity.add(new AccountActivity(doc.get("_id").toString(), MoneyConverters.toMoney(doc.get("delta")),
+                    MoneyConverters.toMoney(doc.get("firstBalanceAfter")),
+                    MoneyConverters.toMoney(doc.get("firstSignedAmount"))));
+        }
+        return activity;
+    }
+
+    @Override
+    public Stream<LedgerPosting> streamPostings(ObjectId fromId, ObjectId toId, Collection<String> accountIds) {
+        Criteria criteria = new Criteria();
+        if (fromId != null || toId != null) {
+            Criteria id = criteria.and("_id");
+            if (fromId != null) {
+                id.gte(fromId);
+            }
+            if (toId != null) {
+                id.lt(toId);
+            }
+        }
+        if (accountIds != null) {
+            criteria.and("accountId").in(accountIds);
+        }
+        // A range on the _id index, so the sort is free and ranges can be scanned side by side
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Order.asc("_id")))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include("accountId", "transactionType", "amount", "balanceAfter");
+        return mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Ledger.class))
+                .map(LedgerRepositoryCustomImpl::toPosting);
+    }
+
+    @Override
+    public Optional<ObjectId> findFirstLedgerId() {
+        Query query = new Query().with(Sort.by(Sort.Order.asc("_id"))).limit(1);
+        query.fields().include("_id");
+        Document first = mongoTemplate.findOne(query, Document.class, mongoTemplate.getCollectionName(Ledger.class));
+        return Optional.ofNullable(first).map(doc -> doc.getObjectId("_id"));
+    }
+
+    private static LedgerPosting toPosting(Document doc) {
+        long amount = MoneyConverters.toMoney(doc.get("amount")).minorUnits();
+        return new LedgerPosting(doc.getObjectId("_id"), doc.getString("accountId"),
+                "CREDIT".equals(doc.getString("transactionType")) ? amount : -amount,
+                MoneyConverters.toMoney(doc.get("balanceAfter")).minorUnits());
+    }
+
+    private static Criteria inWindow(Criteria criteria, LocalDateTime from, LocalDateTime to) {
+        if (from == null && to == null) {
+            return criteria;
+        }
+        Criteria timestamp = criteria.and("timestamp");
+        if (from != null) {
+            timestamp.gte(from);
+        }
+        if (to != null) {
+            timestamp.lt(to);
+        }
+        return criteria;
+    }
+}
@@ -0,0 +1,12 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking counterpart of AccountRepository for the /api/reactive endpoints
+ */
+@Repository
+public interface ReactiveAccountRepository extends ReactiveMongoRepository<Account, String>, ReactiveAccountRepositoryCustom {
+}
@@ -0,0 +1,21 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+import reactor.core.publisher.Mono;
+
+/**
+ * Custom ReactiveAccountRepository fragment - the same guarded atomic updates as
+ * AccountRepositoryCustom, completing empty where that one returns Optional.empty()
+ */
+public interface ReactiveAccountRepositoryCustom {
+
+    /**
+     * Balance after subtracting amount, if the account belongs to ownerId and holds at least amount
+     */
+    Mono<Money> debitIfSufficient(String accountId, String ownerId, Money amount);
+
+    /**
+     * Balance after adding amount; a null ownerId skips the ownership guard
+     */
+    Mono<Money> credit(String accountId, String ownerId, Money amount);
+}
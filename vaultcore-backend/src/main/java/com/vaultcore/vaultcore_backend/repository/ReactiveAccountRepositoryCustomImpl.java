@@ -0,0 +1,47 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.config.MoneyConverters;
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+class ReactiveAccountRepositoryCustomImpl implements ReactiveAccountRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    ReactiveAccountRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Mono<Money> debitIfSufficient(String accountId, String ownerId, Money amount) {
+        Criteria criteria = ownedBy(Criteria.where("_id").is(accountId), ownerId)
+                .and("balance").gte(MoneyConverters.toDecimal128(amount));
+        return incrementBalance(criteria, amount.negate());
+    }
+
+    @Override
+    public Mono<Money> credit(String accountId, String ownerId, Money amount) {
+        return incrementBalance(ownedBy(Criteria.where("_id").is(accountId), ownerId), amount);
+    }
+
+    private Mono<Money> incrementBalance(Criteria criteria, Money delta) {
+        Query query = new Query(criteria);
+        query.fields().include("balance");
+        return mongoTemplate.findAndModify(query, new Update().inc("balance", MoneyConverters.toDecimal128(delta)).inc("balanceVersion", 1),
+                        FindAndModifyOptions.options().returnNew(true), Account.class)
+                .map(Account::getBalance);
+    }
+
+    private Criteria ownedBy(Criteria criteria, String ownerId) {
+        if (ownerId == null) {
+            return criteria;
+        }
+        return criteria.and("userId").is(ownerId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking counterpart of LedgerRepository - inserts and history reads only
+ */
+@Repository
+public interface ReactiveLedgerRepository extends ReactiveMongoRepository<Ledger, String>, ReactiveLedgerRepositoryCustom {
+}
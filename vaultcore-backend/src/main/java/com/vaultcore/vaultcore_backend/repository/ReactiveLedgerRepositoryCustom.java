@@ -0,0 +1,18 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Custom ReactiveLedgerRepository fragment - newest-first history as a Flux
+ * The driver fetches further batches only as the subscriber requests them, so a
+ * slow client holds back the cursor instead of buffering the history in memory.
+ */
+public interface ReactiveLedgerRepositoryCustom {
+
+    /**
+     * Entries of an account, newest first, after the cursor (null = newest); limit 0 = all
+     */
+    Flux<Ledger> findNewestFirstByAccountId(String accountId, HistoryCursor after, int limit);
+}
@@ -0,0 +1,20 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+class ReactiveLedgerRepositoryCustomImpl implements ReactiveLedgerRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    ReactiveLedgerRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Ledger> findNewestFirstByAccountId(String accountId, HistoryCursor after, int limit) {
+        return mongoTemplate.find(KeysetQueries.newestFirst("accountId", accountId, after, limit), Ledger.class);
+    }
+}
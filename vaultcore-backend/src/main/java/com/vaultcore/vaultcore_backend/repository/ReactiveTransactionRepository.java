@@ -0,0 +1,13 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking counterpart of TransactionRepository for the /api/reactive endpoints
+ */
+@Repository
+public interface ReactiveTransactionRepository
+        extends ReactiveMongoRepository<Transaction, String>, ReactiveTransactionRepositoryCustom {
+}
@@ -0,0 +1,16 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import reactor.core.publisher.Flux;
+
+/**
+ * Custom ReactiveTransactionRepository fragment - newest-first history as a Flux
+ */
+public interface ReactiveTransactionRepositoryCustom {
+
+    /**
+     * Transactions of a user, newest first, after the cursor (null = newest); limit 0 = all
+     */
+    Flux<Transaction> findNewestFirstByUserId(String userId, HistoryCursor after, int limit);
+}
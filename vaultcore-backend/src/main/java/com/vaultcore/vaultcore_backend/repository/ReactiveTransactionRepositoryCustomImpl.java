@@ -0,0 +1,20 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+class ReactiveTransactionRepositoryCustomImpl implements ReactiveTransactionRepositoryCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    ReactiveTransactionRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Flux<Transaction> findNewestFirstByUserId(String userId, HistoryCursor after, int limit) {
+        return mongoTemplate.find(KeysetQueries.newestFirst("userId", userId, after, limit), Transaction.class);
+    }
+}
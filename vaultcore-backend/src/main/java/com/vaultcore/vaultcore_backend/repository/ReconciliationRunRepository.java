@@ -0,0 +1,14 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ReconciliationRunRepository extends MongoRepository<ReconciliationRun, String> {
+
+    // Last completed run
+    Optional<ReconciliationRun> findFirstByOrderByNumberDesc();
+}
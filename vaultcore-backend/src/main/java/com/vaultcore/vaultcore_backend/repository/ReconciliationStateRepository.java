@@ -0,0 +1,10 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationState;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReconciliationStateRepository extends MongoRepository<ReconciliationState, String>,
+        ReconciliationStateRepositoryCustom {
+}
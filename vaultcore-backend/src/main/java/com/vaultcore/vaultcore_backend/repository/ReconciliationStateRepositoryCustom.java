@@ -0,0 +1,22 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationState;
+
+import java.util.List;
+
+/**
+ * Custom ReconciliationStateRepository fragment
+ */
+public interface ReconciliationStateRepositoryCustom {
+
+    /**
+     * Insert or replace every state in one unordered bulk write
+     */
+    void saveStates(List<ReconciliationState> states);
+
+    /**
+     * Put back the previous sums of every state written by a run numbered above lastRun -
+     * runs that failed before they were recorded. Returns the number of states reverted.
+     */
+    long revertRunsAfter(long lastRun);
+}
@@ -0,0 +1,43 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationState;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+class ReconciliationStateRepositoryCustomImpl implements ReconciliationStateRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    ReconciliationStateRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void saveStates(List<ReconciliationState> states) {
+        if (states.isEmpty()) {
+            return;
+        }
+        // saveAll would be one round trip per state - these all have ids, so none count as new
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReconciliationState.class);
+        for (ReconciliationState state : states) {
+            bulk.replaceOne(new Query(Criteria.where("_id").is(state.getAccountId())), state,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        bulk.execute();
+    }
+
+    @Override
+    public long revertRunsAfter(long lastRun) {
+        // Pipeline update - current takes the value of the document's own previous field
+        return mongoTemplate.updateMulti(new Query(Criteria.where("current.run").gt(lastRun)),
+                AggregationUpdate.update().set("current").toValueOf(Fields.field("previous")),
+                ReconciliationState.class).getModifiedCount();
+    }
+}
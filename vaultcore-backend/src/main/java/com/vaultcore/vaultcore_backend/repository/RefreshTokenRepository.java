@@ -1,16 +1,22 @@
 package com.vaultcore.vaultcore_backend.repository;
 
 import com.vaultcore.vaultcore_backend.entity.RefreshToken;
-import com.vaultcore.vaultcore_backend.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RefreshTokenRepository extends MongoRepository<RefreshToken, String> {
-    Optional<RefreshToken> findByToken(String token);
-    void deleteByUser(User user);
-    void deleteByToken(String token);
-}
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    long deleteByTokenHash(String tokenHash);
 
+    long deleteByUserId(String userId);
+
+    // Newest first, hashes only - small because createRefreshToken caps tokens per user
+    @Query(value = "{ 'userId': ?0 }", fields = "{ 'tokenHash': 1 }", sort = "{ 'createdAt': -1 }")
+    List<RefreshToken> findHashesByUserId(String userId);
+}
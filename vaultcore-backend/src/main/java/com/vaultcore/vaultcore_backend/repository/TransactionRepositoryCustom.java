@@ -0,0 +1,17 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+
+import java.util.List;
+
+/**
+ * Custom TransactionRepository fragment - paged history
+ */
+public interface TransactionRepositoryCustom {
+
+    /**
+     * Up to limit transactions of a user, newest first, starting after the cursor (null = newest)
+     */
+    List<Transaction> findPageByUserId(String userId, HistoryCursor after, int limit);
+}
@@ -0,0 +1,22 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+
+class TransactionRepositoryCustomImpl implements TransactionRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    TransactionRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<Transaction> findPageByUserId(String userId, HistoryCursor after, int limit) {
+        return mongoTemplate.find(
+                KeysetQueries.newestFirst("userId", userId, after, limit), Transaction.class);
+    }
+}
@@ -2,9 +2,16 @@ package com.vaultcore.vaultcore_backend.repository;
 
 import com.vaultcore.vaultcore_backend.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
 import java.util.Optional;
 
 public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    // $set of the password alone - leaves fields changed since the user was read as they are
+    @Query("{ '_id': ?0 }")
+    @Update("{ '$set': { 'password': ?1 } }")
+    long updatePassword(String id, String password);
+}
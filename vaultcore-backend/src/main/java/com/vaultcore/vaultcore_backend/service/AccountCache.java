@@ -0,0 +1,209 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Write-through cache of accounts, by account id and by owner
+ * Balance writers hand over the balance MongoDB returned together with the
+ * account's balanceVersion, which every balance update increments; an entry only
+ * moves forward, so a slow writer finishing late cannot put back an older balance.
+ * Writers that do not know the version (batch, sequencer, reactive) invalidate.
+ * Cached accounts are never modified in place - an update swaps in a copy - so
+ * callers may hand them straight to Jackson.
+ *
+ * Writes made by another instance are not seen here; ttl-seconds bounds how long
+ * such a change can go unnoticed. Writes made inside a MongoDB transaction are not
+ * written through - they may still roll back - and drop the entry instead, again
+ * when the transaction completes.
+ *
+ * Metrics: cache.* {cache="accounts"} and {cache="user-accounts"} for hit ratio,
+ * vaultcore.account.cache.age (how long ago a served entry was last confirmed by
+ * MongoDB) and vaultcore.account.cache.stale.writes (out-of-order updates ignored).
+ */
+@Component
+public class AccountCache {
+
+    private final Cache<String, Entry> byId;
+    private final Cache<String, List<String>> byUser;
+    private final Cache<String, Long> uncachedVersions; // newest version written while the account was not cached
+    private final Timer age;
+    private final Counter staleWrites;
+
+    public AccountCache(MeterRegistry meterRegistry,
+                        @Value("${vaultcore.account-cache.max-size:100000}") long maxSize,
+                        @Value("${vaultcore.account-cache.ttl-seconds:30}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.uncachedVersions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "accounts");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUser, "user-accounts");
+        this.age = Timer.builder("vaultcore.account.cache.age")
+                .description("Time since a served account was last read from or written to MongoDB")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.staleWrites = Counter.builder("vaultcore.account.cache.stale.writes")
+                .description("Balance updates ignored because the cache already held a newer version")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The account, loading it with loader on a miss - a missing account is not cached
+     */
+    public Optional<Account> get(String accountId, Function<String, Optional<Account>> loader) {
+        Entry cached = byId.getIfPresent(accountId);
+        if (cached != null) {
+            age.record(System.nanoTime() - cached.confirmedAt(), TimeUnit.NANOSECONDS);
+            return Optional.of(cached.account());
+        }
+        Optional<Account> loaded = loader.apply(accountId);
+        loaded.ifPresent(this::putIfNewer);
+        return loaded;
+    }
+
+    /**
+     * A user's accounts, loading all of them with loader when the list or any account is missing
+     */
+    public List<Account> getByUser(String userId, Supplier<List<Account>> loader) {
+        List<String> ids = byUser.getIfPresent(userId);
+        if (ids != null) {
+            List<Account> accounts = new ArrayList<>(ids.size());
+            long now = System.nanoTime();
+            for (String id : ids) {
+                Entry cached = byId.getIfPresent(id);
+                if (cached == null) {
+                    accounts = null; // one was evicted or invalidated - reload the list
+                    break;
+                }
+                age.record(now - cached.confirmedAt(), TimeUnit.NANOSECONDS);
+                accounts.add(cached.account());
+            }
+            if (accounts != null) {
+                return accounts;
+            }
+        }
+        List<Account> loaded = loader.get();
+        loaded.forEach(this::putIfNewer);
+        byUser.put(userId, loaded.stream().map(Account::getId).toList());
+        return loaded;
+    }
+
+    /**
+     * Write-through for a newly created account
+     */
+    public void created(Account account) {
+        putIfNewer(account);
+        byUser.asMap().computeIfPresent(account.getUserId(), (userId, ids) -> {
+            List<String> updated = new ArrayList<>(ids);
+            updated.add(account.getId());
+            return List.copyOf(updated);
+        });
+    }
+
+    /**
+     * Write-through for a balance change - applied only if newer than the cached version.
+     * For an account that is not cached the version is remembered, so a read that
+     * started before this write cannot cache the older balance when it finishes.
+     */
+    public void balanceChanged(String accountId, BalanceUpdate update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(accountId);
+            return;
+        }
+        byId.asMap().compute(accountId, (id, cached) -> {
+            if (cached == null) {
+                uncachedVersions.asMap().merge(id, update.version(), Math::max);
+                return null;
+            }
+            if (update.version() <= cached.version()) {
+                staleWrites.increment();
+                return cached;
+            }
+            Account account = copy(cached.account());
+            account.setBalance(update.balance());
+            account.setBalanceVersion(update.version());
+            return new Entry(account, update.version(), System.nanoTime());
+        });
+    }
+
+    public void invalidate(String accountId) {
+        invalidateAll(List.of(accountId));
+    }
+
+    /**
+     * Inside a transaction the entries are dropped again once it commits or rolls back,
+     * as a read in the meantime may have cached the balance from before it
+     */
+    public void invalidateAll(Collection<String> accountIds) {
+        byId.invalidateAll(accountIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    byId.invalidateAll(accountIds);
+                }
+            });
+        }
+    }
+
+    private void putIfNewer(Account account) {
+        long version = versionOf(account);
+        byId.asMap().compute(account.getId(), (id, cached) -> {
+            Long written = uncachedVersions.getIfPresent(id);
+            long newest = Math.max(cached == null ? -1 : cached.version(), written == null ? -1 : written);
+            if (version < newest) {
+                staleWrites.increment();
+                return cached;
+            }
+            uncachedVersions.invalidate(id);
+            return new Entry(copy(account), version, System.nanoTime());
+        });
+    }
+
+    private static long versionOf(Account account) {
+        return account.getBalanceVersion() == null ? 0 : account.getBalanceVersion();
+    }
+
+    static Account copy(Account account) {
+        Account copy = new Account();
+        copy.setId(account.getId());
+        copy.setAccountType(account.getAccountType());
+        copy.setBalance(account.getBalance());
+        copy.setUserId(account.getUserId());
+        copy.setBalanceVersion(account.getBalanceVersion());
+        return copy;
+    }
+
+    private record Entry(Account account, long version, long confirmedAt) {}
+}
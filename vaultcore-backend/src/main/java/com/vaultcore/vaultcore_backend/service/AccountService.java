@@ -3,35 +3,89 @@ package com.vaultcore.vaultcore_backend.service;
 import com.vaultcore.vaultcore_backend.entity.Account;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.util.Futures;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
 
+/**
+ * Account reads are served from AccountCache; every write here goes through it
+ * Hot accounts (HotAccountService) are read with their slots added and written through their slots.
+ */
 @Service
 public class AccountService {
 
     private final AccountRepository repository;
+    private final AccountCache cache;
+    private final SequencerEngine sequencer; // null unless the sequencer engine is enabled
+    private final HotAccountService hotAccounts;
 
-    public AccountService(AccountRepository repository) {
+    public AccountService(AccountRepository repository, AccountCache cache, ObjectProvider<SequencerEngine> sequencer,
+                          HotAccountService hotAccounts) {
         this.repository = repository;
+        this.cache = cache;
+        this.sequencer = sequencer.getIfAvailable();
+        this.hotAccounts = hotAccounts;
     }
 
     public Account createAccount(Account account) {
         if (account == null) {
             throw new IllegalArgumentException("Account cannot be null");
         }
-        return repository.save(account);
+        Account saved = repository.save(account);
+        cache.created(saved);
+        return saved;
     }
 
     public List<Account> getAccountsByUser(User user) {
-        return repository.findByUser(user);
+        return cache.getByUser(user.getId(), () -> repository.findByUserId(user.getId())).stream()
+                .map(hotAccounts::withSlots)
+                .toList();
     }
 
     public Optional<Account> getAccountById(String id) {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("Account ID cannot be null or empty");
         }
-        return repository.findById(id);
+        return cache.get(id, repository::findById).map(hotAccounts::withSlots);
+    }
+
+    /**
+     * Atomic guarded debit - see AccountRepositoryCustom#debitIfSufficient
+     */
+    public Optional<Money> debit(String accountId, String ownerId, Money amount) {
+        if (sequencer != null) {
+            Money balance = Futures.join(sequencer.debit(accountId, ownerId, amount));
+            cache.invalidate(accountId);
+            return Optional.of(balance);
+        }
+        if (hotAccounts.isHot(accountId)) {
+            return hotAccounts.debit(accountId, ownerId, amount);
+        }
+        return repository.debitIfSufficient(accountId, ownerId, amount).map(update -> balanceChanged(accountId, update));
+    }
+
+    /**
+     * Atomic credit - see AccountRepositoryCustom#credit
+     */
+    public Optional<Money> credit(String accountId, String ownerId, Money amount) {
+        if (sequencer != null) {
+            Money balance = Futures.join(sequencer.credit(accountId, ownerId, amount));
+            cache.invalidate(accountId);
+            return Optional.of(balance);
+        }
+        if (hotAccounts.isHot(accountId)) {
+            return hotAccounts.credit(accountId, ownerId, amount);
+        }
+        return repository.credit(accountId, ownerId, amount).map(update -> balanceChanged(accountId, update));
+    }
+
+    private Money balanceChanged(String accountId, BalanceUpdate update) {
+        cache.balanceChanged(accountId, update);
+        return update.balance();
     }
 }
\ No newline at end of file
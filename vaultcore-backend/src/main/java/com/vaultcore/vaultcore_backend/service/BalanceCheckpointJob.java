@@ -0,0 +1,42 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Writes balance checkpoints periodically
+ * Each run checkpoints as of now minus the settle lag, so ledger entries still
+ * in flight (written just after their balance change) land before the cut-off.
+ * Disable with vaultcore.checkpoint.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "vaultcore.checkpoint.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceCheckpointJob {
+
+    private final BalanceCheckpointService checkpointService;
+    private final long settleLagSeconds;
+
+    public BalanceCheckpointJob(BalanceCheckpointService checkpointService,
+                                @Value("${vaultcore.checkpoint.settle-lag-seconds:60}") long settleLagSeconds) {
+        this.checkpointService = checkpointService;
+        this.settleLagSeconds = settleLagSeconds;
+    }
+
+    @Scheduled(initialDelayString = "${vaultcore.checkpoint.initial-delay-ms:60000}",
+               fixedDelayString = "${vaultcore.checkpoint.interval-ms:3600000}")
+    public void run() {
+        try {
+            int written = checkpointService.writeCheckpoints(LocalDateTime.now().minusSeconds(settleLagSeconds));
+            if (written > 0) {
+                System.out.println("✅ Wrote " + written + " balance checkpoints");
+            }
+        } catch (RuntimeException e) {
+            // Next run picks up from the last successful checkpoint
+            System.err.println("❌ Balance checkpoint run failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.dto.DailyBalance;
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.BalanceCheckpoint;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.BalanceCheckpointRepository;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepositoryCustom.AccountActivity;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Balance Checkpoint Service - past balances without scanning the ledger
+ * Checkpoints hold each account's balance as of the end of a checkpoint run;
+ * a balance at time T is the nearest checkpoint plus the net of the ledger
+ * entries between the two, summed on the server. Only net amounts are added,
+ * so entries written slightly out of timestamp order still sum correctly.
+ */
+@Service
+public class BalanceCheckpointService {
+
+    static final int MAX_CLOSING_DAYS = 366;
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final LedgerRepository ledgerRepository;
+    private final AccountRepository accountRepository;
+    private final HotAccountService hotAccounts;
+
+    public BalanceCheckpointService(BalanceCheckpointRepository checkpointRepository, LedgerRepository ledgerRepository,
+                                    AccountRepository accountRepository, HotAccountService hotAccounts) {
+        this.checkpointRepository = checkpointRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.accountRepository = accountRepository;
+        this.hotAccounts = hotAccounts;
+    }
+
+    /**
+     * Balance after every entry with a timestamp before 'at'
+     */
+    public Money balanceAt(String accountId, LocalDateTime at) {
+        Optional<BalanceCheckpoint> before =
+                checkpointRepository.findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc(accountId, at);
+        if (before.isPresent()) {
+            return before.get().getBalance()
+                    .plus(ledgerRepository.sumSignedAmounts(accountId, before.get().getTimestamp(), at));
+        }
+
+        // Before the account's first checkpoint - walk back from the next one instead
+        Optional<BalanceCheckpoint> after =
+                checkpointRepository.findFirstByAccountIdAndTimestampGreaterThanOrderByTimestampAsc(accountId, at);
+        if (after.isPresent()) {
+            return after.get().getBalance()
+                    .minus(ledgerRepository.sumSignedAmounts(accountId, at, after.get().getTimestamp()));
+        }
+
+        // Not checkpointed yet (new account) - walk back from the live balance
+        Account account = accountRepository.findById(accountId).map(hotAccounts::withSlots)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found"));
+        return account.getBalance().minus(ledgerRepository.sumSignedAmounts(accountId, at, null));
+    }
+
+    /**
+     * Closing balance of every day from 'from' to 'to' (inclusive) in one pass:
+     * one balance lookup for the start, then the range's entries are streamed once
+     */
+    public List<DailyBalance> closingBalances(String accountId, LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Start and end dates are required");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CLOSING_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_CLOSING_DAYS + " days");
+        }
+
+        LocalDateTime start = from.atStartOfDay();
+        Money running = balanceAt(accountId, start);
+        List<DailyBalance> closings = new ArrayList<>();
+        LocalDate day = from;
+
+        try (Stream<Ledger> entries = ledgerRepository.streamByAccountId(accountId, start, to.plusDays(1).atStartOfDay())) {
+            for (Iterator<Ledger> it = entries.iterator(); it.hasNext(); ) {
+                Ledger entry = it.next();
+                LocalDate entryDay = entry.getTimestamp().toLocalDate();
+                while (day.isBefore(entryDay)) {
+                    closings.add(new DailyBalance(day, running));
+                    day = day.plusDays(1);
+                }
+                running = "CREDIT".equals(entry.getTransactionType())
+                        ? running.plus(entry.getAmount())
+                        : running.minus(entry.getAmount());
+            }
+        }
+        while (!day.isAfter(to)) {
+            closings.add(new DailyBalance(day, running));
+            day = day.plusDays(1);
+        }
+        return closings;
+    }
+
+    /**
+     * Write a checkpoint as of 'asOf' for every account with entries since the previous run
+     * Accounts without activity keep their older checkpoint - nothing changed in between.
+     * Entries must not arrive with timestamps before 'asOf' after this runs, hence the
+     * settle lag applied by BalanceCheckpointJob. Returns the number of checkpoints written.
+     */
+    public int writeCheckpoints(LocalDateTime asOf) {
+        LocalDateTime since = checkpointRepository.findFirstByOrderByTimestampDesc()
+                .map(BalanceCheckpoint::getTimestamp)
+                .orElse(null);
+        if (since != null && !since.isBefore(asOf)) {
+            return 0;
+        }
+
+        List<AccountActivity> activity = ledgerRepository.summarizeActivity(since, asOf);
+        if (activity.isEmpty()) {
+            return 0;
+        }
+        Map<String, BalanceCheckpoint> previous = checkpointRepository.findLatestByAccountIds(
+                activity.stream().map(AccountActivity::accountId).toList());
+
+        List<BalanceCheckpoint> checkpoints = new ArrayList<>(activity.size());
+        for (AccountActivity account : activity) {
+            BalanceCheckpoint last = previous.get(account.accountId());
+            Money balance = last != null
+                    ? last.getBalance().plus(account.delta())
+                    : firstCheckpoint(account, asOf);
+            checkpoints.add(new BalanceCheckpoint(account.accountId(), asOf, balance));
+        }
+        checkpointRepository.insert(checkpoints);
+        return checkpoints.size();
+    }
+
+    /**
+     * First checkpoint of an account - the balance before its first entry plus the window's net
+     * A hot account's balanceAfter is read after the write and may include other slots' credits,
+     * so its opening cannot be trusted; walk back from the live balance instead, as balanceAt does.
+     */
+    private Money firstCheckpoint(AccountActivity account, LocalDateTime asOf) {
+        if (hotAccounts.isHot(account.accountId())) {
+            Optional<Account> live = accountRepository.findById(account.accountId()).map(hotAccounts::withSlots);
+            if (live.isPresent()) {
+                return live.get().getBalance()
+                        .minus(ledgerRepository.sumSignedAmounts(account.accountId(), asOf, null));
+            }
+        }
+        return account.openingBalance().plus(account.delta());
+    }
+}
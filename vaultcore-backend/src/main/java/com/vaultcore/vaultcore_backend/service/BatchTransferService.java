@@ -0,0 +1,390 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.dto.BatchTransferResult;
+import com.vaultcore.vaultcore_backend.dto.TransferRequest;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceChange;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceSnapshot;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.Counter;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Batch Transfer Service - applies many transfers with a handful of round trips
+ *
+ * 1. One $in query loads balance and owner of every account in the batch; hot
+ *    sources have their slots consolidated into the account document first.
+ * 2. Debits are planned per source account against that snapshot and applied in
+ *    one bulk write of compare-and-set updates; credits follow in a second bulk write,
+ *    so a rejected debit never leaves a credit behind.
+ * 3. All ledger entries are written with one insert.
+ *
+ * A compare-and-set only loses to a concurrent writer; the losing accounts are
+ * re-read and retried a bounded number of times. Because every update sets an
+ * exact balance, each ledger entry's balanceAfter is exact as well. A destination
+ * deleted after the debits committed fails its items, and their sources are
+ * refunded as in TransferService.
+ *
+ * Metrics: vaultcore.write.conflicts and vaultcore.write.retries {operation="batch-transfer"}.
+ */
+@Service
+public class BatchTransferService {
+
+    private static final int MAX_ROUNDS = 5;
+
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+    private final SequencerEngine sequencer; // null unless the sequencer engine is enabled
+    private final AccountCache accountCache;
+    private final HotAccountService hotAccounts;
+    private final int maxBatchSize;
+    private final Counter conflicts;
+    private final Counter retries;
+
+    public BatchTransferService(AccountRepository accountRepository, LedgerService ledgerService,
+                                ObjectProvider<SequencerEngine> sequencer, AccountCache accountCache,
+                                HotAccountService hotAccounts, ServiceMetrics metrics,
+                                @Value("${vaultcore.transfer.batch.max-size:5000}") int maxBatchSize) {
+        this.accountRepository = accountRepository;
+        this.ledgerService = ledgerService;
+        this.sequencer = sequencer.getIfAvailable();
+        this.accountCache = accountCache;
+        this.hotAccounts = hotAccounts;
+        this.maxBatchSize = maxBatchSize;
+        this.conflicts = metrics.conflicts("batch-transfer");
+        this.retries = metrics.retries("batch-transfer");
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /**
+     * Apply a list of transfers from accounts owned by user - returns one result per request, in order
+     */
+    public List<BatchTransferResult> transferBatch(List<TransferRequest> requests, User user) {
+        if (user == null || user.getId() == null) {
+            throw new IllegalArgumentException("User must not be null");
+        }
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch size exceeds the limit of " + maxBatchSize);
+        }
+
+        List<Item> items = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            items.add(new Item(i, requests.get(i)));
+        }
+
+        if (sequencer != null) {
+            applyWithSequencer(items, user);
+        } else {
+            applyWithBulkWrites(items, user);
+        }
+
+        invalidateCached(items);
+        writeLedger(items, user);
+
+        List<BatchTransferResult> results = new ArrayList<>(items.size());
+        for (Item item : items) {
+            results.add(new BatchTransferResult(item.index, item.from, item.to, item.amount,
+                    item.error == null, item.error == null ? "Transfer completed successfully" : item.error));
+        }
+        return results;
+    }
+
+    /**
+     * Bulk writes do not report the versions they produced - drop every account that changed
+     */
+    private void invalidateCached(List<Item> items) {
+        Set<String> changed = new HashSet<>();
+        for (Item item : items) {
+            if (item.error == null) {
+                changed.add(item.from);
+                changed.add(item.to);
+            }
+        }
+        accountCache.invalidateAll(changed);
+    }
+
+    private void applyWithBulkWrites(List<Item> items, User user) {
+        Set<String> accountIds = new HashSet<>();
+        Set<String> hotSources = new HashSet<>();
+        for (Item item : items) {
+            if (item.error == null) {
+                accountIds.add(item.from);
+                accountIds.add(item.to);
+                if (hotAccounts.isHot(item.from)) {
+                    hotSources.add(item.from);
+                }
+            }
+        }
+        // Debits are planned against the account document alone - gather hot sources' slots into it
+        hotSources.forEach(hotAccounts::consolidate);
+        Map<String, BalanceSnapshot> snapshots = accountRepository.findBalanceSnapshots(accountIds);
+
+        // Ownership and existence checks for the whole batch come from the single query above
+        Map<String, List<Item>> debitsByAccount = new LinkedHashMap<>();
+        for (Item item : items) {
+            if (item.error != null) {
+                continue;
+            }
+            BalanceSnapshot from = snapshots.get(item.from);
+            if (from == null) {
+                item.error = "Source account not found";
+            } else if (!user.getId().equals(from.ownerId())) {
+                item.error = "You don't have permission to transfer from this account";
+            } else if (!snapshots.containsKey(item.to)) {
+                item.error = "Destination account not found";
+            } else {
+                debitsByAccount.computeIfAbsent(item.from, id -> new ArrayList<>()).add(item);
+            }
+        }
+
+        Map<String, Money> balances = new HashMap<>();
+        snapshots.forEach((id, snapshot) -> balances.put(id, snapshot.balance()));
+        String batchId = new ObjectId().toHexString();
+
+        applyDebits(debitsByAccount, balances, batchId);
+
+        Map<String, List<Item>> creditsByAccount = new LinkedHashMap<>();
+        for (Item item : items) {
+            if (item.error == null) {
+                creditsByAccount.computeIfAbsent(item.to, id -> new ArrayList<>()).add(item);
+            }
+        }
+        List<Item> undelivered = applyCredits(creditsByAccount, balances, batchId);
+        if (!undelivered.isEmpty()) {
+            refund(undelivered, debitsByAccount);
+        }
+    }
+
+    /**
+     * Debits only count a source's own balance (not credits arriving in the same batch),
+     * so each source account can be planned and retried independently
+     */
+    private void applyDebits(Map<String, List<Item>> debitsByAccount, Map<String, Money> balances, String batchId) {
+        Set<String> pending = new HashSet<>(debitsByAccount.keySet());
+        for (int round = 0; round < MAX_ROUNDS && !pending.isEmpty(); round++) {
+            if (round > 0) {
+                retries.increment(pending.size());
+            }
+            List<BalanceChange> changes = new ArrayList<>();
+            for (String accountId : pending) {
+                Money running = balances.get(accountId);
+                for (Item item : debitsByAccount.get(accountId)) {
+                    if (!running.isLessThan(item.amount)) {
+                        running = running.minus(item.amount);
+                        item.fromBalanceAfter = running;
+                        item.error = null;
+                    } else {
+                        item.fromBalanceAfter = null;
+                        item.error = "Insufficient balance";
+                    }
+                }
+                if (running.compareTo(balances.get(accountId)) != 0) {
+                    changes.add(new BalanceChange(accountId, balances.get(accountId), running));
+                }
+            }
+            pending = applyRound(changes, balances, batchId + "-d" + round);
+        }
+        for (String accountId : pending) {
+            for (Item item : debitsByAccount.get(accountId)) {
+                item.fromBalanceAfter = null;
+                item.error = "Source account is being updated concurrently, please retry";
+            }
+        }
+    }
+
+    /**
+     * Credits cannot fail on funds, so after the bulk rounds any account still losing to
+     * concurrent writers gets a single atomic $inc and its entries are derived from the result.
+     * Returns the items whose destination no longer exists - already debited, failed here.
+     */
+    private List<Item> applyCredits(Map<String, List<Item>> creditsByAccount, Map<String, Money> balances,
+                                    String batchId) {
+        Set<String> pending = new HashSet<>(creditsByAccount.keySet());
+        for (int round = 0; round < MAX_ROUNDS && !pending.isEmpty(); round++) {
+            if (round > 0) {
+                retries.increment(pending.size());
+            }
+            List<BalanceChange> changes = new ArrayList<>();
+            for (String accountId : pending) {
+                Money running = balances.get(accountId);
+                for (Item item : creditsByAccount.get(accountId)) {
+                    running = running.plus(item.amount);
+                    item.toBalanceAfter = running;
+                }
+                changes.add(new BalanceChange(accountId, balances.get(accountId), running));
+            }
+            pending = applyRound(changes, balances, batchId + "-c" + round);
+        }
+        retries.increment(pending.size());
+        List<Item> undelivered = new ArrayList<>();
+        for (String accountId : pending) {
+            List<Item> credits = creditsByAccount.get(accountId);
+            Money total = credits.stream().map(item -> item.amount).reduce(Money.ZERO, Money::plus);
+            Optional<Money> credited = accountRepository.credit(accountId, null, total).map(BalanceUpdate::balance);
+            if (credited.isEmpty()) {
+                for (Item item : credits) {
+                    item.toBalanceAfter = null;
+                    item.error = "Destination account not found";
+                }
+                undelivered.addAll(credits);
+                continue;
+            }
+            Money running = credited.get();
+            for (int i = credits.size() - 1; i >= 0; i--) {
+                credits.get(i).toBalanceAfter = running;
+                running = running.minus(credits.get(i).amount);
+            }
+        }
+        return undelivered;
+    }
+
+    /**
+     * Put the money of undelivered items back on their sources, then re-derive the
+     * balanceAfter of each source's remaining debits as if the refunded ones never happened
+     */
+    private void refund(List<Item> undelivered, Map<String, List<Item>> debitsByAccount) {
+        Map<String, Money> refunds = new LinkedHashMap<>();
+        for (Item item : undelivered) {
+            refunds.merge(item.from, item.amount, Money::plus);
+        }
+        refunds.forEach((accountId, amount) -> {
+            accountRepository.credit(accountId, null, amount);
+            accountCache.invalidate(accountId);
+
+            Money running = null;
+            for (Item item : debitsByAccount.get(accountId)) {
+                if (item.fromBalanceAfter == null) {
+                    continue; // never debited
+                }
+                if (running == null) {
+                    running = item.fromBalanceAfter.plus(item.amount); // balance before the first debit
+                }
+                if (item.error != null) {
+                    item.fromBalanceAfter = null;
+                } else {
+                    running = running.minus(item.amount);
+                    item.fromBalanceAfter = running;
+                }
+            }
+        });
+    }
+
+    /**
+     * One bulk of compare-and-set updates. Returns the accounts that lost to a concurrent
+     * writer, with their fresh balances loaded into balances; winners keep their new balance.
+     */
+    private Set<String> applyRound(List<BalanceChange> changes, Map<String, Money> balances, String token) {
+        long applied = accountRepository.compareAndSetBalances(changes, token);
+        Set<String> lost = new HashSet<>();
+        if (applied == changes.size()) {
+            changes.forEach(change -> balances.put(change.accountId(), change.updated()));
+            return lost;
+        }
+
+        // Short count - read back once to see which updates carry our token
+        Map<String, BalanceSnapshot> current = accountRepository.findBalanceSnapshots(
+                changes.stream().map(BalanceChange::accountId).toList());
+        for (BalanceChange change : changes) {
+            BalanceSnapshot snapshot = current.get(change.accountId());
+            if (snapshot != null && snapshot.recentBatchOps().contains(token)) {
+                balances.put(change.accountId(), change.updated());
+            } else {
+                lost.add(change.accountId());
+                conflicts.increment();
+                if (snapshot != null) {
+                    balances.put(change.accountId(), snapshot.balance());
+                }
+            }
+        }
+        return lost;
+    }
+
+    /**
+     * Sequencer mode - the engine owns balances, so submit every transfer and wait for all of them
+     */
+    private void applyWithSequencer(List<Item> items, User user) {
+        List<CompletableFuture<SequencerEngine.TransferResult>> futures = new ArrayList<>(items.size());
+        for (Item item : items) {
+            futures.add(item.error == null
+                    ? sequencer.transfer(item.from, item.to, user.getId(), item.amount)
+                    : null);
+        }
+        for (int i = 0; i < items.size(); i++) {
+            if (futures.get(i) == null) {
+                continue;
+            }
+            Item item = items.get(i);
+            try {
+                SequencerEngine.TransferResult result = futures.get(i).join();
+                item.fromBalanceAfter = result.fromBalance();
+                item.toBalanceAfter = result.toBalance();
+            } catch (CompletionException e) {
+                item.error = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * All debit entries first, then all credit entries - the same order the balances changed in
+     */
+    private void writeLedger(List<Item> items, User user) {
+        List<Ledger> entries = new ArrayList<>();
+        for (Item item : items) {
+            if (item.error == null) {
+                entries.add(new Ledger(item.amount, "DEBIT", item.fromBalanceAfter, item.from, user.getId()));
+            }
+        }
+        for (Item item : items) {
+            if (item.error == null) {
+                entries.add(new Ledger(item.amount, "CREDIT", item.toBalanceAfter, item.to, user.getId()));
+            }
+        }
+        if (!entries.isEmpty()) {
+            ledgerService.createLedgerEntries(entries);
+        }
+    }
+
+    private static final class Item {
+        final int index;
+        final String from;
+        final String to;
+        final Money amount;
+        String error;
+        Money fromBalanceAfter;
+        Money toBalanceAfter;
+
+        Item(int index, TransferRequest request) {
+            this.index = index;
+            this.from = request != null ? request.getFromAccountId() : null;
+            this.to = request != null ? request.getToAccountId() : null;
+            this.amount = request != null ? request.getAmount() : null;
+            if (from == null || to == null) {
+                error = "Account IDs must not be null";
+            } else if (amount == null || !amount.isPositive()) {
+                error = "Transfer amount must be positive";
+            } else if (from.equals(to)) {
+                error = "Source and destination accounts must differ";
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.dto.HistoryPage;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page size limits and cursor handling shared by the history endpoints
+ * Services fetch pageSize + 1 rows; the extra row only tells whether another page exists.
+ */
+@Component
+public class HistoryPaging {
+
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public HistoryPaging(@Value("${vaultcore.history.default-page-size:20}") int defaultPageSize,
+                         @Value("${vaultcore.history.max-page-size:100}") int maxPageSize) {
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Requested size capped at the maximum - a missing size means the default
+     */
+    public int pageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+    public <T> HistoryPage<T> toPage(List<T> rows, int pageSize, Function<T, HistoryCursor> positionOf) {
+        if (rows.size() <= pageSize) {
+            return new HistoryPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        return new HistoryPage<>(items, positionOf.apply(items.get(pageSize - 1)).encode());
+    }
+}
@@ -0,0 +1,32 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves hot-account slot balances back into their account documents periodically
+ * (see HotAccountService#consolidate), so debits find the funds on their first try.
+ * Does nothing while vaultcore.hot-accounts.ids is empty.
+ */
+@Component
+public class HotAccountConsolidator {
+
+    private final HotAccountService hotAccounts;
+
+    public HotAccountConsolidator(HotAccountService hotAccounts) {
+        this.hotAccounts = hotAccounts;
+    }
+
+    @Scheduled(initialDelayString = "${vaultcore.hot-accounts.consolidate-interval-ms:1000}",
+               fixedDelayString = "${vaultcore.hot-accounts.consolidate-interval-ms:1000}")
+    public void run() {
+        for (String accountId : hotAccounts.hotAccountIds()) {
+            try {
+                hotAccounts.consolidate(accountId);
+            } catch (RuntimeException e) {
+                // Whatever was left pending is finished by the next run
+                System.err.println("❌ Consolidating hot account " + accountId + " failed: " + e.getMessage());
+            }
+        }
+    }
+}
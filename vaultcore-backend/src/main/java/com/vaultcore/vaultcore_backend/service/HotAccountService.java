@@ -0,0 +1,210 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.AccountSlot;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.repository.AccountSlotRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Hot accounts - opt-in sub-balance slots for accounts that take many concurrent credits
+ * A hot account's balance is its account document's balance plus the balances of
+ * its slots in account_slots. A credit $incs one random slot, so concurrent credits
+ * queue on N slot documents instead of one account document. A debit takes from
+ * the account document first, then from a slot that covers the whole amount, and
+ * as a last resort gathers the slots into the account document and tries again.
+ * Every document is guarded at >= 0, so the account can never go negative.
+ *
+ * Moving a slot's funds (consolidate) is two writes: the slot hands the amount
+ * over as pendingSweep under the next sweep number, then the account is credited
+ * if it has not applied that number (or a later one) from the slot yet.
+ * A sweep cut short by a crash is finished by the next consolidate, and
+ * HotAccountConsolidator runs one per hot account every consolidate-interval-ms,
+ * which keeps most of the balance where debits look first.
+ *
+ * Reads add up the slots after the account document; while a sweep is between
+ * its two writes a read can miss the amount being moved, never count it twice.
+ * The balanceAfter of a hot account's ledger entries is that read, made just after
+ * the write, so concurrent credits may already show in it.
+ *
+ * Only TransferService and AccountService use the slots directly. Batch and
+ * multi-leg transfers and the reactive services credit the account document and
+ * consolidate a hot account before debiting it. Hot accounts
+ * cannot be combined with the sequencer engine, which owns the account balance.
+ * Configured with vaultcore.hot-accounts.ids (none by default) and .slots.
+ *
+ * Metrics: vaultcore.hot.debits {source="account" | "slot" | "consolidated"}
+ * and vaultcore.hot.sweeps.
+ */
+@Service
+public class HotAccountService {
+
+    private final AccountRepository accountRepository;
+    private final AccountSlotRepository slotRepository;
+    private final AccountCache accountCache;
+    private final Set<String> hotAccountIds;
+    private final int slots;
+    private final Counter accountDebits;
+    private final Counter slotDebits;
+    private final Counter consolidatedDebits;
+    private final Counter sweeps;
+
+    public HotAccountService(AccountRepository accountRepository, AccountSlotRepository slotRepository,
+                             AccountCache accountCache, ObjectProvider<SequencerEngine> sequencer,
+                             MeterRegistry meterRegistry,
+                             @Value("${vaultcore.hot-accounts.ids:}") Set<String> hotAccountIds,
+                             @Value("${vaultcore.hot-accounts.slots:16}") int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("vaultcore.hot-accounts.slots must be at least 1");
+        }
+        if (!hotAccountIds.isEmpty() && sequencer.getIfAvailable() != null) {
+            throw new IllegalStateException("vaultcore.hot-accounts needs vaultcore.transfer.engine=direct");
+        }
+        this.accountRepository = accountRepository;
+        this.slotRepository = slotRepository;
+        this.accountCache = accountCache;
+        this.hotAccountIds = Set.copyOf(hotAccountIds);
+        this.slots = slots;
+        this.accountDebits = debits(meterRegistry, "account");
+        this.slotDebits = debits(meterRegistry, "slot");
+        this.consolidatedDebits = debits(meterRegistry, "consolidated");
+        this.sweeps = Counter.builder("vaultcore.hot.sweeps")
+                .description("Slot balances moved back to their hot account")
+                .register(meterRegistry);
+    }
+
+    public boolean isHot(String accountId) {
+        return hotAccountIds.contains(accountId);
+    }
+
+    public Set<String> hotAccountIds() {
+        return hotAccountIds;
+    }
+
+    /**
+     * Credit one random slot - empty when the account does not exist or, if ownerId
+     * is given, does not belong to it. Returns the balance read after the credit.
+     */
+    public Optional<Money> credit(String accountId, String ownerId, Money amount) {
+        if (!ownedBy(accountId, ownerId)) {
+            return Optional.empty();
+        }
+        slotRepository.credit(accountId, ThreadLocalRandom.current().nextInt(slots), amount);
+        return Optional.of(balance(accountId));
+    }
+
+    /**
+     * Guarded debit over the account document and its slots - empty when the account
+     * does not exist, does not belong to ownerId or its funds do not cover amount
+     */
+    public Optional<Money> debit(String accountId, String ownerId, Money amount) {
+        Optional<Money> debited = debitAccount(accountId, ownerId, amount);
+        if (debited.isPresent()) {
+            accountDebits.increment();
+            return debited;
+        }
+        if (!ownedBy(accountId, ownerId)) {
+            return Optional.empty();
+        }
+        if (slotRepository.debitAnySlot(accountId, amount)) {
+            slotDebits.increment();
+            return Optional.of(balance(accountId));
+        }
+        // No single document covers it - gather the slots and try once more
+        if (!consolidate(accountId).isPositive()) {
+            return Optional.empty();
+        }
+        debited = debitAccount(accountId, ownerId, amount);
+        debited.ifPresent(balance -> consolidatedDebits.increment());
+        return debited;
+    }
+
+    /**
+     * Move every slot's balance into the account document, finishing sweeps left
+     * pending first. Returns the amount moved.
+     */
+    public Money consolidate(String accountId) {
+        Money moved = Money.ZERO;
+        for (AccountSlot slot : slotRepository.findByAccountId(accountId)) {
+            AccountSlot.PendingSweep pending = slot.getPendingSweep();
+            if (pending != null) {
+                // Cut short by a crash, or another caller is mid-way - finishing it again is harmless
+                finishSweep(slot, pending.amount());
+                moved = moved.plus(pending.amount());
+                continue;
+            }
+            if (slot.getBalance() == null || !slot.getBalance().isPositive()) {
+                continue;
+            }
+            Optional<AccountSlot> started = slotRepository.startSweep(slot.getId(), slot.getBalance());
+            if (started.isPresent()) {
+                finishSweep(started.get(), slot.getBalance());
+                moved = moved.plus(slot.getBalance());
+            }
+        }
+        if (moved.isPositive()) {
+            accountCache.invalidate(accountId); // the account document's balance changed underneath the cache
+        }
+        return moved;
+    }
+
+    /**
+     * The account with its slots added to the balance - other accounts are returned as they are
+     */
+    public Account withSlots(Account account) {
+        if (account == null || !isHot(account.getId())) {
+            return account;
+        }
+        Account total = AccountCache.copy(account);
+        Money balance = account.getBalance() == null ? Money.ZERO : account.getBalance();
+        total.setBalance(balance.plus(slotRepository.totalBalance(account.getId())));
+        return total;
+    }
+
+    private Optional<Money> debitAccount(String accountId, String ownerId, Money amount) {
+        return accountRepository.debitIfSufficient(accountId, ownerId, amount)
+                .map(update -> balanceChanged(accountId, update).plus(slotRepository.totalBalance(accountId)));
+    }
+
+    private void finishSweep(AccountSlot slot, Money amount) {
+        if (accountRepository.creditSweep(slot.getAccountId(), slot.getSlot(), slot.getSweeps(), amount)) {
+            sweeps.increment();
+        }
+        slotRepository.finishSweep(slot.getId(), slot.getSweeps());
+    }
+
+    /**
+     * Account document first, then the slots, so a finished sweep is never counted twice
+     */
+    private Money balance(String accountId) {
+        Money own = accountRepository.findById(accountId).map(Account::getBalance).orElse(Money.ZERO);
+        return own.plus(slotRepository.totalBalance(accountId));
+    }
+
+    private boolean ownedBy(String accountId, String ownerId) {
+        Optional<Account> account = accountCache.get(accountId, accountRepository::findById);
+        return account.isPresent() && (ownerId == null || ownerId.equals(account.get().getUserId()));
+    }
+
+    private Money balanceChanged(String accountId, BalanceUpdate update) {
+        accountCache.balanceChanged(accountId, update);
+        return update.balance();
+    }
+
+    private static Counter debits(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("vaultcore.hot.debits")
+                .description("Hot-account debits by where the funds were found")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
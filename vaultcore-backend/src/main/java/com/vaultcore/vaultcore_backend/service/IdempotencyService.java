@@ -0,0 +1,267 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vaultcore.vaultcore_backend.entity.IdempotencyRecord;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import com.vaultcore.vaultcore_backend.repository.IdempotencyRecordRepository;
+import com.vaultcore.vaultcore_backend.util.Hashes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for POST endpoints
+ * The first request with a key claims it with one insert, runs, and stores its
+ * response (status, content type, body) in idempotency_keys until a TTL index
+ * removes it. Later requests with the same key get that response back without
+ * the action running again:
+ * - from a bounded in-process cache, with no round trip,
+ * - from the stored record, when another instance served the first request,
+ * - or by waiting on the first request's result while it is still running here.
+ * A duplicate of a request still running on another instance gets 409 with
+ * Retry-After. A key reused with a different body gets 422.
+ *
+ * When the action throws ServiceBusyException (503) it has written nothing - the
+ * transaction rolled back or its writes were compensated - so the claim is
+ * released and a retry runs again. Any other failure may have committed part of
+ * its work, so a 500 is stored for the key and replayed instead.
+ * If an instance dies mid-request its claim blocks the key until pending-ttl
+ * passes - the outcome is unknown, so the key is not run again before that.
+ *
+ * Metrics: cache.* {cache="idempotent-responses"} and vaultcore.idempotency.replays {source}.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration pendingTtl;
+    private final long waitMillis;
+    private final Cache<String, StoredResponse> completed;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter cacheReplays;
+    private final Counter storeReplays;
+    private final Counter inFlightReplays;
+
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${vaultcore.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${vaultcore.idempotency.pending-ttl-seconds:300}") long pendingTtlSeconds,
+                              @Value("${vaultcore.idempotency.wait-seconds:30}") long waitSeconds,
+                              @Value("${vaultcore.idempotency.cache-size:10000}") long cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.pendingTtl = Duration.ofSeconds(pendingTtlSeconds);
+        this.waitMillis = TimeUnit.SECONDS.toMillis(waitSeconds);
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotent-responses");
+        this.cacheReplays = replays(meterRegistry, "cache");
+        this.storeReplays = replays(meterRegistry, "store");
+        this.inFlightReplays = replays(meterRegistry, "in-flight");
+    }
+
+    /**
+     * Run action at most once per user, endpoint and key - without a key it simply runs
+     */
+    public ResponseEntity<?> execute(String key, String endpoint, User user, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters"));
+        }
+        String id = Hashes.sha256(user.getId() + '\n' + endpoint + '\n' + key);
+        String requestHash = Hashes.sha256(toJson(request));
+
+        StoredResponse cached = completed.getIfPresent(id);
+        if (cached != null) {
+            cacheReplays.increment();
+            return cached.replay(requestHash);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return awaitInFlight(running, requestHash);
+        }
+        try {
+            Outcome outcome = claimAndRun(id, requestHash, action);
+            mine.complete(outcome.shared());
+            return outcome.response();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private Outcome claimAndRun(String id, String requestHash, Supplier<ResponseEntity<?>> action) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setRequestHash(requestHash);
+        record.setExpiresAt(LocalDateTime.now().plus(pendingTtl));
+        try {
+            repository.insert(record);
+        } catch (DuplicateKeyException e) {
+            return alreadyClaimed(id, requestHash);
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (ServiceBusyException e) {
+            repository.deleteById(id); // nothing was written - let a retry run it again
+            throw e;
+        } catch (RuntimeException e) {
+            // Part of the work may be committed - running it again could apply it twice
+            complete(id, record, requestHash, ResponseEntity.internalServerError().body(Map.of("message",
+                    "The original request failed and may have been partly applied - check before retrying with a new "
+                            + HEADER)));
+            throw e;
+        }
+        return new Outcome(complete(id, record, requestHash, response), response);
+    }
+
+    /**
+     * Store the response for the claimed key and cache it - returns what duplicates replay
+     */
+    private StoredResponse complete(String id, IdempotencyRecord record, String requestHash, ResponseEntity<?> response) {
+        StoredResponse stored = store(requestHash, response);
+        record.setStatus(stored.status());
+        record.setContentType(stored.contentType());
+        record.setBody(stored.body());
+        record.setExpiresAt(LocalDateTime.now().plus(ttl));
+        completed.put(id, stored);
+        try {
+            repository.save(record);
+        } catch (RuntimeException e) {
+            // The action already ran - answer it; other instances see the claim as pending until pending-ttl
+            System.err.println("❌ Could not store idempotent response: " + e.getMessage());
+        }
+        return stored;
+    }
+
+    /**
+     * Another instance (or an earlier request here) claimed the key first
+     */
+    private Outcome alreadyClaimed(String id, String requestHash) {
+        Optional<IdempotencyRecord> existing = repository.findById(id);
+        if (existing.isEmpty() || existing.get().isPending()) {
+            return new Outcome(null, stillProcessing()); // duplicates waiting here get the same answer
+        }
+        IdempotencyRecord record = existing.get();
+        StoredResponse stored = new StoredResponse(record.getRequestHash(), record.getStatus(),
+                record.getContentType(), record.getBody());
+        completed.put(id, stored);
+        storeReplays.increment();
+        return new Outcome(stored, stored.replay(requestHash));
+    }
+
+    private ResponseEntity<?> awaitInFlight(CompletableFuture<StoredResponse> running, String requestHash) {
+        try {
+            StoredResponse stored = running.get(waitMillis, TimeUnit.MILLISECONDS);
+            if (stored == null) {
+                return stillProcessing();
+            }
+            inFlightReplays.increment();
+            return stored.replay(requestHash);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause; // the first request failed - so does its duplicate
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            return stillProcessing();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the original request", e);
+        }
+    }
+
+    private static ResponseEntity<?> stillProcessing() {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("message", "A request with this " + HEADER + " is still being processed"));
+    }
+
+    private StoredResponse store(String requestHash, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        MediaType contentType = response.getHeaders().getContentType();
+        if (contentType == null && body != null) {
+            contentType = body instanceof CharSequence ? MediaType.TEXT_PLAIN : MediaType.APPLICATION_JSON;
+        }
+        return new StoredResponse(requestHash, response.getStatusCode().value(),
+                contentType == null ? null : contentType.toString(),
+                body == null ? null : body instanceof CharSequence text ? text.toString() : toJson(body));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static Counter replays(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("vaultcore.idempotency.replays")
+                .description("Responses replayed for a repeated Idempotency-Key")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * What the caller that ran (or tried to run) the action returns, and what its duplicates
+     * replay - shared is null when the key is still being processed elsewhere
+     */
+    private record Outcome(StoredResponse shared, ResponseEntity<?> response) {}
+
+    private record StoredResponse(String requestHash, int status, String contentType, String body) {
+
+        ResponseEntity<?> replay(String requestHash) {
+            if (this.requestHash != null && !this.requestHash.equals(requestHash)) {
+                return ResponseEntity.unprocessableEntity().body(Map.of("message",
+                        HEADER + " was already used for a different request"));
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(status).header(REPLAYED_HEADER, "true");
+            if (contentType != null) {
+                response.contentType(MediaType.parseMediaType(contentType));
+            }
+            return response.body(body);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit ledger writer
+ * Entries from concurrent requests are collected for a short window (or until
+ * the batch is full) and written with one unordered insertMany. Each caller's
+ * future completes only once the batch containing its entry is acknowledged,
+ * so durability is unchanged - only the round trips are shared.
+ *
+ * Metrics: vaultcore.ledger.batch.size and vaultcore.ledger.flush.latency,
+ * both published as histograms for tuning the window against p99 latency.
+ */
+@Component
+public class LedgerGroupCommitWriter {
+
+    private final LedgerRepository ledgerRepository;
+    private final BlockingQueue<PendingEntry> queue;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSize;
+    private final Timer flushLatency;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public LedgerGroupCommitWriter(LedgerRepository ledgerRepository, MeterRegistry meterRegistry,
+                                   @Value("${vaultcore.ledger.group-commit.window-micros:2000}") long windowMicros,
+                                   @Value("${vaultcore.ledger.group-commit.max-batch-size:256}") int maxBatchSize,
+                                   @Value("${vaultcore.ledger.group-commit.queue-capacity:10000}") int queueCapacity) {
+        this.ledgerRepository = ledgerRepository;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = DistributionSummary.builder("vaultcore.ledger.batch.size")
+                .description("Ledger entries written per group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("vaultcore.ledger.flush.latency")
+                .description("Time to insert one group-commit batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.thread = new Thread(this::run, "ledger-group-commit");
+        this.thread.start();
+    }
+
+    /**
+     * Queue an entry for the next batch - completes once the batch is acknowledged
+     */
+    public CompletableFuture<Ledger> append(Ledger entry) {
+        if (!running) {
+            throw new IllegalStateException("Ledger writer is shut down");
+        }
+        PendingEntry pending = new PendingEntry(entry, new CompletableFuture<>());
+        try {
+            // Blocks while the queue is full - backpressure on callers - but not past shutdown
+            while (!queue.offer(pending, 100, TimeUnit.MILLISECONDS)) {
+                if (!running) {
+                    throw new IllegalStateException("Ledger writer is shut down");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing ledger entry", e);
+        }
+        // Shut down between the check and the offer: the writer may already have exited,
+        // so take the entry back - if it is gone the writer has it and will complete it
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Ledger writer is shut down");
+        }
+        return pending.result();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        thread.join();
+        // Anything queued after the writer's last look would never complete otherwise
+        IllegalStateException shutDown = new IllegalStateException("Ledger writer is shut down");
+        for (PendingEntry pending = queue.poll(); pending != null; pending = queue.poll()) {
+            pending.result().completeExceptionally(shutDown);
+        }
+    }
+
+    private record PendingEntry(Ledger entry, CompletableFuture<Ledger> result) {}
+
+    private void run() {
+        List<PendingEntry> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false; // whatever was collected is still flushed below
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Wait for the first entry, then keep collecting until the window closes or the batch is full
+     */
+    private void collect(List<PendingEntry> batch) throws InterruptedException {
+        PendingEntry first = queue.poll(100, TimeUnit.MILLISECONDS); // wake up now and then to notice shutdown
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingEntry next = remaining > 0 && running
+                    ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                    : queue.poll();
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingEntry> batch) {
+        List<Ledger> entries = new ArrayList<>(batch.size());
+        for (PendingEntry pending : batch) {
+            entries.add(pending.entry());
+        }
+        batchSize.record(batch.size());
+
+        long start = System.nanoTime();
+        try {
+            ledgerRepository.insertUnordered(entries);
+            batch.forEach(pending -> pending.result().complete(pending.entry()));
+        } catch (BulkOperationException e) {
+            // Unordered insert - only the reported positions failed
+            boolean[] failed = new boolean[batch.size()];
+            for (BulkWriteError error : e.getErrors()) {
+                failed[error.getIndex()] = true;
+                batch.get(error.getIndex()).result().completeExceptionally(
+                        new IllegalStateException("Ledger entry rejected: " + error.getMessage()));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (!failed[i]) {
+                    batch.get(i).result().complete(batch.get(i).entry());
+                }
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -1,46 +1,115 @@
 package com.vaultcore.vaultcore_backend.service;
 
-import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.dto.HistoryPage;
 import com.vaultcore.vaultcore_backend.entity.Ledger;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.util.Futures;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Ledger Service - Handles immutable ledger entries
  * Ensures ledger entries are never modified once created
+ * Inserts go through the group-commit writer unless
+ * vaultcore.ledger.group-commit.enabled=false, or the caller is in a MongoDB
+ * transaction, which the entry has to be part of.
+ *
+ * Metrics: vaultcore.service.calls {service="ledger"} per method and outcome -
+ * appendLedgerEntry is timed until its group commit is acknowledged.
  */
 @Service
 public class LedgerService {
 
     private final LedgerRepository ledgerRepository;
+    private final LedgerGroupCommitWriter groupCommitWriter;
+    private final boolean groupCommitEnabled;
+    private final HistoryPaging paging;
+    private final ServiceMetrics.Operation appendCalls;
+    private final ServiceMetrics.Operation insertCalls;
+    private final ServiceMetrics.Operation accountHistoryCalls;
+    private final ServiceMetrics.Operation userHistoryCalls;
 
-    public LedgerService(LedgerRepository ledgerRepository) {
+    public LedgerService(LedgerRepository ledgerRepository, LedgerGroupCommitWriter groupCommitWriter,
+                         @Value("${vaultcore.ledger.group-commit.enabled:true}") boolean groupCommitEnabled,
+                         HistoryPaging paging, ServiceMetrics metrics) {
         this.ledgerRepository = ledgerRepository;
+        this.groupCommitWriter = groupCommitWriter;
+        this.groupCommitEnabled = groupCommitEnabled;
+        this.paging = paging;
+        this.appendCalls = metrics.operation("ledger", "appendLedgerEntry");
+        this.insertCalls = metrics.operation("ledger", "createLedgerEntries");
+        this.accountHistoryCalls = metrics.operation("ledger", "getLedgerEntriesByAccount");
+        this.userHistoryCalls = metrics.operation("ledger", "getLedgerEntriesByUser");
     }
 
     /**
      * Create a new ledger entry - this is the only way to add to ledger
      * Ledger entries are immutable once created
      */
-    public Ledger createLedgerEntry(BigDecimal amount, String transactionType, 
-                                    BigDecimal balanceAfter, Account account, User user) {
-        // Validation is done in Ledger constructor
-        Ledger ledger = new Ledger(amount, transactionType, balanceAfter, account, user);
-        return ledgerRepository.save(ledger);
+    public Ledger createLedgerEntry(Money amount, String transactionType,
+                                    Money balanceAfter, String accountId, String userId) {
+        return Futures.join(appendLedgerEntry(amount, transactionType, balanceAfter, accountId, userId));
     }
 
-    public List<Ledger> getLedgerEntriesByAccount(Account account) {
-        return ledgerRepository.findByAccountOrderByTimestampDesc(account);
+    /**
+     * Queue a new ledger entry without waiting - lets a caller with several
+     * entries (e.g. a transfer) put them all in the same group commit
+     */
+    public CompletableFuture<Ledger> appendLedgerEntry(Money amount, String transactionType,
+                                                       Money balanceAfter, String accountId, String userId) {
+        return appendCalls.recordAsync(() -> {
+            // Validation is done in Ledger constructor
+            Ledger ledger = new Ledger(amount, transactionType, balanceAfter, accountId, userId);
+            // The group-commit thread would write outside the caller's transaction
+            if (!groupCommitEnabled || TransactionSynchronizationManager.isActualTransactionActive()) {
+                return CompletableFuture.completedFuture(ledgerRepository.save(ledger));
+            }
+            return groupCommitWriter.append(ledger);
+        });
     }
 
-    public List<Ledger> getLedgerEntriesByUser(User user) {
-        return ledgerRepository.findByUserOrderByTimestampDesc(user);
+    /**
+     * Insert already-built entries with a single unordered insert - used by batch transfers,
+     * which have all their entries up front and do not need to wait for a group commit
+     */
+    public List<Ledger> createLedgerEntries(List<Ledger> entries) {
+        return insertCalls.record(() -> {
+            ledgerRepository.insertUnordered(entries);
+            return entries;
+        });
+    }
+
+    /**
+     * One page of an account's entries, newest first - cursor is the previous page's nextCursor
+     */
+    public HistoryPage<Ledger> getLedgerEntriesByAccount(String accountId, String cursor, Integer limit) {
+        return accountHistoryCalls.record(() -> {
+            int pageSize = paging.pageSize(limit);
+            return paging.toPage(
+                    ledgerRepository.findPageByAccountId(accountId, HistoryCursor.decode(cursor), pageSize + 1),
+                    pageSize, LedgerService::positionOf);
+        });
+    }
+
+    public HistoryPage<Ledger> getLedgerEntriesByUser(User user, String cursor, Integer limit) {
+        return userHistoryCalls.record(() -> {
+            int pageSize = paging.pageSize(limit);
+            return paging.toPage(
+                    ledgerRepository.findPageByUserId(user.getId(), HistoryCursor.decode(cursor), pageSize + 1),
+                    pageSize, LedgerService::positionOf);
+        });
+    }
+
+    private static HistoryCursor positionOf(Ledger entry) {
+        return new HistoryCursor(entry.getTimestamp(), entry.getId());
     }
 
     // No update or delete methods - ledger is immutable
 }
-
@@ -0,0 +1,390 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.dto.TransferLeg;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceChange;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceSnapshot;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.Counter;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Multi-leg transfers - N debits and M credits that must add up, applied together
+ *
+ * Every account of the transfer is leased first: a lease sub-document on the account,
+ * taken with one guarded update, in ascending account id order. A transfer that finds
+ * an account leased waits for it with backoff, keeping the leases it already holds.
+ * As all transfers lease in the same global order, a transfer only ever waits for one
+ * that is further along that order, which can always finish - so there is no cycle of
+ * waiters (deadlock), and since nobody hands leases back to start over, no livelock.
+ * A transfer that cannot lease an account within lease-wait-ms releases what it holds
+ * and fails with ServiceBusyException.
+ *
+ * With every account leased the legs are applied like a batch: one snapshot query,
+ * one bulk of compare-and-set debits, then one of credits, and one insert for all
+ * ledger entries. Leases only order multi-leg transfers among themselves - single
+ * transfers, deposits and withdrawals do not look at them - so a compare-and-set can
+ * still lose; lost accounts are re-read and retried, and debits already applied are
+ * credited back if a source no longer covers its leg. A destination deleted after the
+ * snapshot undoes the transfer: credits already applied are taken back, then the
+ * debits are refunded. A lease expires after
+ * lease-ttl-ms so an instance that dies mid-transfer cannot block its accounts for
+ * good; the compare-and-set writes keep balances right even if a lease ran out.
+ *
+ * Hot accounts are consolidated before they are debited. Not available with the
+ * sequencer engine, which owns the balances.
+ *
+ * Metrics: vaultcore.service.calls {service="multi-leg-transfer"},
+ * vaultcore.write.conflicts and vaultcore.write.retries {operation="multi-leg-transfer"},
+ * vaultcore.write.conflicts {operation="account-lease"} for leases found taken.
+ */
+@Service
+public class MultiLegTransferService {
+
+    private static final int MAX_ROUNDS = 5;
+    private static final long MAX_BACKOFF_MS = 16;
+
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+    private final SequencerEngine sequencer; // null unless the sequencer engine is enabled
+    private final AccountCache accountCache;
+    private final HotAccountService hotAccounts;
+    private final int maxLegs;
+    private final Duration leaseTtl;
+    private final Duration leaseWait;
+    private final ServiceMetrics.Operation transferCalls;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter leaseConflicts;
+
+    public MultiLegTransferService(AccountRepository accountRepository, LedgerService ledgerService,
+                                   ObjectProvider<SequencerEngine> sequencer, AccountCache accountCache,
+                                   HotAccountService hotAccounts, ServiceMetrics metrics,
+                                   @Value("${vaultcore.transfer.multi-leg.max-legs:100}") int maxLegs,
+                                   @Value("${vaultcore.transfer.multi-leg.lease-ttl-ms:10000}") long leaseTtlMs,
+                                   @Value("${vaultcore.transfer.multi-leg.lease-wait-ms:5000}") long leaseWaitMs) {
+        this.accountRepository = accountRepository;
+        this.ledgerService = ledgerService;
+        this.sequencer = sequencer.getIfAvailable();
+        this.accountCache = accountCache;
+        this.hotAccounts = hotAccounts;
+        this.maxLegs = maxLegs;
+        this.leaseTtl = Duration.ofMillis(leaseTtlMs);
+        this.leaseWait = Duration.ofMillis(leaseWaitMs);
+        this.transferCalls = metrics.operation("multi-leg-transfer", "transfer");
+        this.conflicts = metrics.conflicts("multi-leg-transfer");
+        this.retries = metrics.retries("multi-leg-transfer");
+        this.leaseConflicts = metrics.conflicts("account-lease");
+    }
+
+    /**
+     * Debit accounts owned by user and credit any accounts, all or nothing
+     * Each account may appear in one leg only, and debits must add up to credits.
+     */
+    public void transfer(List<TransferLeg> debits, List<TransferLeg> credits, User user) {
+        transferCalls.run(() -> applyTransfer(debits, credits, user));
+    }
+
+    private void applyTransfer(List<TransferLeg> debits, List<TransferLeg> credits, User user) {
+        if (user == null || user.getId() == null) {
+            throw new IllegalArgumentException("User must not be null");
+        }
+        if (sequencer != null) {
+            throw new IllegalStateException("Multi-leg transfers need vaultcore.transfer.engine=direct");
+        }
+        if (debits == null || debits.isEmpty() || credits == null || credits.isEmpty()) {
+            throw new IllegalArgumentException("A transfer needs at least one debit and one credit");
+        }
+        if (debits.size() + credits.size() > maxLegs) {
+            throw new IllegalArgumentException("A transfer may have at most " + maxLegs + " legs");
+        }
+
+        Map<String, Money> debitLegs = legs(debits);
+        Map<String, Money> creditLegs = legs(credits);
+        for (String accountId : creditLegs.keySet()) {
+            if (debitLegs.containsKey(accountId)) {
+                throw new IllegalArgumentException("Each account may appear in one leg only");
+            }
+        }
+        if (total(debitLegs).compareTo(total(creditLegs)) != 0) {
+            throw new IllegalArgumentException("Debits and credits must add up to the same amount");
+        }
+
+        SortedSet<String> accountIds = new TreeSet<>(debitLegs.keySet());
+        accountIds.addAll(creditLegs.keySet());
+        String token = new ObjectId().toHexString();
+        List<String> leased = new ArrayList<>(accountIds.size());
+        try {
+            acquireLeases(accountIds, debitLegs, token, leased);
+            applyLegs(debitLegs, creditLegs, accountIds, user, token);
+        } finally {
+            accountRepository.releaseLeases(leased, token);
+            // Bulk writes do not report the versions they produced
+            accountCache.invalidateAll(accountIds);
+        }
+    }
+
+    /**
+     * Lease the accounts in ascending id order, waiting for each in turn while holding the earlier ones
+     */
+    private void acquireLeases(SortedSet<String> accountIds, Map<String, Money> debitLegs,
+                               String token, List<String> leased) {
+        long deadline = System.nanoTime() + leaseWait.toNanos();
+        for (String accountId : accountIds) {
+            long backoffMs = 1;
+            while (!accountRepository.acquireLease(accountId, token, leaseTtl)) {
+                leaseConflicts.increment();
+                if (backoffMs == 1 && !accountRepository.existsById(accountId)) {
+                    throw notFound(accountId, debitLegs);
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    throw new ServiceBusyException("Accounts in this transfer are busy, please retry");
+                }
+                sleep(ThreadLocalRandom.current().nextLong(1, backoffMs + 1));
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+            leased.add(accountId);
+        }
+    }
+
+    private void applyLegs(Map<String, Money> debitLegs, Map<String, Money> creditLegs,
+                           Set<String> accountIds, User user, String token) {
+        for (String accountId : debitLegs.keySet()) {
+            if (hotAccounts.isHot(accountId)) {
+                hotAccounts.consolidate(accountId); // debits below only see the account document
+            }
+        }
+
+        Map<String, BalanceSnapshot> snapshots = accountRepository.findBalanceSnapshots(accountIds);
+        for (String accountId : accountIds) {
+            BalanceSnapshot snapshot = snapshots.get(accountId);
+            if (snapshot == null) {
+                throw notFound(accountId, debitLegs);
+            }
+            if (debitLegs.containsKey(accountId) && !user.getId().equals(snapshot.ownerId())) {
+                throw new IllegalArgumentException("You don't have permission to transfer from this account");
+            }
+        }
+
+        Map<String, Money> balances = new HashMap<>();
+        snapshots.forEach((id, snapshot) -> balances.put(id, snapshot.balance()));
+
+        Map<String, Money> debitedTo = applyDebits(debitLegs, balances, token);
+        Map<String, Money> creditedTo = applyCredits(creditLegs, balances, token, debitLegs, debitedTo);
+        writeLedger(debitLegs, debitedTo, creditLegs, creditedTo, user);
+    }
+
+    /**
+     * Returns each source's balance after its debit; if a source cannot be debited the
+     * debits already applied are credited back before failing
+     */
+    private Map<String, Money> applyDebits(Map<String, Money> debitLegs, Map<String, Money> balances, String token) {
+        Map<String, Money> debitedTo = new HashMap<>();
+        Set<String> pending = new HashSet<>(debitLegs.keySet());
+        for (int round = 0; round < MAX_ROUNDS && !pending.isEmpty(); round++) {
+            if (round > 0) {
+                retries.increment(pending.size());
+            }
+            List<BalanceChange> changes = new ArrayList<>(pending.size());
+            for (String accountId : pending) {
+                Money balance = balances.get(accountId);
+                if (balance.isLessThan(debitLegs.get(accountId))) {
+                    refund(debitedTo, debitLegs);
+                    throw new IllegalArgumentException("Insufficient balance in account " + accountId);
+                }
+                changes.add(new BalanceChange(accountId, balance, balance.minus(debitLegs.get(accountId))));
+            }
+            pending = applyRound(changes, balances, token + "-d" + round);
+            for (BalanceChange change : changes) {
+                if (!pending.contains(change.accountId())) {
+                    debitedTo.put(change.accountId(), change.updated());
+                }
+            }
+        }
+        if (!pending.isEmpty()) {
+            refund(debitedTo, debitLegs);
+            throw new ServiceBusyException("Accounts in this transfer are being updated concurrently, please retry");
+        }
+        return debitedTo;
+    }
+
+    /**
+     * Credits cannot fail on funds, so an account still losing to concurrent writers
+     * after the bulk rounds gets a single atomic $inc. If that finds the account gone,
+     * the credits and debits already applied are undone before failing.
+     */
+    private Map<String, Money> applyCredits(Map<String, Money> creditLegs, Map<String, Money> balances, String token,
+                                            Map<String, Money> debitLegs, Map<String, Money> debitedTo) {
+        Map<String, Money> creditedTo = new HashMap<>();
+        Set<String> pending = new HashSet<>(creditLegs.keySet());
+        for (int round = 0; round < MAX_ROUNDS && !pending.isEmpty(); round++) {
+            if (round > 0) {
+                retries.increment(pending.size());
+            }
+            List<BalanceChange> changes = new ArrayList<>(pending.size());
+            for (String accountId : pending) {
+                Money balance = balances.get(accountId);
+                changes.add(new BalanceChange(accountId, balance, balance.plus(creditLegs.get(accountId))));
+            }
+            pending = applyRound(changes, balances, token + "-c" + round);
+            for (BalanceChange change : changes) {
+                if (!pending.contains(change.accountId())) {
+                    creditedTo.put(change.accountId(), change.updated());
+                }
+            }
+        }
+        retries.increment(pending.size());
+        for (String accountId : pending) {
+            Optional<Money> balance = accountRepository.credit(accountId, null, creditLegs.get(accountId))
+                    .map(BalanceUpdate::balance);
+            if (balance.isEmpty()) {
+                Money kept = reverse(creditedTo, creditLegs);
+                refund(debitedTo, debitLegs, kept);
+                throw new IllegalArgumentException("Destination account not found");
+            }
+            creditedTo.put(accountId, balance.get());
+        }
+        return creditedTo;
+    }
+
+    /**
+     * Take back credits already applied - returns what could not be taken back because
+     * the account has spent it since (deposits and single transfers ignore leases)
+     */
+    private Money reverse(Map<String, Money> creditedTo, Map<String, Money> creditLegs) {
+        Money kept = Money.ZERO;
+        for (String accountId : creditedTo.keySet()) {
+            Money amount = creditLegs.get(accountId);
+            if (accountRepository.debitIfSufficient(accountId, null, amount).isEmpty()) {
+                System.err.println("❌ Could not take back a credit of " + amount + " from account " + accountId);
+                kept = kept.plus(amount);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * One bulk of compare-and-set updates. Returns the accounts that lost to a concurrent
+     * writer, with their fresh balances loaded into balances; winners keep their new balance.
+     */
+    private Set<String> applyRound(List<BalanceChange> changes, Map<String, Money> balances, String token) {
+        long applied = accountRepository.compareAndSetBalances(changes, token);
+        Set<String> lost = new HashSet<>();
+        if (applied == changes.size()) {
+            changes.forEach(change -> balances.put(change.accountId(), change.updated()));
+            return lost;
+        }
+
+        // Short count - read back once to see which updates carry our token
+        Map<String, BalanceSnapshot> current = accountRepository.findBalanceSnapshots(
+                changes.stream().map(BalanceChange::accountId).toList());
+        for (BalanceChange change : changes) {
+            BalanceSnapshot snapshot = current.get(change.accountId());
+            if (snapshot != null && snapshot.recentBatchOps().contains(token)) {
+                balances.put(change.accountId(), change.updated());
+            } else {
+                lost.add(change.accountId());
+                conflicts.increment();
+                if (snapshot != null) {
+                    balances.put(change.accountId(), snapshot.balance());
+                }
+            }
+        }
+        return lost;
+    }
+
+    private void refund(Map<String, Money> debitedTo, Map<String, Money> debitLegs) {
+        refund(debitedTo, debitLegs, Money.ZERO);
+    }
+
+    /**
+     * Credit the debited sources back, less kept - money that stayed with a credited account,
+     * so refunding it as well would create money. Sources are refunded in leg order.
+     */
+    private void refund(Map<String, Money> debitedTo, Map<String, Money> debitLegs, Money kept) {
+        Money withheld = kept;
+        for (String accountId : debitLegs.keySet()) {
+            if (!debitedTo.containsKey(accountId)) {
+                continue;
+            }
+            Money amount = debitLegs.get(accountId);
+            if (withheld.isPositive()) {
+                Money taken = withheld.isLessThan(amount) ? withheld : amount;
+                withheld = withheld.minus(taken);
+                amount = amount.minus(taken);
+                System.err.println("❌ Not refunding " + taken + " to account " + accountId
+                        + " - it stayed with a credited account");
+            }
+            if (amount.isPositive()) {
+                accountRepository.credit(accountId, null, amount);
+            }
+        }
+    }
+
+    /**
+     * All debit entries first, then all credit entries, in leg order - one insert
+     */
+    private void writeLedger(Map<String, Money> debitLegs, Map<String, Money> debitedTo,
+                             Map<String, Money> creditLegs, Map<String, Money> creditedTo, User user) {
+        List<Ledger> entries = new ArrayList<>(debitLegs.size() + creditLegs.size());
+        debitLegs.forEach((accountId, amount) ->
+                entries.add(new Ledger(amount, "DEBIT", debitedTo.get(accountId), accountId, user.getId())));
+        creditLegs.forEach((accountId, amount) ->
+                entries.add(new Ledger(amount, "CREDIT", creditedTo.get(accountId), accountId, user.getId())));
+        ledgerService.createLedgerEntries(entries);
+    }
+
+    private static Map<String, Money> legs(List<TransferLeg> legs) {
+        Map<String, Money> byAccount = new LinkedHashMap<>();
+        for (TransferLeg leg : legs) {
+            if (leg == null || leg.getAccountId() == null) {
+                throw new IllegalArgumentException("Account IDs must not be null");
+            }
+            if (leg.getAmount() == null || !leg.getAmount().isPositive()) {
+                throw new IllegalArgumentException("Transfer amount must be positive");
+            }
+            if (byAccount.putIfAbsent(leg.getAccountId(), leg.getAmount()) != null) {
+                throw new IllegalArgumentException("Each account may appear in one leg only");
+            }
+        }
+        return byAccount;
+    }
+
+    private static Money total(Map<String, Money> legs) {
+        return legs.values().stream().reduce(Money.ZERO, Money::plus);
+    }
+
+    private static IllegalArgumentException notFound(String accountId, Map<String, Money> debitLegs) {
+        return new IllegalArgumentException(debitLegs.containsKey(accountId)
+                ? "Source account not found" : "Destination account not found");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for account leases", e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.ReactiveAccountRepository;
+import com.vaultcore.vaultcore_backend.repository.ReactiveLedgerRepository;
+import com.vaultcore.vaultcore_backend.repository.ReactiveTransactionRepository;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive Transaction Service - deposits / withdrawals and history without blocking
+ * History is a Flux read straight from the Mongo cursor: nothing is collected, and
+ * the next batch is fetched only when the client has consumed the previous one.
+ * A withdrawal from a hot account consolidates its slots first (off the event
+ * loop), since the guarded debit only sees the account document.
+ */
+@Service
+public class ReactiveTransactionService {
+
+    private final ReactiveAccountRepository accountRepository;
+    private final ReactiveLedgerRepository ledgerRepository;
+    private final ReactiveTransactionRepository transactionRepository;
+    private final SequencerEngine sequencer; // null unless the sequencer engine is enabled
+    private final AccountCache accountCache;
+    private final HotAccountService hotAccounts;
+
+    public ReactiveTransactionService(ReactiveAccountRepository accountRepository,
+                                      ReactiveLedgerRepository ledgerRepository,
+                                      ReactiveTransactionRepository transactionRepository,
+                                      ObjectProvider<SequencerEngine> sequencer, AccountCache accountCache,
+                                      HotAccountService hotAccounts) {
+        this.accountRepository = accountRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.transactionRepository = transactionRepository;
+        this.sequencer = sequencer.getIfAvailable();
+        this.accountCache = accountCache;
+        this.hotAccounts = hotAccounts;
+    }
+
+    /**
+     * The account, if it exists and belongs to user
+     */
+    public Mono<Account> findOwnedAccount(String accountId, User user) {
+        if (accountId == null || accountId.isBlank()) {
+            return Mono.error(new IllegalArgumentException("Account ID cannot be null or empty"));
+        }
+        return accountRepository.findById(accountId)
+                .filter(account -> user.getId().equals(account.getUserId()));
+    }
+
+    /**
+     * Apply a DEBIT or CREDIT to an account of user, write its ledger entry and record it
+     */
+    public Mono<Transaction> performTransaction(String accountId, String type, Money amount, User user) {
+        return findOwnedAccount(accountId, user)
+                .switchIfEmpty(Mono.error(new IllegalArgumentException("Invalid account")))
+                .flatMap(account -> applyBalanceChange(accountId, type, amount, user.getId())
+                        .flatMap(newBalance -> ledgerRepository.insert(
+                                new Ledger(amount, type, newBalance, accountId, user.getId())))
+                        .then(Mono.fromSupplier(() -> {
+                            Transaction transaction = new Transaction();
+                            transaction.setAmount(amount);
+                            transaction.setType(type);
+                            transaction.setAccountId(account.getId());
+                            transaction.setAccountType(account.getAccountType());
+                            transaction.setUserId(user.getId());
+                            return transaction;
+                        }))
+                        .flatMap(transactionRepository::insert));
+    }
+
+    /**
+     * The user's transactions, newest first, after the cursor; limit null = all of them.
+     * A bad cursor or limit throws right away, before anything is streamed.
+     */
+    public Flux<Transaction> getTransactionsByUser(User user, String cursor, Integer limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        return transactionRepository.findNewestFirstByUserId(user.getId(), after, streamLimit(limit));
+    }
+
+    /**
+     * Ledger entries of an account, newest first, after the cursor; limit null = all of them
+     */
+    public Flux<Ledger> getLedgerEntriesByAccount(String accountId, String cursor, Integer limit) {
+        HistoryCursor after = HistoryCursor.decode(cursor);
+        return ledgerRepository.findNewestFirstByAccountId(accountId, after, streamLimit(limit));
+    }
+
+    private Mono<Money> applyBalanceChange(String accountId, String type, Money amount, String ownerId) {
+        // The reactive updates report no version - drop the cached account instead
+        return balanceChange(accountId, type, amount, ownerId).doFinally(signal -> accountCache.invalidate(accountId));
+    }
+
+    private Mono<Money> balanceChange(String accountId, String type, Money amount, String ownerId) {
+        if ("DEBIT".equals(type)) {
+            Mono<Money> debit = sequencer != null
+                    ? Mono.fromFuture(() -> sequencer.debit(accountId, ownerId, amount))
+                    : consolidateIfHot(accountId)
+                            .then(Mono.defer(() -> accountRepository.debitIfSufficient(accountId, ownerId, amount)));
+            return debit.switchIfEmpty(Mono.error(new IllegalArgumentException("Insufficient balance")));
+        }
+        if ("CREDIT".equals(type)) {
+            Mono<Money> credit = sequencer != null
+                    ? Mono.fromFuture(() -> sequencer.credit(accountId, ownerId, amount))
+                    : accountRepository.credit(accountId, ownerId, amount);
+            return credit.switchIfEmpty(Mono.error(new IllegalArgumentException("Account not found")));
+        }
+        return Mono.error(new IllegalArgumentException("Invalid transaction type"));
+    }
+
+    /**
+     * Move a hot account's slot balances into its account document - HotAccountService blocks
+     */
+    private Mono<Void> consolidateIfHot(String accountId) {
+        if (!hotAccounts.isHot(accountId)) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> hotAccounts.consolidate(accountId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    // A stream needs no page size, but an explicit limit must still make sense
+    private static int streamLimit(Integer limit) {
+        if (limit == null) {
+            return 0;
+        }
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return limit;
+    }
+}
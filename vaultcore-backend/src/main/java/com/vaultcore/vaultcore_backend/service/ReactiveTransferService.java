@@ -0,0 +1,114 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.ReactiveAccountRepository;
+import com.vaultcore.vaultcore_backend.repository.ReactiveLedgerRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Reactive Transfer Service - TransferService as a non-blocking pipeline
+ * Same guarded findAndModify steps and compensation as the blocking service, but
+ * each step subscribes to the next instead of holding a thread while MongoDB
+ * answers. Both ledger entries are written with one insert. Touched accounts are
+ * dropped from AccountCache once the pipeline ends, whichever way it ends.
+ * A hot source's slots are consolidated first (off the event loop), since the
+ * guarded debit only sees the account document.
+ */
+@Service
+public class ReactiveTransferService {
+
+    private final ReactiveAccountRepository accountRepository;
+    private final ReactiveLedgerRepository ledgerRepository;
+    private final SequencerEngine sequencer; // null unless the sequencer engine is enabled
+    private final AccountCache accountCache;
+    private final HotAccountService hotAccounts;
+
+    public ReactiveTransferService(ReactiveAccountRepository accountRepository,
+                                   ReactiveLedgerRepository ledgerRepository,
+                                   ObjectProvider<SequencerEngine> sequencer, AccountCache accountCache,
+                                   HotAccountService hotAccounts) {
+        this.accountRepository = accountRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.sequencer = sequencer.getIfAvailable();
+        this.accountCache = accountCache;
+        this.hotAccounts = hotAccounts;
+    }
+
+    /**
+     * Completes empty once both balances and the ledger are written; errors with
+     * IllegalArgumentException for anything the caller got wrong
+     */
+    public Mono<Void> transfer(String fromAccountId, String toAccountId, Money amount, User user) {
+        if (fromAccountId == null || toAccountId == null) {
+            return Mono.error(new IllegalArgumentException("Account IDs must not be null"));
+        }
+        if (user == null || user.getId() == null) {
+            return Mono.error(new IllegalArgumentException("User must not be null"));
+        }
+        if (amount == null || !amount.isPositive()) {
+            return Mono.error(new IllegalArgumentException("Transfer amount must be positive"));
+        }
+
+        if (sequencer != null) {
+            return Mono.fromFuture(() -> sequencer.transfer(fromAccountId, toAccountId, user.getId(), amount))
+                    .flatMap(result -> writeLedger(amount, result.fromBalance(), fromAccountId,
+                            result.toBalance(), toAccountId, user))
+                    .doFinally(signal -> invalidate(fromAccountId, toAccountId));
+        }
+
+        return consolidateIfHot(fromAccountId)
+                .then(Mono.defer(() -> accountRepository.debitIfSufficient(fromAccountId, user.getId(), amount)))
+                .switchIfEmpty(Mono.defer(() -> debitFailure(fromAccountId, user)))
+                .flatMap(fromBalance -> accountRepository.credit(toAccountId, null, amount)
+                        // Destination vanished - put the money back before failing
+                        .switchIfEmpty(Mono.defer(() -> accountRepository.credit(fromAccountId, null, amount)
+                                .then(Mono.error(new IllegalArgumentException("Destination account not found")))))
+                        .flatMap(toBalance -> writeLedger(amount, fromBalance, fromAccountId,
+                                toBalance, toAccountId, user)))
+                .doFinally(signal -> invalidate(fromAccountId, toAccountId));
+    }
+
+    /**
+     * Move a hot account's slot balances into its account document - HotAccountService blocks
+     */
+    private Mono<Void> consolidateIfHot(String accountId) {
+        if (!hotAccounts.isHot(accountId)) {
+            return Mono.empty();
+        }
+        return Mono.fromRunnable(() -> hotAccounts.consolidate(accountId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    private void invalidate(String fromAccountId, String toAccountId) {
+        accountCache.invalidate(fromAccountId);
+        accountCache.invalidate(toAccountId);
+    }
+
+    private Mono<Void> writeLedger(Money amount, Money fromBalance, String fromAccountId,
+                                   Money toBalance, String toAccountId, User user) {
+        return ledgerRepository.insert(List.of(
+                        new Ledger(amount, "DEBIT", fromBalance, fromAccountId, user.getId()),
+                        new Ledger(amount, "CREDIT", toBalance, toAccountId, user.getId())))
+                .then();
+    }
+
+    /**
+     * Work out which guard rejected a debit - only runs on the failure path
+     */
+    private <T> Mono<T> debitFailure(String accountId, User user) {
+        return accountRepository.findById(accountId)
+                .map(account -> user.getId().equals(account.getUserId())
+                        ? new IllegalArgumentException("Insufficient balance")
+                        : new IllegalArgumentException("You don't have permission to transfer from this account"))
+                .defaultIfEmpty(new IllegalArgumentException("Source account not found"))
+                .flatMap(Mono::error);
+    }
+}
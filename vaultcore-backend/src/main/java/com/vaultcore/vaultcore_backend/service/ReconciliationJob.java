@@ -0,0 +1,39 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs an incremental reconciliation on a schedule (nightly by default)
+ * Breaks are kept on the run's record in reconciliation_runs.
+ * Disable with vaultcore.reconciliation.enabled=false.
+ */
+@Component
+@ConditionalOnProperty(name = "vaultcore.reconciliation.enabled", havingValue = "true", matchIfMissing = true)
+public class ReconciliationJob {
+
+    private final ReconciliationService reconciliationService;
+
+    public ReconciliationJob(ReconciliationService reconciliationService) {
+        this.reconciliationService = reconciliationService;
+    }
+
+    @Scheduled(cron = "${vaultcore.reconciliation.cron:0 30 2 * * *}")
+    public void run() {
+        try {
+            ReconciliationRun run = reconciliationService.reconcile(false);
+            if (run.getBreakCount() == 0) {
+                System.out.println("✅ Reconciliation #" + run.getNumber() + ": " + run.getEntries()
+                        + " ledger entries, " + run.getAccountsChecked() + " accounts, no breaks");
+            } else {
+                System.err.println("❌ Reconciliation #" + run.getNumber() + " found " + run.getBreakCount()
+                        + " breaks in " + run.getAccountsChecked() + " accounts");
+            }
+        } catch (RuntimeException e) {
+            // Nothing is recorded - the next run starts from the last completed one
+            System.err.println("❌ Reconciliation run failed: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun;
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun.Break;
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun.BreakType;
+import com.vaultcore.vaultcore_backend.entity.ReconciliationState;
+import com.vaultcore.vaultcore_backend.entity.ReconciliationState.Totals;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceSnapshot;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepositoryCustom.LedgerPosting;
+import com.vaultcore.vaultcore_backend.repository.ReconciliationRunRepository;
+import com.vaultcore.vaultcore_backend.repository.ReconciliationStateRepository;
+import com.vaultcore.vaultcore_backend.util.AccountSums;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+/**
+ * Reconciliation - checks every account balance against the ledger entries behind it
+ *
+ * A run reads the ledger in _id order, so each entry is seen once whatever its timestamp.
+ * The _id range up to now minus settle-lag-seconds is cut into partitions by ObjectId
+ * time and scanned on a fork-join pool: each partition streams lean postings into its
+ * own AccountSums, and the halves are merged on the way back up. There are more
+ * partitions than threads so a thread that finishes a quiet hour takes over part of a
+ * busy one. The entries past the cut-off are streamed too, only to compare against the
+ * balances as they are now.
+ *
+ * For each account with entries, its sums are checked against the account document:
+ * BALANCE_MISMATCH when the balance is not the opening balance plus every entry,
+ * BROKEN_CHAIN when the balanceAfter values do not chain from one entry to the next
+ * (see AccountSums), MISSING_ACCOUNT when the account is gone. A balance written just
+ * before its ledger entry looks like a break for a moment, so breaks are read again
+ * after recheck-delay-ms and only those still there are reported.
+ *
+ * Runs are incremental: each account's sums up to the cut-off are kept in
+ * reconciliation_state and the next run adds only the entries after the last run's
+ * cut-off to them, so a nightly run reads a day of ledger, not all of it. A full run
+ * starts again from the first entry. A run's states are written before its run record;
+ * states written by a run that failed before its record was saved are reverted at the
+ * start of the next run. An entry inserted more than settle-lag-seconds after its _id
+ * was generated falls behind the cut-off and is only seen by the next full run.
+ * Run it on one instance at a time.
+ *
+ * Accounts with no entries are not checked - an opening balance is not on the ledger.
+ * Hot accounts are only checked for existence: slot credits do not write a running
+ * balance, and the balanceAfter of their entries may already include concurrent slot
+ * credits, so neither the chain nor an opening balance derived from it can be trusted.
+ *
+ * Metrics: vaultcore.service.calls {service="reconciliation"},
+ * vaultcore.reconciliation.breaks {type}.
+ */
+@Service
+public class ReconciliationService {
+
+    static final int ACCOUNT_CHUNK = 1000;
+
+    private final LedgerRepository ledgerRepository;
+    private final AccountRepository accountRepository;
+    private final ReconciliationRunRepository runRepository;
+    private final ReconciliationStateRepository stateRepository;
+    private final HotAccountService hotAccounts;
+    private final int parallelism;
+    private final int partitions;
+    private final long settleLagSeconds;
+    private final long recheckDelayMs;
+    private final int maxReportedBreaks;
+    private final ServiceMetrics.Operation reconcileCalls;
+    private final Map<BreakType, Counter> breakCounters = new EnumMap<>(BreakType.class);
+
+    public ReconciliationService(LedgerRepository ledgerRepository, AccountRepository accountRepository,
+                                 ReconciliationRunRepository runRepository,
+                                 ReconciliationStateRepository stateRepository,
+                                 HotAccountService hotAccounts, ServiceMetrics metrics, MeterRegistry meterRegistry,
+                                 @Value("${vaultcore.reconciliation.parallelism:0}") int parallelism,
+                                 @Value("${vaultcore.reconciliation.partitions:64}") int partitions,
+                                 @Value("${vaultcore.reconciliation.settle-lag-seconds:60}") long settleLagSeconds,
+                                 @Value("${vaultcore.reconciliation.recheck-delay-ms:2000}") long recheckDelayMs,
+                                 @Value("${vaultcore.reconciliation.max-reported-breaks:1000}") int maxReportedBreaks) {
+        if (parallelism < 0) {
+            throw new IllegalArgumentException("vaultcore.reconciliation.parallelism must not be negative");
+        }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("vaultcore.reconciliation.partitions must be at least 1");
+        }
+        this.ledgerRepository = ledgerRepository;
+        this.accountRepository = accountRepository;
+        this.runRepository = runRepository;
+        this.stateRepository = stateRepository;
+        this.hotAccounts = hotAccounts;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.partitions = partitions;
+        this.settleLagSeconds = settleLagSeconds;
+        this.recheckDelayMs = recheckDelayMs;
+        this.maxReportedBreaks = maxReportedBreaks;
+        this.reconcileCalls = metrics.operation("reconciliation", "reconcile");
+        for (BreakType type : BreakType.values()) {
+            breakCounters.put(type, Counter.builder("vaultcore.reconciliation.breaks")
+                    .description("Accounts whose balance or balance chain disagrees with the ledger")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Run a reconciliation - from the last run's cut-off, or over the whole ledger when full
+     */
+    public synchronized ReconciliationRun reconcile(boolean full) {
+        return reconcileCalls.record(() -> run(full));
+    }
+
+    private ReconciliationRun run(boolean full) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        Optional<ReconciliationRun> last = runRepository.findFirstByOrderByNumberDesc();
+        long lastRun = last.map(ReconciliationRun::getNumber).orElse(0L);
+        long number = lastRun + 1;
+        stateRepository.revertRunsAfter(lastRun);
+
+        ObjectId from = full ? null : last.map(run -> new ObjectId(run.getUpToLedgerId())).orElse(null);
+        ObjectId upTo = ObjectId.getSmallestWithDate(Date.from(Instant.now().minusSeconds(settleLagSeconds)));
+        if (from != null && from.compareTo(upTo) > 0) {
+            upTo = from; // the cut-off never moves back, or the tail would repeat entries already in the states
+        }
+
+        List<ObjectId> bounds = partitionBounds(from, upTo);
+        AccountSums scanned = scan(bounds);
+        AccountSums tail = sum(ledgerRepository.streamPostings(upTo, null, null));
+
+        // Stored sums (incremental runs only) plus this run's range, then the tail on top for the comparison
+        Set<String> touched = new LinkedHashSet<>(scanned.accountIds());
+        touched.addAll(tail.accountIds());
+        List<String> accountIds = new ArrayList<>(touched);
+        Map<String, Totals> stored = new HashMap<>();
+        AccountSums committed = new AccountSums();
+        for (List<String> chunk : chunks(accountIds)) {
+            for (ReconciliationState state : stateRepository.findAllById(chunk)) {
+                Totals totals = state.getCurrent();
+                if (totals == null) {
+                    continue;
+                }
+                stored.put(state.getAccountId(), totals);
+                if (!full) {
+                    committed.merge(state.getAccountId(),
+                            totals.firstLedgerId() != null ? new ObjectId(totals.firstLedgerId()) : null,
+                            totals.opening(), totals.net(), totals.chain(), totals.entries());
+                }
+            }
+        }
+        committed.addAll(scanned);
+        AccountSums observed = new AccountSums();
+        observed.addAll(committed);
+        observed.addAll(tail);
+
+        List<Break> breaks = compare(accountIds, observed);
+        if (!breaks.isEmpty()) {
+            breaks = recheck(breaks, committed, upTo);
+        }
+
+        List<ReconciliationState> states = new ArrayList<>(scanned.size());
+        long entries = 0;
+        for (String accountId : scanned.accountIds()) {
+            entries += scanned.entries(accountId);
+            states.add(new ReconciliationState(accountId, totals(number, committed, accountId),
+                    stored.get(accountId)));
+            if (states.size() == ACCOUNT_CHUNK) {
+                stateRepository.saveStates(states);
+                states.clear();
+            }
+        }
+        stateRepository.saveStates(states);
+
+        breaks.forEach(found -> breakCounters.get(found.type()).increment());
+        ReconciliationRun run = new ReconciliationRun();
+        run.setNumber(number);
+        run.setFull(full);
+        run.setStartedAt(startedAt);
+        run.setFromLedgerId(from != null ? from.toHexString() : null);
+        run.setUpToLedgerId(upTo.toHexString());
+        run.setPartitions(Math.max(0, bounds.size() - 1));
+        run.setEntries(entries);
+        run.setAccountsChecked(accountIds.size());
+        run.setBreakCount(breaks.size());
+        run.setBreaks(new ArrayList<>(breaks.subList(0, Math.min(breaks.size(), maxReportedBreaks))));
+        run.setFinishedAt(LocalDateTime.now());
+        return runRepository.save(run);
+    }
+
+    /**
+     * from, the partition boundaries and upTo - evenly spaced in ObjectId time, which has
+     * one-second resolution, so a short range gets fewer partitions. Empty when there is nothing to scan.
+     * Bounds fall on whole seconds, as the cut-off does - AccountSums needs an account's first
+     * _id-second in one piece to find its opening balance.
+     */
+    List<ObjectId> partitionBounds(ObjectId from, ObjectId upTo) {
+        ObjectId start = from != null ? from : ledgerRepository.findFirstLedgerId().orElse(upTo);
+        if (start.compareTo(upTo) >= 0) {
+            return List.of();
+        }
+        List<ObjectId> bounds = new ArrayList<>(partitions + 1);
+        bounds.add(start);
+        long first = start.getTimestamp();
+        long span = upTo.getTimestamp() - first;
+        for (int i = 1; i < partitions; i++) {
+            ObjectId bound = ObjectId.getSmallestWithDate(new Date((first + span * i / partitions) * 1000));
+            if (bound.compareTo(bounds.get(bounds.size() - 1)) > 0 && bound.compareTo(upTo) < 0) {
+                bounds.add(bound);
+            }
+        }
+        bounds.add(upTo);
+        return bounds;
+    }
+
+    private AccountSums scan(List<ObjectId> bounds) {
+        if (bounds.size() < 2) {
+            return new AccountSums();
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new PartitionScan(bounds, 0, bounds.size() - 1));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Partitions lo (inclusive) to hi (exclusive) - split in half until one is left
+     */
+    private final class PartitionScan extends RecursiveTask<AccountSums> {
+
+        private final List<ObjectId> bounds;
+        private final int lo;
+        private final int hi;
+
+        PartitionScan(List<ObjectId> bounds, int lo, int hi) {
+            this.bounds = bounds;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected AccountSums compute() {
+            if (hi - lo == 1) {
+                return sum(ledgerRepository.streamPostings(bounds.get(lo), bounds.get(hi), null));
+            }
+            int mid = (lo + hi) >>> 1;
+            PartitionScan left = new PartitionScan(bounds, lo, mid);
+            left.fork();
+            AccountSums right = new PartitionScan(bounds, mid, hi).compute();
+            AccountSums sums = left.join();
+            sums.addAll(right);
+            return sums;
+        }
+    }
+
+    private static AccountSums sum(Stream<LedgerPosting> postings) {
+        AccountSums sums = new AccountSums();
+        try (postings) {
+            postings.forEach(posting -> sums.add(posting.accountId(), posting.id(), posting.signedAmount(),
+                    posting.balanceAfter()));
+        }
+        return sums;
+    }
+
+    private List<Break> compare(List<String> accountIds, AccountSums sums) {
+        List<Break> breaks = new ArrayList<>();
+        for (List<String> chunk : chunks(accountIds)) {
+            Map<String, BalanceSnapshot> snapshots = accountRepository.findBalanceSnapshots(chunk);
+            for (String accountId : chunk) {
+                Break found = check(accountId, sums, snapshots.get(accountId));
+                if (found != null) {
+                    breaks.add(found);
+                }
+            }
+        }
+        return breaks;
+    }
+
+    private Break check(String accountId, AccountSums sums, BalanceSnapshot snapshot) {
+        Money ledgerBalance = Money.ofMinor(sums.closing(accountId));
+        if (snapshot == null) {
+            return new Break(accountId, BreakType.MISSING_ACCOUNT, ledgerBalance, null);
+        }
+        if (hotAccounts.isHot(accountId)) {
+            return null; // no trustworthy opening balance - see the class comment
+        }
+        Money balance = snapshot.balance();
+        if (!balance.equals(ledgerBalance)) {
+            return new Break(accountId, BreakType.BALANCE_MISMATCH, ledgerBalance, balance);
+        }
+        if (!sums.chainIntact(accountId)) {
+            return new Break(accountId, BreakType.BROKEN_CHAIN, ledgerBalance, balance);
+        }
+        return null;
+    }
+
+    /**
+     * Read the tail and the balances of the suspect accounts again, once in-flight writes had time to land
+     */
+    private List<Break> recheck(List<Break> suspects, AccountSums committed, ObjectId upTo) {
+        try {
+            Thread.sleep(recheckDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rechecking reconciliation breaks", e);
+        }
+        List<String> accountIds = suspects.stream().map(Break::accountId).toList();
+        AccountSums observed = new AccountSums();
+        for (List<String> chunk : chunks(accountIds)) {
+            chunk.forEach(accountId -> observed.addAccount(committed, accountId));
+            observed.addAll(sum(ledgerRepository.streamPostings(upTo, null, chunk)));
+        }
+        return compare(accountIds, observed);
+    }
+
+    private static Totals totals(long run, AccountSums sums, String accountId) {
+        ObjectId first = sums.firstId(accountId);
+        return new Totals(run, first != null ? first.toHexString() : null, sums.opening(accountId),
+                sums.net(accountId), sums.chain(accountId), sums.entries(accountId));
+    }
+
+    private static List<List<String>> chunks(List<String> accountIds) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < accountIds.size(); i += ACCOUNT_CHUNK) {
+            chunks.add(accountIds.subList(i, Math.min(i + ACCOUNT_CHUNK, accountIds.size())));
+        }
+        return chunks;
+    }
+}
@@ -1,57 +1,116 @@
 package com.vaultcore.vaultcore_backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.vaultcore.vaultcore_backend.entity.RefreshToken;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.repository.RefreshTokenRepository;
+import com.vaultcore.vaultcore_backend.util.Hashes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
-import java.util.UUID;
 
+/**
+ * Refresh Token Service
+ * Only a SHA-256 of each token is stored, expired tokens are removed by a TTL
+ * index on expiryDate, and a user keeps at most max-per-user tokens - logging in
+ * again revokes the oldest. Revoked hashes are remembered in-process until they
+ * would have expired anyway, so a revoked token is refused without a read
+ * (other instances refuse it too, because its document is gone).
+ */
 @Service
 public class RefreshTokenService {
 
+    private static final int TOKEN_BYTES = 32;
+
     private final RefreshTokenRepository refreshTokenRepository;
-    private static final int REFRESH_TOKEN_EXPIRATION_DAYS = 7;
+    private final Duration ttl;
+    private final int maxPerUser;
+    private final Cache<String, Boolean> revoked;
+    private final SecureRandom random = new SecureRandom();
 
-    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, MeterRegistry meterRegistry,
+                               @Value("${vaultcore.auth.refresh.ttl-days:7}") long ttlDays,
+                               @Value("${vaultcore.auth.refresh.max-per-user:5}") int maxPerUser,
+                               @Value("${vaultcore.auth.refresh.revocation-cache-size:100000}") long revocationCacheSize) {
+        if (maxPerUser < 1) {
+            throw new IllegalArgumentException("vaultcore.auth.refresh.max-per-user must be at least 1");
+        }
         this.refreshTokenRepository = refreshTokenRepository;
+        this.ttl = Duration.ofDays(ttlDays);
+        this.maxPerUser = maxPerUser;
+        this.revoked = Caffeine.newBuilder()
+                .maximumSize(revocationCacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, revoked, "revoked-refresh-tokens");
     }
 
-    public RefreshToken createRefreshToken(User user) {
+    /**
+     * Issue a token for user - the returned value is the only copy of it
+     */
+    public String createRefreshToken(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
         RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setUser(user);
-        refreshToken.setExpiryDate(LocalDateTime.now().plusDays(REFRESH_TOKEN_EXPIRATION_DAYS));
-        refreshToken.setToken(UUID.randomUUID().toString());
-        refreshToken.setRevoked(false);
-        return refreshTokenRepository.save(refreshToken);
-    }
+        refreshToken.setTokenHash(Hashes.sha256(token));
+        refreshToken.setUserId(user.getId());
+        refreshToken.setExpiryDate(LocalDateTime.now().plus(ttl));
+        refreshTokenRepository.save(refreshToken);
 
-    public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByToken(token);
+        enforceCap(user.getId());
+        return token;
     }
 
-    public RefreshToken verifyExpiration(RefreshToken token) {
-        if (token.getExpiryDate().isBefore(LocalDateTime.now())) {
-            refreshTokenRepository.delete(token);
-            throw new RuntimeException("Refresh token was expired. Please make a new signin request");
+    /**
+     * The stored token, unless it is unknown, revoked or expired. The TTL monitor runs
+     * about once a minute, so expiry is checked here as well.
+     */
+    public Optional<RefreshToken> findValid(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
         }
-        if (token.isRevoked()) {
-            throw new RuntimeException("Refresh token has been revoked");
+        String hash = Hashes.sha256(token);
+        if (revoked.getIfPresent(hash) != null) {
+            return Optional.empty();
         }
-        return token;
+        return refreshTokenRepository.findByTokenHash(hash)
+                .filter(stored -> stored.getExpiryDate().isAfter(LocalDateTime.now()));
     }
 
-    @Transactional
-    public void deleteByUser(User user) {
-        refreshTokenRepository.deleteByUser(user);
+    public void revoke(String token) {
+        String hash = Hashes.sha256(token);
+        revoked.put(hash, Boolean.TRUE);
+        refreshTokenRepository.deleteByTokenHash(hash);
     }
 
-    @Transactional
-    public void deleteByToken(String token) {
-        refreshTokenRepository.deleteByToken(token);
+    /**
+     * Revoke every token of a user, e.g. after a password change
+     */
+    public void revokeAll(String userId) {
+        refreshTokenRepository.findHashesByUserId(userId)
+                .forEach(stored -> revoked.put(stored.getTokenHash(), Boolean.TRUE));
+        refreshTokenRepository.deleteByUserId(userId);
     }
-}
 
+    private void enforceCap(String userId) {
+        List<RefreshToken> tokens = refreshTokenRepository.findHashesByUserId(userId);
+        if (tokens.size() <= maxPerUser) {
+            return;
+        }
+        List<RefreshToken> oldest = tokens.subList(maxPerUser, tokens.size());
+        oldest.forEach(stored -> revoked.put(stored.getTokenHash(), Boolean.TRUE));
+        refreshTokenRepository.deleteAllById(oldest.stream().map(RefreshToken::getId).toList());
+    }
+}
@@ -0,0 +1,471 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import com.vaultcore.vaultcore_backend.util.MpscRingBuffer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Sequencer Engine - in-memory, single-writer balance engine (opt-in)
+ * Enabled with vaultcore.transfer.engine=sequencer.
+ *
+ * Accounts are hashed to N shards. Each shard owns the balances of its accounts
+ * in memory and applies commands strictly in order on its own thread, fed by a
+ * lock-free ring buffer, so a change to an account the shard already holds never
+ * waits on MongoDB. The first touch of an account does: the shard thread reads it
+ * and replays its ledger entries newer than the stored balance. Dirty balances are
+ * written back asynchronously; callers keep writing the ledger via LedgerService,
+ * which remains the durable record.
+ *
+ * A failed write-back stays pending and is retried every second, and once more
+ * (a few times) on shutdown, which fails loudly if balances are still unwritten.
+ * Balances written back carry the moment they were taken (Account#balanceAsOf),
+ * so changes acknowledged after it - or never written back at all - are rebuilt
+ * from the ledger the next time the account is loaded.
+ *
+ * Cross-shard transfers are a two-step handoff: the source shard debits, then
+ * hands a credit to the destination shard (refunded if the destination is missing).
+ *
+ * Balances are held as long minor units, so applying a command is plain long
+ * arithmetic; a Money is only created for the result handed back to the caller.
+ *
+ * Assumes this process is the only writer of account balances while enabled.
+ */
+@Service
+@ConditionalOnProperty(name = "vaultcore.transfer.engine", havingValue = "sequencer")
+public class SequencerEngine {
+
+    private static final int SPINS_BEFORE_PARK = 200;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long RETRY_INTERVAL_MS = 1000;
+    private static final int FINAL_ATTEMPTS = 5;
+    private static final long FINAL_BACKOFF_MS = 100;
+
+    private final AccountRepository accountRepository;
+    private final LedgerRepository ledgerRepository;
+    private final AccountCache accountCache;
+    private final Shard[] shards;
+    private final long flushIntervalNanos;
+    private final AtomicLong inFlight = new AtomicLong();
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+
+    public SequencerEngine(AccountRepository accountRepository, LedgerRepository ledgerRepository,
+                           AccountCache accountCache,
+                           @Value("${vaultcore.sequencer.shards:4}") int shardCount,
+                           @Value("${vaultcore.sequencer.ring-size:1024}") int ringSize,
+                           @Value("${vaultcore.sequencer.flush-interval-ms:50}") long flushIntervalMs) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("Sequencer shard count must be positive");
+        }
+        this.accountRepository = accountRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.accountCache = accountCache;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i, ringSize);
+        }
+        for (Shard shard : shards) {
+            shard.thread.start();
+        }
+    }
+
+    public record TransferResult(Money fromBalance, Money toBalance) {}
+
+    /**
+     * Debit an account owned by ownerId - completes with the balance after the debit
+     */
+    public CompletableFuture<Money> debit(String accountId, String ownerId, Money amount) {
+        CompletableFuture<Money> result = new CompletableFuture<>();
+        submit(accountId, new Debit(accountId, ownerId, amount, result), result);
+        return result;
+    }
+
+    /**
+     * Credit an account - ownerId may be null to skip the ownership check
+     */
+    public CompletableFuture<Money> credit(String accountId, String ownerId, Money amount) {
+        CompletableFuture<Money> result = new CompletableFuture<>();
+        submit(accountId, new Credit(accountId, ownerId, amount, result), result);
+        return result;
+    }
+
+    /**
+     * Move money from an account owned by ownerId to any other account
+     */
+    public CompletableFuture<TransferResult> transfer(String fromAccountId, String toAccountId,
+                                                      String ownerId, Money amount) {
+        CompletableFuture<TransferResult> result = new CompletableFuture<>();
+        submit(fromAccountId, new TransferDebit(fromAccountId, toAccountId, ownerId, amount, result), result);
+        return result;
+    }
+
+    /**
+     * Stop accepting commands, let in-flight ones (including handoffs) finish, then flush and stop.
+     * Throws IllegalStateException when balances could not be written back - they are then
+     * only in the ledger, and rebuilt from it when the accounts are next loaded.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        running = false;
+        for (Shard shard : shards) {
+            LockSupport.unpark(shard.thread);
+            shard.thread.join();
+        }
+        int unpersisted = 0;
+        for (Shard shard : shards) {
+            unpersisted += shard.drain();
+        }
+        if (unpersisted > 0) {
+            System.err.println("❌ Sequencer shut down with " + unpersisted + " balances not written back");
+            throw new IllegalStateException("Sequencer could not write back " + unpersisted + " balances");
+        }
+    }
+
+    private void submit(String accountId, Command command, CompletableFuture<?> result) {
+        if (!accepting) {
+            throw new IllegalStateException("Sequencer engine is shut down");
+        }
+        Shard shard = shardFor(accountId);
+        inFlight.incrementAndGet();
+        result.whenComplete((value, error) -> inFlight.decrementAndGet());
+        shard.submit(command);
+    }
+
+    private Shard shardFor(String accountId) {
+        if (accountId == null) {
+            throw new IllegalArgumentException("Account ID must not be null");
+        }
+        return shards[Math.floorMod(accountId.hashCode(), shards.length)];
+    }
+
+    // --- Commands -----------------------------------------------------------
+
+    private sealed interface Command permits Debit, Credit, TransferDebit, TransferCredit, Refund {}
+
+    private record Debit(String accountId, String ownerId, Money amount,
+                         CompletableFuture<Money> result) implements Command {}
+
+    private record Credit(String accountId, String ownerId, Money amount,
+                          CompletableFuture<Money> result) implements Command {}
+
+    private record TransferDebit(String fromAccountId, String toAccountId, String ownerId, Money amount,
+                                 CompletableFuture<TransferResult> result) implements Command {}
+
+    /** Second step of a transfer, applied on the destination shard */
+    private record TransferCredit(TransferDebit origin, Money fromBalance) implements Command {}
+
+    /** Compensation for a transfer whose destination could not be credited */
+    private record Refund(TransferDebit origin, String reason) implements Command {}
+
+    private static final class AccountState {
+        final String ownerId;
+        long balance; // minor units
+
+        AccountState(String ownerId, long balance) {
+            this.ownerId = ownerId;
+            this.balance = balance;
+        }
+    }
+
+    // --- Shard --------------------------------------------------------------
+
+    private final class Shard implements Runnable {
+
+        private final MpscRingBuffer<Command> ring;
+        // Shard-to-shard handoffs are unbounded so two full shards can never block each other
+        private final ConcurrentLinkedQueue<Command> handoffs = new ConcurrentLinkedQueue<>();
+        private final Thread thread;
+        private final ScheduledExecutorService persister;
+
+        // Owned by the shard thread only
+        private final Map<String, AccountState> accounts = new HashMap<>();
+        private Map<String, Money> dirty = new HashMap<>();
+        private long lastFlush = System.nanoTime();
+
+        // Owned by the persister thread only
+        private final Map<String, Money> pending = new HashMap<>();
+        private LocalDateTime pendingAsOf;
+
+        Shard(int index, int ringSize) {
+            this.ring = new MpscRingBuffer<>(ringSize);
+            this.thread = new Thread(this, "sequencer-shard-" + index);
+            this.persister = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "sequencer-persist-" + index));
+            // An idle shard sends no new snapshots, so failed balances are retried on a timer too
+            persister.scheduleWithFixedDelay(this::writePending, RETRY_INTERVAL_MS, RETRY_INTERVAL_MS,
+                    TimeUnit.MILLISECONDS);
+        }
+
+        void submit(Command command) {
+            ring.put(command);
+            LockSupport.unpark(thread);
+        }
+
+        void handoff(Command command) {
+            handoffs.add(command);
+            LockSupport.unpark(thread);
+        }
+
+        @Override
+        public void run() {
+            int idleSpins = 0;
+            while (running || !ring.isEmpty() || !handoffs.isEmpty()) {
+                Command command = handoffs.poll();
+                if (command == null) {
+                    command = ring.poll();
+                }
+                if (command != null) {
+                    apply(command);
+                    idleSpins = 0;
+                    flushIfDue();
+                } else if (++idleSpins < SPINS_BEFORE_PARK) {
+                    Thread.onSpinWait();
+                } else {
+                    flushIfDue();
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+            }
+            flush();
+        }
+
+        private void apply(Command command) {
+            try {
+                switch (command) {
+                    case Debit d -> d.result().complete(debit(d.accountId(), d.ownerId(), d.amount()));
+                    case Credit c -> c.result().complete(credit(c.accountId(), c.ownerId(), c.amount()));
+                    case TransferDebit t -> applyTransferDebit(t);
+                    case TransferCredit t -> applyTransferCredit(t);
+                    case Refund r -> {
+                        credit(r.origin().fromAccountId(), null, r.origin().amount());
+                        r.origin().result().completeExceptionally(new IllegalArgumentException(r.reason()));
+                    }
+                }
+            } catch (RuntimeException e) {
+                fail(command, e);
+            }
+        }
+
+        private void applyTransferDebit(TransferDebit t) {
+            Money fromBalance = debit(t.fromAccountId(), t.ownerId(), t.amount());
+            Shard destination = shardFor(t.toAccountId());
+            if (destination == this) {
+                applyTransferCredit(new TransferCredit(t, fromBalance));
+            } else {
+                destination.handoff(new TransferCredit(t, fromBalance));
+            }
+        }
+
+        private void applyTransferCredit(TransferCredit t) {
+            TransferDebit origin = t.origin();
+            AccountState to = load(origin.toAccountId());
+            if (to == null) {
+                Shard source = shardFor(origin.fromAccountId());
+                Refund refund = new Refund(origin, "Destination account not found");
+                if (source == this) {
+                    apply(refund);
+                } else {
+                    source.handoff(refund);
+                }
+                return;
+            }
+            origin.result().complete(new TransferResult(t.fromBalance(),
+                    change(origin.toAccountId(), to, origin.amount().minorUnits())));
+        }
+
+        private Money debit(String accountId, String ownerId, Money amount) {
+            AccountState account = owned(accountId, ownerId);
+            if (account.balance < amount.minorUnits()) {
+                throw new IllegalArgumentException("Insufficient balance");
+            }
+            return change(accountId, account, -amount.minorUnits());
+        }
+
+        private Money credit(String accountId, String ownerId, Money amount) {
+            return change(accountId, owned(accountId, ownerId), amount.minorUnits());
+        }
+
+        private AccountState owned(String accountId, String ownerId) {
+            AccountState account = load(accountId);
+            if (account == null) {
+                throw new IllegalArgumentException("Account not found");
+            }
+            if (ownerId != null && !ownerId.equals(account.ownerId)) {
+                throw new IllegalArgumentException("You don't have permission to use this account");
+            }
+            return account;
+        }
+
+        private Money change(String accountId, AccountState account, long delta) {
+            account.balance = Math.addExact(account.balance, delta);
+            Money balance = Money.ofMinor(account.balance);
+            dirty.put(accountId, balance);
+            return balance;
+        }
+
+        /**
+         * First touch reads the account from MongoDB (on the shard thread); from then on the shard owns it
+         */
+        private AccountState load(String accountId) {
+            AccountState state = accounts.get(accountId);
+            if (state == null) {
+                Optional<Account> account = accountRepository.findById(accountId);
+                if (account.isEmpty()) {
+                    return null;
+                }
+                state = new AccountState(account.get().getUserId(), replayLedger(accountId, account.get()));
+                accounts.put(accountId, state);
+            }
+            return state;
+        }
+
+        /**
+         * The stored balance plus the account's ledger entries it does not include yet.
+         * Entries from balanceAsOf on may already be counted in the stored balance (the
+         * ledger entry is created just after the change), so instead of summing them the
+         * balanceAfter chain is followed: an entry is applied when its balance before
+         * (balanceAfter minus its amount) is the balance reached so far. Balances never
+         * written by this engine (balanceAsOf is null) are taken as they are.
+         */
+        private long replayLedger(String accountId, Account account) {
+            long balance = account.getBalance().minorUnits();
+            if (account.getBalanceAsOf() == null) {
+                return balance;
+            }
+            List<Ledger> later;
+            try (Stream<Ledger> entries = ledgerRepository.streamByAccountId(accountId, account.getBalanceAsOf(), null)) {
+                later = new ArrayList<>(entries.toList());
+            }
+            int replayed = 0;
+            boolean found = true;
+            while (found) {
+                found = false;
+                for (Iterator<Ledger> it = later.iterator(); it.hasNext(); ) {
+                    Ledger entry = it.next();
+                    long after = entry.getBalanceAfter().minorUnits();
+                    long amount = entry.getAmount().minorUnits();
+                    long before = "CREDIT".equals(entry.getTransactionType()) ? after - amount : after + amount;
+                    if (before == balance) {
+                        balance = after;
+                        it.remove();
+                        replayed++;
+                        found = true;
+                        break;
+                    }
+                }
+            }
+            if (replayed > 0) {
+                System.out.println("✅ Sequencer replayed " + replayed + " ledger entries for account " + accountId);
+            }
+            return balance;
+        }
+
+        private void fail(Command command, RuntimeException e) {
+            switch (command) {
+                case Debit d -> d.result().completeExceptionally(e);
+                case Credit c -> c.result().completeExceptionally(e);
+                case TransferDebit t -> t.result().completeExceptionally(e);
+                // The source was already debited - send the money back before failing
+                case TransferCredit t -> shardFor(t.origin().fromAccountId()).handoff(new Refund(t.origin(), e.getMessage()));
+                case Refund r -> r.origin().result().completeExceptionally(e);
+            }
+        }
+
+        private void flushIfDue() {
+            if (!dirty.isEmpty() && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                flush();
+            }
+        }
+
+        /**
+         * Hand the dirty balances to the persister - writing them back never blocks the shard thread
+         */
+        private void flush() {
+            lastFlush = System.nanoTime();
+            if (dirty.isEmpty()) {
+                return;
+            }
+            Map<String, Money> snapshot = dirty;
+            LocalDateTime asOf = LocalDateTime.now(); // every change applied so far is in the snapshot
+            dirty = new HashMap<>();
+            persister.execute(() -> persist(snapshot, asOf));
+        }
+
+        private void persist(Map<String, Money> snapshot, LocalDateTime asOf) {
+            // Snapshots arrive in order on one thread, so a newer balance always overwrites an older one,
+            // and an older pending balance is still current as of the newer snapshot
+            pending.putAll(snapshot);
+            pendingAsOf = asOf;
+            writePending();
+        }
+
+        /**
+         * Write the pending balances - on failure they stay pending for the next snapshot or retry
+         */
+        private boolean writePending() {
+            if (pending.isEmpty()) {
+                return true;
+            }
+            try {
+                accountRepository.setBalances(pending, pendingAsOf);
+                accountCache.invalidateAll(pending.keySet()); // a read before this flush may have cached the old balance
+                pending.clear();
+                return true;
+            } catch (RuntimeException e) {
+                System.err.println("❌ Sequencer " + thread.getName() + " failed to persist "
+                        + pending.size() + " balances: " + e.getMessage());
+                return false;
+            }
+        }
+
+        /**
+         * After the shard thread's final flush: retry what is pending a few more times, then
+         * stop the persister. Returns the number of balances that could not be written.
+         */
+        int drain() throws InterruptedException {
+            Future<Integer> left = persister.submit(() -> {
+                for (int attempt = 1; !writePending() && attempt < FINAL_ATTEMPTS; attempt++) {
+                    Thread.sleep(FINAL_BACKOFF_MS * attempt);
+                }
+                return pending.size();
+            });
+            persister.shutdown();
+            try {
+                return left.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Sequencer " + thread.getName() + " failed to drain", e.getCause());
+            } finally {
+                persister.awaitTermination(10, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Statement Service - exports an account's ledger for a date range
+ * Entries go from a Mongo cursor straight to the output stream, one row at a
+ * time, so memory use is one cursor batch plus one write buffer regardless of
+ * how many years are exported. Output is flushed every FLUSH_EVERY rows so the
+ * client receives chunks while the export is still running.
+ */
+@Service
+public class StatementService {
+
+    private static final int FLUSH_EVERY = 500;
+    private static final String CSV_HEADER = "timestamp,id,transactionType,amount,balanceAfter";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        public static Format parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NDJSON;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported statement format: " + value);
+            }
+        }
+    }
+
+    private final LedgerRepository ledgerRepository;
+    private final ObjectWriter jsonWriter;
+
+    public StatementService(LedgerRepository ledgerRepository, ObjectMapper objectMapper) {
+        this.ledgerRepository = ledgerRepository;
+        this.jsonWriter = objectMapper.writer();
+    }
+
+    /**
+     * Check a requested range before any output is written - dates are inclusive
+     */
+    public void validateRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("Statement start date must not be after end date");
+        }
+    }
+
+    /**
+     * Write all entries of the account from 'from' to 'to' (inclusive dates, either may be null)
+     */
+    public void writeStatement(String accountId, LocalDate from, LocalDate to, Format format,
+                               OutputStream out) throws IOException {
+        validateRange(from, to);
+        LocalDateTime start = from != null ? from.atStartOfDay() : null;
+        LocalDateTime end = to != null ? to.plusDays(1).atStartOfDay() : null;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Ledger> entries = ledgerRepository.streamByAccountId(accountId, start, end)) {
+            int rows = 0;
+            for (Iterator<Ledger> it = entries.iterator(); it.hasNext(); ) {
+                Ledger entry = it.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, entry);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(entry));
+                }
+                writer.write('\n');
+                if (++rows % FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    // Every column is an id, a timestamp, a number or DEBIT/CREDIT - nothing needs quoting
+    private static void writeCsvRow(Writer writer, Ledger entry) throws IOException {
+        writer.write(String.valueOf(entry.getTimestamp()));
+        writer.write(',');
+        writer.write(entry.getId());
+        writer.write(',');
+        writer.write(entry.getTransactionType());
+        writer.write(',');
+        writer.write(entry.getAmount().toString());
+        writer.write(',');
+        writer.write(entry.getBalanceAfter().toString());
+    }
+}
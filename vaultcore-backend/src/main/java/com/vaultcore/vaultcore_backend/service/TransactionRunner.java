@@ -0,0 +1,120 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.mongodb.MongoException;
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work in one of two modes
+ * ATOMIC runs it as it is: every write is a single-document atomic update, durable on
+ * its own, and the services compensate when a later step fails - cheap, but a crash
+ * between two writes leaves the first one behind. TRANSACTIONAL runs it in a MongoDB
+ * multi-document transaction (needs a replica set), so either every write lands or none.
+ *
+ * A transaction failing with TransientTransactionError - a write conflict with another
+ * transaction, an election, a network error - is run again from the start, up to
+ * max-attempts times with jittered exponential backoff, then fails with
+ * ServiceBusyException. Commits with an unknown outcome are retried in place by
+ * RetryingMongoTransactionManager.
+ *
+ * The mode is chosen per operation by the calling service (vaultcore.transactions.*),
+ * so each can use the cheapest one that is correct for it, and the two can be
+ * benchmarked against each other (TransferConsistencyBenchmarkTest).
+ *
+ * Metrics: vaultcore.write.conflicts and vaultcore.write.retries {operation="transaction"},
+ * vaultcore.write.retries {operation="transaction-commit"}.
+ */
+@Component
+public class TransactionRunner {
+
+    public enum Mode { ATOMIC, TRANSACTIONAL }
+
+    private static final long MAX_BACKOFF_MS = 200;
+
+    private final TransactionTemplate transactionTemplate; // null when the storage has no transactions
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final Counter conflicts;
+    private final Counter retries;
+
+    public TransactionRunner(ObjectProvider<PlatformTransactionManager> transactionManager, ServiceMetrics metrics,
+                             @Value("${vaultcore.transactions.max-attempts:5}") int maxAttempts,
+                             @Value("${vaultcore.transactions.backoff-ms:5}") long backoffMs) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("vaultcore.transactions.max-attempts must be at least 1");
+        }
+        PlatformTransactionManager manager = transactionManager.getIfAvailable();
+        this.transactionTemplate = manager == null ? null : new TransactionTemplate(manager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.conflicts = metrics.conflicts("transaction");
+        this.retries = metrics.retries("transaction");
+    }
+
+    /**
+     * Fail at startup rather than on the first request when a mode cannot be honoured
+     */
+    public void checkAvailable(Mode mode, String property) {
+        if (mode == Mode.TRANSACTIONAL && transactionTemplate == null) {
+            throw new IllegalStateException(property + "=transactional needs vaultcore.storage=mongo");
+        }
+    }
+
+    public <T> T execute(Mode mode, Supplier<T> work) {
+        if (mode == Mode.ATOMIC) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                if (!hasErrorLabel(e, MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL)) {
+                    throw e;
+                }
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    throw new ServiceBusyException("Too many conflicting updates, please retry");
+                }
+                retries.increment();
+                sleep(attempt);
+            }
+        }
+    }
+
+    public void run(Mode mode, Runnable work) {
+        execute(mode, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * The driver's exception may come wrapped by Spring's translation or by the commit
+     */
+    private static boolean hasErrorLabel(Throwable failure, String label) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongo && mongo.hasErrorLabel(label)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void sleep(int attempt) {
+        long ceiling = Math.min(backoffMs << (attempt - 1), MAX_BACKOFF_MS);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a transaction", e);
+        }
+    }
+}
@@ -1,61 +1,91 @@
 package com.vaultcore.vaultcore_backend.service;
 
-import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.dto.HistoryPage;
 import com.vaultcore.vaultcore_backend.entity.Transaction;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.repository.TransactionRepository;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.math.BigDecimal;
-import java.util.List;
 
+/**
+ * Deposits and withdrawals made through POST /api/transactions
+ * A DEBIT runs in the vaultcore.transactions.withdraw mode and a CREDIT in the
+ * .deposit mode (see TransactionRunner), the same settings TransferService uses;
+ * transactional puts the balance update, ledger entry and transaction record in
+ * one MongoDB transaction.
+ *
+ * Metrics: vaultcore.service.calls {service="transaction"} per method and outcome.
+ */
 @Service
 public class TransactionService {
 
     private final TransactionRepository repository;
     private final AccountService accountService;
     private final LedgerService ledgerService;
+    private final HistoryPaging paging;
+    private final TransactionRunner transactions;
+    private final TransactionRunner.Mode withdrawMode;
+    private final TransactionRunner.Mode depositMode;
+    private final ServiceMetrics.Operation performCalls;
+    private final ServiceMetrics.Operation historyCalls;
 
     public TransactionService(TransactionRepository repository, AccountService accountService,
-                             LedgerService ledgerService) {
+                             LedgerService ledgerService, HistoryPaging paging, ServiceMetrics metrics,
+                             TransactionRunner transactions,
+                             @Value("${vaultcore.transactions.withdraw:atomic}") TransactionRunner.Mode withdrawMode,
+                             @Value("${vaultcore.transactions.deposit:atomic}") TransactionRunner.Mode depositMode) {
+        transactions.checkAvailable(withdrawMode, "vaultcore.transactions.withdraw");
+        transactions.checkAvailable(depositMode, "vaultcore.transactions.deposit");
         this.repository = repository;
         this.accountService = accountService;
         this.ledgerService = ledgerService;
+        this.paging = paging;
+        this.transactions = transactions;
+        this.withdrawMode = withdrawMode;
+        this.depositMode = depositMode;
+        this.performCalls = metrics.operation("transaction", "performTransaction");
+        this.historyCalls = metrics.operation("transaction", "getTransactionsByUser");
     }
 
-    @Transactional
     public Transaction performTransaction(Transaction transaction) {
-        Account account = transaction.getAccount();
-        BigDecimal newBalance;
+        TransactionRunner.Mode mode = "DEBIT".equals(transaction.getType()) ? withdrawMode : depositMode;
+        return performCalls.record(() -> transactions.execute(mode, () -> applyTransaction(transaction)));
+    }
+
+    private Transaction applyTransaction(Transaction transaction) {
+        String accountId = transaction.getAccountId();
+        String ownerId = transaction.getUserId();
+        Money newBalance;
 
+        // Guarded atomic update - balance check and change happen in one findAndModify
         if ("DEBIT".equals(transaction.getType())) {
-            if (account.getBalance().compareTo(transaction.getAmount()) < 0) {
-                throw new IllegalArgumentException("Insufficient balance");
-            }
-            newBalance = account.getBalance().subtract(transaction.getAmount());
+            newBalance = accountService.debit(accountId, ownerId, transaction.getAmount())
+                    .orElseThrow(() -> new IllegalArgumentException("Insufficient balance"));
         } else if ("CREDIT".equals(transaction.getType())) {
-            newBalance = account.getBalance().add(transaction.getAmount());
+            newBalance = accountService.credit(accountId, ownerId, transaction.getAmount())
+                    .orElseThrow(() -> new IllegalArgumentException("Account not found"));
         } else {
             throw new IllegalArgumentException("Invalid transaction type");
         }
 
-        // Validate balance constraint
-        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalStateException("Balance constraint violation: balance cannot be negative");
-        }
-
-        account.setBalance(newBalance);
-        accountService.createAccount(account); // Update account balance
-
         // Create immutable ledger entry
         ledgerService.createLedgerEntry(transaction.getAmount(), transaction.getType(),
-                                       newBalance, account, transaction.getUser());
+                                       newBalance, accountId, ownerId);
 
         return repository.save(transaction);
     }
 
-    public List<Transaction> getTransactionsByUser(User user) {
-        return repository.findByUserOrderByTimestampDesc(user);
+    /**
+     * One page of the user's transactions, newest first - cursor is the previous page's nextCursor
+     */
+    public HistoryPage<Transaction> getTransactionsByUser(User user, String cursor, Integer limit) {
+        return historyCalls.record(() -> {
+            int pageSize = paging.pageSize(limit);
+            return paging.toPage(
+                    repository.findPageByUserId(user.getId(), HistoryCursor.decode(cursor), pageSize + 1),
+                    pageSize, txn -> new HistoryCursor(txn.getTimestamp(), txn.getId()));
+        });
     }
 }
\ No newline at end of file
@@ -1,182 +1,248 @@
 package com.vaultcore.vaultcore_backend.service;
 
 import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.util.Futures;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * Transfer Service with SERIALIZABLE isolation level
- * This ensures that concurrent transactions are fully isolated and
- * prevents race conditions when multiple threads try to modify balances simultaneously.
+ * Transfer Service built on guarded atomic balance updates
+ * Every balance change is a single findAndModify that checks ownership and
+ * sufficient funds on the server, so concurrent requests can never lose an
+ * update or drive a balance negative. The happy path costs one round trip per
+ * account touched; the account is only read back to explain a failure.
+ *
+ * With vaultcore.transfer.engine=sequencer balance changes are applied by the
+ * in-memory SequencerEngine instead, and only the ledger is written inline.
+ *
+ * Every balance change is written through to AccountCache. Accounts listed in
+ * vaultcore.hot-accounts.ids are debited and credited through HotAccountService.
+ *
+ * vaultcore.transactions.transfer / .withdraw / .deposit pick each method's mode
+ * (see TransactionRunner): atomic by default; transactional puts the balance updates
+ * and ledger entries in one MongoDB transaction, so a crash part-way leaves no debit
+ * without its credit or ledger entry.
+ *
+ * Metrics: vaultcore.service.calls {service="transfer"} per method and outcome.
  */
 @Service
 public class TransferService {
 
     private final AccountRepository accountRepository;
     private final LedgerService ledgerService;
-
-    public TransferService(AccountRepository accountRepository, LedgerService ledgerService) {
+    private final SequencerEngine sequencer; // null unless the sequencer engine is enabled
+    private final AccountCache accountCache;
+    private final HotAccountService hotAccounts;
+    private final TransactionRunner transactions;
+    private final TransactionRunner.Mode transferMode;
+    private final TransactionRunner.Mode withdrawMode;
+    private final TransactionRunner.Mode depositMode;
+    private final ServiceMetrics.Operation transferCalls;
+    private final ServiceMetrics.Operation withdrawCalls;
+    private final ServiceMetrics.Operation depositCalls;
+
+    public TransferService(AccountRepository accountRepository, LedgerService ledgerService,
+                           ObjectProvider<SequencerEngine> sequencer, AccountCache accountCache,
+                           HotAccountService hotAccounts, ServiceMetrics metrics, TransactionRunner transactions,
+                           @Value("${vaultcore.transactions.transfer:atomic}") TransactionRunner.Mode transferMode,
+                           @Value("${vaultcore.transactions.withdraw:atomic}") TransactionRunner.Mode withdrawMode,
+                           @Value("${vaultcore.transactions.deposit:atomic}") TransactionRunner.Mode depositMode) {
+        transactions.checkAvailable(transferMode, "vaultcore.transactions.transfer");
+        transactions.checkAvailable(withdrawMode, "vaultcore.transactions.withdraw");
+        transactions.checkAvailable(depositMode, "vaultcore.transactions.deposit");
+        boolean transactional = transferMode == TransactionRunner.Mode.TRANSACTIONAL
+                || withdrawMode == TransactionRunner.Mode.TRANSACTIONAL
+                || depositMode == TransactionRunner.Mode.TRANSACTIONAL;
+        if (transactional && sequencer.getIfAvailable() != null) {
+            throw new IllegalStateException("vaultcore.transactions needs vaultcore.transfer.engine=direct");
+        }
         this.accountRepository = accountRepository;
         this.ledgerService = ledgerService;
+        this.sequencer = sequencer.getIfAvailable();
+        this.accountCache = accountCache;
+        this.hotAccounts = hotAccounts;
+        this.transactions = transactions;
+        this.transferMode = transferMode;
+        this.withdrawMode = withdrawMode;
+        this.depositMode = depositMode;
+        this.transferCalls = metrics.operation("transfer", "transfer");
+        this.withdrawCalls = metrics.operation("transfer", "withdraw");
+        this.depositCalls = metrics.operation("transfer", "deposit");
     }
 
     /**
-     * Transfer money between accounts with SERIALIZABLE isolation
-     * This method ensures atomicity and prevents race conditions
+     * Transfer money between accounts
+     * The source is debited first with its guard; if the destination cannot be
+     * credited the debit is compensated (or, in a transaction, rolled back) before
+     * the error is reported.
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void transfer(String fromAccountId, String toAccountId, BigDecimal amount, User user) {
+    public void transfer(String fromAccountId, String toAccountId, Money amount, User user) {
+        transferCalls.run(() -> transactions.run(transferMode,
+                () -> applyTransfer(fromAccountId, toAccountId, amount, user)));
+    }
+
+    private void applyTransfer(String fromAccountId, String toAccountId, Money amount, User user) {
         if (fromAccountId == null || toAccountId == null) {
             throw new IllegalArgumentException("Account IDs must not be null");
         }
         if (user == null || user.getId() == null) {
             throw new IllegalArgumentException("User must not be null");
         }
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Transfer amount must be positive");
         }
 
-        // Fetch accounts with SERIALIZABLE isolation - prevents dirty reads
-        Optional<Account> fromAccountOpt = accountRepository.findById(fromAccountId);
-        Optional<Account> toAccountOpt = accountRepository.findById(toAccountId);
-
-        if (fromAccountOpt.isEmpty()) {
-            throw new IllegalArgumentException("Source account not found");
-        }
-        if (toAccountOpt.isEmpty()) {
-            throw new IllegalArgumentException("Destination account not found");
-        }
-
-        Account fromAccount = fromAccountOpt.get();
-        Account toAccount = toAccountOpt.get();
-
-        // Verify account ownership
-        String fromUserId = fromAccount.getUser() != null ? fromAccount.getUser().getId() : null;
-        String userId = user.getId();
-        if (fromUserId == null || !fromUserId.equals(userId)) {
-            throw new IllegalArgumentException("You don't have permission to transfer from this account");
+        if (sequencer != null) {
+            SequencerEngine.TransferResult result = Futures.join(
+                    sequencer.transfer(fromAccountId, toAccountId, user.getId(), amount));
+            accountCache.invalidate(fromAccountId);
+            accountCache.invalidate(toAccountId);
+            writeTransferLedger(amount, result.fromBalance(), fromAccountId, result.toBalance(), toAccountId, user);
+            return;
         }
 
-        // Check sufficient balance
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient balance");
-        }
+        Money fromNewBalance = debit(fromAccountId, user.getId(), amount)
+                .orElseThrow(() -> debitFailure(fromAccountId, user, "Source account not found",
+                        "You don't have permission to transfer from this account"));
 
-        // Perform transfer atomically
-        BigDecimal fromNewBalance = fromAccount.getBalance().subtract(amount);
-        BigDecimal toNewBalance = toAccount.getBalance().add(amount);
-
-        // Validate balances cannot be negative
-        if (fromNewBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalStateException("Balance constraint violation: balance cannot be negative");
+        Optional<Money> toNewBalance = credit(toAccountId, null, amount);
+        if (toNewBalance.isEmpty()) {
+            // Destination vanished - put the money back before failing
+            credit(fromAccountId, null, amount);
+            throw new IllegalArgumentException("Destination account not found");
         }
 
-        // Update balances
-        fromAccount.setBalance(fromNewBalance);
-        toAccount.setBalance(toNewBalance);
-
-        // Save accounts (with optimistic locking via @Version if using JPA)
-        accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
-
-        // Create immutable ledger entries
-        ledgerService.createLedgerEntry(amount, "DEBIT", fromNewBalance, fromAccount, user);
-        ledgerService.createLedgerEntry(amount, "CREDIT", toNewBalance, toAccount, user);
+        writeTransferLedger(amount, fromNewBalance, fromAccountId, toNewBalance.get(), toAccountId, user);
     }
 
     /**
-     * Withdraw money from an account with SERIALIZABLE isolation
+     * Withdraw money from an account
      * Used for testing concurrency with 100 threads
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void withdraw(String accountId, BigDecimal amount, User user) {
+    public void withdraw(String accountId, Money amount, User user) {
+        withdrawCalls.run(() -> transactions.run(withdrawMode, () -> applyWithdraw(accountId, amount, user)));
+    }
+
+    private void applyWithdraw(String accountId, Money amount, User user) {
         if (accountId == null) {
             throw new IllegalArgumentException("Account ID must not be null");
         }
         if (user == null || user.getId() == null) {
             throw new IllegalArgumentException("User must not be null");
         }
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Withdrawal amount must be positive");
         }
 
-        Optional<Account> accountOpt = accountRepository.findById(accountId);
-        if (accountOpt.isEmpty()) {
-            throw new IllegalArgumentException("Account not found");
-        }
-
-        Account account = accountOpt.get();
-
-        // Verify account ownership
-        String accountUserId = account.getUser() != null ? account.getUser().getId() : null;
-        String userId = user.getId();
-        if (accountUserId == null || !accountUserId.equals(userId)) {
-            throw new IllegalArgumentException("You don't have permission to withdraw from this account");
-        }
-
-        // Check sufficient balance with SERIALIZABLE isolation
-        if (account.getBalance().compareTo(amount) < 0) {
-            throw new IllegalArgumentException("Insufficient balance");
-        }
-
-        // Perform withdrawal atomically
-        BigDecimal newBalance = account.getBalance().subtract(amount);
-
-        // Validate balance constraint
-        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalStateException("Balance constraint violation: balance cannot be negative");
-        }
-
-        // Update balance
-        account.setBalance(newBalance);
-        accountRepository.save(account);
+        Money newBalance = sequencer != null
+                ? sequenced(accountId, sequencer.debit(accountId, user.getId(), amount))
+                : debit(accountId, user.getId(), amount)
+                        .orElseThrow(() -> debitFailure(accountId, user, "Account not found",
+                                "You don't have permission to withdraw from this account"));
 
         // Create immutable ledger entry
-        ledgerService.createLedgerEntry(amount, "DEBIT", newBalance, account, user);
+        ledgerService.createLedgerEntry(amount, "DEBIT", newBalance, accountId, user.getId());
     }
 
     /**
-     * Deposit money to an account with SERIALIZABLE isolation
+     * Deposit money to an account
      */
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public void deposit(String accountId, BigDecimal amount, User user) {
+    public void deposit(String accountId, Money amount, User user) {
+        depositCalls.run(() -> transactions.run(depositMode, () -> applyDeposit(accountId, amount, user)));
+    }
+
+    private void applyDeposit(String accountId, Money amount, User user) {
         if (accountId == null) {
             throw new IllegalArgumentException("Account ID must not be null");
         }
         if (user == null || user.getId() == null) {
             throw new IllegalArgumentException("User must not be null");
         }
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
+        if (!amount.isPositive()) {
             throw new IllegalArgumentException("Deposit amount must be positive");
         }
 
-        Optional<Account> accountOpt = accountRepository.findById(accountId);
-        if (accountOpt.isEmpty()) {
-            throw new IllegalArgumentException("Account not found");
-        }
+        Money newBalance = sequencer != null
+                ? sequenced(accountId, sequencer.credit(accountId, user.getId(), amount))
+                : credit(accountId, user.getId(), amount)
+                        .orElseThrow(() -> accountRepository.existsById(accountId)
+                                ? new IllegalArgumentException("You don't have permission to deposit to this account")
+                                : new IllegalArgumentException("Account not found"));
 
-        Account account = accountOpt.get();
+        // Create immutable ledger entry
+        ledgerService.createLedgerEntry(amount, "CREDIT", newBalance, accountId, user.getId());
+    }
+
+    /**
+     * Create both immutable ledger entries - queued together so they share one group commit
+     */
+    private void writeTransferLedger(Money amount, Money fromBalance, String fromAccountId,
+                                     Money toBalance, String toAccountId, User user) {
+        CompletableFuture<Ledger> debit = ledgerService.appendLedgerEntry(
+                amount, "DEBIT", fromBalance, fromAccountId, user.getId());
+        CompletableFuture<Ledger> credit = ledgerService.appendLedgerEntry(
+                amount, "CREDIT", toBalance, toAccountId, user.getId());
+        Futures.join(debit);
+        Futures.join(credit);
+    }
 
-        // Verify account ownership
-        String accountUserId = account.getUser() != null ? account.getUser().getId() : null;
-        String userId = user.getId();
-        if (accountUserId == null || !accountUserId.equals(userId)) {
-            throw new IllegalArgumentException("You don't have permission to deposit to this account");
+    /**
+     * Guarded debit of the account document, or of a hot account's document and slots
+     */
+    private Optional<Money> debit(String accountId, String ownerId, Money amount) {
+        if (hotAccounts.isHot(accountId)) {
+            return hotAccounts.debit(accountId, ownerId, amount);
         }
+        return accountRepository.debitIfSufficient(accountId, ownerId, amount)
+                .map(update -> balanceChanged(accountId, update));
+    }
 
-        // Perform deposit atomically
-        BigDecimal newBalance = account.getBalance().add(amount);
-        account.setBalance(newBalance);
-        accountRepository.save(account);
+    private Optional<Money> credit(String accountId, String ownerId, Money amount) {
+        if (hotAccounts.isHot(accountId)) {
+            return hotAccounts.credit(accountId, ownerId, amount);
+        }
+        return accountRepository.credit(accountId, ownerId, amount)
+                .map(update -> balanceChanged(accountId, update));
+    }
 
-        // Create immutable ledger entry
-        ledgerService.createLedgerEntry(amount, "CREDIT", newBalance, account, user);
+    /**
+     * Write-through of a balance MongoDB returned - the cache keeps it only if it is the newest version
+     */
+    private Money balanceChanged(String accountId, BalanceUpdate update) {
+        accountCache.balanceChanged(accountId, update);
+        return update.balance();
+    }
+
+    /**
+     * The sequencer reports no version, and MongoDB catches up on its next flush - drop the cached copy
+     */
+    private Money sequenced(String accountId, CompletableFuture<Money> balance) {
+        Money result = Futures.join(balance);
+        accountCache.invalidate(accountId);
+        return result;
     }
-}
 
+    /**
+     * Work out which guard rejected a debit - only runs on the failure path
+     */
+    private IllegalArgumentException debitFailure(String accountId, User user,
+                                                  String notFoundMessage, String permissionMessage) {
+        Optional<Account> account = accountRepository.findById(accountId);
+        if (account.isEmpty()) {
+            return new IllegalArgumentException(notFoundMessage);
+        }
+        if (!user.getId().equals(account.get().getUserId())) {
+            return new IllegalArgumentException(permissionMessage);
+        }
+        return new IllegalArgumentException("Insufficient balance");
+    }
+}
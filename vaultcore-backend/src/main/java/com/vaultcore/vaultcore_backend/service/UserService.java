@@ -1,39 +1,121 @@
 package com.vaultcore.vaultcore_backend.service;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vaultcore.vaultcore_backend.config.AuthenticatedUser;
 import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.vaultcore.vaultcore_backend.util.Futures;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * User Service - user lookups go through a bounded cache keyed by email
+ * Entries expire after vaultcore.user-cache.ttl-seconds and are dropped when the
+ * user is saved or their password rehashed; unknown emails are never cached. Hits
+ * and misses are published as cache.gets{cache="users"}.
+ */
 @Service
 public class UserService {
 
     private final UserRepository repository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final AsyncCache<String, User> usersByEmail;
 
-    public UserService(UserRepository repository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository repository, PasswordHasher passwordHasher, MeterRegistry meterRegistry,
+                       @Value("${vaultcore.user-cache.max-size:10000}") long maxSize,
+                       @Value("${vaultcore.user-cache.ttl-seconds:300}") long ttlSeconds) {
         this.repository = repository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHasher = passwordHasher;
+        this.usersByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByEmail, "users");
     }
 
     public User save(User user) {
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return repository.save(user);
+        boolean existing = user.getId() != null;
+        user.setPassword(passwordHasher.encode(user.getPassword()));
+        User saved = repository.save(user);
+        usersByEmail.synchronous().invalidate(saved.getEmail());
+        if (existing) {
+            // The email itself may have changed - drop any entry still holding the old one
+            usersByEmail.asMap().values().removeIf(cached -> {
+                User cachedUser = cached.getNow(null);
+                return cachedUser != null && saved.getId().equals(cachedUser.getId());
+            });
+        }
+        return saved;
     }
 
     public List<User> getAll() {
         return repository.findAll();
     }
 
+    public Optional<User> findById(String id) {
+        return repository.findById(id);
+    }
+
+    /**
+     * A miss loads once per email even under concurrent requests; an empty result is not stored.
+     * The read runs on the calling thread after the entry is claimed - running it inside the
+     * cache's compute (a synchronized block) would pin the carrier of a virtual thread.
+     */
     public Optional<User> findByEmail(String email) {
-        return repository.findByEmail(email);
+        CompletableFuture<User> load = new CompletableFuture<>();
+        CompletableFuture<User> user = usersByEmail.get(email, (key, executor) -> load);
+        if (user == load) {
+            try {
+                load.complete(repository.findByEmail(email).orElse(null));
+            } catch (RuntimeException e) {
+                load.completeExceptionally(e);
+            }
+        }
+        return Optional.ofNullable(Futures.join(user));
+    }
+
+    /**
+     * The user behind an authenticated request - taken from the principal when the
+     * JWT filter resolved it, otherwise looked up by name
+     */
+    public Optional<User> currentUser(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return Optional.of(principal.getUser());
+        }
+        return findByEmail(authentication.getName());
+    }
+
+    /**
+     * The user with this email and password, fetched once. A hash made with another
+     * BCrypt cost than the configured one is replaced in the background.
+     */
+    public Optional<User> authenticate(String email, String password) {
+        Optional<User> user = findByEmail(email);
+        if (user.isEmpty() || !passwordHasher.matches(password, user.get().getPassword())) {
+            return Optional.empty();
+        }
+        if (passwordHasher.needsRehash(user.get().getPassword())) {
+            rehash(user.get(), password);
+        }
+        return user;
     }
 
-    public boolean authenticate(String email, String password) {
-        Optional<User> user = repository.findByEmail(email);
-        return user.isPresent() && passwordEncoder.matches(password, user.get().getPassword());
+    // Best effort - if the pool is busy the upgrade is retried on a later login. Only the password
+    // is written: the cached user may be older than a role or email change saved since then.
+    private void rehash(User user, String password) {
+        passwordHasher.encodeAsync(password).thenAccept(encoded -> {
+            repository.updatePassword(user.getId(), encoded);
+            usersByEmail.synchronous().invalidate(user.getEmail());
+        });
     }
-}
\ No newline at end of file
+}
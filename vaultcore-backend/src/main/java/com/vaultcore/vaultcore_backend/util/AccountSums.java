@@ -0,0 +1,279 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import org.bson.types.ObjectId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-account ledger sums in an open-addressing map over parallel primitive arrays
+ * For each account it keeps the net change and entry count in minor units, the
+ * opening balance and a chain hash of the balanceAfter chain: every entry adds
+ * h(balance before) - h(balance after). When the entries form an unbroken chain the
+ * terms telescope to h(opening) - h(closing), whatever order they were added in, so
+ * sums built over separate _id ranges can simply be merged.
+ *
+ * An _id is generated after the balance write, so two writes racing on a new account
+ * (or ObjectIds from different processes within one second) can be numbered in the
+ * opposite order to their balances. The opening is therefore taken from all entries
+ * in the account's first _id-second: the balance before one of them that is not the
+ * balanceAfter of another. The before/after pairs of that second are kept until the
+ * opening is read; callers must not split one _id-second across two sums.
+ * Not thread-safe - one instance per partition, merged afterwards.
+ */
+public final class AccountSums {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int ONE_ENTRY = -1;
+
+    private String[] keys;
+    private ObjectId[] firstIds;
+    private long[] openings;
+    private long[] nets;
+    private long[] chains;
+    private long[] entries;
+    private long[][] firstSecondLinks; // before, after pairs of the entries in firstIds' _id-second
+    private int[] firstSecondCounts;
+    private int size;
+
+    public AccountSums() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Add one ledger entry - signedAmount is negative for debits
+     */
+    public void add(String accountId, ObjectId id, long signedAmount, long balanceAfter) {
+        long before = balanceAfter - signedAmount;
+        merge(accountId, id, before, signedAmount, chainHash(before) - chainHash(balanceAfter), 1, null, ONE_ENTRY);
+    }
+
+    /**
+     * Add sums computed elsewhere for an account - another partition, or a stored state
+     * The opening is taken as it is: a stored state's first _id-second is already resolved.
+     */
+    public void merge(String accountId, ObjectId firstId, long opening, long net, long chain, long count) {
+        merge(accountId, firstId, opening, net, chain, count, null, 0);
+    }
+
+    // links holds linkCount before/after pairs; ONE_ENTRY stands for the single pair (opening, opening + net)
+    private void merge(String accountId, ObjectId firstId, long opening, long net, long chain, long count,
+                       long[] links, int linkCount) {
+        int slot = slotFor(accountId);
+        if (keys[slot] == null) {
+            keys[slot] = accountId;
+            if (++size * 3 > keys.length * 2) {
+                grow();
+                slot = indexOf(accountId);
+            }
+        }
+        nets[slot] += net;
+        chains[slot] += chain;
+        entries[slot] += count;
+
+        ObjectId current = firstIds[slot];
+        if (current == null || (firstId != null && firstId.getTimestamp() < current.getTimestamp())) {
+            firstIds[slot] = firstId;
+            openings[slot] = opening;
+            firstSecondLinks[slot] = linkCount == ONE_ENTRY ? new long[] {opening, opening + net}
+                    : links != null ? Arrays.copyOf(links, linkCount * 2) : null;
+            firstSecondCounts[slot] = linkCount == ONE_ENTRY ? 1 : linkCount;
+            return;
+        }
+        if (firstId == null || firstId.getTimestamp() > current.getTimestamp()) {
+            return;
+        }
+        // Same _id-second - the lowest _id stays the fallback opening, the pairs are pooled
+        if (firstId.compareTo(current) < 0) {
+            firstIds[slot] = firstId;
+            openings[slot] = opening;
+        }
+        if (linkCount == ONE_ENTRY) {
+            links = new long[] {opening, opening + net};
+            linkCount = 1;
+        }
+        if (links == null || firstSecondLinks[slot] == null) {
+            firstSecondLinks[slot] = null; // a resolved opening in the same second - nothing left to pool
+            firstSecondCounts[slot] = 0;
+            return;
+        }
+        int total = firstSecondCounts[slot] + linkCount;
+        if (total * 2 > firstSecondLinks[slot].length) {
+            int capacity = Math.max(total, firstSecondCounts[slot] * 2);
+            firstSecondLinks[slot] = Arrays.copyOf(firstSecondLinks[slot], capacity * 2);
+        }
+        System.arraycopy(links, 0, firstSecondLinks[slot], firstSecondCounts[slot] * 2, linkCount * 2);
+        firstSecondCounts[slot] = total;
+    }
+
+    public void addAll(AccountSums other) {
+        for (int i = 0; i < other.keys.length; i++) {
+            if (other.keys[i] != null) {
+                merge(other.keys[i], other.firstIds[i], other.openings[i], other.nets[i], other.chains[i],
+                        other.entries[i], other.firstSecondLinks[i], other.firstSecondCounts[i]);
+            }
+        }
+    }
+
+    /**
+     * Add one account's sums from other - nothing when other has none
+     */
+    public void addAccount(AccountSums other, String accountId) {
+        int slot = other.indexOf(accountId);
+        if (slot >= 0) {
+            merge(accountId, other.firstIds[slot], other.openings[slot], other.nets[slot], other.chains[slot],
+                    other.entries[slot], other.firstSecondLinks[slot], other.firstSecondCounts[slot]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(String accountId) {
+        return indexOf(accountId) >= 0;
+    }
+
+    public List<String> accountIds() {
+        List<String> ids = new ArrayList<>(size);
+        for (String key : keys) {
+            if (key != null) {
+                ids.add(key);
+            }
+        }
+        return ids;
+    }
+
+    public ObjectId firstId(String accountId) {
+        int slot = indexOf(accountId);
+        return slot >= 0 ? firstIds[slot] : null;
+    }
+
+    /**
+     * Balance before the account's first entry - see the class comment
+     */
+    public long opening(String accountId) {
+        int slot = indexOf(accountId);
+        if (slot < 0) {
+            return 0;
+        }
+        long[] links = firstSecondLinks[slot];
+        int count = firstSecondCounts[slot];
+        if (links == null || count < 2) {
+            return openings[slot];
+        }
+        // The one before balance left over once every after balance of the second is matched off
+        Map<Long, Integer> unmatched = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            unmatched.merge(links[i * 2], 1, Integer::sum);
+            unmatched.merge(links[i * 2 + 1], -1, Integer::sum);
+        }
+        Long opening = null;
+        for (Map.Entry<Long, Integer> balance : unmatched.entrySet()) {
+            if (balance.getValue() > 0) {
+                if (opening != null) {
+                    return openings[slot]; // not one chain - keep the lowest _id's and let the chain check report it
+                }
+                opening = balance.getKey();
+            }
+        }
+        return opening != null ? opening : openings[slot];
+    }
+
+    public long net(String accountId) {
+        int slot = indexOf(accountId);
+        return slot >= 0 ? nets[slot] : 0;
+    }
+
+    public long chain(String accountId) {
+        int slot = indexOf(accountId);
+        return slot >= 0 ? chains[slot] : 0;
+    }
+
+    public long entries(String accountId) {
+        int slot = indexOf(accountId);
+        return slot >= 0 ? entries[slot] : 0;
+    }
+
+    /**
+     * Balance the ledger arrives at: opening plus every entry
+     */
+    public long closing(String accountId) {
+        return opening(accountId) + net(accountId);
+    }
+
+    /**
+     * Whether each entry's balanceAfter follows from some other entry's (or the opening) by its amount
+     */
+    public boolean chainIntact(String accountId) {
+        return chain(accountId) == chainHash(opening(accountId)) - chainHash(closing(accountId));
+    }
+
+    /**
+     * splitmix64 finalizer - spreads neighbouring balances over the whole long range
+     */
+    public static long chainHash(long balance) {
+        long z = balance + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private int indexOf(String accountId) {
+        int slot = slotFor(accountId);
+        return keys[slot] != null ? slot : -1;
+    }
+
+    // Slot holding accountId, or the empty slot where it belongs
+    private int slotFor(String accountId) {
+        int mask = keys.length - 1;
+        int slot = spread(accountId.hashCode()) & mask;
+        while (keys[slot] != null && !keys[slot].equals(accountId)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void grow() {
+        String[] oldKeys = keys;
+        ObjectId[] oldFirstIds = firstIds;
+        long[] oldOpenings = openings;
+        long[] oldNets = nets;
+        long[] oldChains = chains;
+        long[] oldEntries = entries;
+        long[][] oldLinks = firstSecondLinks;
+        int[] oldLinkCounts = firstSecondCounts;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = slotFor(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                firstIds[slot] = oldFirstIds[i];
+                openings[slot] = oldOpenings[i];
+                nets[slot] = oldNets[i];
+                chains[slot] = oldChains[i];
+                entries[slot] = oldEntries[i];
+                firstSecondLinks[slot] = oldLinks[i];
+                firstSecondCounts[slot] = oldLinkCounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new String[capacity];
+        firstIds = new ObjectId[capacity];
+        openings = new long[capacity];
+        nets = new long[capacity];
+        chains = new long[capacity];
+        entries = new long[capacity];
+        firstSecondLinks = new long[capacity][];
+        firstSecondCounts = new int[capacity];
+    }
+}
@@ -0,0 +1,28 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Helpers for services that hand work to a background thread and wait for it
+ */
+public final class Futures {
+
+    private Futures() {
+    }
+
+    /**
+     * Wait for a result, rethrowing the worker's RuntimeException (e.g. IllegalArgumentException)
+     * as-is so controllers keep mapping it the same way as a synchronous call
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
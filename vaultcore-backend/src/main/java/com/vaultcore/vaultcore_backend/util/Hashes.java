@@ -0,0 +1,27 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Digests for secrets that are looked up but must not be kept in the clear
+ */
+public final class Hashes {
+
+    private Hashes() {
+    }
+
+    /**
+     * SHA-256 of the UTF-8 bytes, URL-safe base64 without padding
+     */
+    public static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
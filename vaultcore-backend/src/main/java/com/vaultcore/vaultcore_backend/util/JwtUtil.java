@@ -1,57 +1,96 @@
 package com.vaultcore.vaultcore_backend.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.vaultcore.vaultcore_backend.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.Optional;
 
+/**
+ * Issues and verifies access tokens
+ * The parser is built once (it is immutable and thread-safe) and verify() checks
+ * signature and expiry in a single parse. Verified tokens are cached by their
+ * SHA-256 until they expire, so a client reusing a token skips the HMAC check
+ * and JSON parse; the raw token is never kept in memory.
+ */
 @Component
 public class JwtUtil {
 
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String ROLE_CLAIM = "role";
+
     private static final String SECRET = "mySecretKeyForJwtTokenGenerationThatIsLongEnough123456789";
     private static final int JWT_EXPIRATION = 86400000; // 24 hours (access token)
     private static final int REFRESH_TOKEN_EXPIRATION = 604800000; // 7 days
 
     private final Key key = Keys.hmacShaKeyFor(SECRET.getBytes());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+    private final Cache<String, VerifiedToken> verified;
+
+    public JwtUtil(MeterRegistry meterRegistry,
+                   @Value("${vaultcore.jwt.verified-cache.max-size:10000}") long cacheSize) {
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(Expiry.creating((String hash, VerifiedToken token) ->
+                        Duration.between(Instant.now(), token.expiresAt())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "verified-tokens");
+    }
 
-    public String generateToken(String email) {
+    public String generateToken(User user) {
         return Jwts.builder()
-                .setSubject(email)
+                .setSubject(user.getEmail())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole())
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
                 .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractEmail(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-    }
-
-    public Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
+    /**
+     * Claims of a correctly signed, unexpired token - empty for anything else
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        Instant now = Instant.now();
+        String hash = Hashes.sha256(token);
+        VerifiedToken cached = verified.getIfPresent(hash);
+        if (cached != null) {
+            return cached.isExpired(now) ? Optional.empty() : Optional.of(cached);
+        }
 
-    public Boolean validateToken(String token, String email) {
-        final String extractedEmail = extractEmail(token);
-        return (email.equals(extractedEmail) && !isTokenExpired(token));
+        VerifiedToken parsed;
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody(); // also rejects expired tokens
+            if (claims.getSubject() == null || claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            parsed = new VerifiedToken(claims.getSubject(), claims.get(USER_ID_CLAIM, String.class),
+                    claims.get(ROLE_CLAIM, String.class), claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (parsed.isExpired(now)) {
+            return Optional.empty();
+        }
+        verified.put(hash, parsed);
+        return Optional.of(parsed);
     }
 
     public String generateRefreshToken(String email) {
@@ -64,6 +103,6 @@ public class JwtUtil {
     }
 
     public Boolean validateRefreshToken(String token) {
-        return !isTokenExpired(token);
+        return verify(token).isPresent();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,200 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+/**
+ * An amount of money as a whole number of minor units (cents for USD) plus its currency.
+ * The scale is the currency's, so amounts never drift in precision, and arithmetic is
+ * exact long math - an overflow throws instead of wrapping.
+ *
+ * Amounts from clients must fit the scale exactly (of / parse reject 0.001 USD);
+ * values read from storage are rounded half-even (rounded), since old documents
+ * were written without a fixed scale. Stored as Decimal128 (see MoneyConverters)
+ * and written to JSON as a plain number (see MoneyJson).
+ */
+@JsonSerialize(using = MoneyJson.Writer.class)
+@JsonDeserialize(using = MoneyJson.Reader.class)
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000}; // before ZERO - the constructor reads it
+
+    /** Accounts carry no currency of their own yet - every balance is in this one */
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+    public static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    public Money {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        int scale = currency.getDefaultFractionDigits();
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported currency: " + currency.getCurrencyCode());
+        }
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    public static Money ofMinor(long minorUnits, Currency currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    /**
+     * Exact conversion - a value with more decimal places than the currency has is rejected
+     */
+    public static Money of(BigDecimal amount) {
+        return of(amount, DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        try {
+            return new Money(amount.movePointRight(currency.getDefaultFractionDigits()).longValueExact(), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(amount.stripTrailingZeros().scale() > currency.getDefaultFractionDigits()
+                    ? "Amount must have at most " + currency.getDefaultFractionDigits() + " decimal places"
+                    : "Amount is out of range");
+        }
+    }
+
+    /**
+     * Rounding conversion, half-even - for values that were stored without a fixed scale
+     */
+    public static Money rounded(BigDecimal amount) {
+        return of(amount.setScale(DEFAULT_CURRENCY.getDefaultFractionDigits(), RoundingMode.HALF_EVEN));
+    }
+
+    /**
+     * Reads a plain decimal ("-12.5", "100", "0.07") in the default currency without going
+     * through BigDecimal; exponent notation falls back to it. Exact like of(BigDecimal).
+     */
+    public static Money parse(CharSequence text) {
+        int scale = DEFAULT_CURRENCY.getDefaultFractionDigits();
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        int fractionDigits = -1; // -1 until the decimal point
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (fractionDigits >= 0 && ++fractionDigits > scale) {
+                    if (c != '0') {
+                        throw new IllegalArgumentException("Amount must have at most " + scale + " decimal places");
+                    }
+                    continue; // trailing zeros past the scale change nothing
+                }
+                if (units > (Long.MAX_VALUE - 9) / 10) {
+                    throw new IllegalArgumentException("Amount is out of range");
+                }
+                units = units * 10 + (c - '0');
+                digits++;
+            } else if (c == 'e' || c == 'E') {
+                return of(parseDecimal(text));
+            } else {
+                throw new IllegalArgumentException("Invalid amount: " + text);
+            }
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+        int missing = scale - Math.max(0, Math.min(fractionDigits, scale));
+        try {
+            units = Math.multiplyExact(units, POWERS_OF_TEN[missing]);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount is out of range");
+        }
+        return ofMinor(negative ? -units : units);
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public Money negate() {
+        return new Money(Math.negateExact(minorUnits), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    public boolean isPositive() {
+        return minorUnits > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isLessThan(Money other) {
+        return minorUnits < sameCurrency(other).minorUnits;
+    }
+
+    public int scale() {
+        return currency.getDefaultFractionDigits();
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, scale());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, sameCurrency(other).minorUnits);
+    }
+
+    /**
+     * Plain decimal with the currency's scale, e.g. "-0.05" - what JSON and CSV output show
+     */
+    @Override
+    public String toString() {
+        int scale = scale();
+        if (scale == 0) {
+            return Long.toString(minorUnits);
+        }
+        StringBuilder text = new StringBuilder(24);
+        long abs = Math.absExact(minorUnits);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        text.append(abs / POWERS_OF_TEN[scale]).append('.');
+        String fraction = Long.toString(abs % POWERS_OF_TEN[scale]);
+        for (int pad = fraction.length(); pad < scale; pad++) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+
+    private Money sameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency.getCurrencyCode()
+                    + " and " + other.currency.getCurrencyCode());
+        }
+        return other;
+    }
+
+    private static BigDecimal parseDecimal(CharSequence text) {
+        try {
+            return new BigDecimal(text.toString());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        }
+    }
+}
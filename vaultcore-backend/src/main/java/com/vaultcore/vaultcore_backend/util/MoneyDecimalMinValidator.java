@@ -0,0 +1,33 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.constraints.DecimalMin;
+
+import java.math.BigDecimal;
+
+/**
+ * @DecimalMin for Money fields, so entities and request bodies keep their existing
+ * constraints. Registered with Hibernate Validator through
+ * META-INF/services/jakarta.validation.ConstraintValidator.
+ */
+public class MoneyDecimalMinValidator implements ConstraintValidator<DecimalMin, Money> {
+
+    private BigDecimal min;
+    private boolean inclusive;
+
+    @Override
+    public void initialize(DecimalMin constraint) {
+        this.min = new BigDecimal(constraint.value());
+        this.inclusive = constraint.inclusive();
+    }
+
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+        if (value == null) {
+            return true; // @NotNull's job
+        }
+        int comparison = value.toBigDecimal().compareTo(min);
+        return inclusive ? comparison >= 0 : comparison > 0;
+    }
+}
@@ -0,0 +1,100 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer ring buffer
+ * Each slot carries a sequence number: producers claim a slot with one CAS on
+ * the tail and publish it by advancing the slot sequence, the single consumer
+ * reads slots in order without any CAS at all.
+ */
+public class MpscRingBuffer<E> {
+
+    private final Object[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head; // only touched by the consumer thread
+
+    public MpscRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two");
+        }
+        this.buffer = new Object[capacity];
+        this.sequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Try to publish an element - returns false if the ring is full
+     */
+    public boolean offer(E element) {
+        long position;
+        while (true) {
+            position = tail.get();
+            long sequence = sequences.get(index(position));
+            long diff = sequence - position;
+            if (diff == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (diff < 0) {
+                return false; // consumer has not freed this slot yet
+            }
+            // Another producer claimed the slot first - retry with the new tail
+        }
+        int index = index(position);
+        buffer[index] = element;
+        sequences.set(index, position + 1); // volatile write publishes the element
+        return true;
+    }
+
+    /**
+     * Publish an element, spinning while the ring is full (backpressure)
+     */
+    public void put(E element) {
+        int spins = 0;
+        while (!offer(element)) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield(); // give the consumer a core to drain on
+            }
+        }
+    }
+
+    /**
+     * Take the next element, or null if none is published yet - consumer thread only
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        int index = index(head);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        E element = (E) buffer[index];
+        buffer[index] = null;
+        sequences.set(index, head + buffer.length); // hand the slot back to producers
+        head++;
+        return element;
+    }
+
+    /**
+     * Whether the next slot is unpublished - consumer thread only
+     */
+    public boolean isEmpty() {
+        return sequences.get(index(head)) != head + 1;
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    private int index(long position) {
+        return (int) (position & mask);
+    }
+}
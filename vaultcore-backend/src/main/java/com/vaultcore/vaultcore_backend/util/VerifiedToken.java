@@ -0,0 +1,18 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import java.time.Instant;
+
+/**
+ * Claims of an access token whose signature and expiry have been checked.
+ * userId and role are null for tokens issued before they were added.
+ */
+public record VerifiedToken(String email, String userId, String role, Instant expiresAt) {
+
+    public boolean hasIdentity() {
+        return userId != null && role != null;
+    }
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
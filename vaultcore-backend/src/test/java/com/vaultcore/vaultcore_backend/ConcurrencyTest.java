@@ -5,12 +5,12 @@ import com.vaultcore.vaultcore_backend.entity.User;
 import com.vaultcore.vaultcore_backend.repository.AccountRepository;
 import com.vaultcore.vaultcore_backend.service.TransferService;
 import com.vaultcore.vaultcore_backend.service.UserService;
+import com.vaultcore.vaultcore_backend.util.Money;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -48,17 +48,17 @@ public class ConcurrencyTest {
 
         Account testAccount = new Account();
         testAccount.setAccountType("CHECKING");
-        testAccount.setBalance(new BigDecimal("1000.00")); // Initial balance: 1000
-        testAccount.setUser(savedUser);
+        testAccount.setBalance(Money.parse("1000.00")); // Initial balance: 1000
+        testAccount.setUserId(savedUser.getId());
         Account savedAccount = accountRepository.save(testAccount);
 
         final String accountId = Objects.requireNonNull(savedAccount.getId(), "Account ID cannot be null after save");
-        final BigDecimal withdrawalAmount = new BigDecimal("1.00"); // Each thread withdraws 1.00
+        final Money withdrawalAmount = Money.parse("1.00"); // Each thread withdraws 1.00
         final int numberOfThreads = 100;
         final int expectedWithdrawals = 100; // Should be able to do 100 withdrawals of 1.00 each
 
         // Expected final balance: 1000 - (100 * 1.00) = 900.00
-        final BigDecimal expectedFinalBalance = new BigDecimal("900.00");
+        final Money expectedFinalBalance = Money.parse("900.00");
 
         ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
         CountDownLatch latch = new CountDownLatch(numberOfThreads);
@@ -112,11 +112,11 @@ public class ConcurrencyTest {
             fail("Account not found after test");
         }
         Account finalAccount = finalAccountOpt.get();
-        BigDecimal finalBalance = finalAccount.getBalance();
+        Money finalBalance = finalAccount.getBalance();
 
         // Assertions
         assertNotNull(finalBalance, "Final balance should not be null");
-        assertTrue(finalBalance.compareTo(BigDecimal.ZERO) >= 0, 
+        assertTrue(finalBalance.compareTo(Money.ZERO) >= 0, 
                   "Final balance must be non-negative. Actual: " + finalBalance);
         assertEquals(expectedFinalBalance, finalBalance, 
                     "Final balance should be exactly " + expectedFinalBalance + 
@@ -0,0 +1,148 @@
+package com.vaultcore.vaultcore_backend;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.vaultcore.vaultcore_backend.config.MoneyConverters;
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Round trips per history read - @DBRef links versus plain ids
+ * A @DBRef is resolved with its own query per referenced document, so reading
+ * N transactions costs about 2N + 1 round trips; with ids it is one find.
+ * Needs a local MongoDB: mvn test -Dbenchmarks=true -Dtest=HistoryRoundTripBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class HistoryRoundTripBenchmarkTest {
+
+    private static final int HISTORY_SIZE = 50;
+
+    private final AtomicInteger roundTrips = new AtomicInteger();
+    private MongoClient client;
+    private MongoTemplate template;
+
+    @BeforeEach
+    public void setUp() {
+        CommandListener counter = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                roundTrips.incrementAndGet();
+            }
+        };
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://localhost:27017"))
+                .addCommandListener(counter)
+                .build());
+        // The converter resolves @DBRef with DefaultDbRefResolver, as the app did before
+        template = MoneyConverters.mongoTemplate(new SimpleMongoClientDatabaseFactory(client, "vaultcore_bench"));
+        template.getDb().drop();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        template.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    public void testHistoryRoundTrips() {
+        LegacyUser user = template.insert(new LegacyUser());
+        List<LegacyTransaction> legacy = new ArrayList<>();
+        List<Transaction> current = new ArrayList<>();
+        for (int i = 0; i < HISTORY_SIZE; i++) {
+            // A fresh account per transaction - the worst case, and the usual one across many accounts
+            LegacyAccount account = new LegacyAccount();
+            account.accountType = "SAVINGS";
+            template.insert(account);
+
+            LegacyTransaction old = new LegacyTransaction();
+            old.amount = BigDecimal.TEN;
+            old.type = "CREDIT";
+            old.account = account;
+            old.user = user;
+            legacy.add(old);
+
+            Transaction txn = new Transaction();
+            txn.setAmount(Money.parse("10"));
+            txn.setType("CREDIT");
+            txn.setAccountId(account.id);
+            txn.setAccountType(account.accountType);
+            txn.setUserId(user.id);
+            current.add(txn);
+        }
+        template.insertAll(legacy);
+        template.insertAll(current);
+
+        roundTrips.set(0);
+        List<LegacyTransaction> legacyHistory = template.find(
+                new Query(Criteria.where("user").is(user)).with(Sort.by(Sort.Direction.DESC, "timestamp")),
+                LegacyTransaction.class);
+        legacyHistory.forEach(txn -> assertNotNull(txn.account.accountType));
+        int legacyTrips = roundTrips.get();
+
+        roundTrips.set(0);
+        List<Transaction> history = template.find(
+                new Query(Criteria.where("userId").is(user.id)).with(Sort.by(Sort.Direction.DESC, "timestamp")),
+                Transaction.class);
+        history.forEach(txn -> assertNotNull(txn.getAccountType()));
+        int currentTrips = roundTrips.get();
+
+        System.out.println("📊 History of " + HISTORY_SIZE + " transactions: " + legacyTrips
+                + " round trips with @DBRef, " + currentTrips + " with ids");
+
+        assertEquals(HISTORY_SIZE, legacyHistory.size());
+        assertEquals(HISTORY_SIZE, history.size());
+        assertTrue(legacyTrips > HISTORY_SIZE, "@DBRef reads should resolve each reference separately");
+        assertEquals(1, currentTrips, "Id-based history should be a single find");
+    }
+
+    @Document(collection = "bench_legacy_users")
+    static class LegacyUser {
+        @Id
+        String id;
+    }
+
+    @Document(collection = "bench_legacy_accounts")
+    static class LegacyAccount {
+        @Id
+        String id;
+        String accountType;
+    }
+
+    @Document(collection = "bench_legacy_transactions")
+    static class LegacyTransaction {
+        @Id
+        String id;
+        BigDecimal amount;
+        String type;
+        LocalDateTime timestamp = LocalDateTime.now();
+        @DBRef
+        LegacyAccount account;
+        @DBRef
+        LegacyUser user;
+    }
+}
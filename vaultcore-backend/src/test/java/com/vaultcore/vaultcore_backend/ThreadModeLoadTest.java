@@ -0,0 +1,174 @@
+package com.vaultcore.vaultcore_backend;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Platform versus virtual request threads under 1k / 5k / 10k concurrent clients
+ * The app is started once per thread mode; every client is a virtual thread that
+ * sends transfers back to back (each one several sequential Mongo round trips)
+ * for a fixed time. Throughput, p50 / p99 latency and failed requests are printed
+ * per mode and client count. Needs a local MongoDB and enough file descriptors
+ * for 10k sockets (ulimit -n):
+ * mvn test -Dbenchmarks=true -Dtest=ThreadModeLoadTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class ThreadModeLoadTest {
+
+    private static final int[] CLIENTS = {1_000, 5_000, 10_000};
+    private static final int ACCOUNT_PAIRS = 100;
+    private static final Duration RUN_TIME = Duration.ofSeconds(20);
+    private static final String DATABASE = "vaultcore_load_test";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testPlatformVersusVirtualThreads() throws Exception {
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(VaultcoreBackendApplication.class)
+                    .properties("server.port=0",
+                            "spring.threads.virtual.enabled=" + virtual,
+                            "spring.data.mongodb.database=" + DATABASE,
+                            "vaultcore.checkpoint.enabled=false")
+                    .run()) {
+                app.getBean(MongoTemplate.class).getDb().drop();
+                String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+                try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                    HttpClient http = HttpClient.newBuilder()
+                            .executor(clientThreads)
+                            .connectTimeout(Duration.ofSeconds(30))
+                            .build();
+                    String token = signUpAndLogin(http, baseUrl);
+                    List<String[]> pairs = createAccountPairs(http, baseUrl, token);
+
+                    for (int clients : CLIENTS) {
+                        Result result = run(http, clientThreads, baseUrl, token, pairs, clients);
+                        System.out.printf("📊 %s threads, %,d clients: %,.0f req/s, p50 %.1f ms, p99 %.1f ms, %,d failed%n",
+                                virtual ? "virtual" : "platform", clients, result.throughput(),
+                                result.p50Millis(), result.p99Millis(), result.failed());
+                        assertTrue(result.completed() > 0);
+                    }
+                } finally {
+                    app.getBean(MongoTemplate.class).getDb().drop();
+                }
+            }
+        }
+    }
+
+    private Result run(HttpClient http, ExecutorService clientThreads, String baseUrl, String token,
+                       List<String[]> pairs, int clients) throws InterruptedException {
+        long deadline = System.nanoTime() + RUN_TIME.toNanos();
+        AtomicLong failed = new AtomicLong();
+        List<Future<long[]>> running = new ArrayList<>(clients);
+        for (int c = 0; c < clients; c++) {
+            String[] pair = pairs.get(c % pairs.size());
+            boolean forward = c % 2 == 0; // half the clients move money each way, so balances stay put
+            String body = transfer(forward ? pair[0] : pair[1], forward ? pair[1] : pair[0]);
+            running.add(clientThreads.submit(() -> {
+                long[] samples = new long[1024];
+                int n = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = http.send(post(baseUrl + "/api/transfers", token, body),
+                                HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            failed.incrementAndGet();
+                            continue;
+                        }
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        continue;
+                    }
+                    if (n == samples.length) {
+                        samples = Arrays.copyOf(samples, n * 2);
+                    }
+                    samples[n++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(samples, n);
+            }));
+        }
+
+        List<long[]> latencies = new ArrayList<>(clients);
+        for (Future<long[]> client : running) {
+            try {
+                latencies.add(client.get());
+            } catch (ExecutionException e) {
+                failed.incrementAndGet();
+            }
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all.length, failed.get(), all.length / (double) RUN_TIME.toSeconds(),
+                percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private record Result(long completed, long failed, double throughput, double p50Millis, double p99Millis) {}
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+    }
+
+    private String signUpAndLogin(HttpClient http, String baseUrl) throws Exception {
+        String credentials = "{\"email\":\"load@vault.test\",\"password\":\"password123\"}";
+        http.send(post(baseUrl + "/api/auth/signup", null, credentials), HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> login = http.send(post(baseUrl + "/api/auth/login", null, credentials),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, login.statusCode(), login.body());
+        return objectMapper.readTree(login.body()).get("token").asText();
+    }
+
+    private List<String[]> createAccountPairs(HttpClient http, String baseUrl, String token) throws Exception {
+        List<String[]> pairs = new ArrayList<>();
+        for (int i = 0; i < ACCOUNT_PAIRS; i++) {
+            pairs.add(new String[]{createAccount(http, baseUrl, token), createAccount(http, baseUrl, token)});
+        }
+        return pairs;
+    }
+
+    private String createAccount(HttpClient http, String baseUrl, String token) throws Exception {
+        HttpResponse<String> response = http.send(post(baseUrl + "/api/accounts", token,
+                "{\"accountType\":\"SAVINGS\",\"initialBalance\":1000000}"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), response.body());
+        JsonNode account = objectMapper.readTree(response.body());
+        return account.get("id").asText();
+    }
+
+    private static String transfer(String from, String to) {
+        return "{\"fromAccountId\":\"" + from + "\",\"toAccountId\":\"" + to + "\",\"amount\":1}";
+    }
+
+    private static HttpRequest post(String url, String token, String json) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMinutes(2))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request.build();
+    }
+}
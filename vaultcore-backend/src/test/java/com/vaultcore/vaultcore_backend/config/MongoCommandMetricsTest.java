@@ -0,0 +1,79 @@
+package com.vaultcore.vaultcore_backend.config;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MongoCommandMetricsTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MongoCommandMetrics listener = new MongoCommandMetrics(meterRegistry);
+
+    @Test
+    public void testFindIsTimedPerCollectionWithDocumentsReturned() {
+        listener.commandStarted(started(1, "find", "{find: 'ledger', filter: {accountId: 'a'}}"));
+        listener.commandSucceeded(succeeded(1, "find", "{ok: 1, cursor: {id: 0, firstBatch: [{}, {}, {}]}}", 5));
+        listener.commandStarted(started(2, "getMore", "{getMore: 7, collection: 'ledger'}"));
+        listener.commandSucceeded(succeeded(2, "getMore", "{ok: 1, cursor: {id: 0, nextBatch: [{}]}}", 1));
+
+        var find = meterRegistry.get("vaultcore.mongo.command")
+                .tags("command", "find", "collection", "ledger", "status", "success").timer();
+        assertEquals(1, find.count());
+        assertEquals(5, find.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(3.0, meterRegistry.get("vaultcore.mongo.command.documents")
+                .tags("command", "find", "collection", "ledger").summary().totalAmount());
+        assertEquals(1.0, meterRegistry.get("vaultcore.mongo.command.documents")
+                .tags("command", "getMore", "collection", "ledger").summary().totalAmount());
+    }
+
+    @Test
+    public void testWritesCountAffectedDocuments() {
+        listener.commandStarted(started(1, "findAndModify", "{findAndModify: 'accounts', query: {}}"));
+        listener.commandSucceeded(succeeded(1, "findAndModify", "{ok: 1, value: null}", 1));
+        listener.commandStarted(started(2, "insert", "{insert: 'ledger', ordered: false}"));
+        listener.commandSucceeded(succeeded(2, "insert", "{ok: 1, n: 40}", 1));
+
+        assertEquals(0.0, meterRegistry.get("vaultcore.mongo.command.documents")
+                .tags("command", "findAndModify", "collection", "accounts").summary().totalAmount());
+        assertEquals(40.0, meterRegistry.get("vaultcore.mongo.command.documents")
+                .tags("command", "insert", "collection", "ledger").summary().totalAmount());
+    }
+
+    @Test
+    public void testFailureIsTaggedAndRequestIsForgotten() {
+        listener.commandStarted(started(1, "update", "{update: 'accounts'}"));
+        listener.commandFailed(new CommandFailedEvent(null, 1, 1, CONNECTION, "vaultcore_db", "update",
+                TimeUnit.MILLISECONDS.toNanos(2), new RuntimeException("boom")));
+        // A reply for an unknown request id still gets a meter, just without a collection
+        listener.commandSucceeded(succeeded(9, "ping", "{ok: 1}", 1));
+
+        assertEquals(1, meterRegistry.get("vaultcore.mongo.command")
+                .tags("collection", "accounts", "status", "failure").timer().count());
+        assertEquals(1, meterRegistry.get("vaultcore.mongo.command")
+                .tags("command", "ping", "collection", "none").timer().count());
+    }
+
+    private static CommandStartedEvent started(int requestId, String command, String body) {
+        return new CommandStartedEvent(null, requestId, requestId, CONNECTION, "vaultcore_db", command,
+                BsonDocument.parse(body));
+    }
+
+    private static CommandSucceededEvent succeeded(int requestId, String command, String reply, long millis) {
+        return new CommandSucceededEvent(null, requestId, requestId, CONNECTION, "vaultcore_db", command,
+                BsonDocument.parse(reply), TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
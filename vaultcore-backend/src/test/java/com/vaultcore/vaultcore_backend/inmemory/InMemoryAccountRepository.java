@@ -0,0 +1,152 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Guarded balance updates with the same outcomes as the findAndModify / bulk CAS
+ * versions: a guard that fails leaves the account untouched and yields empty.
+ */
+class InMemoryAccountRepository extends InMemoryMongoRepository<Account> implements AccountRepository {
+
+    private static final int RECENT_BATCH_OPS_KEPT = 32;
+
+    // The recentBatchOps array of each account document - not mapped on the entity
+    private final Map<String, List<String>> recentBatchOps = new ConcurrentHashMap<>();
+    // The slotSweeps sub-document of each account: last sweep applied per hot-account slot
+    private final Map<String, Map<Integer, Long>> slotSweeps = new ConcurrentHashMap<>();
+    // The lease sub-document of each leased account
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+
+    InMemoryAccountRepository() {
+        super(new InMemoryCollection<>(Account.class)
+                .ordered("userId", Account::getUserId, (a, b) -> 0)); // _id order within a user
+    }
+
+    @Override
+    public List<Account> findByUserId(String userId) {
+        return collection.findOrdered("userId", userId, false, account -> true, 0);
+    }
+
+    @Override
+    public Optional<BalanceUpdate> debitIfSufficient(String accountId, String ownerId, Money amount) {
+        return collection.update(accountId,
+                        account -> ownedBy(account, ownerId) && account.getBalance().compareTo(amount) >= 0,
+                        account -> setBalance(account, account.getBalance().minus(amount)))
+                .map(account -> new BalanceUpdate(account.getBalance(), account.getBalanceVersion()));
+    }
+
+    @Override
+    public Optional<BalanceUpdate> credit(String accountId, String ownerId, Money amount) {
+        return collection.update(accountId,
+                        account -> ownedBy(account, ownerId),
+                        account -> setBalance(account, account.getBalance().plus(amount)))
+                .map(account -> new BalanceUpdate(account.getBalance(), account.getBalanceVersion()));
+    }
+
+    @Override
+    public void setBalances(Map<String, Money> balances, LocalDateTime asOf) {
+        balances.forEach((accountId, balance) -> collection.update(accountId, account -> true, account -> {
+            setBalance(account, balance);
+            account.setBalanceAsOf(asOf);
+        }));
+    }
+
+    @Override
+    public Map<String, BalanceSnapshot> findBalanceSnapshots(Collection<String> accountIds) {
+        Map<String, BalanceSnapshot> snapshots = new HashMap<>();
+        for (String id : accountIds) {
+            collection.findById(id).ifPresent(account -> snapshots.put(id, new BalanceSnapshot(id,
+                    account.getUserId(), account.getBalance() != null ? account.getBalance() : Money.ZERO,
+                    recentBatchOps.getOrDefault(id, List.of()))));
+        }
+        return snapshots;
+    }
+
+    @Override
+    public long compareAndSetBalances(List<BalanceChange> changes, String token) {
+        long applied = 0;
+        for (BalanceChange change : changes) {
+            // Numeric equality, as a Decimal128 match is
+            boolean matched = collection.update(change.accountId(),
+                    account -> account.getBalance() != null && account.getBalance().compareTo(change.expected()) == 0,
+                    account -> {
+                        setBalance(account, change.updated());
+                        recentBatchOps.merge(account.getId(), List.of(token), InMemoryAccountRepository::keepRecent);
+                    }).isPresent();
+            if (matched) {
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public boolean creditSweep(String accountId, int slot, long sweep, Money amount) {
+        return collection.update(accountId,
+                account -> slotSweeps.getOrDefault(accountId, Map.of()).getOrDefault(slot, 0L) < sweep,
+                account -> {
+                    setBalance(account, account.getBalance().plus(amount));
+                    slotSweeps.computeIfAbsent(accountId, id -> new ConcurrentHashMap<>()).put(slot, sweep);
+                }).isPresent();
+    }
+
+    @Override
+    public boolean acquireLease(String accountId, String token, Duration ttl) {
+        Instant now = Instant.now();
+        return collection.update(accountId,
+                account -> {
+                    Lease held = leases.get(accountId);
+                    return held == null || !held.expiresAt().isAfter(now);
+                },
+                account -> leases.put(accountId, new Lease(token, now.plus(ttl)))).isPresent();
+    }
+
+    @Override
+    public void releaseLeases(Collection<String> accountIds, String token) {
+        for (String id : accountIds) {
+            collection.update(id,
+                    account -> leases.containsKey(id) && leases.get(id).token().equals(token),
+                    account -> leases.remove(id));
+        }
+    }
+
+    @Override
+    public void deleteById(String id) {
+        super.deleteById(id);
+        recentBatchOps.remove(id);
+        slotSweeps.remove(id);
+        leases.remove(id);
+    }
+
+    private record Lease(String token, Instant expiresAt) {}
+
+    // $set / $inc of balance always comes with $inc: {balanceVersion: 1}
+    private static void setBalance(Account account, Money balance) {
+        account.setBalance(balance);
+        account.setBalanceVersion(account.getBalanceVersion() == null ? 1 : account.getBalanceVersion() + 1);
+    }
+
+    private static boolean ownedBy(Account account, String ownerId) {
+        return ownerId == null || ownerId.equals(account.getUserId());
+    }
+
+    // $push with $slice: -32
+    private static List<String> keepRecent(List<String> current, List<String> pushed) {
+        List<String> tokens = new ArrayList<>(current);
+        tokens.addAll(pushed);
+        return List.copyOf(tokens.subList(Math.max(0, tokens.size() - RECENT_BATCH_OPS_KEPT), tokens.size()));
+    }
+}
@@ -0,0 +1,89 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.AccountSlot;
+import com.vaultcore.vaultcore_backend.repository.AccountSlotRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Slot updates with the same guards as the upsert / findAndModify versions. Writes are
+ * serialized per collection here, so unlike MongoDB more slots do not mean more
+ * concurrent credits - the outcomes are the same, the throughput is not.
+ */
+class InMemoryAccountSlotRepository extends InMemoryMongoRepository<AccountSlot> implements AccountSlotRepository {
+
+    InMemoryAccountSlotRepository() {
+        super(new InMemoryCollection<>(AccountSlot.class)
+                .ordered("accountId", AccountSlot::getAccountId, Comparator.comparingInt(AccountSlot::getSlot)));
+    }
+
+    @Override
+    public List<AccountSlot> findByAccountId(String accountId) {
+        return collection.findOrdered("accountId", accountId, false, slot -> true, 0);
+    }
+
+    @Override
+    public void credit(String accountId, int slot, Money amount) {
+        String id = AccountSlot.idOf(accountId, slot);
+        if (collection.update(id, existing -> true, existing -> existing.setBalance(existing.getBalance().plus(amount)))
+                .isPresent()) {
+            return;
+        }
+        AccountSlot created = new AccountSlot();
+        created.setId(id);
+        created.setAccountId(accountId);
+        created.setSlot(slot);
+        created.setBalance(amount);
+        try {
+            collection.insert(created);
+        } catch (DuplicateKeyException e) {
+            credit(accountId, slot, amount); // created concurrently - $inc it like the retried upsert would
+        }
+    }
+
+    @Override
+    public boolean debitAnySlot(String accountId, Money amount) {
+        // Fullest first; the guard is re-checked under the write lock, as findAndModify's match is
+        List<AccountSlot> slots = findByAccountId(accountId).stream()
+                .sorted(Comparator.comparing(AccountSlot::getBalance).reversed())
+                .toList();
+        for (AccountSlot candidate : slots) {
+            if (candidate.getBalance().compareTo(amount) < 0) {
+                break;
+            }
+            if (collection.update(candidate.getId(),
+                    slot -> slot.getBalance().compareTo(amount) >= 0,
+                    slot -> slot.setBalance(slot.getBalance().minus(amount))).isPresent()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Money totalBalance(String accountId) {
+        return findByAccountId(accountId).stream().map(AccountSlot::getBalance).reduce(Money.ZERO, Money::plus);
+    }
+
+    @Override
+    public Optional<AccountSlot> startSweep(String slotId, Money amount) {
+        return collection.update(slotId,
+                slot -> slot.getPendingSweep() == null && slot.getBalance().compareTo(amount) >= 0,
+                slot -> {
+                    slot.setBalance(slot.getBalance().minus(amount));
+                    slot.setSweeps(slot.getSweeps() + 1);
+                    slot.setPendingSweep(new AccountSlot.PendingSweep(amount));
+                });
+    }
+
+    @Override
+    public void finishSweep(String slotId, long sweep) {
+        collection.update(slotId,
+                slot -> slot.getSweeps() == sweep && slot.getPendingSweep() != null,
+                slot -> slot.setPendingSweep(null));
+    }
+}
@@ -0,0 +1,53 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.BalanceCheckpoint;
+import com.vaultcore.vaultcore_backend.repository.BalanceCheckpointRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+class InMemoryBalanceCheckpointRepository extends InMemoryMongoRepository<BalanceCheckpoint>
+        implements BalanceCheckpointRepository {
+
+    private static final Comparator<BalanceCheckpoint> BY_TIMESTAMP = Comparator.comparing(BalanceCheckpoint::getTimestamp);
+    private static final String ALL = "all"; // single group - the { timestamp: 1 } index
+
+    InMemoryBalanceCheckpointRepository() {
+        super(new InMemoryCollection<>(BalanceCheckpoint.class)
+                .ordered("accountId", BalanceCheckpoint::getAccountId, BY_TIMESTAMP)
+                .ordered("timestamp", checkpoint -> ALL, BY_TIMESTAMP));
+    }
+
+    @Override
+    public Optional<BalanceCheckpoint> findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc(
+            String accountId, LocalDateTime timestamp) {
+        return collection.findOrdered("accountId", accountId, true,
+                checkpoint -> !checkpoint.getTimestamp().isAfter(timestamp), 1).stream().findFirst();
+    }
+
+    @Override
+    public Optional<BalanceCheckpoint> findFirstByAccountIdAndTimestampGreaterThanOrderByTimestampAsc(
+            String accountId, LocalDateTime timestamp) {
+        return collection.findOrdered("accountId", accountId, false,
+                checkpoint -> checkpoint.getTimestamp().isAfter(timestamp), 1).stream().findFirst();
+    }
+
+    @Override
+    public Optional<BalanceCheckpoint> findFirstByOrderByTimestampDesc() {
+        return collection.findOrdered("timestamp", ALL, true, checkpoint -> true, 1).stream().findFirst();
+    }
+
+    @Override
+    public Map<String, BalanceCheckpoint> findLatestByAccountIds(Collection<String> accountIds) {
+        Map<String, BalanceCheckpoint> latest = new HashMap<>();
+        for (String accountId : accountIds) {
+            collection.findOrdered("accountId", accountId, true, checkpoint -> true, 1)
+                    .forEach(checkpoint -> latest.put(accountId, checkpoint));
+        }
+        return latest;
+    }
+}
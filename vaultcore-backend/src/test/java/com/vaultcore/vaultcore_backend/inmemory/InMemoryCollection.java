@@ -0,0 +1,319 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * One MongoDB collection held in memory
+ * Documents are copied on the way in and out, so mutating an entity never changes
+ * stored state - as with MongoDB. Writes are serialized per collection, which gives
+ * every update (guard + change) the document-level atomicity of findAndModify;
+ * reads share the lock. Ids are ObjectId hex strings, @Version fields behave like
+ * Spring Data's optimistic locking, unique indexes reject duplicates with
+ * DuplicateKeyException and ordered indexes keep per-key sorted views for the
+ * history queries.
+ */
+class InMemoryCollection<T> {
+
+    private final Class<T> type;
+    private final Field idField;
+    private final Field versionField; // null when the entity has no @Version
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, T> documents = new LinkedHashMap<>();
+    private final Map<String, Function<T, Object>> uniqueKeys = new HashMap<>();
+    private final Map<String, Map<Object, String>> uniqueIndexes = new HashMap<>();
+    private final Map<String, Function<T, Object>> orderedKeys = new HashMap<>();
+    private final Map<String, Comparator<T>> orderings = new HashMap<>();
+    private final Map<String, Map<Object, NavigableSet<T>>> orderedIndexes = new HashMap<>();
+
+    InMemoryCollection(Class<T> type) {
+        this.type = type;
+        this.idField = annotatedField(type, Id.class);
+        this.versionField = annotatedField(type, Version.class);
+        if (idField == null) {
+            throw new IllegalArgumentException(type.getSimpleName() + " has no @Id field");
+        }
+    }
+
+    /**
+     * Unique index on key (null keys are not indexed, like a sparse index)
+     */
+    InMemoryCollection<T> unique(String name, Function<T, Object> key) {
+        uniqueKeys.put(name, key);
+        uniqueIndexes.put(name, new HashMap<>());
+        return this;
+    }
+
+    /**
+     * Documents grouped by key, each group sorted by order then id
+     */
+    InMemoryCollection<T> ordered(String name, Function<T, Object> key, Comparator<T> order) {
+        orderedKeys.put(name, key);
+        orderings.put(name, order.thenComparing(this::idOf));
+        orderedIndexes.put(name, new HashMap<>());
+        return this;
+    }
+
+    Class<T> type() {
+        return type;
+    }
+
+    String idOf(T document) {
+        return (String) ReflectionUtils.getField(idField, document);
+    }
+
+    /**
+     * Insert a new document - assigns the id (and version 0) on the caller's instance, as MongoTemplate does
+     */
+    T insert(T document) {
+        lock.writeLock().lock();
+        try {
+            if (idOf(document) == null) {
+                ReflectionUtils.setField(idField, document, new ObjectId().toHexString());
+            }
+            if (documents.containsKey(idOf(document))) {
+                throw new DuplicateKeyException("Duplicate _id " + idOf(document) + " in " + type.getSimpleName());
+            }
+            if (versionField != null && ReflectionUtils.getField(versionField, document) == null) {
+                ReflectionUtils.setField(versionField, document, 0L);
+            }
+            store(document, null);
+            return document;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert, or replace the stored document with the same id; a versioned entity must
+     * carry the stored version and gets the next one
+     */
+    T save(T document) {
+        lock.writeLock().lock();
+        try {
+            String id = idOf(document);
+            T existing = id != null ? documents.get(id) : null;
+            if (existing == null) {
+                return insert(document);
+            }
+            if (versionField != null) {
+                Object version = ReflectionUtils.getField(versionField, document);
+                if (version == null) {
+                    throw new DuplicateKeyException("Duplicate _id " + id + " in " + type.getSimpleName());
+                }
+                if (!version.equals(ReflectionUtils.getField(versionField, existing))) {
+                    throw new OptimisticLockingFailureException("Stale version of " + type.getSimpleName() + " " + id);
+                }
+                ReflectionUtils.setField(versionField, document, (Long) version + 1);
+            }
+            store(document, existing);
+            return document;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * findAndModify: apply change to the document if it exists and passes guard, and
+     * return a copy of the new state - or empty when nothing matched
+     */
+    Optional<T> update(String id, Predicate<T> guard, Consumer<T> change) {
+        lock.writeLock().lock();
+        try {
+            T existing = documents.get(id);
+            if (existing == null || !guard.test(existing)) {
+                return Optional.empty();
+            }
+            T updated = copy(existing);
+            change.accept(updated);
+            store(updated, existing);
+            return Optional.of(copy(updated));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Optional<T> findById(String id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(documents.get(id)).map(this::copy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Optional<T> findByUnique(String index, Object key) {
+        lock.readLock().lock();
+        try {
+            String id = uniqueIndexes.get(index).get(key);
+            return Optional.ofNullable(id != null ? documents.get(id) : null).map(this::copy);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Matching documents in insertion (natural) order
+     */
+    List<T> find(Predicate<T> filter) {
+        lock.readLock().lock();
+        try {
+            List<T> result = new ArrayList<>();
+            for (T document : documents.values()) {
+                if (filter.test(document)) {
+                    result.add(copy(document));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to limit documents of one index group that pass filter, ascending or descending
+     * in index order; limit 0 = all of them
+     */
+    List<T> findOrdered(String index, Object key, boolean descending, Predicate<T> filter, int limit) {
+        lock.readLock().lock();
+        try {
+            NavigableSet<T> group = orderedIndexes.get(index).get(key);
+            List<T> result = new ArrayList<>();
+            if (group == null) {
+                return result;
+            }
+            for (T document : descending ? group.descendingSet() : group) {
+                if (filter.test(document)) {
+                    result.add(copy(document));
+                    if (result.size() == limit) {
+                        break;
+                    }
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    long count() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    boolean deleteById(String id) {
+        lock.writeLock().lock();
+        try {
+            T existing = documents.remove(id);
+            if (existing != null) {
+                unindex(existing);
+            }
+            return existing != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long deleteWhere(Predicate<T> filter) {
+        lock.writeLock().lock();
+        try {
+            List<T> matched = documents.values().stream().filter(filter).toList();
+            for (T document : matched) {
+                documents.remove(idOf(document));
+                unindex(document);
+            }
+            return matched.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    T copy(T document) {
+        T copy = BeanUtils.instantiateClass(type);
+        ReflectionUtils.shallowCopyFieldState(document, copy);
+        return copy;
+    }
+
+    // Caller holds the write lock; previous is the stored document being replaced, if any
+    private void store(T document, T previous) {
+        T stored = copy(document);
+        String id = idOf(stored);
+        uniqueKeys.forEach((name, key) -> {
+            Object value = key.apply(stored);
+            String owner = value != null ? uniqueIndexes.get(name).get(value) : null;
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateKeyException("Duplicate " + name + " " + value + " in " + type.getSimpleName());
+            }
+        });
+        if (previous != null) {
+            unindex(previous);
+        }
+        documents.put(id, stored);
+        uniqueKeys.forEach((name, key) -> {
+            Object value = key.apply(stored);
+            if (value != null) {
+                uniqueIndexes.get(name).put(value, id);
+            }
+        });
+        orderedKeys.forEach((name, key) -> {
+            Object value = key.apply(stored);
+            if (value != null) {
+                orderedIndexes.get(name).computeIfAbsent(value, k -> new TreeSet<>(orderings.get(name))).add(stored);
+            }
+        });
+    }
+
+    private void unindex(T stored) {
+        uniqueKeys.forEach((name, key) -> {
+            Object value = key.apply(stored);
+            if (value != null) {
+                uniqueIndexes.get(name).remove(value, idOf(stored));
+            }
+        });
+        orderedKeys.forEach((name, key) -> {
+            Object value = key.apply(stored);
+            NavigableSet<T> group = value != null ? orderedIndexes.get(name).get(value) : null;
+            if (group != null) {
+                group.remove(stored);
+                if (group.isEmpty()) {
+                    orderedIndexes.get(name).remove(value);
+                }
+            }
+        });
+    }
+
+    private static Field annotatedField(Class<?> type, Class<? extends java.lang.annotation.Annotation> annotation) {
+        Field[] found = new Field[1];
+        ReflectionUtils.doWithFields(type, field -> {
+            if (found[0] == null && field.isAnnotationPresent(annotation)) {
+                ReflectionUtils.makeAccessible(field);
+                found[0] = field;
+            }
+        });
+        return found[0];
+    }
+}
@@ -0,0 +1,16 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.IdempotencyRecord;
+import com.vaultcore.vaultcore_backend.repository.IdempotencyRecordRepository;
+
+/**
+ * Expired records are not purged the way the TTL index purges them - a load run is
+ * far shorter than the TTL, so they only cost memory.
+ */
+class InMemoryIdempotencyRecordRepository extends InMemoryMongoRepository<IdempotencyRecord>
+        implements IdempotencyRecordRepository {
+
+    InMemoryIdempotencyRecordRepository() {
+        super(new InMemoryCollection<>(IdempotencyRecord.class));
+    }
+}
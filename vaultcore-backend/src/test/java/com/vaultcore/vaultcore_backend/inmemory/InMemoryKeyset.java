@@ -0,0 +1,29 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory counterpart of KeysetQueries: rows strictly after the cursor in
+ * newest-first (timestamp, id) order. Ids are ObjectId hex strings, whose string
+ * order is their ObjectId order.
+ */
+final class InMemoryKeyset {
+
+    private InMemoryKeyset() {
+    }
+
+    static <T> Predicate<T> after(HistoryCursor cursor, Function<T, LocalDateTime> timestamp,
+                                  Function<T, String> id) {
+        if (cursor == null) {
+            return row -> true;
+        }
+        return row -> {
+            int byTime = timestamp.apply(row).compareTo(cursor.timestamp());
+            return byTime < 0 || (byTime == 0 && id.apply(row).compareTo(cursor.id()) < 0);
+        };
+    }
+}
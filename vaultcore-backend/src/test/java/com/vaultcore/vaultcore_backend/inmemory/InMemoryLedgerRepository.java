@@ -0,0 +1,121 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+class InMemoryLedgerRepository extends InMemoryMongoRepository<Ledger> implements LedgerRepository {
+
+    private static final Comparator<Ledger> BY_TIMESTAMP = Comparator.comparing(Ledger::getTimestamp);
+
+    InMemoryLedgerRepository() {
+        super(new InMemoryCollection<>(Ledger.class)
+                .ordered("accountId", Ledger::getAccountId, BY_TIMESTAMP)
+                .ordered("userId", Ledger::getUserId, BY_TIMESTAMP));
+    }
+
+    @Override
+    public List<Ledger> findByAccountIdOrderByTimestampAsc(String accountId) {
+        return collection.findOrdered("accountId", accountId, false, entry -> true, 0);
+    }
+
+    @Override
+    public void insertUnordered(List<Ledger> entries) {
+        // Unordered: every entry is attempted; the first failure is reported afterwards
+        RuntimeException failure = null;
+        for (Ledger entry : entries) {
+            try {
+                collection.insert(entry);
+            } catch (RuntimeException e) {
+                failure = failure != null ? failure : e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @Override
+    public List<Ledger> findPageByAccountId(String accountId, HistoryCursor after, int limit) {
+        return collection.findOrdered("accountId", accountId, true, afterCursor(after), limit);
+    }
+
+    @Override
+    public List<Ledger> findPageByUserId(String userId, HistoryCursor after, int limit) {
+        return collection.findOrdered("userId", userId, true, afterCursor(after), limit);
+    }
+
+    @Override
+    public Stream<Ledger> streamByAccountId(String accountId, LocalDateTime from, LocalDateTime to) {
+        return collection.findOrdered("accountId", accountId, false, inWindow(from, to), 0).stream();
+    }
+
+    @Override
+    public Money sumSignedAmounts(String accountId, LocalDateTime from, LocalDateTime to) {
+        return collection.findOrdered("accountId", accountId, false, inWindow(from, to), 0).stream()
+                .map(InMemoryLedgerRepository::signedAmount)
+                .reduce(Money.ZERO, Money::plus);
+    }
+
+    @Override
+    public List<AccountActivity> summarizeActivity(LocalDateTime from, LocalDateTime to) {
+        List<Ledger> window = collection.find(inWindow(from, to));
+        window.sort(BY_TIMESTAMP.thenComparing(Ledger::getId));
+
+        Map<String, List<Ledger>> byAccount = new LinkedHashMap<>();
+        for (Ledger entry : window) {
+            byAccount.computeIfAbsent(entry.getAccountId(), id -> new ArrayList<>()).add(entry);
+        }
+        List<AccountActivity> activity = new ArrayList<>();
+        byAccount.forEach((accountId, entries) -> {
+            Ledger first = entries.get(0);
+            Money delta = entries.stream().map(InMemoryLedgerRepository::signedAmount)
+                    .reduce(Money.ZERO, Money::plus);
+            activity.add(new AccountActivity(accountId, delta, first.getBalanceAfter(), signedAmount(first)));
+        });
+        return activity;
+    }
+
+    @Override
+    public Stream<LedgerPosting> streamPostings(ObjectId fromId, ObjectId toId, Collection<String> accountIds) {
+        List<Ledger> range = collection.find(entry -> {
+            ObjectId id = new ObjectId(entry.getId());
+            return (fromId == null || id.compareTo(fromId) >= 0) && (toId == null || id.compareTo(toId) < 0)
+                    && (accountIds == null || accountIds.contains(entry.getAccountId()));
+        });
+        range.sort(Comparator.comparing(Ledger::getId));
+        return range.stream().map(entry -> new LedgerPosting(new ObjectId(entry.getId()), entry.getAccountId(),
+                signedAmount(entry).minorUnits(), entry.getBalanceAfter().minorUnits()));
+    }
+
+    @Override
+    public Optional<ObjectId> findFirstLedgerId() {
+        return collection.find(entry -> true).stream().map(entry -> new ObjectId(entry.getId())).min(Comparator.naturalOrder());
+    }
+
+    private static Predicate<Ledger> afterCursor(HistoryCursor after) {
+        return InMemoryKeyset.after(after, Ledger::getTimestamp, Ledger::getId);
+    }
+
+    private static Predicate<Ledger> inWindow(LocalDateTime from, LocalDateTime to) {
+        return entry -> (from == null || !entry.getTimestamp().isBefore(from))
+                && (to == null || entry.getTimestamp().isBefore(to));
+    }
+
+    private static Money signedAmount(Ledger entry) {
+        return "CREDIT".equals(entry.getTransactionType()) ? entry.getAmount() : entry.getAmount().negate();
+    }
+}
@@ -0,0 +1,29 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.repository.ReactiveAccountRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import reactor.core.publisher.Mono;
+
+class InMemoryReactiveAccountRepository extends InMemoryReactiveRepository<Account> implements ReactiveAccountRepository {
+
+    private final InMemoryAccountRepository accounts;
+
+    InMemoryReactiveAccountRepository(InMemoryAccountRepository accounts) {
+        super(accounts);
+        this.accounts = accounts;
+    }
+
+    @Override
+    public Mono<Money> debitIfSufficient(String accountId, String ownerId, Money amount) {
+        return Mono.defer(() -> Mono.justOrEmpty(accounts.debitIfSufficient(accountId, ownerId, amount)))
+                .map(BalanceUpdate::balance);
+    }
+
+    @Override
+    public Mono<Money> credit(String accountId, String ownerId, Money amount) {
+        return Mono.defer(() -> Mono.justOrEmpty(accounts.credit(accountId, ownerId, amount)))
+                .map(BalanceUpdate::balance);
+    }
+}
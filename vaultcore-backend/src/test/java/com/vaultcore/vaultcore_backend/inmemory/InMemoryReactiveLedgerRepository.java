@@ -0,0 +1,21 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.ReactiveLedgerRepository;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import reactor.core.publisher.Flux;
+
+class InMemoryReactiveLedgerRepository extends InMemoryReactiveRepository<Ledger> implements ReactiveLedgerRepository {
+
+    private final InMemoryLedgerRepository ledger;
+
+    InMemoryReactiveLedgerRepository(InMemoryLedgerRepository ledger) {
+        super(ledger);
+        this.ledger = ledger;
+    }
+
+    @Override
+    public Flux<Ledger> findNewestFirstByAccountId(String accountId, HistoryCursor after, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(ledger.findPageByAccountId(accountId, after, limit)));
+    }
+}
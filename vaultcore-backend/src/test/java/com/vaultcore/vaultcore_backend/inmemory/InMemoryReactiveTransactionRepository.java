@@ -0,0 +1,22 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.repository.ReactiveTransactionRepository;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import reactor.core.publisher.Flux;
+
+class InMemoryReactiveTransactionRepository extends InMemoryReactiveRepository<Transaction>
+        implements ReactiveTransactionRepository {
+
+    private final InMemoryTransactionRepository transactions;
+
+    InMemoryReactiveTransactionRepository(InMemoryTransactionRepository transactions) {
+        super(transactions);
+        this.transactions = transactions;
+    }
+
+    @Override
+    public Flux<Transaction> findNewestFirstByUserId(String userId, HistoryCursor after, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(transactions.findPageByUserId(userId, after, limit)));
+    }
+}
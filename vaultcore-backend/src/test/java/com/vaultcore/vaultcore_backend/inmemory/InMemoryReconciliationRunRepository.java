@@ -0,0 +1,24 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun;
+import com.vaultcore.vaultcore_backend.repository.ReconciliationRunRepository;
+
+import java.util.Comparator;
+import java.util.Optional;
+
+class InMemoryReconciliationRunRepository extends InMemoryMongoRepository<ReconciliationRun>
+        implements ReconciliationRunRepository {
+
+    private static final String ALL = "all"; // single group - the { number: 1 } index
+
+    InMemoryReconciliationRunRepository() {
+        super(new InMemoryCollection<>(ReconciliationRun.class)
+                .unique("number", ReconciliationRun::getNumber)
+                .ordered("number", run -> ALL, Comparator.comparingLong(ReconciliationRun::getNumber)));
+    }
+
+    @Override
+    public Optional<ReconciliationRun> findFirstByOrderByNumberDesc() {
+        return collection.findOrdered("number", ALL, true, run -> true, 1).stream().findFirst();
+    }
+}
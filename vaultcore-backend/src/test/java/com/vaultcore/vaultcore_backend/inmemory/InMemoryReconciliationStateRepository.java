@@ -0,0 +1,28 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationState;
+import com.vaultcore.vaultcore_backend.repository.ReconciliationStateRepository;
+
+import java.util.List;
+
+class InMemoryReconciliationStateRepository extends InMemoryMongoRepository<ReconciliationState>
+        implements ReconciliationStateRepository {
+
+    InMemoryReconciliationStateRepository() {
+        super(new InMemoryCollection<>(ReconciliationState.class));
+    }
+
+    @Override
+    public void saveStates(List<ReconciliationState> states) {
+        states.forEach(collection::save);
+    }
+
+    @Override
+    public long revertRunsAfter(long lastRun) {
+        List<ReconciliationState> failed = collection.find(
+                state -> state.getCurrent() != null && state.getCurrent().run() > lastRun);
+        failed.forEach(state -> collection.save(
+                new ReconciliationState(state.getAccountId(), state.getPrevious(), state.getPrevious())));
+        return failed.size();
+    }
+}
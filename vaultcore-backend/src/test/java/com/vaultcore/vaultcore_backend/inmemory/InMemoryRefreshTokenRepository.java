@@ -0,0 +1,50 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.RefreshToken;
+import com.vaultcore.vaultcore_backend.repository.RefreshTokenRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Expired tokens are not purged the way the TTL index purges them; RefreshTokenService
+ * checks expiryDate itself and caps tokens per user, so they only cost memory.
+ */
+class InMemoryRefreshTokenRepository extends InMemoryMongoRepository<RefreshToken> implements RefreshTokenRepository {
+
+    InMemoryRefreshTokenRepository() {
+        super(new InMemoryCollection<>(RefreshToken.class)
+                .unique("tokenHash", RefreshToken::getTokenHash)
+                .ordered("userId", RefreshToken::getUserId, Comparator.comparing(RefreshToken::getCreatedAt)));
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        return collection.findByUnique("tokenHash", tokenHash);
+    }
+
+    @Override
+    public long deleteByTokenHash(String tokenHash) {
+        return collection.deleteWhere(token -> tokenHash.equals(token.getTokenHash()));
+    }
+
+    @Override
+    public long deleteByUserId(String userId) {
+        return collection.deleteWhere(token -> userId.equals(token.getUserId()));
+    }
+
+    @Override
+    public List<RefreshToken> findHashesByUserId(String userId) {
+        // Projection { tokenHash: 1 } - only _id and tokenHash are populated
+        return collection.findOrdered("userId", userId, true, token -> true, 0).stream()
+                .map(token -> {
+                    RefreshToken projected = new RefreshToken();
+                    projected.setId(token.getId());
+                    projected.setTokenHash(token.getTokenHash());
+                    projected.setCreatedAt(null);
+                    return projected;
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Every repository in repository/ backed by memory instead of MongoDB
+ * Active with vaultcore.storage=memory, which the 'inmemory' profile sets along with
+ * excluding the Mongo auto-configuration - the app then starts with no database at
+ * all. Used by the load harness (see loadtest/) and anything else that wants the
+ * real controllers and services without a server.
+ */
+@Configuration
+@ConditionalOnProperty(name = "vaultcore.storage", havingValue = "memory")
+public class InMemoryRepositoriesConfig {
+
+    @Bean
+    InMemoryAccountRepository accountRepository() {
+        return new InMemoryAccountRepository();
+    }
+
+    @Bean
+    InMemoryAccountSlotRepository accountSlotRepository() {
+        return new InMemoryAccountSlotRepository();
+    }
+
+    @Bean
+    InMemoryLedgerRepository ledgerRepository() {
+        return new InMemoryLedgerRepository();
+    }
+
+    @Bean
+    InMemoryTransactionRepository transactionRepository() {
+        return new InMemoryTransactionRepository();
+    }
+
+    @Bean
+    InMemoryUserRepository userRepository() {
+        return new InMemoryUserRepository();
+    }
+
+    @Bean
+    InMemoryRefreshTokenRepository refreshTokenRepository() {
+        return new InMemoryRefreshTokenRepository();
+    }
+
+    @Bean
+    InMemoryBalanceCheckpointRepository balanceCheckpointRepository() {
+        return new InMemoryBalanceCheckpointRepository();
+    }
+
+    @Bean
+    InMemoryReconciliationRunRepository reconciliationRunRepository() {
+        return new InMemoryReconciliationRunRepository();
+    }
+
+    @Bean
+    InMemoryReconciliationStateRepository reconciliationStateRepository() {
+        return new InMemoryReconciliationStateRepository();
+    }
+
+    @Bean
+    InMemoryIdempotencyRecordRepository idempotencyRecordRepository() {
+        return new InMemoryIdempotencyRecordRepository();
+    }
+
+    @Bean
+    InMemoryReactiveAccountRepository reactiveAccountRepository(InMemoryAccountRepository accounts) {
+        return new InMemoryReactiveAccountRepository(accounts);
+    }
+
+    @Bean
+    InMemoryReactiveLedgerRepository reactiveLedgerRepository(InMemoryLedgerRepository ledger) {
+        return new InMemoryReactiveLedgerRepository(ledger);
+    }
+
+    @Bean
+    InMemoryReactiveTransactionRepository reactiveTransactionRepository(InMemoryTransactionRepository transactions) {
+        return new InMemoryReactiveTransactionRepository(transactions);
+    }
+}
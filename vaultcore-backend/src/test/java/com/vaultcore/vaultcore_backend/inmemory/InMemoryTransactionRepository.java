@@ -0,0 +1,22 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.repository.TransactionRepository;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+
+import java.util.Comparator;
+import java.util.List;
+
+class InMemoryTransactionRepository extends InMemoryMongoRepository<Transaction> implements TransactionRepository {
+
+    InMemoryTransactionRepository() {
+        super(new InMemoryCollection<>(Transaction.class)
+                .ordered("userId", Transaction::getUserId, Comparator.comparing(Transaction::getTimestamp)));
+    }
+
+    @Override
+    public List<Transaction> findPageByUserId(String userId, HistoryCursor after, int limit) {
+        return collection.findOrdered("userId", userId, true,
+                InMemoryKeyset.after(after, Transaction::getTimestamp, Transaction::getId), limit);
+    }
+}
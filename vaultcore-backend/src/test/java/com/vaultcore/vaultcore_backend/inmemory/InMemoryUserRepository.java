@@ -0,0 +1,23 @@
+package com.vaultcore.vaultcore_backend.inmemory;
+
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.UserRepository;
+
+import java.util.Optional;
+
+class InMemoryUserRepository extends InMemoryMongoRepository<User> implements UserRepository {
+
+    InMemoryUserRepository() {
+        super(new InMemoryCollection<>(User.class).unique("email", User::getEmail));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return collection.findByUnique("email", email);
+    }
+
+    @Override
+    public long updatePassword(String id, String password) {
+        return collection.update(id, user -> true, user -> user.setPassword(password)).isPresent() ? 1 : 0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A few seconds of the load harness on every build, so the in-memory profile keeps
+ * starting and every operation of the mix keeps succeeding as the code changes
+ */
+public class InMemoryLoadSmokeTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEveryOperationSucceedsWithoutMongo() throws Exception {
+        try (LoadHarness harness = LoadHarness.start(List.of("vaultcore.auth.bcrypt.strength=4"))) {
+            harness.client().seedUsers(3);
+            LoadGenerator generator = new LoadGenerator(harness.client(), LoadMix.parse(LoadMix.DEFAULT), 7);
+
+            Duration duration = Duration.ofSeconds(2);
+            LoadReport closed = new LoadReport(Map.of("mode", "closed"), generator.closedLoop(4, duration), duration);
+            LoadReport open = new LoadReport(Map.of("mode", "open"), generator.openLoop(50, duration, 1000), duration);
+
+            for (LoadReport report : List.of(closed, open)) {
+                assertEquals(0L, report.asMap().get("errors"), () -> report.asMap().toString());
+                Map<String, Object> operations = (Map<String, Object>) report.asMap().get("operations");
+                assertEquals(4, operations.size(), () -> report.asMap().toString());
+            }
+
+            String scrape = harness.client().scrapeMetrics();
+            assertTrue(scrape.contains("vaultcore_service_calls_seconds_count{method=\"transfer\",outcome=\"success\""),
+                    "Service timers are missing from the Prometheus scrape");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives a LoadMix through a VaultcoreClient in one of two shapes:
+ *
+ * closed loop - N clients, each sending its next request as soon as the previous one
+ * returns. Measures capacity; latency is per request as the client saw it.
+ *
+ * open loop - requests arrive on a fixed schedule whatever the server is doing, and
+ * latency is measured from the scheduled time, so time spent queued behind a slow
+ * server counts (no coordinated omission). Measures latency at a given load.
+ *
+ * Every client / arrival draws from its own Random derived from the seed, so two runs
+ * with the same settings send the same sequence of operations.
+ */
+public class LoadGenerator {
+
+    private final VaultcoreClient client;
+    private final LoadMix mix;
+    private final long seed;
+
+    public LoadGenerator(VaultcoreClient client, LoadMix mix, long seed) {
+        this.client = client;
+        this.mix = mix;
+        this.seed = seed;
+    }
+
+    public LoadRecorder closedLoop(int clients, Duration duration) throws InterruptedException {
+        LoadRecorder recorder = new LoadRecorder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                Random random = new Random(seed * 1_000_003L + c);
+                running.add(threads.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        send(recorder, random, System.nanoTime());
+                    }
+                }));
+            }
+            for (Future<?> future : running) {
+                awaitQuietly(future);
+            }
+        }
+        return recorder;
+    }
+
+    /**
+     * ratePerSecond arrivals per second for duration; at most maxOutstanding requests
+     * are in flight, further arrivals are dropped and counted
+     */
+    public LoadRecorder openLoop(int ratePerSecond, Duration duration, int maxOutstanding) {
+        LoadRecorder recorder = new LoadRecorder();
+        long interval = 1_000_000_000L / ratePerSecond;
+        long arrivals = duration.toNanos() / interval;
+        Semaphore outstanding = new Semaphore(maxOutstanding);
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            long start = System.nanoTime();
+            for (long i = 0; i < arrivals; i++) {
+                long scheduled = start + i * interval;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!outstanding.tryAcquire()) {
+                    recorder.drop();
+                    continue;
+                }
+                Random random = new Random(seed * 1_000_003L + i);
+                threads.submit(() -> {
+                    try {
+                        send(recorder, random, scheduled);
+                    } finally {
+                        outstanding.release();
+                    }
+                });
+            }
+        }
+        return recorder;
+    }
+
+    private void send(LoadRecorder recorder, Random random, long startNanos) {
+        LoadOperation operation = mix.pick(random);
+        try {
+            int status = client.execute(operation, random);
+            recorder.record(operation, System.nanoTime() - startNanos, status);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            recorder.error(operation);
+        } catch (Exception e) {
+            recorder.error(operation);
+        }
+    }
+
+    private static void awaitQuietly(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (java.util.concurrent.ExecutionException e) {
+            // send() records its own failures; nothing else can throw
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+import com.vaultcore.vaultcore_backend.VaultcoreBackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The application on a random port with the 'inmemory' profile - real controllers,
+ * services and security, no MongoDB - plus a client pointed at it
+ */
+public class LoadHarness implements AutoCloseable {
+
+    private final ConfigurableApplicationContext app;
+    private final ExecutorService httpThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final VaultcoreClient client;
+
+    private LoadHarness(ConfigurableApplicationContext app) {
+        this.app = app;
+        this.client = new VaultcoreClient("http://localhost:" + app.getEnvironment().getProperty("local.server.port"),
+                httpThreads);
+    }
+
+    /**
+     * Extra properties (key=value) override the application's, e.g. vaultcore.transfer.engine=sequencer
+     */
+    public static LoadHarness start(List<String> properties) {
+        List<String> all = new ArrayList<>(List.of(
+                "server.port=0",
+                "vaultcore.checkpoint.enabled=false")); // no hourly job firing mid-run
+        all.addAll(properties);
+        return new LoadHarness(new SpringApplicationBuilder(VaultcoreBackendApplication.class)
+                .profiles("inmemory")
+                .properties(all.toArray(String[]::new))
+                .run());
+    }
+
+    public VaultcoreClient client() {
+        return client;
+    }
+
+    @Override
+    public void close() {
+        app.close();
+        httpThreads.shutdownNow();
+    }
+}
@@ -0,0 +1,100 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end load against the real controllers on the in-memory repositories -
+ * one JVM, no external services. Runs a closed-loop phase, an open-loop phase or
+ * both, each after a warmup whose numbers are thrown away, prints the results and
+ * writes one JSON report per phase to target/load-reports.
+ *
+ * mvn test -Dbenchmarks=true -Dtest=LoadHarnessTest
+ *
+ * Settings (system properties, defaults in brackets):
+ *   load.mode      closed | open | both [both]
+ *   load.clients   closed-loop clients [64]
+ *   load.rate      open-loop requests per second [200]
+ *   load.duration  measured seconds per phase [30]
+ *   load.warmup    warmup seconds per phase [10]
+ *   load.users     seeded users, two accounts each [50]
+ *   load.mix       operation weights [signup=5,login=10,transfer=60,history=25]
+ *   load.seed      random seed [42]
+ * Any -Dvaultcore.* property is passed to the application, e.g.
+ * -Dvaultcore.transfer.engine=sequencer or -Dvaultcore.auth.bcrypt.strength=8.
+ * Keep settings equal between runs you want to compare - they are in every report.
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class LoadHarnessTest {
+
+    private static final Path REPORTS = Path.of("target", "load-reports");
+
+    @Test
+    public void testLoad() throws Exception {
+        String mode = System.getProperty("load.mode", "both");
+        int clients = Integer.getInteger("load.clients", 64);
+        int rate = Integer.getInteger("load.rate", 200);
+        Duration duration = Duration.ofSeconds(Integer.getInteger("load.duration", 30));
+        Duration warmup = Duration.ofSeconds(Integer.getInteger("load.warmup", 10));
+        int users = Integer.getInteger("load.users", 50);
+        LoadMix mix = LoadMix.parse(System.getProperty("load.mix", LoadMix.DEFAULT));
+        long seed = Long.getLong("load.seed", 42L);
+
+        List<String> appProperties = new ArrayList<>();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("vaultcore."))
+                .sorted()
+                .forEach(name -> appProperties.add(name + "=" + System.getProperty(name)));
+
+        try (LoadHarness harness = LoadHarness.start(appProperties)) {
+            harness.client().seedUsers(users);
+            LoadGenerator generator = new LoadGenerator(harness.client(), mix, seed);
+
+            if (mode.equals("closed") || mode.equals("both")) {
+                generator.closedLoop(clients, warmup);
+                LoadRecorder recorder = generator.closedLoop(clients, duration);
+                Map<String, Object> settings = settings("closed", mix, seed, users, duration, warmup, appProperties);
+                settings.put("clients", clients);
+                report(new LoadReport(settings, recorder, duration), "closed-" + clients);
+            }
+            if (mode.equals("open") || mode.equals("both")) {
+                int maxOutstanding = Math.max(1000, rate * 10);
+                generator.openLoop(rate, warmup, maxOutstanding);
+                LoadRecorder recorder = generator.openLoop(rate, duration, maxOutstanding);
+                Map<String, Object> settings = settings("open", mix, seed, users, duration, warmup, appProperties);
+                settings.put("ratePerSec", rate);
+                settings.put("maxOutstanding", maxOutstanding);
+                report(new LoadReport(settings, recorder, duration), "open-" + rate);
+            }
+        }
+    }
+
+    private static Map<String, Object> settings(String mode, LoadMix mix, long seed, int users, Duration duration,
+                                                Duration warmup, List<String> appProperties) {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("mode", mode);
+        settings.put("mix", mix.toString());
+        settings.put("seed", seed);
+        settings.put("users", users);
+        settings.put("durationSec", duration.toSeconds());
+        settings.put("warmupSec", warmup.toSeconds());
+        settings.put("storage", "memory");
+        settings.put("appProperties", appProperties);
+        return settings;
+    }
+
+    private static void report(LoadReport report, String name) throws Exception {
+        report.print();
+        System.out.println("📊 Report written to " + report.write(REPORTS, name));
+        assertTrue((Double) report.asMap().get("throughputPerSec") > 0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Relative weights of the operations, e.g. "signup=5,login=10,transfer=60,history=25"
+ */
+public record LoadMix(Map<LoadOperation, Integer> weights) {
+
+    public static final String DEFAULT = "signup=5,login=10,transfer=60,history=25";
+
+    public static LoadMix parse(String spec) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like transfer=60, got: " + part);
+            }
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Mix weights must not be negative: " + part);
+            }
+            weights.put(LoadOperation.valueOf(pair[0].trim().toUpperCase()), weight);
+        }
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix has no operations: " + spec);
+        }
+        return new LoadMix(weights);
+    }
+
+    public LoadOperation pick(Random random) {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int ticket = random.nextInt(total);
+        for (Map.Entry<LoadOperation, Integer> weight : weights.entrySet()) {
+            ticket -= weight.getValue();
+            if (ticket < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder spec = new StringBuilder();
+        weights.forEach((operation, weight) -> spec.append(spec.isEmpty() ? "" : ",")
+                .append(operation.name().toLowerCase()).append('=').append(weight));
+        return spec.toString();
+    }
+}
@@ -0,0 +1,11 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+/**
+ * What one simulated request does - each is timed and reported separately
+ */
+public enum LoadOperation {
+    SIGNUP,   // POST /api/auth/signup with a fresh email
+    LOGIN,    // POST /api/auth/login as a seeded user (one BCrypt check)
+    TRANSFER, // POST /api/transfers of 1 between a seeded user's two accounts
+    HISTORY   // GET /api/accounts/{id}/ledger - first page of a seeded account
+}
@@ -0,0 +1,60 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms (microseconds, 3 significant digits) and error counts per operation.
+ * Only 2xx responses are timed; everything else - status or exception - is an error.
+ */
+public class LoadRecorder {
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<LoadOperation, Histogram> latencies = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, AtomicLong> errors = new EnumMap<>(LoadOperation.class);
+    private final AtomicLong dropped = new AtomicLong();
+
+    public LoadRecorder() {
+        for (LoadOperation operation : LoadOperation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+        }
+    }
+
+    public void record(LoadOperation operation, long nanos, int status) {
+        if (status / 100 != 2) {
+            error(operation);
+            return;
+        }
+        latencies.get(operation).recordValue(Math.min(HIGHEST_MICROS, Math.max(1, nanos / 1000)));
+    }
+
+    public void error(LoadOperation operation) {
+        errors.get(operation).incrementAndGet();
+    }
+
+    /**
+     * Open loop only: an arrival that was not sent because too many requests were outstanding
+     */
+    public void drop() {
+        dropped.incrementAndGet();
+    }
+
+    public Histogram latencies(LoadOperation operation) {
+        return latencies.get(operation);
+    }
+
+    public long errors(LoadOperation operation) {
+        return errors.get(operation).get();
+    }
+
+    public long dropped() {
+        return dropped.get();
+    }
+}
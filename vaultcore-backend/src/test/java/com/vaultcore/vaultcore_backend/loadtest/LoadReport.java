@@ -0,0 +1,100 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One measured phase: the settings that produced it and per-operation throughput,
+ * p50 / p99 / p999 / max latency (ms) and errors. Written as JSON with the same keys
+ * every time, so reports from different runs or commits can be diffed directly.
+ */
+public class LoadReport {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Map<String, Object> report = new LinkedHashMap<>();
+
+    public LoadReport(Map<String, Object> settings, LoadRecorder recorder, Duration measured) {
+        Map<String, Object> environment = new LinkedHashMap<>();
+        environment.put("java", System.getProperty("java.version"));
+        environment.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        environment.put("cpus", Runtime.getRuntime().availableProcessors());
+        environment.put("maxHeapMb", Runtime.getRuntime().maxMemory() / (1024 * 1024));
+
+        Map<String, Object> operations = new LinkedHashMap<>();
+        long total = 0;
+        long errors = 0;
+        for (LoadOperation operation : LoadOperation.values()) {
+            Histogram latencies = recorder.latencies(operation);
+            long operationErrors = recorder.errors(operation);
+            if (latencies.getTotalCount() == 0 && operationErrors == 0) {
+                continue;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("completed", latencies.getTotalCount());
+            result.put("errors", operationErrors);
+            result.put("throughputPerSec", round(latencies.getTotalCount() / seconds(measured)));
+            result.put("p50Ms", millis(latencies.getValueAtPercentile(50)));
+            result.put("p99Ms", millis(latencies.getValueAtPercentile(99)));
+            result.put("p999Ms", millis(latencies.getValueAtPercentile(99.9)));
+            result.put("maxMs", millis(latencies.getMaxValue()));
+            operations.put(operation.name().toLowerCase(), result);
+            total += latencies.getTotalCount();
+            errors += operationErrors;
+        }
+
+        report.put("settings", settings);
+        report.put("environment", environment);
+        report.put("measuredSeconds", seconds(measured));
+        report.put("throughputPerSec", round(total / seconds(measured)));
+        report.put("errors", errors);
+        report.put("dropped", recorder.dropped());
+        report.put("operations", operations);
+    }
+
+    public Map<String, Object> asMap() {
+        return report;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void print() {
+        System.out.printf("📊 %s: %,.0f req/s, %d errors, %d dropped%n",
+                report.get("settings"), (Double) report.get("throughputPerSec"), report.get("errors"), report.get("dropped"));
+        ((Map<String, Map<String, Object>>) report.get("operations")).forEach((operation, result) ->
+                System.out.printf("📊   %-8s %,10.1f req/s  p50 %8.2f ms  p99 %8.2f ms  p999 %8.2f ms  max %8.2f ms  errors %d%n",
+                        operation, result.get("throughputPerSec"), result.get("p50Ms"), result.get("p99Ms"),
+                        result.get("p999Ms"), result.get("maxMs"), result.get("errors")));
+    }
+
+    /**
+     * target/load-reports/<name>-<timestamp>.json
+     */
+    public Path write(Path directory, String name) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(name + "-" + LocalDateTime.now().format(FILE_TIME) + ".json");
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static double seconds(Duration duration) {
+        return duration.toNanos() / 1e9;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
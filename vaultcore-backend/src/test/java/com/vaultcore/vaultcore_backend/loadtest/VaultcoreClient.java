@@ -0,0 +1,128 @@
+package com.vaultcore.vaultcore_backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The HTTP side of the harness: seeds users with two funded accounts each, then
+ * performs one LoadOperation per call against the real controllers
+ */
+public class VaultcoreClient {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String runId;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong signups = new AtomicLong();
+    private final List<SeededUser> users = new ArrayList<>();
+
+    public record SeededUser(String email, String token, String fromAccountId, String toAccountId) {}
+
+    public VaultcoreClient(String baseUrl, Executor executor) {
+        this.http = HttpClient.newBuilder().executor(executor).connectTimeout(TIMEOUT).build();
+        this.baseUrl = baseUrl;
+        this.runId = Long.toString(System.currentTimeMillis(), 36);
+    }
+
+    public void seedUsers(int count) throws IOException, InterruptedException {
+        for (int i = 0; i < count; i++) {
+            String email = "seed-" + runId + "-" + i + "@load.test";
+            expectOk(send(post("/api/auth/signup", null, credentials(email))));
+            String token = objectMapper.readTree(expectOk(send(post("/api/auth/login", null, credentials(email)))).body())
+                    .get("token").asText();
+            users.add(new SeededUser(email, token, createAccount(token), createAccount(token)));
+        }
+    }
+
+    public List<SeededUser> users() {
+        return users;
+    }
+
+    /**
+     * Perform one operation for a user picked with random; returns the HTTP status
+     */
+    public int execute(LoadOperation operation, Random random) throws IOException, InterruptedException {
+        SeededUser user = users.get(random.nextInt(users.size()));
+        HttpRequest request = switch (operation) {
+            case SIGNUP -> post("/api/auth/signup", null,
+                    credentials("user-" + runId + "-" + signups.incrementAndGet() + "@load.test"));
+            case LOGIN -> post("/api/auth/login", null, credentials(user.email()));
+            case TRANSFER -> {
+                // Either direction, so balances stay put however long the run
+                boolean forward = random.nextBoolean();
+                // A fresh Idempotency-Key per transfer, as a retrying client sends - keeps the key path in the numbers
+                yield request("/api/transfers", user.token())
+                        .header("Content-Type", "application/json")
+                        .header("Idempotency-Key", new UUID(random.nextLong(), random.nextLong()).toString())
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"fromAccountId\":\""
+                                + (forward ? user.fromAccountId() : user.toAccountId()) + "\",\"toAccountId\":\""
+                                + (forward ? user.toAccountId() : user.fromAccountId()) + "\",\"amount\":1}"))
+                        .build();
+            }
+            case HISTORY -> get("/api/accounts/" + (random.nextBoolean() ? user.fromAccountId() : user.toAccountId())
+                    + "/ledger?limit=20", user.token());
+        };
+        return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * The Prometheus scrape, fetched without a token as a scraper would
+     */
+    public String scrapeMetrics() throws IOException, InterruptedException {
+        return expectOk(send(get("/actuator/prometheus", null))).body();
+    }
+
+    private String createAccount(String token) throws IOException, InterruptedException {
+        HttpResponse<String> response = expectOk(send(post("/api/accounts", token,
+                "{\"accountType\":\"SAVINGS\",\"initialBalance\":1000000}")));
+        return objectMapper.readTree(response.body()).get("id").asText();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return http.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpResponse<String> expectOk(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Seeding failed: " + response.request().uri() + " returned "
+                    + response.statusCode() + " " + response.body());
+        }
+        return response;
+    }
+
+    private static String credentials(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    private HttpRequest post(String path, String token, String json) {
+        return request(path, token).header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return request;
+    }
+}
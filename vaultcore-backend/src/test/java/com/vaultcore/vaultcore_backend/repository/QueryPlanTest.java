@@ -0,0 +1,271 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.vaultcore.vaultcore_backend.config.MoneyConverters;
+import com.vaultcore.vaultcore_backend.config.MongoIndexInitializer;
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.BalanceCheckpoint;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.RefreshToken;
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepositoryCustom.LedgerPosting;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query plan regression test
+ * Every repository query is run against a seeded database, the commands it sends
+ * are captured and explained, and the test fails if any of them scans a collection
+ * or examines more than a few documents per document it returns.
+ * Needs a local MongoDB: mvn test -Dbenchmarks=true -Dtest=QueryPlanTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class QueryPlanTest {
+
+    private static final int MAX_EXAMINED_PER_RESULT = 2;
+    private static final Set<String> EXPLAINABLE = Set.of("find", "findAndModify", "count", "delete");
+    private static final Set<String> NOT_EXPLAINABLE_FIELDS =
+            Set.of("$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "apiVersion");
+
+    private static final int USERS = 10;
+    private static final int ACCOUNTS_PER_USER = 5;
+    private static final int ENTRIES_PER_ACCOUNT = 20;
+
+    private final List<BsonDocument> commands = new CopyOnWriteArrayList<>();
+    private MongoClient client;
+    private MongoTemplate template;
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private LedgerRepository ledgerRepository;
+    private UserRepository userRepository;
+    private RefreshTokenRepository refreshTokenRepository;
+    private BalanceCheckpointRepository checkpointRepository;
+    private final List<User> users = new ArrayList<>();
+    private final List<Account> accounts = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        CommandListener capture = new CommandListener() {
+            @Override
+            public void commandStarted(CommandStartedEvent event) {
+                if (EXPLAINABLE.contains(event.getCommandName())) {
+                    commands.add(event.getCommand().clone());
+                }
+            }
+        };
+        client = MongoClients.create(MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString("mongodb://localhost:27017"))
+                .addCommandListener(capture)
+                .build());
+        template = MoneyConverters.mongoTemplate(new SimpleMongoClientDatabaseFactory(client, "vaultcore_plan_test"));
+        template.getDb().drop();
+
+        MongoMappingContext mappingContext = (MongoMappingContext) template.getConverter().getMappingContext();
+        for (Class<?> type : List.of(User.class, Account.class, Transaction.class, Ledger.class, RefreshToken.class,
+                BalanceCheckpoint.class)) {
+            mappingContext.getPersistentEntity(type);
+        }
+        assertTrue(new MongoIndexInitializer(template).ensureIndexes() > 0);
+
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(template);
+        accountRepository = factory.getRepository(AccountRepository.class,
+                RepositoryFragments.just(new AccountRepositoryCustomImpl(template)));
+        transactionRepository = factory.getRepository(TransactionRepository.class,
+                RepositoryFragments.just(new TransactionRepositoryCustomImpl(template)));
+        ledgerRepository = factory.getRepository(LedgerRepository.class,
+                RepositoryFragments.just(new LedgerRepositoryCustomImpl(template)));
+        userRepository = factory.getRepository(UserRepository.class);
+        refreshTokenRepository = factory.getRepository(RefreshTokenRepository.class);
+        checkpointRepository = factory.getRepository(BalanceCheckpointRepository.class,
+                RepositoryFragments.just(new BalanceCheckpointRepositoryCustomImpl(template)));
+
+        seed();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        template.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    public void testAccountQueriesUseIndexes() {
+        User user = users.get(3);
+        Account account = accounts.get(17);
+
+        assertIndexed("findByUserId", () -> accountRepository.findByUserId(user.getId()));
+        assertIndexed("debitIfSufficient", () ->
+                accountRepository.debitIfSufficient(account.getId(), account.getUserId(), Money.parse("1")));
+        assertIndexed("credit", () -> accountRepository.credit(account.getId(), null, Money.parse("1")));
+        assertIndexed("findBalanceSnapshots", () -> accountRepository.findBalanceSnapshots(
+                List.of(accounts.get(1).getId(), accounts.get(2).getId())));
+    }
+
+    @Test
+    public void testHistoryQueriesUseIndexes() {
+        User user = users.get(5);
+        Account account = accounts.get(5 * ACCOUNTS_PER_USER);
+
+        assertIndexed("transactions.findPageByUserId", () -> transactionRepository.findPageByUserId(user.getId(), null, 21));
+        Transaction lastTxn = transactionRepository.findPageByUserId(user.getId(), null, 20).get(19);
+        assertIndexed("transactions.findPageByUserId after cursor", () -> transactionRepository.findPageByUserId(
+                user.getId(), new HistoryCursor(lastTxn.getTimestamp(), lastTxn.getId()), 21));
+
+        assertIndexed("ledger.findPageByAccountId", () -> ledgerRepository.findPageByAccountId(account.getId(), null, 11));
+        Ledger lastEntry = ledgerRepository.findPageByAccountId(account.getId(), null, 10).get(9);
+        assertIndexed("ledger.findPageByAccountId after cursor", () -> ledgerRepository.findPageByAccountId(
+                account.getId(), new HistoryCursor(lastEntry.getTimestamp(), lastEntry.getId()), 11));
+        assertIndexed("ledger.findPageByUserId", () -> ledgerRepository.findPageByUserId(user.getId(), null, 21));
+        assertIndexed("ledger.findByAccountIdOrderByTimestampAsc", () ->
+                ledgerRepository.findByAccountIdOrderByTimestampAsc(account.getId()));
+        assertIndexed("ledger.streamByAccountId", () -> {
+            try (Stream<Ledger> entries = ledgerRepository.streamByAccountId(account.getId(),
+                    LocalDateTime.of(2020, 1, 1, 0, 0), null)) {
+                assertEquals(ENTRIES_PER_ACCOUNT, entries.count());
+            }
+        });
+        assertIndexed("ledger.findFirstLedgerId", () -> ledgerRepository.findFirstLedgerId());
+        ObjectId firstId = ledgerRepository.findFirstLedgerId().orElseThrow();
+        assertIndexed("ledger.streamPostings", () -> {
+            try (Stream<LedgerPosting> postings = ledgerRepository.streamPostings(firstId, null, null)) {
+                assertEquals(USERS * ACCOUNTS_PER_USER * ENTRIES_PER_ACCOUNT, postings.count());
+            }
+        });
+    }
+
+    @Test
+    public void testCheckpointQueriesUseIndexes() {
+        Account account = accounts.get(12);
+        LocalDateTime at = LocalDateTime.of(2026, 1, 1, 5, 30);
+
+        assertIndexed("findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc", () ->
+                checkpointRepository.findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc(account.getId(), at));
+        assertIndexed("findFirstByAccountIdAndTimestampGreaterThanOrderByTimestampAsc", () ->
+                checkpointRepository.findFirstByAccountIdAndTimestampGreaterThanOrderByTimestampAsc(account.getId(), at));
+        assertIndexed("findFirstByOrderByTimestampDesc", () -> checkpointRepository.findFirstByOrderByTimestampDesc());
+    }
+
+    @Test
+    public void testAuthQueriesUseIndexes() {
+        User user = users.get(7);
+
+        assertIndexed("findByEmail", () -> userRepository.findByEmail(user.getEmail()));
+        assertIndexed("findByTokenHash", () -> refreshTokenRepository.findByTokenHash("hash-7"));
+        assertIndexed("findHashesByUserId", () -> refreshTokenRepository.findHashesByUserId(user.getId()));
+        assertIndexed("deleteByTokenHash", () -> refreshTokenRepository.deleteByTokenHash("hash-8"));
+        assertIndexed("deleteByUserId", () -> refreshTokenRepository.deleteByUserId(user.getId()));
+    }
+
+    private void assertIndexed(String name, Runnable query) {
+        commands.clear();
+        query.run();
+        assertFalse(commands.isEmpty(), name + " sent no explainable command");
+
+        for (BsonDocument command : commands) {
+            NOT_EXPLAINABLE_FIELDS.forEach(command::remove);
+            Document explain = template.getDb().runCommand(
+                    new BsonDocument("explain", command).append("verbosity", new BsonString("executionStats")));
+
+            Document queryPlanner = explain.get("queryPlanner", Document.class);
+            assertFalse(containsStage(queryPlanner, "COLLSCAN"), name + " scans the collection: " + queryPlanner.toJson());
+
+            Document stats = explain.get("executionStats", Document.class);
+            int returned = Math.max(1, stats.getInteger("nReturned", 0));
+            int examined = stats.getInteger("totalDocsExamined", 0);
+            assertTrue(examined <= MAX_EXAMINED_PER_RESULT * returned,
+                    name + " examined " + examined + " documents to return " + returned);
+        }
+    }
+
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document doc) {
+            if (stage.equals(doc.get("stage"))) {
+                return true;
+            }
+            return doc.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+
+    /**
+     * Enough documents per owner that a scan would examine far more than a page
+     */
+    private void seed() {
+        LocalDateTime start = LocalDateTime.of(2026, 1, 1, 0, 0);
+        List<Transaction> transactions = new ArrayList<>();
+        List<Ledger> ledger = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            User user = new User();
+            user.setEmail("user" + u + "@plan.test");
+            user.setPassword("password");
+            users.add(template.insert(user));
+
+            RefreshToken token = new RefreshToken();
+            token.setTokenHash("hash-" + u);
+            token.setUserId(user.getId());
+            token.setExpiryDate(start.plusDays(7));
+            template.insert(token);
+
+            for (int a = 0; a < ACCOUNTS_PER_USER; a++) {
+                Account account = new Account();
+                account.setAccountType("SAVINGS");
+                account.setBalance(Money.parse("1000"));
+                account.setUserId(user.getId());
+                accounts.add(template.insert(account));
+
+                for (int e = 0; e < ENTRIES_PER_ACCOUNT; e++) {
+                    Transaction txn = new Transaction();
+                    txn.setAmount(Money.parse("1"));
+                    txn.setType("CREDIT");
+                    txn.setTimestamp(start.plusMinutes(e));
+                    txn.setAccountId(account.getId());
+                    txn.setAccountType(account.getAccountType());
+                    txn.setUserId(user.getId());
+                    transactions.add(txn);
+                    ledger.add(new Ledger(Money.parse("1"), "CREDIT", Money.parse("10"), account.getId(), user.getId()));
+                }
+            }
+        }
+        template.insertAll(transactions);
+        template.insertAll(ledger);
+
+        List<BalanceCheckpoint> checkpoints = new ArrayList<>();
+        for (Account account : accounts) {
+            for (int hour = 0; hour < 10; hour++) {
+                checkpoints.add(new BalanceCheckpoint(account.getId(), start.plusHours(hour), account.getBalance()));
+            }
+        }
+        template.insertAll(checkpoints);
+    }
+}
@@ -0,0 +1,174 @@
+package com.vaultcore.vaultcore_backend.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.vaultcore.vaultcore_backend.config.MoneyConverters;
+import com.vaultcore.vaultcore_backend.config.RetryingMongoTransactionManager;
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import com.vaultcore.vaultcore_backend.service.AccountCache;
+import com.vaultcore.vaultcore_backend.service.HistoryPaging;
+import com.vaultcore.vaultcore_backend.service.HotAccountService;
+import com.vaultcore.vaultcore_backend.service.LedgerGroupCommitWriter;
+import com.vaultcore.vaultcore_backend.service.LedgerService;
+import com.vaultcore.vaultcore_backend.service.SequencerEngine;
+import com.vaultcore.vaultcore_backend.service.ServiceMetrics;
+import com.vaultcore.vaultcore_backend.service.TransactionRunner;
+import com.vaultcore.vaultcore_backend.service.TransferService;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Transfers in atomic versus transactional mode, through the real TransferService
+ * Atomic mode is two guarded findAndModify calls plus a group-committed ledger insert;
+ * transactional mode wraps the same writes and two inline ledger inserts in a MongoDB
+ * transaction. Each mode runs over many accounts and over a handful of contended ones,
+ * where transactions start to conflict and retry.
+ * Needs a MongoDB replica set:
+ * mvn test -Dbenchmarks=true -Dtest=TransferConsistencyBenchmarkTest [-Dmongo.uri=mongodb://localhost:27017/?replicaSet=rs0]
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class TransferConsistencyBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int TRANSFERS_PER_THREAD = 200;
+    private static final Money OPENING_BALANCE = Money.parse("1000000");
+
+    private MongoClient client;
+    private SimpleMongoClientDatabaseFactory databaseFactory;
+    private MongoTemplate template;
+
+    @BeforeEach
+    public void setUp() {
+        client = MongoClients.create(new ConnectionString(
+                System.getProperty("mongo.uri", "mongodb://localhost:27017/?replicaSet=rs0")));
+        databaseFactory = new SimpleMongoClientDatabaseFactory(client, "vaultcore_bench");
+        template = MoneyConverters.mongoTemplate(databaseFactory);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        template.getDb().drop();
+        client.close();
+    }
+
+    @Test
+    public void testAtomicVersusTransactionalTransfers() throws Exception {
+        for (int accounts : List.of(1000, 4)) {
+            for (TransactionRunner.Mode mode : TransactionRunner.Mode.values()) {
+                run(mode, accounts);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void run(TransactionRunner.Mode mode, int accountCount) throws Exception {
+        template.getDb().drop();
+        template.createCollection(Account.class);
+        template.createCollection(Ledger.class);
+        List<String> accountIds = new ArrayList<>();
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setUserId("bench-user");
+            account.setAccountType("CHECKING");
+            account.setBalance(OPENING_BALANCE);
+            account.setBalanceVersion(0L);
+            accountIds.add(template.insert(account).getId());
+        }
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ServiceMetrics metrics = new ServiceMetrics(meterRegistry);
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(template);
+        AccountRepository accountRepository = factory.getRepository(AccountRepository.class,
+                RepositoryFragments.just(new AccountRepositoryCustomImpl(template)));
+        LedgerRepository ledgerRepository = factory.getRepository(LedgerRepository.class,
+                RepositoryFragments.just(new LedgerRepositoryCustomImpl(template)));
+        AccountSlotRepository slotRepository = factory.getRepository(AccountSlotRepository.class,
+                RepositoryFragments.just(new AccountSlotRepositoryCustomImpl(template)));
+
+        ObjectProvider<SequencerEngine> noSequencer = mock(ObjectProvider.class);
+        ObjectProvider<PlatformTransactionManager> transactionManager = mock(ObjectProvider.class);
+        when(transactionManager.getIfAvailable()).thenReturn(new RetryingMongoTransactionManager(
+                databaseFactory, 5, 5, metrics.retries("transaction-commit")));
+        AccountCache cache = new AccountCache(meterRegistry, 100_000, 30);
+        LedgerGroupCommitWriter groupCommit = new LedgerGroupCommitWriter(ledgerRepository, meterRegistry, 2000, 256, 10_000);
+        LedgerService ledgerService = new LedgerService(ledgerRepository, groupCommit, true,
+                new HistoryPaging(20, 100), metrics);
+        HotAccountService hotAccounts = new HotAccountService(accountRepository, slotRepository, cache,
+                noSequencer, meterRegistry, Set.of(), 16);
+        TransferService transferService = new TransferService(accountRepository, ledgerService, noSequencer, cache,
+                hotAccounts, metrics, new TransactionRunner(transactionManager, metrics, 5, 5), mode, mode, mode);
+        User user = new User();
+        user.setId("bench-user");
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<int[]>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int succeeded = 0;
+                int busy = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(accountCount);
+                    int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+                    try {
+                        transferService.transfer(accountIds.get(from), accountIds.get(to),
+                                Money.ofMinor(random.nextLong(1, 100)), user);
+                        succeeded++;
+                    } catch (ServiceBusyException e) {
+                        busy++;
+                    }
+                }
+                return new int[] {succeeded, busy};
+            }));
+        }
+        long started = System.nanoTime();
+        start.countDown();
+        int succeeded = 0;
+        int busy = 0;
+        for (Future<int[]> result : results) {
+            succeeded += result.get()[0];
+            busy += result.get()[1];
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        executor.shutdown();
+        groupCommit.shutdown();
+
+        double retries = meterRegistry.get("vaultcore.write.retries").tag("operation", "transaction").counter().count();
+        System.out.printf("📊 %s over %d accounts: %.0f transfers/s, %d busy, %.0f transaction retries%n",
+                mode, accountCount, succeeded / seconds, busy, retries);
+
+        Money total = template.findAll(Account.class).stream().map(Account::getBalance).reduce(Money.ZERO, Money::plus);
+        assertEquals(Money.ofMinor(OPENING_BALANCE.minorUnits() * accountCount), total, "Transfers must not create or lose money");
+        assertEquals(2L * succeeded, template.count(new Query(), Ledger.class));
+    }
+}
@@ -0,0 +1,145 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AccountCache cache = new AccountCache(meterRegistry, 1000, 30);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void testSecondReadIsServedFromCache() {
+        Account stored = account("a1", "u1", "100", 3);
+
+        cache.get("a1", id -> load(stored));
+        Optional<Account> second = cache.get("a1", id -> load(stored));
+
+        assertEquals(1, loads.get());
+        assertEquals(Money.parse("100"), second.orElseThrow().getBalance());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "accounts").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testBalanceChangeIsWrittenThrough() {
+        Account stored = account("a1", "u1", "100", 3);
+        cache.get("a1", id -> load(stored));
+
+        cache.balanceChanged("a1", new BalanceUpdate(Money.parse("75"), 4));
+
+        assertEquals(Money.parse("75"), cache.get("a1", id -> load(stored)).orElseThrow().getBalance());
+        assertEquals(1, loads.get());
+        assertEquals(Money.parse("100"), stored.getBalance()); // the loaded account is not modified
+    }
+
+    @Test
+    public void testBalanceChangeInTransactionIsDroppedUntilItCompletes() {
+        Account stored = account("a1", "u1", "100", 3);
+        cache.get("a1", id -> load(stored));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.balanceChanged("a1", new BalanceUpdate(Money.parse("75"), 4)); // may still roll back
+            assertEquals(Money.parse("100"), cache.get("a1", id -> load(stored)).orElseThrow().getBalance());
+            assertEquals(2, loads.get());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        cache.get("a1", id -> load(stored));
+        assertEquals(3, loads.get(), "Dropped again when the transaction completed");
+    }
+
+    @Test
+    public void testOlderVersionIsIgnored() {
+        Account stored = account("a1", "u1", "100", 3);
+        cache.get("a1", id -> load(stored));
+
+        cache.balanceChanged("a1", new BalanceUpdate(Money.parse("50"), 5));
+        cache.balanceChanged("a1", new BalanceUpdate(Money.parse("75"), 4)); // finished late
+
+        assertEquals(Money.parse("50"), cache.get("a1", id -> load(stored)).orElseThrow().getBalance());
+        assertEquals(1.0, meterRegistry.get("vaultcore.account.cache.stale.writes").counter().count());
+    }
+
+    @Test
+    public void testLoadOlderThanAnUncachedWriteIsNotCached() {
+        Account before = account("a1", "u1", "100", 3);
+        cache.balanceChanged("a1", new BalanceUpdate(Money.parse("50"), 4)); // write while not cached
+
+        cache.get("a1", id -> load(before)); // a read that started before the write
+        cache.get("a1", id -> load(account("a1", "u1", "50", 4)));
+
+        assertEquals(2, loads.get());
+        assertEquals(Money.parse("50"), cache.get("a1", id -> load(before)).orElseThrow().getBalance());
+    }
+
+    @Test
+    public void testMissingAccountIsNotCached() {
+        cache.get("missing", id -> load(null));
+        cache.get("missing", id -> load(null));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testUserAccountsReloadAfterInvalidate() {
+        List<Account> stored = List.of(account("a1", "u1", "10", 1), account("a2", "u1", "20", 1));
+
+        cache.getByUser("u1", () -> loadAll(stored));
+        cache.getByUser("u1", () -> loadAll(stored));
+        assertEquals(1, loads.get());
+
+        cache.invalidate("a2");
+        List<Account> reloaded = cache.getByUser("u1", () -> loadAll(stored));
+
+        assertEquals(2, loads.get());
+        assertEquals(List.of("a1", "a2"), reloaded.stream().map(Account::getId).toList());
+    }
+
+    @Test
+    public void testCreatedAccountJoinsCachedUserList() {
+        cache.getByUser("u1", () -> loadAll(List.of(account("a1", "u1", "10", 1))));
+
+        cache.created(account("a2", "u1", "0", 0));
+        List<Account> accounts = cache.getByUser("u1", () -> loadAll(List.of()));
+
+        assertEquals(1, loads.get());
+        assertEquals(List.of("a1", "a2"), accounts.stream().map(Account::getId).toList());
+    }
+
+    private Optional<Account> load(Account account) {
+        loads.incrementAndGet();
+        return Optional.ofNullable(account);
+    }
+
+    private List<Account> loadAll(List<Account> accounts) {
+        loads.incrementAndGet();
+        return accounts;
+    }
+
+    private static Account account(String id, String userId, String balance, long version) {
+        Account account = new Account();
+        account.setId(id);
+        account.setUserId(userId);
+        account.setAccountType("SAVINGS");
+        account.setBalance(Money.parse(balance));
+        account.setBalanceVersion(version);
+        return account;
+    }
+}
@@ -0,0 +1,172 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.dto.DailyBalance;
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.BalanceCheckpoint;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.BalanceCheckpointRepository;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepositoryCustom.AccountActivity;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class BalanceCheckpointServiceTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2026, 3, 10, 12, 0);
+
+    private final BalanceCheckpointRepository checkpoints = mock(BalanceCheckpointRepository.class);
+    private final LedgerRepository ledger = mock(LedgerRepository.class);
+    private final AccountRepository accounts = mock(AccountRepository.class);
+    private final HotAccountService hotAccounts = noHotAccounts();
+    private final BalanceCheckpointService service =
+            new BalanceCheckpointService(checkpoints, ledger, accounts, hotAccounts);
+
+    @Test
+    public void testBalanceAtAddsTailAfterNearestCheckpoint() {
+        BalanceCheckpoint checkpoint = new BalanceCheckpoint("a1", NOON.minusHours(1), Money.parse("100"));
+        when(checkpoints.findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc("a1", NOON))
+                .thenReturn(Optional.of(checkpoint));
+        when(ledger.sumSignedAmounts("a1", NOON.minusHours(1), NOON)).thenReturn(Money.parse("-30"));
+
+        assertEquals(Money.parse("70"), service.balanceAt("a1", NOON));
+    }
+
+    @Test
+    public void testBalanceAtBeforeFirstCheckpointWalksBack() {
+        when(checkpoints.findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc("a1", NOON))
+                .thenReturn(Optional.empty());
+        when(checkpoints.findFirstByAccountIdAndTimestampGreaterThanOrderByTimestampAsc("a1", NOON))
+                .thenReturn(Optional.of(new BalanceCheckpoint("a1", NOON.plusHours(1), Money.parse("100"))));
+        when(ledger.sumSignedAmounts("a1", NOON, NOON.plusHours(1))).thenReturn(Money.parse("25"));
+
+        assertEquals(Money.parse("75"), service.balanceAt("a1", NOON));
+    }
+
+    @Test
+    public void testBalanceAtWithoutCheckpointsUsesLiveBalance() {
+        when(checkpoints.findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc("a1", NOON))
+                .thenReturn(Optional.empty());
+        when(checkpoints.findFirstByAccountIdAndTimestampGreaterThanOrderByTimestampAsc("a1", NOON))
+                .thenReturn(Optional.empty());
+        Account account = new Account();
+        account.setBalance(Money.parse("500"));
+        when(accounts.findById("a1")).thenReturn(Optional.of(account));
+        when(ledger.sumSignedAmounts("a1", NOON, null)).thenReturn(Money.parse("200"));
+
+        assertEquals(Money.parse("300"), service.balanceAt("a1", NOON));
+    }
+
+    @Test
+    public void testClosingBalancesInOnePass() {
+        LocalDate first = LocalDate.of(2026, 3, 1);
+        LocalDateTime start = first.atStartOfDay();
+        BalanceCheckpoint checkpoint = new BalanceCheckpoint("a1", start, Money.parse("100"));
+        when(checkpoints.findFirstByAccountIdAndTimestampLessThanEqualOrderByTimestampDesc("a1", start))
+                .thenReturn(Optional.of(checkpoint));
+        when(ledger.sumSignedAmounts("a1", start, start)).thenReturn(Money.ZERO);
+        when(ledger.streamByAccountId("a1", start, first.plusDays(4).atStartOfDay())).thenReturn(Stream.of(
+                entry("CREDIT", "50", first.atTime(9, 0)),
+                entry("DEBIT", "20", first.plusDays(2).atTime(10, 0)),
+                entry("DEBIT", "5", first.plusDays(2).atTime(18, 0))));
+
+        List<DailyBalance> closings = service.closingBalances("a1", first, first.plusDays(3));
+
+        assertEquals(4, closings.size());
+        assertEquals(Money.parse("150"), closings.get(0).getClosingBalance());
+        assertEquals(Money.parse("150"), closings.get(1).getClosingBalance());
+        assertEquals(Money.parse("125"), closings.get(2).getClosingBalance());
+        assertEquals(Money.parse("125"), closings.get(3).getClosingBalance());
+        assertEquals(first.plusDays(3), closings.get(3).getDate());
+        verify(ledger, times(1)).streamByAccountId(any(), any(), any());
+    }
+
+    @Test
+    public void testClosingBalancesRejectsLongRanges() {
+        assertThrows(IllegalArgumentException.class, () ->
+                service.closingBalances("a1", LocalDate.of(2024, 1, 1), LocalDate.of(2026, 1, 1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testWriteCheckpointsBuildsOnPreviousOrOpeningBalance() {
+        LocalDateTime since = NOON.minusHours(1);
+        when(checkpoints.findFirstByOrderByTimestampDesc())
+                .thenReturn(Optional.of(new BalanceCheckpoint("a1", since, Money.parse("100"))));
+        when(ledger.summarizeActivity(since, NOON)).thenReturn(List.of(
+                new AccountActivity("a1", Money.parse("-40"), Money.parse("90"), Money.parse("-10")),
+                // New account: first entry credited 50 and left 80, so it opened at 30
+                new AccountActivity("a2", Money.parse("70"), Money.parse("80"), Money.parse("50"))));
+        when(checkpoints.findLatestByAccountIds(anyList())).thenReturn(
+                Map.of("a1", new BalanceCheckpoint("a1", since, Money.parse("100"))));
+
+        assertEquals(2, service.writeCheckpoints(NOON));
+
+        verify(checkpoints).insert(argThat((Iterable<BalanceCheckpoint> written) -> {
+            Map<String, Money> balances = new java.util.HashMap<>();
+            written.forEach(c -> balances.put(c.getAccountId(), c.getBalance()));
+            return balances.get("a1").compareTo(Money.parse("60")) == 0
+                    && balances.get("a2").compareTo(Money.parse("100")) == 0;
+        }));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFirstCheckpointOfHotAccountWalksBackFromLiveBalance() {
+        when(checkpoints.findFirstByOrderByTimestampDesc()).thenReturn(Optional.empty());
+        // Opened at 30: +50 read back as 280 because a concurrent +200 slot credit had already landed
+        when(ledger.summarizeActivity(null, NOON)).thenReturn(List.of(
+                new AccountActivity("h1", Money.parse("250"), Money.parse("280"), Money.parse("50"))));
+        when(checkpoints.findLatestByAccountIds(anyList())).thenReturn(Map.of());
+        when(hotAccounts.isHot("h1")).thenReturn(true);
+        Account account = new Account();
+        account.setId("h1");
+        account.setBalance(Money.parse("80"));
+        Account withSlots = new Account();
+        withSlots.setId("h1");
+        withSlots.setBalance(Money.parse("300"));
+        when(accounts.findById("h1")).thenReturn(Optional.of(account));
+        when(hotAccounts.withSlots(account)).thenReturn(withSlots);
+        when(ledger.sumSignedAmounts("h1", NOON, null)).thenReturn(Money.parse("20"));
+
+        assertEquals(1, service.writeCheckpoints(NOON));
+
+        verify(checkpoints).insert(argThat((Iterable<BalanceCheckpoint> written) ->
+                written.iterator().next().getBalance().compareTo(Money.parse("280")) == 0));
+    }
+
+    @Test
+    public void testWriteCheckpointsSkipsWhenAlreadyCurrent() {
+        when(checkpoints.findFirstByOrderByTimestampDesc())
+                .thenReturn(Optional.of(new BalanceCheckpoint("a1", NOON, Money.parse("10"))));
+
+        assertEquals(0, service.writeCheckpoints(NOON));
+        verify(ledger, never()).summarizeActivity(any(), eq(NOON));
+    }
+
+    private static Ledger entry(String type, String amount, LocalDateTime timestamp) {
+        Ledger entry = new Ledger(Money.parse(amount), type, Money.ZERO, "a1", "u1");
+        ReflectionTestUtils.setField(entry, "timestamp", timestamp);
+        return entry;
+    }
+
+    private static HotAccountService noHotAccounts() {
+        HotAccountService hotAccounts = mock(HotAccountService.class);
+        when(hotAccounts.withSlots(any())).thenAnswer(inv -> inv.getArgument(0));
+        return hotAccounts;
+    }
+}
@@ -0,0 +1,185 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.dto.BatchTransferResult;
+import com.vaultcore.vaultcore_backend.dto.TransferRequest;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceChange;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceSnapshot;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Batch planning against an in-memory compare-and-set store - no MongoDB needed
+ */
+public class BatchTransferServiceTest {
+
+    private final Map<String, String> owners = new HashMap<>();
+    private final Map<String, Money> balances = new HashMap<>();
+    private final Map<String, List<String>> tokens = new HashMap<>();
+    private final List<Ledger> ledger = new ArrayList<>();
+    private Runnable beforeNextCas = () -> { };
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final HotAccountService hotAccounts = mock(HotAccountService.class);
+    private BatchTransferService service;
+    private User user;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        AccountRepository repository = mock(AccountRepository.class);
+        when(repository.findBalanceSnapshots(any())).thenAnswer(inv -> {
+            Map<String, BalanceSnapshot> result = new HashMap<>();
+            for (String id : inv.<Collection<String>>getArgument(0)) {
+                if (balances.containsKey(id)) {
+                    result.put(id, new BalanceSnapshot(id, owners.get(id), balances.get(id),
+                            List.copyOf(tokens.getOrDefault(id, List.of()))));
+                }
+            }
+            return result;
+        });
+        when(repository.compareAndSetBalances(anyList(), anyString())).thenAnswer(inv -> {
+            Runnable hook = beforeNextCas;
+            beforeNextCas = () -> { };
+            hook.run();
+            long applied = 0;
+            for (BalanceChange change : inv.<List<BalanceChange>>getArgument(0)) {
+                Money current = balances.get(change.accountId());
+                if (current != null && current.compareTo(change.expected()) == 0) {
+                    balances.put(change.accountId(), change.updated());
+                    tokens.computeIfAbsent(change.accountId(), id -> new ArrayList<>()).add(inv.getArgument(1));
+                    applied++;
+                }
+            }
+            return applied;
+        });
+        when(repository.credit(anyString(), any(), any())).thenAnswer(inv -> {
+            Money balance = balances.computeIfPresent(inv.getArgument(0), (id, current) -> current.plus(inv.getArgument(2)));
+            return Optional.ofNullable(balance).map(updated -> new BalanceUpdate(updated, 0));
+        });
+
+        LedgerService ledgerService = mock(LedgerService.class);
+        when(ledgerService.createLedgerEntries(anyList())).thenAnswer(inv -> {
+            ledger.addAll(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+
+        ObjectProvider<SequencerEngine> noSequencer = mock(ObjectProvider.class);
+        service = new BatchTransferService(repository, ledgerService, noSequencer,
+                new AccountCache(meterRegistry, 1000, 30), hotAccounts, new ServiceMetrics(meterRegistry), 100);
+
+        user = new User();
+        user.setId("u1");
+        account("a", "u1", "100");
+        account("b", "u1", "10");
+        account("c", "someone-else", "0");
+    }
+
+    @Test
+    public void testPerItemOutcomes() {
+        List<BatchTransferResult> results = service.transferBatch(List.of(
+                request("a", "c", "60"),
+                request("a", "c", "60"),      // only 40 left
+                request("c", "a", "1"),       // not ours
+                request("a", "missing", "1"),
+                request("b", "c", "10")), user);
+
+        assertEquals(List.of(true, false, false, false, true),
+                results.stream().map(BatchTransferResult::isSuccess).toList());
+        assertEquals("Insufficient balance", results.get(1).getMessage());
+        assertEquals(0, Money.parse("40").compareTo(balances.get("a")));
+        assertEquals(0, Money.ZERO.compareTo(balances.get("b")));
+        assertEquals(0, Money.parse("70").compareTo(balances.get("c")));
+        assertEquals(4, ledger.size());
+    }
+
+    @Test
+    public void testLostCompareAndSetIsRetriedWithFreshBalance() {
+        // A concurrent withdrawal lands between the snapshot and the first bulk write
+        beforeNextCas = () -> balances.put("a", Money.parse("50"));
+
+        List<BatchTransferResult> results = service.transferBatch(List.of(
+                request("a", "c", "30"),
+                request("a", "c", "30")), user);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess(), "Second debit no longer fits after the concurrent withdrawal");
+        assertEquals(0, Money.parse("20").compareTo(balances.get("a")));
+        assertEquals(0, Money.parse("30").compareTo(balances.get("c")));
+
+        Ledger debit = ledger.get(0);
+        assertEquals("DEBIT", debit.getTransactionType());
+        assertEquals(0, Money.parse("20").compareTo(debit.getBalanceAfter()), "balanceAfter must reflect the retry");
+        assertEquals(1.0, meterRegistry.get("vaultcore.write.conflicts").counter().count());
+        assertEquals(1.0, meterRegistry.get("vaultcore.write.retries").counter().count());
+    }
+
+    @Test
+    public void testHotSourceIsConsolidatedBeforeTheSnapshot() {
+        when(hotAccounts.isHot("b")).thenReturn(true);
+        when(hotAccounts.consolidate("b")).thenAnswer(inv -> {
+            balances.merge("b", Money.parse("90"), Money::plus); // what its slots held
+            return Money.parse("90");
+        });
+
+        List<BatchTransferResult> results = service.transferBatch(List.of(request("b", "a", "75")), user);
+
+        assertTrue(results.get(0).isSuccess(), results.get(0).getMessage());
+        assertEquals(0, Money.parse("25").compareTo(balances.get("b")));
+        assertEquals(0, Money.parse("175").compareTo(balances.get("a")));
+    }
+
+    @Test
+    public void testDestinationDeletedAfterDebitsIsRefunded() {
+        // The credit round finds "c" gone - the debits from "a" have already committed
+        beforeNextCas = () -> beforeNextCas = () -> balances.remove("c");
+
+        List<BatchTransferResult> results = service.transferBatch(List.of(
+                request("a", "c", "30"),
+                request("a", "b", "20"),
+                request("a", "c", "10")), user);
+
+        assertEquals(List.of(false, true, false), results.stream().map(BatchTransferResult::isSuccess).toList());
+        assertEquals("Destination account not found", results.get(0).getMessage());
+        assertEquals(0, Money.parse("80").compareTo(balances.get("a")), "the undelivered 40 went back to a");
+        assertEquals(0, Money.parse("30").compareTo(balances.get("b")));
+
+        assertEquals(2, ledger.size());
+        Ledger debit = ledger.get(0);
+        assertEquals("a", debit.getAccountId());
+        assertEquals(0, Money.parse("80").compareTo(debit.getBalanceAfter()), "refunded debits drop out of the chain");
+    }
+
+    private void account(String id, String ownerId, String balance) {
+        owners.put(id, ownerId);
+        balances.put(id, Money.parse(balance));
+    }
+
+    private static TransferRequest request(String from, String to, String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId(from);
+        request.setToAccountId(to);
+        request.setAmount(Money.parse(amount));
+        return request;
+    }
+}
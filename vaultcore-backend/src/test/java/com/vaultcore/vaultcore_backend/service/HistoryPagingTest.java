@@ -0,0 +1,52 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.dto.HistoryPage;
+import com.vaultcore.vaultcore_backend.util.HistoryCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HistoryPagingTest {
+
+    private final HistoryPaging paging = new HistoryPaging(20, 100);
+
+    @Test
+    public void testPageSizeDefaultsAndCap() {
+        assertEquals(20, paging.pageSize(null));
+        assertEquals(5, paging.pageSize(5));
+        assertEquals(100, paging.pageSize(10_000));
+        assertThrows(IllegalArgumentException.class, () -> paging.pageSize(0));
+    }
+
+    @Test
+    public void testExtraRowProducesCursorOfLastItem() {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+        List<HistoryCursor> rows = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            rows.add(new HistoryCursor(now.minusSeconds(i), "id" + i));
+        }
+
+        HistoryPage<HistoryCursor> page = paging.toPage(rows, 3, row -> row);
+        assertEquals(3, page.getItems().size());
+        assertEquals(rows.get(2), HistoryCursor.decode(page.getNextCursor()));
+
+        HistoryPage<HistoryCursor> last = paging.toPage(rows.subList(0, 2), 3, row -> row);
+        assertEquals(2, last.getItems().size());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    public void testCursorRoundTripAndRejectsGarbage() {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2026, 3, 4, 5, 6, 7, 8_000_000), "65f0c0ffee");
+        String token = cursor.encode();
+        assertFalse(token.contains("|"));
+        assertEquals(cursor, HistoryCursor.decode(token));
+        assertNull(HistoryCursor.decode(null));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.decode("%%%"));
+    }
+}
@@ -0,0 +1,300 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.AccountSlot;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.repository.AccountSlotRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hot-account slots against map-backed documents - each mocked call is one atomic
+ * document update, as the findAndModify / upsert it stands for
+ */
+public class HotAccountServiceTest {
+
+    private static final String HOT = "hot";
+
+    private final Object lock = new Object();
+    private Money accountBalance;
+    private long balanceVersion;
+    private final Map<Integer, Long> appliedSweeps = new HashMap<>();
+    private final Map<String, AccountSlot> slots = new TreeMap<>();
+    private Runnable afterCreditSweep = () -> { };
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HotAccountService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        accountBalance = Money.parse("10");
+        AccountRepository accounts = mock(AccountRepository.class);
+        when(accounts.findById(anyString())).thenAnswer(inv -> {
+            synchronized (lock) {
+                return HOT.equals(inv.getArgument(0)) ? Optional.of(account()) : Optional.empty();
+            }
+        });
+        when(accounts.debitIfSufficient(anyString(), any(), any())).thenAnswer(inv -> {
+            Money amount = inv.getArgument(2);
+            synchronized (lock) {
+                if (!HOT.equals(inv.getArgument(0)) || !ownedBy(inv.getArgument(1)) || accountBalance.isLessThan(amount)) {
+                    return Optional.empty();
+                }
+                accountBalance = accountBalance.minus(amount);
+                return Optional.of(new BalanceUpdate(accountBalance, ++balanceVersion));
+            }
+        });
+        when(accounts.creditSweep(anyString(), anyInt(), anyLong(), any())).thenAnswer(inv -> {
+            int slot = inv.getArgument(1);
+            long sweep = inv.getArgument(2);
+            boolean applied;
+            synchronized (lock) {
+                applied = appliedSweeps.getOrDefault(slot, 0L) < sweep;
+                if (applied) {
+                    accountBalance = accountBalance.plus(inv.getArgument(3));
+                    balanceVersion++;
+                    appliedSweeps.put(slot, sweep);
+                }
+            }
+            afterCreditSweep.run();
+            return applied;
+        });
+
+        AccountSlotRepository slotRepository = mock(AccountSlotRepository.class);
+        when(slotRepository.findByAccountId(anyString())).thenAnswer(inv -> {
+            synchronized (lock) {
+                return slots.values().stream().map(HotAccountServiceTest::copy).toList();
+            }
+        });
+        when(slotRepository.totalBalance(anyString())).thenAnswer(inv -> slotTotal());
+        doAnswer(inv -> {
+            synchronized (lock) {
+                slot(inv.getArgument(1)).setBalance(slot(inv.getArgument(1)).getBalance().plus(inv.getArgument(2)));
+            }
+            return null;
+        }).when(slotRepository).credit(anyString(), anyInt(), any());
+        when(slotRepository.debitAnySlot(anyString(), any())).thenAnswer(inv -> {
+            Money amount = inv.getArgument(1);
+            synchronized (lock) {
+                Optional<AccountSlot> fullest = slots.values().stream()
+                        .filter(slot -> !slot.getBalance().isLessThan(amount))
+                        .max((a, b) -> a.getBalance().compareTo(b.getBalance()));
+                fullest.ifPresent(slot -> slot.setBalance(slot.getBalance().minus(amount)));
+                return fullest.isPresent();
+            }
+        });
+        when(slotRepository.startSweep(anyString(), any())).thenAnswer(inv -> {
+            Money amount = inv.getArgument(1);
+            synchronized (lock) {
+                AccountSlot slot = slots.get(inv.<String>getArgument(0));
+                if (slot.getPendingSweep() != null || slot.getBalance().isLessThan(amount)) {
+                    return Optional.empty();
+                }
+                slot.setBalance(slot.getBalance().minus(amount));
+                slot.setSweeps(slot.getSweeps() + 1);
+                slot.setPendingSweep(new AccountSlot.PendingSweep(amount));
+                return Optional.of(copy(slot));
+            }
+        });
+        doAnswer(inv -> {
+            synchronized (lock) {
+                AccountSlot slot = slots.get(inv.<String>getArgument(0));
+                if (slot.getSweeps() == inv.<Long>getArgument(1)) {
+                    slot.setPendingSweep(null);
+                }
+            }
+            return null;
+        }).when(slotRepository).finishSweep(anyString(), anyLong());
+
+        ObjectProvider<SequencerEngine> noSequencer = mock(ObjectProvider.class);
+        service = new HotAccountService(accounts, slotRepository, new AccountCache(meterRegistry, 1000, 30),
+                noSequencer, meterRegistry, Set.of(HOT), 8);
+    }
+
+    @Test
+    public void testCreditsSpreadOverSlotsAndReadsAddThemUp() {
+        for (int i = 0; i < 200; i++) {
+            assertTrue(service.credit(HOT, null, Money.parse("1")).isPresent());
+        }
+
+        assertTrue(slots.size() > 1, "Credits should land on more than one slot");
+        assertEquals(Money.parse("200"), slotTotal());
+        assertEquals(Money.parse("10"), accountBalance, "Credits never touch the account document");
+        assertEquals(Money.parse("210"), service.withSlots(account()).getBalance());
+        assertFalse(service.credit(HOT, "someone-else", Money.parse("1")).isPresent(), "Deposit needs the owner");
+        assertFalse(service.credit("missing", null, Money.parse("1")).isPresent());
+    }
+
+    @Test
+    public void testDebitTriesAccountThenOneSlotThenConsolidates() {
+        slotWith(0, "30");
+        slotWith(1, "30");
+
+        assertEquals(Money.parse("65"), service.debit(HOT, "u1", Money.parse("5")).orElseThrow());
+        assertEquals(Money.parse("5"), accountBalance);
+
+        assertEquals(Money.parse("40"), service.debit(HOT, "u1", Money.parse("25")).orElseThrow());
+        assertEquals(Money.parse("5"), accountBalance, "One slot covered it");
+
+        // 5 + 5 + 30 - no single document holds 40
+        assertEquals(Money.ZERO, service.debit(HOT, "u1", Money.parse("40")).orElseThrow());
+        assertEquals(Money.ZERO, slotTotal());
+
+        assertFalse(service.debit(HOT, "u1", Money.parse("0.01")).isPresent());
+        assertFalse(service.debit(HOT, "someone-else", Money.parse("0.01")).isPresent());
+        assertEquals(1.0, meterRegistry.get("vaultcore.hot.debits").tag("source", "account").counter().count());
+        assertEquals(1.0, meterRegistry.get("vaultcore.hot.debits").tag("source", "slot").counter().count());
+        assertEquals(1.0, meterRegistry.get("vaultcore.hot.debits").tag("source", "consolidated").counter().count());
+    }
+
+    @Test
+    public void testSweepCutShortIsFinishedExactlyOnce() {
+        slotWith(0, "30");
+        slotWith(1, "20");
+        // The first sweep crashes right after crediting the account
+        afterCreditSweep = () -> {
+            afterCreditSweep = () -> { };
+            throw new IllegalStateException("Instance died");
+        };
+        assertThrows(IllegalStateException.class, () -> service.consolidate(HOT));
+        assertEquals(Money.parse("40"), accountBalance);
+        assertNotNull(slots.get(AccountSlot.idOf(HOT, 0)).getPendingSweep());
+
+        assertEquals(Money.parse("50"), service.consolidate(HOT));
+        assertEquals(Money.parse("60"), accountBalance, "The interrupted sweep must not be credited twice");
+        assertEquals(Money.ZERO, slotTotal());
+        assertNull(slots.get(AccountSlot.idOf(HOT, 0)).getPendingSweep());
+
+        // The slot's next sweep is number 2, which the account has not applied yet
+        slotWith(0, "5");
+        service.consolidate(HOT);
+        assertEquals(Money.parse("65"), accountBalance);
+        assertEquals(Money.parse("65"), service.withSlots(account()).getBalance());
+    }
+
+    @Test
+    public void testConcurrentCreditsDebitsAndSweepsKeepEveryCent() throws Exception {
+        int threads = 64;
+        int operations = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Money>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            boolean crediting = t % 2 == 0;
+            results.add(executor.submit(() -> {
+                start.await();
+                Money net = Money.ZERO;
+                for (int i = 0; i < operations; i++) {
+                    Money amount = Money.ofMinor(ThreadLocalRandom.current().nextLong(1, 500));
+                    if (crediting) {
+                        service.credit(HOT, null, amount);
+                        net = net.plus(amount);
+                    } else if (service.debit(HOT, "u1", amount).isPresent()) {
+                        net = net.minus(amount);
+                    }
+                }
+                return net;
+            }));
+        }
+        Future<?> consolidator = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 50; i++) {
+                service.consolidate(HOT);
+                synchronized (lock) {
+                    assertFalse(accountBalance.isNegative());
+                }
+            }
+            return null;
+        });
+        start.countDown();
+
+        Money expected = Money.parse("10");
+        for (Future<Money> result : results) {
+            expected = expected.plus(result.get());
+        }
+        consolidator.get();
+        executor.shutdown();
+
+        assertEquals(expected, accountBalance.plus(slotTotal()));
+        assertFalse(accountBalance.isNegative());
+        slots.values().forEach(slot -> assertFalse(slot.getBalance().isNegative()));
+        service.consolidate(HOT);
+        assertEquals(expected, accountBalance);
+    }
+
+    private Account account() {
+        Account account = new Account();
+        account.setId(HOT);
+        account.setUserId("u1");
+        account.setAccountType("CHECKING");
+        account.setBalance(accountBalance);
+        account.setBalanceVersion(balanceVersion);
+        return account;
+    }
+
+    private boolean ownedBy(String ownerId) {
+        return ownerId == null || "u1".equals(ownerId);
+    }
+
+    private Money slotTotal() {
+        synchronized (lock) {
+            return slots.values().stream().map(AccountSlot::getBalance).reduce(Money.ZERO, Money::plus);
+        }
+    }
+
+    // Caller holds the lock - the upsert half of a slot credit
+    private AccountSlot slot(int number) {
+        return slots.computeIfAbsent(AccountSlot.idOf(HOT, number), id -> {
+            AccountSlot slot = new AccountSlot();
+            slot.setId(id);
+            slot.setAccountId(HOT);
+            slot.setSlot(number);
+            slot.setBalance(Money.ZERO);
+            return slot;
+        });
+    }
+
+    private void slotWith(int number, String balance) {
+        synchronized (lock) {
+            slot(number).setBalance(slot(number).getBalance().plus(Money.parse(balance)));
+        }
+    }
+
+    private static AccountSlot copy(AccountSlot slot) {
+        AccountSlot copy = new AccountSlot();
+        copy.setId(slot.getId());
+        copy.setAccountId(slot.getAccountId());
+        copy.setSlot(slot.getSlot());
+        copy.setBalance(slot.getBalance());
+        copy.setSweeps(slot.getSweeps());
+        copy.setPendingSweep(slot.getPendingSweep());
+        return copy;
+    }
+}
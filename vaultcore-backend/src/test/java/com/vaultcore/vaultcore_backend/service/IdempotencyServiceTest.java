@@ -0,0 +1,215 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vaultcore.vaultcore_backend.dto.TransferRequest;
+import com.vaultcore.vaultcore_backend.entity.IdempotencyRecord;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import com.vaultcore.vaultcore_backend.repository.IdempotencyRecordRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class IdempotencyServiceTest {
+
+    private final Map<String, IdempotencyRecord> stored = new ConcurrentHashMap<>();
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final AtomicInteger runs = new AtomicInteger();
+    private IdempotencyService service;
+
+    @BeforeEach
+    public void setUp() {
+        when(repository.insert(any(IdempotencyRecord.class))).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            if (stored.putIfAbsent(record.getId(), copy(record)) != null) {
+                throw new DuplicateKeyException("Duplicate _id " + record.getId());
+            }
+            return record;
+        });
+        when(repository.save(any(IdempotencyRecord.class))).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            stored.put(record.getId(), copy(record));
+            return record;
+        });
+        when(repository.findById(anyString())).thenAnswer(inv -> Optional.ofNullable(stored.get(inv.<String>getArgument(0))));
+        doAnswer(inv -> stored.remove(inv.<String>getArgument(0))).when(repository).deleteById(anyString());
+
+        service = newService();
+    }
+
+    @Test
+    public void testRepeatedKeyReplaysWithoutRunningAgain() {
+        ResponseEntity<?> first = service.execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+        ResponseEntity<?> second = service.execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+
+        assertEquals(1, runs.get());
+        assertEquals(200, first.getStatusCode().value());
+        assertEquals(200, second.getStatusCode().value());
+        assertEquals("{\"message\":\"Transfer completed successfully\"}", second.getBody());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testAnotherInstanceReplaysFromTheStore() {
+        service.execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+
+        // Fresh cache and in-flight map - the only shared state is the collection
+        ResponseEntity<?> replay = newService().execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+
+        assertEquals(1, runs.get());
+        assertEquals(200, replay.getStatusCode().value());
+        assertEquals("true", replay.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testKeysAreScopedPerUserAndReuseForAnotherBodyIsRefused() {
+        service.execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+        service.execute("k1", "transfers", user("u2"), request("10"), this::transfer);
+        ResponseEntity<?> reused = service.execute("k1", "transfers", user("u1"), request("99"), this::transfer);
+
+        assertEquals(2, runs.get());
+        assertEquals(422, reused.getStatusCode().value());
+    }
+
+    @Test
+    public void testConcurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            Future<ResponseEntity<?>> first = pool.submit(() -> service.execute("k1", "transfers", user("u1"),
+                    request("10"), () -> {
+                        started.countDown();
+                        await(release);
+                        return transfer();
+                    }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Future<?>[] duplicates = new Future<?>[7];
+            for (int i = 0; i < duplicates.length; i++) {
+                duplicates[i] = pool.submit(() -> service.execute("k1", "transfers", user("u1"), request("10"), this::transfer));
+            }
+            Thread.sleep(100); // duplicates are now blocked on the in-flight request
+            release.countDown();
+
+            assertEquals(200, first.get(5, TimeUnit.SECONDS).getStatusCode().value());
+            for (Future<?> duplicate : duplicates) {
+                assertEquals(200, ((ResponseEntity<?>) duplicate.get(5, TimeUnit.SECONDS)).getStatusCode().value());
+            }
+            assertEquals(1, runs.get(), "Only the first request may reach the service");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPendingClaimElsewhereGetsConflict() {
+        IdempotencyRecord pending = new IdempotencyRecord();
+        service.execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+        stored.values().forEach(record -> {
+            pending.setId(record.getId());
+            pending.setRequestHash(record.getRequestHash());
+        });
+        stored.put(pending.getId(), pending); // as if another instance is still running it
+
+        ResponseEntity<?> duplicate = newService().execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+
+        assertEquals(409, duplicate.getStatusCode().value());
+        assertEquals("1", duplicate.getHeaders().getFirst("Retry-After"));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testBusyRequestReleasesItsKey() {
+        assertThrows(ServiceBusyException.class, () -> service.execute("k1", "transfers", user("u1"), request("10"),
+                () -> { throw new ServiceBusyException("Too many conflicting updates, please retry"); }));
+        assertTrue(stored.isEmpty());
+
+        ResponseEntity<?> retry = service.execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+        assertEquals(200, retry.getStatusCode().value());
+        assertNull(retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testOtherFailureIsReplayedNotRunAgain() {
+        assertThrows(IllegalStateException.class, () -> service.execute("k1", "transfers", user("u1"), request("10"),
+                () -> { throw new IllegalStateException("Ledger writer is shut down"); }));
+
+        ResponseEntity<?> retry = newService().execute("k1", "transfers", user("u1"), request("10"), this::transfer);
+        assertEquals(500, retry.getStatusCode().value());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(0, runs.get(), "the first attempt may have been partly applied");
+    }
+
+    @Test
+    public void testWithoutKeyEveryRequestRuns() {
+        service.execute(null, "transfers", user("u1"), request("10"), this::transfer);
+        service.execute(null, "transfers", user("u1"), request("10"), this::transfer);
+
+        assertEquals(2, runs.get());
+        assertTrue(stored.isEmpty());
+    }
+
+    private IdempotencyService newService() {
+        return new IdempotencyService(repository, new ObjectMapper(), new SimpleMeterRegistry(), 24, 300, 5, 100);
+    }
+
+    private ResponseEntity<?> transfer() {
+        runs.incrementAndGet();
+        return ResponseEntity.ok(Map.of("message", "Transfer completed successfully"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TransferRequest request(String amount) {
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId("a");
+        request.setToAccountId("b");
+        request.setAmount(Money.parse(amount));
+        return request;
+    }
+
+    private static User user(String id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private static IdempotencyRecord copy(IdempotencyRecord record) {
+        IdempotencyRecord copy = new IdempotencyRecord();
+        copy.setId(record.getId());
+        copy.setRequestHash(record.getRequestHash());
+        copy.setStatus(record.getStatus());
+        copy.setContentType(record.getContentType());
+        copy.setBody(record.getBody());
+        copy.setCreatedAt(record.getCreatedAt());
+        copy.setExpiresAt(record.getExpiresAt());
+        return copy;
+    }
+}
@@ -0,0 +1,98 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Group-commit writer against a mocked LedgerRepository - no MongoDB needed
+ */
+public class LedgerGroupCommitWriterTest {
+
+    @Test
+    public void testConcurrentAppendsShareBatches() throws InterruptedException {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        LedgerRepository repository = mock(LedgerRepository.class);
+        doAnswer(inv -> {
+            batchSizes.add(inv.<List<?>>getArgument(0).size());
+            Thread.sleep(5); // simulated insertMany round trip
+            return null;
+        }).when(repository).insertUnordered(anyList());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LedgerGroupCommitWriter writer = new LedgerGroupCommitWriter(repository, registry, 2000, 64, 1000);
+
+        List<CompletableFuture<Ledger>> results = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            results.add(writer.append(entry()));
+        }
+        results.forEach(CompletableFuture::join);
+        writer.shutdown();
+
+        assertEquals(500, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.size() < 500, "Entries were not grouped: " + batchSizes.size() + " inserts");
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 64), "Batch exceeded max size: " + batchSizes);
+        assertEquals(batchSizes.size(), registry.get("vaultcore.ledger.batch.size").summary().count());
+    }
+
+    @Test
+    public void testFailedBatchFailsItsCallers() throws InterruptedException {
+        LedgerRepository repository = mock(LedgerRepository.class);
+        doAnswer(inv -> {
+            throw new IllegalStateException("insert failed");
+        }).when(repository).insertUnordered(anyList());
+
+        LedgerGroupCommitWriter writer = new LedgerGroupCommitWriter(repository, new SimpleMeterRegistry(), 100, 16, 100);
+        CompletableFuture<Ledger> result = writer.append(entry());
+        writer.shutdown();
+
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testAppendRacingShutdownNeverHangs() throws InterruptedException {
+        LedgerRepository repository = mock(LedgerRepository.class);
+        LedgerGroupCommitWriter writer = new LedgerGroupCommitWriter(repository, new SimpleMeterRegistry(), 100, 16, 8);
+
+        List<CompletableFuture<Ledger>> results = new CopyOnWriteArrayList<>();
+        List<Thread> appenders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread appender = new Thread(() -> {
+                try {
+                    while (true) {
+                        results.add(writer.append(entry()));
+                    }
+                } catch (IllegalStateException e) {
+                    // shut down - stop appending
+                }
+            });
+            appender.start();
+            appenders.add(appender);
+        }
+        Thread.sleep(20);
+        writer.shutdown();
+        for (Thread appender : appenders) {
+            appender.join(5000);
+            assertFalse(appender.isAlive(), "append blocked past shutdown");
+        }
+
+        assertFalse(results.isEmpty());
+        assertTrue(results.stream().allMatch(CompletableFuture::isDone), "an appended entry was never completed");
+    }
+
+    private static Ledger entry() {
+        return new Ledger(Money.parse("1"), "CREDIT", Money.parse("10"), "a1", "u1");
+    }
+}
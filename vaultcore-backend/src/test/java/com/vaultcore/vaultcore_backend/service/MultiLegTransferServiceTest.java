@@ -0,0 +1,367 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.dto.TransferLeg;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceChange;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceSnapshot;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceUpdate;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Multi-leg transfers against map-backed account documents - each mocked call is one
+ * atomic document update (or one per document for the bulk writes), as in MongoDB
+ */
+public class MultiLegTransferServiceTest {
+
+    private final Object lock = new Object();
+    private final Map<String, Money> balances = new HashMap<>();
+    private final Map<String, String> owners = new HashMap<>();
+    private final Map<String, List<String>> recentBatchOps = new HashMap<>();
+    private final Map<String, Lease> leases = new HashMap<>();
+    private final List<List<Ledger>> ledgerBatches = Collections.synchronizedList(new ArrayList<>());
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile Runnable beforeCredits = () -> { };
+
+    private AccountRepository accounts;
+    private LedgerService ledger;
+    private ObjectProvider<SequencerEngine> noSequencer;
+    private User user;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        user = new User();
+        user.setId("u1");
+
+        accounts = mock(AccountRepository.class);
+        when(accounts.acquireLease(anyString(), anyString(), any())).thenAnswer(inv -> {
+            String accountId = inv.getArgument(0);
+            Duration ttl = inv.getArgument(2);
+            Instant now = Instant.now();
+            synchronized (lock) {
+                Lease held = leases.get(accountId);
+                if (!balances.containsKey(accountId) || (held != null && held.expiresAt().isAfter(now))) {
+                    return false;
+                }
+                leases.put(accountId, new Lease(inv.getArgument(1), now.plus(ttl)));
+                return true;
+            }
+        });
+        doAnswer(inv -> {
+            String token = inv.getArgument(1);
+            synchronized (lock) {
+                for (String accountId : inv.<Collection<String>>getArgument(0)) {
+                    if (leases.containsKey(accountId) && leases.get(accountId).token().equals(token)) {
+                        leases.remove(accountId);
+                    }
+                }
+            }
+            return null;
+        }).when(accounts).releaseLeases(any(), anyString());
+        when(accounts.existsById(anyString())).thenAnswer(inv -> {
+            synchronized (lock) {
+                return balances.containsKey(inv.<String>getArgument(0));
+            }
+        });
+        when(accounts.findBalanceSnapshots(any())).thenAnswer(inv -> {
+            Map<String, BalanceSnapshot> snapshots = new HashMap<>();
+            synchronized (lock) {
+                for (String id : inv.<Collection<String>>getArgument(0)) {
+                    if (balances.containsKey(id)) {
+                        snapshots.put(id, new BalanceSnapshot(id, owners.get(id), balances.get(id),
+                                List.copyOf(recentBatchOps.getOrDefault(id, List.of()))));
+                    }
+                }
+            }
+            return snapshots;
+        });
+        when(accounts.compareAndSetBalances(anyList(), anyString())).thenAnswer(inv -> {
+            String token = inv.getArgument(1);
+            if (token.endsWith("-c0")) {
+                beforeCredits.run();
+            }
+            long applied = 0;
+            for (BalanceChange change : inv.<List<BalanceChange>>getArgument(0)) {
+                synchronized (lock) {
+                    if (balances.containsKey(change.accountId())
+                            && balances.get(change.accountId()).compareTo(change.expected()) == 0) {
+                        balances.put(change.accountId(), change.updated());
+                        recentBatchOps.computeIfAbsent(change.accountId(), id -> new ArrayList<>()).add(token);
+                        applied++;
+                    }
+                }
+            }
+            return applied;
+        });
+        when(accounts.credit(anyString(), any(), any())).thenAnswer(inv -> {
+            String accountId = inv.getArgument(0);
+            synchronized (lock) {
+                if (!balances.containsKey(accountId)) {
+                    return Optional.empty();
+                }
+                Money balance = balances.get(accountId).plus(inv.getArgument(2));
+                balances.put(accountId, balance);
+                return Optional.of(new BalanceUpdate(balance, 0));
+            }
+        });
+
+        when(accounts.debitIfSufficient(anyString(), any(), any())).thenAnswer(inv -> {
+            String accountId = inv.getArgument(0);
+            Money amount = inv.getArgument(2);
+            synchronized (lock) {
+                if (!balances.containsKey(accountId) || balances.get(accountId).isLessThan(amount)) {
+                    return Optional.empty();
+                }
+                Money balance = balances.get(accountId).minus(amount);
+                balances.put(accountId, balance);
+                return Optional.of(new BalanceUpdate(balance, 0));
+            }
+        });
+
+        ledger = mock(LedgerService.class);
+        when(ledger.createLedgerEntries(anyList())).thenAnswer(inv -> {
+            ledgerBatches.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        noSequencer = mock(ObjectProvider.class);
+        account("a", "u1", "100");
+        account("b", "u1", "50");
+        account("c", "u2", "0");
+        account("d", "u2", "10");
+    }
+
+    @Test
+    public void testLegsMoveTogetherWithOneLedgerInsert() {
+        service(5000).transfer(
+                List.of(leg("b", "20"), leg("a", "30")),
+                List.of(leg("c", "45"), leg("d", "5")), user);
+
+        assertEquals(Money.parse("70"), balances.get("a"));
+        assertEquals(Money.parse("30"), balances.get("b"));
+        assertEquals(Money.parse("45"), balances.get("c"));
+        assertEquals(Money.parse("15"), balances.get("d"));
+        assertTrue(leases.isEmpty(), "Every lease is released");
+
+        assertEquals(1, ledgerBatches.size());
+        List<Ledger> entries = ledgerBatches.get(0);
+        assertEquals(List.of("b", "a", "c", "d"), entries.stream().map(Ledger::getAccountId).toList());
+        assertEquals(List.of("DEBIT", "DEBIT", "CREDIT", "CREDIT"),
+                entries.stream().map(Ledger::getTransactionType).toList());
+        assertEquals(Money.parse("30"), entries.get(0).getBalanceAfter());
+        assertEquals(Money.parse("15"), entries.get(3).getBalanceAfter());
+    }
+
+    @Test
+    public void testInvalidTransfersChangeNothing() {
+        MultiLegTransferService service = service(5000);
+
+        assertRejected(service, "Debits and credits must add up",
+                List.of(leg("a", "10")), List.of(leg("c", "9")));
+        assertRejected(service, "one leg only",
+                List.of(leg("a", "10")), List.of(leg("a", "10")));
+        assertRejected(service, "don't have permission",
+                List.of(leg("a", "5"), leg("d", "5")), List.of(leg("c", "10")));
+        assertRejected(service, "Destination account not found",
+                List.of(leg("a", "10")), List.of(leg("missing", "10")));
+        // a is debited first, then b falls short - a gets its money back
+        assertRejected(service, "Insufficient balance",
+                List.of(leg("a", "10"), leg("b", "60")), List.of(leg("c", "70")));
+
+        assertEquals(Money.parse("100"), balances.get("a"));
+        assertEquals(Money.parse("50"), balances.get("b"));
+        assertEquals(Money.ZERO, balances.get("c"));
+        assertTrue(leases.isEmpty());
+        assertTrue(ledgerBatches.isEmpty());
+    }
+
+    @Test
+    public void testDestinationDeletedMidTransferUndoesEveryLeg() {
+        // Leases do not stop a delete - c goes after the debits committed, d is credited first
+        beforeCredits = () -> {
+            synchronized (lock) {
+                balances.remove("c");
+            }
+        };
+
+        assertRejected(service(5000), "Destination account not found",
+                List.of(leg("a", "30"), leg("b", "20")), List.of(leg("c", "45"), leg("d", "5")));
+
+        assertEquals(Money.parse("100"), balances.get("a"));
+        assertEquals(Money.parse("50"), balances.get("b"));
+        assertEquals(Money.parse("10"), balances.get("d"), "the credit to d was taken back");
+        assertTrue(ledgerBatches.isEmpty());
+        assertTrue(leases.isEmpty());
+    }
+
+    @Test
+    public void testLeasedAccountIsWaitedForThenBusy() {
+        synchronized (lock) {
+            leases.put("c", new Lease("other", Instant.now().plusSeconds(60)));
+        }
+        assertThrows(ServiceBusyException.class, () -> service(50).transfer(
+                List.of(leg("a", "10")), List.of(leg("c", "10")), user));
+        assertEquals(Set.of("c"), leases.keySet(), "The lease on a was given back");
+        assertEquals("other", leases.get("c").token());
+        assertEquals(Money.parse("100"), balances.get("a"));
+
+        // An expired lease is taken over
+        synchronized (lock) {
+            leases.put("c", new Lease("other", Instant.now().minusSeconds(1)));
+        }
+        service(50).transfer(List.of(leg("a", "10")), List.of(leg("c", "10")), user);
+        assertEquals(Money.parse("10"), balances.get("c"));
+        assertTrue(leases.isEmpty());
+    }
+
+    @Test
+    public void testOpposingTransfersUnderContentionAllFinish() throws Exception {
+        int threads = 64;
+        int transfersPerThread = 25;
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            ids.add("acct-" + i);
+            account("acct-" + i, "u1", "1000");
+        }
+        Money initial = total(ids);
+        // The ledger is written while the leases are held: no two transfers may be there
+        // for the same account, and each stays a moment so waiting transfers pile up
+        Set<String> inFlight = ConcurrentHashMap.newKeySet();
+        doAnswer(inv -> {
+            List<Ledger> entries = inv.getArgument(0);
+            entries.forEach(entry -> assertTrue(inFlight.add(entry.getAccountId()),
+                    "Two transfers hold " + entry.getAccountId()));
+            Thread.sleep(1);
+            entries.forEach(entry -> inFlight.remove(entry.getAccountId()));
+            ledgerBatches.add(entries);
+            return entries;
+        }).when(ledger).createLedgerEntries(anyList());
+        MultiLegTransferService service = service(30_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                int completed = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < transfersPerThread; i++) {
+                    // Two to four distinct accounts listed in random order, so A->B meets B->A
+                    List<String> picked = new ArrayList<>(ids);
+                    Collections.shuffle(picked, random);
+                    picked = picked.subList(0, random.nextInt(2, 5));
+                    int debitCount = random.nextInt(1, picked.size());
+                    List<TransferLeg> debits = new ArrayList<>();
+                    long debited = 0;
+                    for (String id : picked.subList(0, debitCount)) {
+                        long amount = random.nextLong(4, 5000); // enough for up to three positive credits
+                        debits.add(new TransferLeg(id, Money.ofMinor(amount)));
+                        debited += amount;
+                    }
+                    List<TransferLeg> credits = new ArrayList<>();
+                    List<String> creditIds = picked.subList(debitCount, picked.size());
+                    for (int c = 0; c < creditIds.size(); c++) {
+                        long amount = c == creditIds.size() - 1 ? debited : random.nextLong(0, debited) / 2 + 1;
+                        debited -= amount;
+                        credits.add(new TransferLeg(creditIds.get(c), Money.ofMinor(amount)));
+                    }
+                    try {
+                        service.transfer(debits, credits, user);
+                        completed++;
+                    } catch (IllegalArgumentException e) {
+                        assertTrue(e.getMessage().startsWith("Insufficient balance"), e.getMessage());
+                    }
+                }
+                return completed;
+            }));
+        }
+        // A single-account writer that ignores leases, as deposits do
+        Future<Integer> depositor = executor.submit(() -> {
+            start.await();
+            for (int i = 0; i < 500; i++) {
+                accounts.credit(ids.get(i % ids.size()), null, Money.ofMinor(1));
+            }
+            return 500;
+        });
+        start.countDown();
+
+        int completed = 0;
+        for (Future<Integer> result : results) {
+            // A deadlock or livelock shows up here as a timeout (or as ServiceBusyException)
+            completed += result.get(60, TimeUnit.SECONDS);
+        }
+        depositor.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertTrue(completed > threads * transfersPerThread / 2, "Most transfers should go through: " + completed);
+        assertEquals(completed, ledgerBatches.size());
+        assertEquals(initial.plus(Money.ofMinor(500)), total(ids), "Legs must add up to nothing");
+        ids.forEach(id -> assertFalse(balances.get(id).isNegative()));
+        assertTrue(leases.isEmpty(), "Every lease is released");
+    }
+
+    private MultiLegTransferService service(long leaseWaitMs) {
+        HotAccountService hotAccounts = mock(HotAccountService.class);
+        return new MultiLegTransferService(accounts, ledger, noSequencer, new AccountCache(meterRegistry, 1000, 30),
+                hotAccounts, new ServiceMetrics(meterRegistry), 100, 10_000, leaseWaitMs);
+    }
+
+    private void assertRejected(MultiLegTransferService service, String message,
+                                List<TransferLeg> debits, List<TransferLeg> credits) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.transfer(debits, credits, user));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    private void account(String id, String owner, String balance) {
+        synchronized (lock) {
+            balances.put(id, Money.parse(balance));
+            owners.put(id, owner);
+        }
+    }
+
+    private Money total(List<String> ids) {
+        synchronized (lock) {
+            return ids.stream().map(balances::get).reduce(Money.ZERO, Money::plus);
+        }
+    }
+
+    private static TransferLeg leg(String accountId, String amount) {
+        return new TransferLeg(accountId, Money.parse(amount));
+    }
+
+    private record Lease(String token, Instant expiresAt) {}
+}
@@ -0,0 +1,59 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PasswordHasherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void testNeedsRehashWhenCostDiffers() {
+        String cost4 = new BCryptPasswordEncoder(4).encode("secret");
+        PasswordHasher sameCost = new PasswordHasher(new BCryptPasswordEncoder(4), meterRegistry, 4, 1, 4);
+        PasswordHasher higherCost = new PasswordHasher(new BCryptPasswordEncoder(5), meterRegistry, 5, 1, 4);
+
+        assertFalse(sameCost.needsRehash(cost4));
+        assertTrue(higherCost.needsRehash(cost4));
+        assertFalse(higherCost.needsRehash("plain-text"));
+        assertFalse(higherCost.needsRehash(null));
+        assertTrue(higherCost.matches("secret", cost4));
+    }
+
+    @Test
+    public void testSaturatedPoolShedsLoad() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder slow = mock(PasswordEncoder.class);
+        when(slow.encode(any())).thenAnswer(invocation -> {
+            release.await();
+            return "hash";
+        });
+        PasswordHasher hasher = new PasswordHasher(slow, meterRegistry, 10, 1, 1);
+
+        CompletableFuture<String> running = hasher.encodeAsync("a"); // occupies the only thread
+        CompletableFuture<String> queued = hasher.encodeAsync("b");  // fills the queue
+        CompletableFuture<String> shed = hasher.encodeAsync("c");
+
+        ExecutionException failure = assertThrows(ExecutionException.class, shed::get);
+        assertInstanceOf(ServiceBusyException.class, failure.getCause());
+        assertThrows(ServiceBusyException.class, () -> hasher.matches("d", "hash"));
+        assertEquals(2.0, meterRegistry.get("vaultcore.auth.hashing.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", running.get());
+        assertEquals("hash", queued.get());
+        hasher.shutdown();
+    }
+}
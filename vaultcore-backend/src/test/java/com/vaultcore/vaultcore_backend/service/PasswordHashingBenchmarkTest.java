@@ -0,0 +1,75 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Logins per second through PasswordHasher at each BCrypt cost
+ * Many more callers than hashing threads, as in a login storm: the pool runs at
+ * full speed and the overflow is shed instead of queueing without bound.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=PasswordHashingBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+public class PasswordHashingBenchmarkTest {
+
+    private static final int[] COSTS = {8, 10, 12};
+    private static final int CALLERS = 32;
+    private static final long RUN_MILLIS = 3000;
+
+    @Test
+    public void testLoginThroughputPerCost() throws Exception {
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int cost : COSTS) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+            PasswordHasher hasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), cost, threads, threads * 4);
+            String stored = encoder.encode("correct horse battery staple");
+
+            AtomicLong logins = new AtomicLong();
+            AtomicLong shed = new AtomicLong();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RUN_MILLIS);
+            List<Thread> callers = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                Thread caller = new Thread(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            assertTrue(hasher.matches("correct horse battery staple", stored));
+                            logins.incrementAndGet();
+                        } catch (ServiceBusyException e) {
+                            shed.incrementAndGet();
+                            backOff(); // what a client does on 503 + Retry-After, scaled down
+                        }
+                    }
+                });
+                callers.add(caller);
+                caller.start();
+            }
+            for (Thread caller : callers) {
+                caller.join();
+            }
+            hasher.shutdown();
+
+            double perSecond = logins.get() * 1000.0 / RUN_MILLIS;
+            System.out.printf("📊 BCrypt cost %d: %.1f logins/sec on %d hashing threads, %d requests shed%n",
+                    cost, perSecond, threads, shed.get());
+            assertTrue(logins.get() > 0);
+        }
+    }
+
+    private static void backOff() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.ReactiveAccountRepository;
+import com.vaultcore.vaultcore_backend.repository.ReactiveLedgerRepository;
+import com.vaultcore.vaultcore_backend.repository.ReactiveTransactionRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Reactive transfer pipeline against in-memory repositories - no MongoDB needed
+ */
+public class ReactiveTransferServiceTest {
+
+    private final Map<String, String> owners = new HashMap<>();
+    private final Map<String, Money> balances = new HashMap<>();
+    private final List<Ledger> ledger = new ArrayList<>();
+
+    private ReactiveTransferService transferService;
+    private ReactiveTransactionService transactionService;
+    private ReactiveTransactionRepository transactionRepository;
+    private final HotAccountService hotAccounts = mock(HotAccountService.class);
+    private User user;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ReactiveAccountRepository accounts = mock(ReactiveAccountRepository.class);
+        when(accounts.debitIfSufficient(anyString(), anyString(), any())).thenAnswer(inv -> Mono.fromSupplier(() -> {
+            String id = inv.getArgument(0);
+            Money amount = inv.getArgument(2);
+            if (!balances.containsKey(id) || !owners.get(id).equals(inv.getArgument(1))
+                    || balances.get(id).compareTo(amount) < 0) {
+                return null;
+            }
+            return balances.merge(id, amount.negate(), Money::plus);
+        }));
+        when(accounts.credit(anyString(), any(), any())).thenAnswer(inv -> Mono.fromSupplier(() -> {
+            String id = inv.getArgument(0);
+            return balances.containsKey(id) ? balances.merge(id, inv.getArgument(2), Money::plus) : null;
+        }));
+        when(accounts.findById(anyString())).thenAnswer(inv -> Mono.fromSupplier(() -> {
+            String id = inv.getArgument(0);
+            if (!balances.containsKey(id)) {
+                return null;
+            }
+            Account account = new Account();
+            account.setId(id);
+            account.setUserId(owners.get(id));
+            account.setBalance(balances.get(id));
+            return account;
+        }));
+
+        ReactiveLedgerRepository ledgerRepository = mock(ReactiveLedgerRepository.class);
+        when(ledgerRepository.insert(anyList())).thenAnswer(inv -> {
+            List<Ledger> entries = inv.getArgument(0);
+            return Flux.defer(() -> {
+                ledger.addAll(entries);
+                return Flux.fromIterable(entries);
+            });
+        });
+        transactionRepository = mock(ReactiveTransactionRepository.class);
+
+        ObjectProvider<SequencerEngine> noSequencer = mock(ObjectProvider.class);
+        AccountCache accountCache = new AccountCache(new SimpleMeterRegistry(), 1000, 30);
+        transferService = new ReactiveTransferService(accounts, ledgerRepository, noSequencer, accountCache, hotAccounts);
+        transactionService = new ReactiveTransactionService(accounts, ledgerRepository, transactionRepository,
+                noSequencer, accountCache, hotAccounts);
+
+        user = new User();
+        user.setId("u1");
+        owners.put("a", "u1");
+        balances.put("a", Money.parse("100"));
+        owners.put("b", "u2");
+        balances.put("b", Money.parse("5"));
+    }
+
+    @Test
+    public void testTransferMovesMoneyAndWritesBothLegs() {
+        transferService.transfer("a", "b", Money.parse("40"), user).block();
+
+        assertEquals(0, Money.parse("60").compareTo(balances.get("a")));
+        assertEquals(0, Money.parse("45").compareTo(balances.get("b")));
+        assertEquals(List.of("DEBIT", "CREDIT"), ledger.stream().map(Ledger::getTransactionType).toList());
+        assertEquals(0, Money.parse("60").compareTo(ledger.get(0).getBalanceAfter()));
+    }
+
+    @Test
+    public void testNothingRunsUntilSubscribed() {
+        Mono<Void> pending = transferService.transfer("a", "b", Money.parse("40"), user);
+
+        assertEquals(0, Money.parse("100").compareTo(balances.get("a")));
+        pending.block();
+        assertEquals(0, Money.parse("60").compareTo(balances.get("a")));
+    }
+
+    @Test
+    public void testDebitFailuresAreExplained() {
+        assertEquals("Insufficient balance", failure("a", "b", "500"));
+        assertEquals("You don't have permission to transfer from this account", failure("b", "a", "1"));
+        assertEquals("Source account not found", failure("missing", "a", "1"));
+        assertEquals("Transfer amount must be positive", failure("a", "b", "0"));
+        assertTrue(ledger.isEmpty());
+    }
+
+    @Test
+    public void testMissingDestinationRefundsSource() {
+        assertEquals("Destination account not found", failure("a", "missing", "30"));
+
+        assertEquals(0, Money.parse("100").compareTo(balances.get("a")));
+        assertTrue(ledger.isEmpty());
+    }
+
+    @Test
+    public void testHotSourceIsConsolidatedBeforeTheDebit() {
+        when(hotAccounts.isHot("a")).thenReturn(true);
+        Money inSlots = Money.parse("50");
+        when(hotAccounts.consolidate("a")).thenAnswer(inv -> {
+            balances.merge("a", inSlots, Money::plus);
+            return inSlots;
+        });
+
+        transferService.transfer("a", "b", Money.parse("120"), user).block();
+
+        assertEquals(0, Money.parse("30").compareTo(balances.get("a")), "slot funds were not visible to the debit");
+        assertEquals(0, Money.parse("125").compareTo(balances.get("b")));
+    }
+
+    @Test
+    public void testBadHistoryRequestFailsBeforeStreaming() {
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getTransactionsByUser(user, "not-a-cursor", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> transactionService.getTransactionsByUser(user, null, 0));
+        verify(transactionRepository, never()).findNewestFirstByUserId(anyString(), any(), anyInt());
+
+        when(transactionRepository.findNewestFirstByUserId(anyString(), isNull(), anyInt())).thenReturn(Flux.empty());
+        transactionService.getTransactionsByUser(user, null, null);
+        verify(transactionRepository).findNewestFirstByUserId("u1", null, 0);
+    }
+
+    private String failure(String from, String to, String amount) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> transferService.transfer(from, to, Money.parse(amount), user).block());
+        return e.getMessage();
+    }
+}
@@ -0,0 +1,267 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun;
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun.Break;
+import com.vaultcore.vaultcore_backend.entity.ReconciliationRun.BreakType;
+import com.vaultcore.vaultcore_backend.entity.ReconciliationState;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.AccountRepositoryCustom.BalanceSnapshot;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepositoryCustom.LedgerPosting;
+import com.vaultcore.vaultcore_backend.repository.ReconciliationRunRepository;
+import com.vaultcore.vaultcore_backend.repository.ReconciliationStateRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+public class ReconciliationServiceTest {
+
+    private final LedgerRepository ledger = mock(LedgerRepository.class);
+    private final AccountRepository accounts = mock(AccountRepository.class);
+    private final ReconciliationRunRepository runs = mock(ReconciliationRunRepository.class);
+    private final ReconciliationStateRepository states = mock(ReconciliationStateRepository.class);
+    private final HotAccountService hotAccounts = mock(HotAccountService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReconciliationService service = new ReconciliationService(ledger, accounts, runs, states,
+            hotAccounts, new ServiceMetrics(meterRegistry), meterRegistry, 4, 8, 60, 0, 10);
+
+    private final List<LedgerPosting> postings = new CopyOnWriteArrayList<>();
+    private final Map<String, Long> balances = new ConcurrentHashMap<>();
+    private final List<ReconciliationRun> savedRuns = new ArrayList<>();
+    private final Map<String, ReconciliationState> savedStates = new HashMap<>();
+    private final AtomicReference<Runnable> onSnapshot = new AtomicReference<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        when(ledger.streamPostings(any(), any(), any())).thenAnswer(inv -> {
+            ObjectId from = inv.getArgument(0);
+            ObjectId to = inv.getArgument(1);
+            Collection<String> accountIds = inv.getArgument(2);
+            return postings.stream()
+                    .filter(posting -> from == null || posting.id().compareTo(from) >= 0)
+                    .filter(posting -> to == null || posting.id().compareTo(to) < 0)
+                    .filter(posting -> accountIds == null || accountIds.contains(posting.accountId()))
+                    .sorted(Comparator.comparing(LedgerPosting::id));
+        });
+        when(ledger.findFirstLedgerId()).thenAnswer(inv ->
+                postings.stream().map(LedgerPosting::id).min(Comparator.naturalOrder()));
+        when(accounts.findBalanceSnapshots(any())).thenAnswer(inv -> {
+            Map<String, BalanceSnapshot> snapshots = new HashMap<>();
+            for (String accountId : (Collection<String>) inv.getArgument(0)) {
+                Long balance = balances.get(accountId);
+                if (balance != null) {
+                    snapshots.put(accountId, new BalanceSnapshot(accountId, "u1", Money.ofMinor(balance), List.of()));
+                }
+            }
+            Runnable hook = onSnapshot.getAndSet(null);
+            if (hook != null) {
+                hook.run();
+            }
+            return snapshots;
+        });
+        when(runs.findFirstByOrderByNumberDesc()).thenAnswer(inv ->
+                savedRuns.isEmpty() ? Optional.empty() : Optional.of(savedRuns.get(savedRuns.size() - 1)));
+        when(runs.save(any(ReconciliationRun.class))).thenAnswer(inv -> {
+            savedRuns.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        });
+        when(states.findAllById(any())).thenAnswer(inv -> {
+            List<ReconciliationState> found = new ArrayList<>();
+            for (String accountId : (Iterable<String>) inv.getArgument(0)) {
+                Optional.ofNullable(savedStates.get(accountId)).ifPresent(found::add);
+            }
+            return found;
+        });
+        doAnswer(inv -> {
+            for (ReconciliationState state : (List<ReconciliationState>) inv.getArgument(0)) {
+                savedStates.put(state.getAccountId(), state);
+            }
+            return null;
+        }).when(states).saveStates(anyList());
+        when(states.revertRunsAfter(anyLong())).thenAnswer(inv -> {
+            long lastRun = inv.getArgument(0);
+            long reverted = 0;
+            for (ReconciliationState state : new ArrayList<>(savedStates.values())) {
+                if (state.getCurrent() != null && state.getCurrent().run() > lastRun) {
+                    savedStates.put(state.getAccountId(),
+                            new ReconciliationState(state.getAccountId(), state.getPrevious(), state.getPrevious()));
+                    reverted++;
+                }
+            }
+            return reverted;
+        });
+
+        balances.put("a1", 10_000L);
+        balances.put("a2", 0L);
+        balances.put("a3", 50_000L);
+    }
+
+    @Test
+    public void testCleanLedgerHasNoBreaks() {
+        int committed = postHistory(3600, 120);
+        post("a2", 30, 700); // inside the settle lag - compared, not committed
+
+        ReconciliationRun run = service.reconcile(false);
+
+        assertEquals(1, run.getNumber());
+        assertEquals(0, run.getBreakCount());
+        assertEquals(committed, run.getEntries());
+        assertEquals(3, run.getAccountsChecked());
+        assertTrue(run.getPartitions() > 1, "the hour is split into partitions");
+        assertNull(run.getFromLedgerId());
+        assertEquals(3, savedStates.size());
+    }
+
+    @Test
+    public void testIncrementalRunReadsOnlyNewEntriesAndFindsBreaks() {
+        postHistory(3600, 90);
+        ObjectId cutOff = ObjectId.getSmallestWithDate(Date.from(Instant.now().minusSeconds(1800)));
+        rebuildStatesUpTo(cutOff);
+        long fresh = postings.stream().filter(posting -> posting.id().compareTo(cutOff) >= 0).count();
+
+        ReconciliationRun incremental = service.reconcile(false);
+        assertEquals(2, incremental.getNumber());
+        assertEquals(0, incremental.getBreakCount());
+        assertEquals(cutOff.toHexString(), incremental.getFromLedgerId());
+        assertEquals(fresh, incremental.getEntries(), "only entries after the previous cut-off are read");
+
+        post("a2", 10, 300);
+        balances.merge("a2", 1L, Long::sum); // a balance write with no ledger entry
+        ReconciliationRun broken = service.reconcile(false);
+        assertEquals(0, broken.getEntries());
+        assertEquals(1, broken.getBreakCount());
+        Break found = broken.getBreaks().get(0);
+        assertEquals("a2", found.accountId());
+        assertEquals(BreakType.BALANCE_MISMATCH, found.type());
+        assertEquals(Money.ofMinor(balances.get("a2") - 1), found.ledgerBalance());
+        assertEquals(Money.ofMinor(balances.get("a2")), found.accountBalance());
+        assertEquals(1, meterRegistry.get("vaultcore.reconciliation.breaks").tag("type", "BALANCE_MISMATCH")
+                .counter().count());
+    }
+
+    @Test
+    public void testDetectsBrokenChainAndMissingAccount() {
+        postHistory(3600, 60);
+        long before = balances.get("a1");
+        balances.put("a1", before + 500);
+        postings.add(new LedgerPosting(idSecondsAgo(300), "a1", 500, before + 400)); // wrong running balance
+        postings.add(new LedgerPosting(idSecondsAgo(200), "ghost", 250, 250));
+
+        ReconciliationRun run = service.reconcile(true);
+
+        assertEquals(2, run.getBreakCount());
+        Map<String, BreakType> types = new HashMap<>();
+        run.getBreaks().forEach(found -> types.put(found.accountId(), found.type()));
+        assertEquals(Map.of("a1", BreakType.BROKEN_CHAIN, "ghost", BreakType.MISSING_ACCOUNT), types);
+    }
+
+    @Test
+    public void testHotAccountIsNotComparedAgainstItsLedger() {
+        when(hotAccounts.isHot("hot")).thenReturn(true);
+        postHistory(3600, 30);
+        // 1000 -> debit 200 -> slot credit 700: the debit read its balanceAfter after the
+        // credit landed, so the opening derived from its entry is 1700 instead of 1000
+        balances.put("hot", 1_500L);
+        postings.add(new LedgerPosting(idSecondsAgo(300), "hot", -200, 1_500));
+        postings.add(new LedgerPosting(idSecondsAgo(290), "hot", 700, 1_500));
+
+        ReconciliationRun run = service.reconcile(true);
+
+        assertEquals(0, run.getBreakCount(), "hot account reported: " + run.getBreaks());
+        assertEquals(4, run.getAccountsChecked());
+
+        balances.remove("hot");
+        assertEquals(List.of(BreakType.MISSING_ACCOUNT),
+                service.reconcile(true).getBreaks().stream().map(Break::type).toList());
+    }
+
+    @Test
+    public void testBreakThatSettlesBeforeRecheckIsNotReported() {
+        postHistory(3600, 30);
+        // The balance moved, its ledger entry is still in the group-commit queue
+        long after = balances.merge("a3", -2_000L, Long::sum);
+        onSnapshot.set(() -> postings.add(new LedgerPosting(new ObjectId(), "a3", -2_000, after)));
+
+        assertEquals(0, service.reconcile(false).getBreakCount());
+    }
+
+    @Test
+    public void testFailedRunIsNotCountedTwice() {
+        postHistory(3600, 60);
+        ObjectId cutOff = ObjectId.getSmallestWithDate(Date.from(Instant.now().minusSeconds(1800)));
+        rebuildStatesUpTo(cutOff);
+
+        // Second run writes its states, then fails before its record is saved
+        doThrow(new IllegalStateException("primary stepped down")).when(runs).save(any(ReconciliationRun.class));
+        assertThrows(IllegalStateException.class, () -> service.reconcile(false));
+        assertTrue(savedStates.values().stream().anyMatch(state -> state.getCurrent().run() == 2));
+        doAnswer(inv -> {
+            savedRuns.add(inv.getArgument(0));
+            return inv.getArgument(0);
+        }).when(runs).save(any(ReconciliationRun.class));
+
+        ReconciliationRun retried = service.reconcile(false);
+        assertEquals(2, retried.getNumber());
+        assertEquals(0, retried.getBreakCount());
+        assertEquals(cutOff.toHexString(), retried.getFromLedgerId());
+    }
+
+    /**
+     * States as a completed run with this cut-off would have left them
+     */
+    private void rebuildStatesUpTo(ObjectId cutOff) {
+        List<LedgerPosting> later = postings.stream().filter(posting -> posting.id().compareTo(cutOff) >= 0).toList();
+        postings.removeAll(later);
+        Map<String, Long> current = new HashMap<>(balances);
+        later.forEach(posting -> balances.merge(posting.accountId(), -posting.signedAmount(), Long::sum));
+        savedStates.clear();
+        savedRuns.clear();
+        service.reconcile(false);
+        savedRuns.get(0).setUpToLedgerId(cutOff.toHexString());
+        postings.addAll(later);
+        balances.putAll(current);
+    }
+
+    /**
+     * count entries spread over the last 'seconds', all older than the settle lag - returns count
+     */
+    private int postHistory(long seconds, int count) {
+        for (int i = 0; i < count; i++) {
+            long secondsAgo = seconds - (seconds - 120) * i / count;
+            long amount = i % 4 == 3 ? -(50 + i) : 100 + i;
+            post("a" + (1 + i % 3), secondsAgo, amount);
+        }
+        return count;
+    }
+
+    private void post(String accountId, long secondsAgo, long amount) {
+        long balanceAfter = balances.merge(accountId, amount, Long::sum);
+        postings.add(new LedgerPosting(idSecondsAgo(secondsAgo), accountId, amount, balanceAfter));
+    }
+
+    private static ObjectId idSecondsAgo(long seconds) {
+        return new ObjectId(Date.from(Instant.now().minusSeconds(seconds)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.RefreshToken;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.RefreshTokenRepository;
+import com.vaultcore.vaultcore_backend.util.Hashes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RefreshTokenServiceTest {
+
+    private static final int MAX_PER_USER = 3;
+
+    private final RefreshTokenRepository repository = mock(RefreshTokenRepository.class);
+    private final RefreshTokenService service = new RefreshTokenService(repository, new SimpleMeterRegistry(),
+            7, MAX_PER_USER, 1000);
+
+    @Test
+    public void testOnlyTheHashIsStored() {
+        String token = service.createRefreshToken(user());
+
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(repository).save(saved.capture());
+        assertEquals(Hashes.sha256(token), saved.getValue().getTokenHash());
+        assertNotEquals(token, saved.getValue().getTokenHash());
+        assertEquals("u1", saved.getValue().getUserId());
+        assertTrue(saved.getValue().getExpiryDate().isAfter(LocalDateTime.now().plusDays(6)));
+    }
+
+    @Test
+    public void testCapRevokesOldestTokens() {
+        List<RefreshToken> stored = new ArrayList<>();
+        for (int i = 0; i < MAX_PER_USER + 2; i++) {
+            stored.add(stored("id-" + i, "hash-" + i, LocalDateTime.now().plusDays(1)));
+        }
+        when(repository.findHashesByUserId("u1")).thenReturn(stored);
+
+        service.createRefreshToken(user());
+
+        verify(repository).deleteAllById(List.of("id-3", "id-4"));
+    }
+
+    @Test
+    public void testRevokedTokenIsRefusedWithoutRead() {
+        String token = service.createRefreshToken(user());
+        service.revoke(token);
+
+        assertTrue(service.findValid(token).isEmpty());
+        verify(repository).deleteByTokenHash(Hashes.sha256(token));
+        verify(repository, never()).findByTokenHash(anyString());
+    }
+
+    @Test
+    public void testExpiredTokenIsRefusedBeforeTtlCleanup() {
+        when(repository.findByTokenHash(Hashes.sha256("live")))
+                .thenReturn(Optional.of(stored("id-1", Hashes.sha256("live"), LocalDateTime.now().plusDays(1))));
+        when(repository.findByTokenHash(Hashes.sha256("stale")))
+                .thenReturn(Optional.of(stored("id-2", Hashes.sha256("stale"), LocalDateTime.now().minusSeconds(5))));
+
+        assertTrue(service.findValid("live").isPresent());
+        assertTrue(service.findValid("stale").isEmpty());
+        assertTrue(service.findValid("").isEmpty());
+    }
+
+    @Test
+    public void testRevokeAllDeletesByUser() {
+        when(repository.findHashesByUserId("u1")).thenReturn(List.of(
+                stored("id-1", Hashes.sha256("a"), null), stored("id-2", Hashes.sha256("b"), null)));
+
+        service.revokeAll("u1");
+
+        verify(repository).deleteByUserId("u1");
+        assertTrue(service.findValid("a").isEmpty());
+        assertTrue(service.findValid("b").isEmpty());
+        verify(repository, never()).findByTokenHash(any());
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId("u1");
+        user.setEmail("a@vault.test");
+        return user;
+    }
+
+    private static RefreshToken stored(String id, String hash, LocalDateTime expiry) {
+        RefreshToken token = new RefreshToken();
+        token.setId(id);
+        token.setTokenHash(hash);
+        token.setUserId("u1");
+        token.setExpiryDate(expiry);
+        return token;
+    }
+}
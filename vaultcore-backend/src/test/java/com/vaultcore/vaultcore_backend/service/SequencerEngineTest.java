@@ -0,0 +1,173 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.AccountRepository;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.util.Futures;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sequencer engine against a mocked AccountRepository - no MongoDB needed
+ */
+public class SequencerEngineTest {
+
+    private final Map<String, Account> store = new ConcurrentHashMap<>();
+    private final Map<String, Money> persisted = new ConcurrentHashMap<>();
+    private final AccountRepository repository = mock(AccountRepository.class);
+    private final LedgerRepository ledgerRepository = mock(LedgerRepository.class);
+    private final AtomicInteger failingWrites = new AtomicInteger();
+    private SequencerEngine engine;
+
+    @AfterEach
+    public void tearDown() throws InterruptedException {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentWithdrawalsNeverOverdraw() {
+        engine = newEngine(4);
+        account("a1", "u1", "100.00");
+
+        List<CompletableFuture<Money>> results = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            results.add(engine.debit("a1", "u1", Money.parse("1.00")));
+        }
+        long succeeded = results.stream().filter(f -> !f.handle((v, e) -> e != null).join()).count();
+
+        assertEquals(100, succeeded);
+        assertEquals(0, Money.ZERO.compareTo(engine.debit("a1", "u1", Money.ZERO).join()));
+    }
+
+    @Test
+    public void testCrossShardTransfersConserveMoney() throws InterruptedException {
+        engine = newEngine(4);
+        for (int i = 0; i < 8; i++) {
+            account("acct-" + i, "u1", "1000");
+        }
+
+        List<CompletableFuture<SequencerEngine.TransferResult>> results = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            results.add(engine.transfer("acct-" + (i % 8), "acct-" + ((i * 3 + 1) % 8), "u1", Money.parse("1")));
+        }
+        results.forEach(CompletableFuture::join);
+        engine.shutdown();
+        engine = null;
+
+        Money total = persisted.values().stream().reduce(Money.ZERO, Money::plus);
+        assertEquals(0, Money.parse("8000").compareTo(total), "Money was created or destroyed: " + total);
+    }
+
+    @Test
+    public void testTransferToMissingAccountIsRefunded() {
+        engine = newEngine(2);
+        account("a1", "u1", "50");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> Futures.join(engine.transfer("a1", "missing", "u1", Money.parse("10"))));
+        assertEquals("Destination account not found", e.getMessage());
+        assertEquals(0, Money.parse("50").compareTo(engine.credit("a1", null, Money.ZERO).join()));
+    }
+
+    @Test
+    public void testRejectsForeignOwner() {
+        engine = newEngine(2);
+        account("a1", "u1", "50");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> Futures.join(engine.debit("a1", "someone-else", Money.parse("1"))));
+    }
+
+    @Test
+    public void testFailedWriteBackIsRetriedWhileIdle() throws InterruptedException {
+        engine = newEngine(2);
+        account("a1", "u1", "50");
+        failingWrites.set(1);
+
+        engine.credit("a1", null, Money.parse("5")).join();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!persisted.containsKey("a1") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, Money.parse("55").compareTo(persisted.get("a1")), "no later change arrived to carry the retry");
+    }
+
+    @Test
+    public void testShutdownFailsWhenBalancesCannotBeWritten() {
+        engine = newEngine(2);
+        account("a1", "u1", "50");
+        failingWrites.set(Integer.MAX_VALUE);
+
+        engine.debit("a1", "u1", Money.parse("5")).join();
+
+        SequencerEngine stopping = engine;
+        engine = null;
+        IllegalStateException e = assertThrows(IllegalStateException.class, stopping::shutdown);
+        assertEquals("Sequencer could not write back 1 balances", e.getMessage());
+    }
+
+    @Test
+    public void testLoadReplaysLedgerEntriesAfterStoredBalance() {
+        engine = newEngine(2);
+        LocalDateTime asOf = LocalDateTime.now().minusMinutes(1);
+        account("a1", "u1", "100").setBalanceAsOf(asOf);
+        // First entry is already in the stored balance (created just after the snapshot), the others are not
+        when(ledgerRepository.streamByAccountId(eq("a1"), eq(asOf), any())).thenAnswer(inv -> Stream.of(
+                entry("50", "CREDIT", "100"),
+                entry("30", "DEBIT", "70"),
+                entry("5", "CREDIT", "75")));
+
+        assertEquals(0, Money.parse("65").compareTo(engine.debit("a1", "u1", Money.parse("10")).join()));
+    }
+
+    private SequencerEngine newEngine(int shards) {
+        when(repository.findById(anyString())).thenAnswer(inv -> Optional.ofNullable(store.get(inv.<String>getArgument(0))));
+        doAnswer(inv -> {
+            if (failingWrites.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+                throw new IllegalStateException("not primary");
+            }
+            persisted.putAll(inv.getArgument(0));
+            return null;
+        }).when(repository).setBalances(anyMap(), any());
+        return new SequencerEngine(repository, ledgerRepository, new AccountCache(new SimpleMeterRegistry(), 1000, 30),
+                shards, 64, 1);
+    }
+
+    private static Ledger entry(String amount, String type, String balanceAfter) {
+        return new Ledger(Money.parse(amount), type, Money.parse(balanceAfter), "a1", "u1");
+    }
+
+    private Account account(String id, String ownerId, String balance) {
+        Account account = new Account();
+        account.setId(id);
+        account.setUserId(ownerId);
+        account.setBalance(Money.parse(balance));
+        store.put(id, account);
+        return account;
+    }
+}
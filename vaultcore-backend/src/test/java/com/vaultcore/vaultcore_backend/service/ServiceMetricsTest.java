@@ -0,0 +1,49 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ServiceMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ServiceMetrics.Operation transfers = new ServiceMetrics(meterRegistry).operation("transfer", "transfer");
+
+    @Test
+    public void testOutcomeComesFromTheFailure() {
+        transfers.run(() -> { });
+        assertThrows(IllegalArgumentException.class,
+                () -> transfers.run(() -> { throw new IllegalArgumentException("Insufficient balance"); }));
+        assertThrows(IllegalArgumentException.class,
+                () -> transfers.run(() -> { throw new IllegalArgumentException("Destination account not found"); }));
+        assertThrows(IllegalArgumentException.class,
+                () -> transfers.run(() -> { throw new IllegalArgumentException("Transfer amount must be positive"); }));
+        assertThrows(IllegalStateException.class,
+                () -> transfers.run(() -> { throw new IllegalStateException("Ledger writer is shut down"); }));
+
+        assertEquals(1, count("success"));
+        assertEquals(1, count("insufficient_balance"));
+        assertEquals(1, count("not_found"));
+        assertEquals(1, count("invalid"));
+        assertEquals(1, count("error"));
+        assertEquals(0, count("forbidden"));
+    }
+
+    @Test
+    public void testAsyncCallIsTimedWhenTheFutureCompletes() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> timed = transfers.recordAsync(() -> pending);
+        assertEquals(0, count("success"));
+
+        pending.complete("done");
+        assertEquals("done", timed.join());
+        assertEquals(1, count("success"));
+    }
+
+    private long count(String outcome) {
+        return meterRegistry.get("vaultcore.service.calls").tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,77 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.repository.LedgerRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StatementServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final LedgerRepository repository = mock(LedgerRepository.class);
+    private final StatementService service = new StatementService(repository, objectMapper);
+
+    @Test
+    public void testNdjsonWritesOneObjectPerLineAndClosesCursor() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repository.streamByAccountId(eq("a1"), any(), any()))
+                .thenReturn(entries(1200).onClose(() -> closed.set(true)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeStatement("a1", null, null, StatementService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1200, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("CREDIT", first.get("transactionType").asText());
+        assertEquals("a1", first.get("accountId").asText());
+        assertTrue(closed.get(), "Mongo cursor must be closed after the export");
+    }
+
+    @Test
+    public void testCsvHasHeaderAndInclusiveDateRange() throws Exception {
+        when(repository.streamByAccountId(eq("a1"), any(), any())).thenReturn(entries(2));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeStatement("a1", LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31),
+                StatementService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals("timestamp,id,transactionType,amount,balanceAfter", lines[0]);
+        assertEquals(3, lines.length);
+        assertTrue(lines[1].endsWith(",CREDIT,1.00,10.00"));
+        verify(repository).streamByAccountId("a1",
+                LocalDate.of(2026, 1, 1).atStartOfDay(), LocalDate.of(2026, 2, 1).atStartOfDay());
+    }
+
+    @Test
+    public void testRejectsBadFormatAndReversedRange() {
+        assertEquals(StatementService.Format.NDJSON, StatementService.Format.parse(null));
+        assertEquals(StatementService.Format.CSV, StatementService.Format.parse("csv"));
+        assertThrows(IllegalArgumentException.class, () -> StatementService.Format.parse("pdf"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.validateRange(LocalDate.of(2026, 2, 1), LocalDate.of(2026, 1, 1)));
+    }
+
+    private static Stream<Ledger> entries(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new Ledger(Money.parse("1"), "CREDIT", Money.parse("10"), "a1", "u1"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.mongodb.MongoException;
+import com.vaultcore.vaultcore_backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TransactionRunnerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger runs = new AtomicInteger();
+    private PlatformTransactionManager transactionManager;
+    private TransactionRunner runner;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        transactionManager = mock(PlatformTransactionManager.class);
+        ObjectProvider<PlatformTransactionManager> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(transactionManager);
+        runner = new TransactionRunner(provider, new ServiceMetrics(meterRegistry), 3, 1);
+    }
+
+    @Test
+    public void testAtomicModeRunsWithoutTransaction() {
+        assertEquals("done", runner.execute(TransactionRunner.Mode.ATOMIC, () -> "done"));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void testTransientErrorIsRunAgainFromTheStart() {
+        String result = runner.execute(TransactionRunner.Mode.TRANSACTIONAL, () -> {
+            if (runs.incrementAndGet() < 3) {
+                // A write conflict as MongoTemplate reports it
+                throw new UncategorizedMongoDbException("Write conflict", labelled(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL));
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, runs.get());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(2.0, meterRegistry.get("vaultcore.write.retries").tag("operation", "transaction").counter().count());
+    }
+
+    @Test
+    public void testTransientCommitFailureIsRetriedUntilGivingUp() {
+        doThrow(new TransactionSystemException("Could not commit",
+                labelled(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL))).when(transactionManager).commit(any());
+
+        assertThrows(ServiceBusyException.class,
+                () -> runner.run(TransactionRunner.Mode.TRANSACTIONAL, runs::incrementAndGet));
+        assertEquals(3, runs.get(), "max-attempts bounds the runs");
+        assertEquals(3.0, meterRegistry.get("vaultcore.write.conflicts").tag("operation", "transaction").counter().count());
+    }
+
+    @Test
+    public void testOtherFailuresRollBackOnce() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> runner.run(TransactionRunner.Mode.TRANSACTIONAL, () -> {
+                    runs.incrementAndGet();
+                    throw new IllegalArgumentException("Insufficient balance");
+                }));
+
+        assertEquals("Insufficient balance", e.getMessage());
+        assertEquals(1, runs.get());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testTransactionalModeNeedsATransactionManager() {
+        ObjectProvider<PlatformTransactionManager> none = mock(ObjectProvider.class);
+        TransactionRunner withoutManager = new TransactionRunner(none, new ServiceMetrics(meterRegistry), 3, 1);
+
+        withoutManager.checkAvailable(TransactionRunner.Mode.ATOMIC, "vaultcore.transactions.transfer");
+        assertThrows(IllegalStateException.class,
+                () -> withoutManager.checkAvailable(TransactionRunner.Mode.TRANSACTIONAL, "vaultcore.transactions.transfer"));
+    }
+
+    private static MongoException labelled(String label) {
+        MongoException e = new MongoException(112, "WriteConflict");
+        e.addLabel(label);
+        return e;
+    }
+}
@@ -0,0 +1,85 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.repository.TransactionRepository;
+import com.vaultcore.vaultcore_backend.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * POST /api/transactions runs in the withdraw / deposit transaction mode - no MongoDB needed
+ */
+public class TransactionServiceTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final AccountService accountService = mock(AccountService.class);
+    private final TransactionRepository repository = mock(TransactionRepository.class);
+    private final LedgerService ledgerService = mock(LedgerService.class);
+    private TransactionService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ObjectProvider<PlatformTransactionManager> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(transactionManager);
+        ServiceMetrics metrics = new ServiceMetrics(new SimpleMeterRegistry());
+        TransactionRunner runner = new TransactionRunner(provider, metrics, 3, 1);
+
+        when(accountService.debit(any(), any(), any())).thenReturn(Optional.of(Money.parse("90")));
+        when(accountService.credit(any(), any(), any())).thenReturn(Optional.of(Money.parse("110")));
+        when(repository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service = new TransactionService(repository, accountService, ledgerService, mock(HistoryPaging.class),
+                metrics, runner, TransactionRunner.Mode.TRANSACTIONAL, TransactionRunner.Mode.ATOMIC);
+    }
+
+    @Test
+    public void testWithdrawalRunsInItsTransaction() {
+        service.performTransaction(transaction("DEBIT"));
+
+        verify(transactionManager, times(1)).getTransaction(any());
+        verify(transactionManager, times(1)).commit(any());
+        verify(ledgerService).createLedgerEntry(Money.parse("10"), "DEBIT", Money.parse("90"), "a1", "u1");
+    }
+
+    @Test
+    public void testDepositKeepsItsAtomicMode() {
+        service.performTransaction(transaction("CREDIT"));
+
+        verify(transactionManager, never()).getTransaction(any());
+        verify(repository).save(any(Transaction.class));
+    }
+
+    @Test
+    public void testFailedWithdrawalRollsBack() {
+        when(accountService.debit(any(), any(), any())).thenReturn(Optional.empty());
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.performTransaction(transaction("DEBIT")));
+        assertEquals("Insufficient balance", e.getMessage());
+        verify(transactionManager).rollback(any());
+        verify(repository, never()).save(any(Transaction.class));
+    }
+
+    private static Transaction transaction(String type) {
+        Transaction transaction = new Transaction();
+        transaction.setAccountId("a1");
+        transaction.setUserId("u1");
+        transaction.setType(type);
+        transaction.setAmount(Money.parse("10"));
+        return transaction;
+    }
+}
@@ -0,0 +1,121 @@
+package com.vaultcore.vaultcore_backend.service;
+
+import com.vaultcore.vaultcore_backend.config.AuthenticatedUser;
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserServiceTest {
+
+    private final UserRepository repository = mock(UserRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserService service = new UserService(repository,
+            new PasswordHasher(NoOpPasswordEncoder.getInstance(), meterRegistry, 10, 1, 16), meterRegistry, 100, 300);
+
+    @Test
+    public void testRepeatedLookupsHitTheCache() {
+        when(repository.findByEmail("a@vault.test")).thenReturn(Optional.of(user("u1", "a@vault.test")));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("u1", service.findByEmail("a@vault.test").orElseThrow().getId());
+        }
+
+        verify(repository, times(1)).findByEmail("a@vault.test");
+        assertEquals(4.0, meterRegistry.get("cache.gets").tags("cache", "users", "result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tags("cache", "users", "result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testUnknownEmailIsNotCached() {
+        when(repository.findByEmail("new@vault.test")).thenReturn(Optional.empty());
+
+        assertTrue(service.findByEmail("new@vault.test").isEmpty());
+        assertTrue(service.findByEmail("new@vault.test").isEmpty());
+
+        verify(repository, times(2)).findByEmail("new@vault.test");
+    }
+
+    @Test
+    public void testSaveInvalidatesCachedUser() {
+        User stale = user("u1", "a@vault.test");
+        when(repository.findByEmail("a@vault.test")).thenReturn(Optional.of(stale));
+        service.findByEmail("a@vault.test");
+
+        User updated = user("u1", "b@vault.test");
+        when(repository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        service.save(updated);
+
+        User reloaded = user("u1", "a@vault.test");
+        reloaded.setRole("ADMIN");
+        when(repository.findByEmail("a@vault.test")).thenReturn(Optional.of(reloaded));
+        assertEquals("ADMIN", service.findByEmail("a@vault.test").orElseThrow().getRole());
+        verify(repository, times(2)).findByEmail("a@vault.test");
+    }
+
+    @Test
+    public void testLoginFetchesOnceAndRehashesOutdatedCost() throws InterruptedException {
+        User user = user("u1", "a@vault.test");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("secret"));
+        when(repository.findByEmail("a@vault.test")).thenReturn(Optional.of(user));
+        UserService bcrypt = new UserService(repository,
+                new PasswordHasher(new BCryptPasswordEncoder(5), meterRegistry, 5, 1, 16), meterRegistry, 100, 300);
+
+        assertTrue(bcrypt.authenticate("a@vault.test", "wrong").isEmpty());
+        assertSame(user, bcrypt.authenticate("a@vault.test", "secret").orElseThrow());
+
+        verify(repository, times(1)).findByEmail("a@vault.test");
+        ArgumentCaptor<String> encoded = ArgumentCaptor.forClass(String.class);
+        verify(repository, timeout(5000)).updatePassword(eq("u1"), encoded.capture());
+        verify(repository, never()).save(any(User.class));
+        assertTrue(encoded.getValue().startsWith("$2a$05$"));
+        assertTrue(new BCryptPasswordEncoder(5).matches("secret", encoded.getValue()));
+        assertTrue(user.getPassword().startsWith("$2a$04$"), "the cached instance is not changed in place");
+
+        // The next lookup reads the stored user again, with whatever else changed meanwhile
+        User reloaded = user("u1", "a@vault.test");
+        reloaded.setRole("ADMIN");
+        reloaded.setPassword(encoded.getValue());
+        when(repository.findByEmail("a@vault.test")).thenReturn(Optional.of(reloaded));
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (bcrypt.findByEmail("a@vault.test").orElseThrow() != reloaded && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("ADMIN", bcrypt.findByEmail("a@vault.test").orElseThrow().getRole());
+    }
+
+    @Test
+    public void testCurrentUserComesFromPrincipal() {
+        User user = user("u1", "a@vault.test");
+        AuthenticatedUser principal = new AuthenticatedUser(user);
+        var authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+
+        assertSame(user, service.currentUser(authentication).orElseThrow());
+        assertEquals("ROLE_USER", principal.getAuthorities().iterator().next().getAuthority());
+        verify(repository, never()).findByEmail(any());
+    }
+
+    private static User user(String id, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail(email);
+        user.setPassword("secret");
+        return user;
+    }
+}
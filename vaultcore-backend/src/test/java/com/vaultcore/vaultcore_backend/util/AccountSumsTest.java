@@ -0,0 +1,133 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccountSumsTest {
+
+    private record Entry(ObjectId id, long signedAmount, long balanceAfter) {}
+
+    @Test
+    public void testSumsDoNotDependOnOrderOrSplit() {
+        List<Entry> entries = chain(1000, 200, new Random(7));
+        AccountSums inOrder = new AccountSums();
+        entries.forEach(entry -> inOrder.add("a1", entry.id(), entry.signedAmount(), entry.balanceAfter()));
+
+        List<Entry> shuffled = new ArrayList<>(entries);
+        Collections.shuffle(shuffled, new Random(11));
+        AccountSums first = new AccountSums();
+        AccountSums second = new AccountSums();
+        for (int i = 0; i < shuffled.size(); i++) {
+            Entry entry = shuffled.get(i);
+            (i % 3 == 0 ? first : second).add("a1", entry.id(), entry.signedAmount(), entry.balanceAfter());
+        }
+        second.addAll(first);
+
+        for (AccountSums sums : List.of(inOrder, second)) {
+            assertEquals(200, sums.entries("a1"));
+            assertEquals(1000, sums.opening("a1"));
+            assertEquals(entries.get(0).id(), sums.firstId("a1"));
+            assertEquals(entries.get(199).balanceAfter(), sums.closing("a1"));
+            assertEquals(inOrder.chain("a1"), sums.chain("a1"));
+            assertTrue(sums.chainIntact("a1"));
+        }
+    }
+
+    @Test
+    public void testDetectsBrokenAndMissingLinks() {
+        List<Entry> entries = chain(500, 50, new Random(3));
+
+        AccountSums tampered = new AccountSums();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            long balanceAfter = i == 20 ? entry.balanceAfter() + 5 : entry.balanceAfter();
+            tampered.add("a1", entry.id(), entry.signedAmount(), balanceAfter);
+        }
+        assertEquals(entries.get(49).balanceAfter(), tampered.closing("a1"), "amounts still add up");
+        assertFalse(tampered.chainIntact("a1"));
+
+        AccountSums missing = new AccountSums();
+        for (int i = 0; i < entries.size(); i++) {
+            if (i != 30) {
+                missing.add("a1", entries.get(i).id(), entries.get(i).signedAmount(), entries.get(i).balanceAfter());
+            }
+        }
+        assertFalse(missing.chainIntact("a1"));
+        assertFalse(missing.contains("a2"));
+        assertEquals(0, missing.net("a2"));
+    }
+
+    @Test
+    public void testOpeningSurvivesSwappedFirstIds() {
+        // Opened at 100: +50 (150) then -30 (120), but the second write's _id was generated first
+        ObjectId later = new ObjectId(new Date(1_700_000_000_000L), 2);
+        ObjectId earlier = new ObjectId(new Date(1_700_000_000_000L), 1);
+        ObjectId nextSecond = new ObjectId(new Date(1_700_000_001_000L), 0);
+
+        AccountSums together = new AccountSums();
+        together.add("a1", earlier, -30, 120);
+        together.add("a1", later, 50, 150);
+        together.add("a1", nextSecond, 5, 125);
+
+        AccountSums first = new AccountSums();
+        first.add("a1", later, 50, 150);
+        first.add("a1", nextSecond, 5, 125);
+        AccountSums second = new AccountSums();
+        second.add("a1", earlier, -30, 120);
+        second.addAll(first);
+
+        for (AccountSums sums : List.of(together, second)) {
+            assertEquals(100, sums.opening("a1"));
+            assertEquals(earlier, sums.firstId("a1"));
+            assertEquals(125, sums.closing("a1"));
+            assertTrue(sums.chainIntact("a1"));
+        }
+
+        // Stored and read back as a state, the resolved opening is kept
+        AccountSums stored = new AccountSums();
+        stored.merge("a1", together.firstId("a1"), together.opening("a1"), together.net("a1"),
+                together.chain("a1"), together.entries("a1"));
+        stored.add("a1", new ObjectId(new Date(1_700_000_002_000L), 0), -25, 100);
+        assertEquals(100, stored.opening("a1"));
+        assertEquals(100, stored.closing("a1"));
+        assertTrue(stored.chainIntact("a1"));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        AccountSums sums = new AccountSums();
+        for (int i = 0; i < 10_000; i++) {
+            String accountId = "account-" + i;
+            sums.add(accountId, new ObjectId(), 100, 100 + i);
+            sums.add(accountId, new ObjectId(), -40, 60 + i);
+        }
+        assertEquals(10_000, sums.size());
+        assertEquals(10_000, sums.accountIds().size());
+        for (int i = 0; i < 10_000; i += 997) {
+            String accountId = "account-" + i;
+            assertEquals(2, sums.entries(accountId));
+            assertEquals(60, sums.net(accountId));
+            assertEquals(i, sums.opening(accountId));
+            assertTrue(sums.chainIntact(accountId));
+        }
+    }
+
+    private static List<Entry> chain(long opening, int length, Random random) {
+        List<Entry> entries = new ArrayList<>();
+        long balance = opening;
+        for (int i = 0; i < length; i++) {
+            long amount = random.nextBoolean() ? random.nextLong(1, 500) : -random.nextLong(1, Math.max(2, balance));
+            balance += amount;
+            entries.add(new Entry(new ObjectId(), amount, balance));
+        }
+        return entries;
+    }
+}
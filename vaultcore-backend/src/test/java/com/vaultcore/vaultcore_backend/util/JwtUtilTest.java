@@ -0,0 +1,61 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import com.vaultcore.vaultcore_backend.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JwtUtil jwtUtil = new JwtUtil(meterRegistry, 100);
+
+    @Test
+    public void testVerifyReturnsIdentityClaims() {
+        User user = new User();
+        user.setId("u1");
+        user.setEmail("a@vault.test");
+        user.setRole("ADMIN");
+
+        VerifiedToken token = jwtUtil.verify(jwtUtil.generateToken(user)).orElseThrow();
+
+        assertEquals("a@vault.test", token.email());
+        assertEquals("u1", token.userId());
+        assertEquals("ADMIN", token.role());
+        assertTrue(token.hasIdentity());
+        assertTrue(token.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    public void testRepeatedVerifyIsServedFromCache() {
+        User user = new User();
+        user.setId("u1");
+        user.setEmail("a@vault.test");
+        String jwt = jwtUtil.generateToken(user);
+
+        VerifiedToken first = jwtUtil.verify(jwt).orElseThrow();
+        for (int i = 0; i < 3; i++) {
+            assertSame(first, jwtUtil.verify(jwt).orElseThrow());
+        }
+
+        assertEquals(3.0, meterRegistry.get("cache.gets")
+                .tags("cache", "verified-tokens", "result", "hit").functionCounter().count());
+    }
+
+    @Test
+    public void testRejectsTamperedAndMalformedTokens() {
+        User user = new User();
+        user.setId("u1");
+        user.setEmail("a@vault.test");
+        String jwt = jwtUtil.generateToken(user);
+        String[] parts = jwt.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        assertTrue(jwtUtil.verify(forged).isEmpty());
+        assertTrue(jwtUtil.verify("not-a-token").isEmpty());
+        assertTrue(jwtUtil.verify("").isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.vaultcore.vaultcore_backend.config.MoneyConverters;
+import com.vaultcore.vaultcore_backend.dto.TransferRequest;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testParseMatchesBigDecimal() {
+        for (String text : new String[] {"0", "7", "-12.5", "0.07", "100.00", "+3.10", "42.000", "-0.01", "1.5E+2"}) {
+            Money money = Money.parse(text);
+            assertEquals(Money.of(new BigDecimal(text)), money, text);
+            assertEquals(0, new BigDecimal(text).compareTo(money.toBigDecimal()), text);
+        }
+        assertEquals(1250, Money.parse("12.5").minorUnits());
+        assertEquals("-12.50", Money.parse("-12.5").toString());
+        assertEquals("0.07", Money.parse("0.07").toString());
+    }
+
+    @Test
+    public void testRejectsExtraDecimalsAndBadInput() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Money.parse("1.005"));
+        assertEquals("Amount must have at most 2 decimal places", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("0.001")));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("99999999999999999999"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("-"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1.2.3"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("12abc"));
+        assertEquals(Money.parse("0.01"), Money.rounded(new BigDecimal("0.005")).plus(Money.parse("0.01")));
+    }
+
+    @Test
+    public void testArithmeticIsExact() {
+        Money balance = Money.parse("0.10").plus(Money.parse("0.20"));
+        assertEquals(Money.parse("0.30"), balance);
+        assertEquals(Money.parse("-0.05"), Money.parse("0.25").minus(Money.parse("0.30")));
+        assertTrue(Money.parse("1").isLessThan(Money.parse("1.01")));
+        assertTrue(Money.parse("-1").isNegative());
+        assertFalse(Money.ZERO.isPositive());
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE).plus(Money.ofMinor(1)));
+    }
+
+    @Test
+    public void testJsonIsAPlainNumber() throws Exception {
+        TransferRequest request = new TransferRequest();
+        request.setAmount(Money.parse("25.5"));
+        String json = objectMapper.writeValueAsString(request);
+        assertTrue(json.contains("\"amount\":25.50"), json);
+
+        assertEquals(Money.parse("25.5"), objectMapper.readValue("{\"amount\": 25.5}", TransferRequest.class).getAmount());
+        assertEquals(Money.parse("3"), objectMapper.readValue("{\"amount\": \"3\"}", TransferRequest.class).getAmount());
+        assertThrows(InvalidFormatException.class,
+                () -> objectMapper.readValue("{\"amount\": 0.001}", TransferRequest.class));
+    }
+
+    @Test
+    public void testDecimalMinAppliesToMoney() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        TransferRequest request = new TransferRequest();
+        request.setFromAccountId("a1");
+        request.setToAccountId("a2");
+        request.setAmount(Money.parse("0.01"));
+        assertTrue(validator.validate(request).isEmpty());
+
+        request.setAmount(Money.ZERO);
+        assertFalse(validator.validate(request).isEmpty());
+    }
+
+    @Test
+    public void testStoredValuesConvert() {
+        assertEquals(new Decimal128(new BigDecimal("12.30")), MoneyConverters.toDecimal128(Money.parse("12.3")));
+        assertEquals(Money.parse("12.3"), MoneyConverters.toMoney(new Decimal128(new BigDecimal("12.3"))));
+        assertEquals(Money.parse("0.67"), MoneyConverters.toMoney("0.666"));
+        assertEquals(Money.parse("5"), MoneyConverters.toMoney(5));
+        assertEquals(Money.ZERO, MoneyConverters.toMoney(null));
+    }
+}
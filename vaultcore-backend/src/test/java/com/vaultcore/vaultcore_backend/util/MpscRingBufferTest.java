@@ -0,0 +1,69 @@
+package com.vaultcore.vaultcore_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MpscRingBufferTest {
+
+    @Test
+    public void testRejectsWhenFull() {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(i));
+        }
+        assertFalse(ring.offer(4), "Full ring must reject");
+        assertEquals(0, ring.poll());
+        assertTrue(ring.offer(4), "Slot must be reusable after poll");
+    }
+
+    @Test
+    public void testConcurrentProducersKeepPerProducerOrder() throws InterruptedException {
+        final int producers = 8;
+        final int perProducer = 20_000;
+        MpscRingBuffer<long[]> ring = new MpscRingBuffer<>(256);
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perProducer; i++) {
+                    ring.put(new long[]{producer, i});
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        long[] nextExpected = new long[producers];
+        List<String> errors = new ArrayList<>();
+        int received = 0;
+        while (received < producers * perProducer) {
+            long[] element = ring.poll();
+            if (element == null) {
+                Thread.yield();
+                continue;
+            }
+            int producer = (int) element[0];
+            if (element[1] != nextExpected[producer]) {
+                errors.add("Producer " + producer + " expected " + nextExpected[producer] + " got " + element[1]);
+            }
+            nextExpected[producer] = element[1] + 1;
+            received++;
+        }
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(errors.isEmpty(), "Out of order elements: " + errors);
+        assertTrue(ring.isEmpty());
+    }
+}
@@ -0,0 +1,79 @@
+package com.vaultcore.benchmarks;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.vaultcore.vaultcore_backend.config.MongoCommandMetrics;
+import com.vaultcore.vaultcore_backend.service.ServiceMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.bson.BsonDocument;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What the service timers and the Mongo command listener add to each call.
+ * bare runs a fixed slice of CPU work, timed runs the same work through a
+ * ServiceMetrics.Operation; the difference is the per-call cost of a service
+ * timer, to set against the milliseconds a transfer spends in MongoDB.
+ * mongoCommand is one started / succeeded pair for a find, the listener's whole
+ * cost per driver round trip. Prometheus is the registry the app runs with,
+ * simple the one the tests use. Add -t 4 to see contention on shared timers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InstrumentationOverheadBenchmark {
+
+    private static final long WORK_TOKENS = 100;
+
+    @Param({"prometheus", "simple"})
+    public String registry;
+
+    private ServiceMetrics.Operation operation;
+    private MongoCommandMetrics commandMetrics;
+    private CommandStartedEvent started;
+    private CommandSucceededEvent succeeded;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = "prometheus".equals(registry)
+                ? new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)
+                : new SimpleMeterRegistry();
+        operation = new ServiceMetrics(meterRegistry).operation("transfer", "transfer");
+        commandMetrics = new MongoCommandMetrics(meterRegistry);
+
+        ConnectionDescription connection = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+        started = new CommandStartedEvent(null, 1, 1, connection, "vaultcore_db", "find",
+                BsonDocument.parse("{find: 'ledger', filter: {accountId: 'a'}, sort: {timestamp: -1}, limit: 21}"));
+        succeeded = new CommandSucceededEvent(null, 1, 1, connection, "vaultcore_db", "find",
+                BsonDocument.parse("{ok: 1, cursor: {id: 0, ns: 'vaultcore_db.ledger', firstBatch: [{}, {}, {}]}}"),
+                TimeUnit.MICROSECONDS.toNanos(800));
+    }
+
+    @Benchmark
+    public void bare() {
+        Blackhole.consumeCPU(WORK_TOKENS);
+    }
+
+    @Benchmark
+    public void timed() {
+        operation.run(() -> Blackhole.consumeCPU(WORK_TOKENS));
+    }
+
+    @Benchmark
+    public void mongoCommand() {
+        commandMetrics.commandStarted(started);
+        commandMetrics.commandSucceeded(succeeded);
+    }
+}
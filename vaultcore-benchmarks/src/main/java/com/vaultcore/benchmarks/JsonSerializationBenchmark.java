@@ -0,0 +1,81 @@
+package com.vaultcore.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vaultcore.vaultcore_backend.entity.Account;
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.entity.Transaction;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response bodies as the controllers write them: lists of entities through an
+ * ObjectMapper configured the way Spring Boot configures its own (java.time module,
+ * ISO dates), at a typical history page size and at a full account listing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "500"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Account> accounts;
+    private List<Ledger> ledger;
+    private List<Transaction> transactions;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        accounts = new ArrayList<>(size);
+        ledger = new ArrayList<>(size);
+        transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Money amount = Money.ofMinor(1000 + i);
+            Money balance = Money.ofMinor(1_000_000 - i * 1000L);
+
+            Account account = new Account();
+            account.setId(String.format("65f1c0ffee00000000%06d", i));
+            account.setAccountType(i % 2 == 0 ? "SAVINGS" : "CHECKING");
+            account.setBalance(balance);
+            account.setUserId("65f1c0ffee0000000000b001");
+            accounts.add(account);
+
+            ledger.add(new Ledger(amount, i % 2 == 0 ? "DEBIT" : "CREDIT", balance,
+                    account.getId(), account.getUserId()));
+
+            Transaction transaction = new Transaction();
+            transaction.setId(String.format("65f1c0ffee01000000%06d", i));
+            transaction.setAmount(amount);
+            transaction.setType(i % 2 == 0 ? "DEBIT" : "CREDIT");
+            transaction.setAccountId(account.getId());
+            transaction.setAccountType(account.getAccountType());
+            transaction.setUserId(account.getUserId());
+            transactions.add(transaction);
+        }
+    }
+
+    @Benchmark
+    public byte[] accounts() throws Exception {
+        return objectMapper.writeValueAsBytes(accounts);
+    }
+
+    @Benchmark
+    public byte[] ledger() throws Exception {
+        return objectMapper.writeValueAsBytes(ledger);
+    }
+
+    @Benchmark
+    public byte[] transactions() throws Exception {
+        return objectMapper.writeValueAsBytes(transactions);
+    }
+}
@@ -0,0 +1,64 @@
+package com.vaultcore.benchmarks;
+
+import com.vaultcore.vaultcore_backend.entity.User;
+import com.vaultcore.vaultcore_backend.util.JwtUtil;
+import com.vaultcore.vaultcore_backend.util.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token issue and verification - verify() runs on every authenticated request.
+ * verifyCached is a client reusing its token (SHA-256 + cache hit); verifyUncached
+ * is a token seen for the first time (HMAC check and claims parse) against a
+ * JwtUtil with no cache room; verifyTampered is a bad signature.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtUtil cachingJwtUtil;
+    private JwtUtil nonCachingJwtUtil;
+    private User user;
+    private String token;
+    private String tampered;
+
+    @Setup
+    public void setUp() {
+        cachingJwtUtil = new JwtUtil(new SimpleMeterRegistry(), 10_000);
+        nonCachingJwtUtil = new JwtUtil(new SimpleMeterRegistry(), 0);
+        user = new User();
+        user.setId("65f1c0ffee0000000000b001");
+        user.setEmail("benchmark@vault.test");
+        user.setRole("USER");
+        token = cachingJwtUtil.generateToken(user);
+        char last = token.charAt(token.length() - 1);
+        tampered = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachingJwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyCached() {
+        return cachingJwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyUncached() {
+        return nonCachingJwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verifyTampered() {
+        return nonCachingJwtUtil.verify(tampered);
+    }
+}
@@ -0,0 +1,38 @@
+package com.vaultcore.benchmarks;
+
+import com.vaultcore.vaultcore_backend.entity.Ledger;
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger constructor: validation, ObjectId and timestamp - two of these per transfer.
+ * The rejected case shows what a failed validation costs (exception + stack trace).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LedgerBenchmark {
+
+    private final Money amount = Money.parse("125.50");
+    private final Money balanceAfter = Money.parse("9874.50");
+    private final Money negative = Money.parse("-1.00");
+
+    @Benchmark
+    public Ledger create() {
+        return new Ledger(amount, "DEBIT", balanceAfter, "65f1c0ffee0000000000a001", "65f1c0ffee0000000000b001");
+    }
+
+    @Benchmark
+    public Object createRejected() {
+        try {
+            return new Ledger(amount, "DEBIT", negative, "65f1c0ffee0000000000a001", "65f1c0ffee0000000000b001");
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.vaultcore.benchmarks;
+
+import com.vaultcore.vaultcore_backend.util.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The amount work one transfer does in the JVM: TransferService's amount check,
+ * then the sufficient-funds guard, negate and two adds the sequencer engine applies
+ * to the in-memory balances (the direct engine sends the same delta to MongoDB).
+ * transfer / parseAmount are the BigDecimal version the services used before Money,
+ * kept as the baseline; transferMoney / parseMoney are what runs now.
+ * Balances keep the scale a real account has, so add() takes the scaled path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransferArithmeticBenchmark {
+
+    @Param({"12.34", "1000000.01"})
+    public String amount;
+
+    private BigDecimal transferAmount;
+    private BigDecimal fromBalance;
+    private BigDecimal toBalance;
+
+    private Money transferMoney;
+    private Money fromMoney;
+    private Money toMoney;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        transferAmount = new BigDecimal(amount);
+        fromBalance = new BigDecimal("1000000000.00");
+        toBalance = new BigDecimal("250.75");
+        transferMoney = Money.parse(amount);
+        fromMoney = Money.parse("1000000000.00");
+        toMoney = Money.parse("250.75");
+    }
+
+    @Benchmark
+    public BigDecimal transfer() {
+        if (transferAmount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        if (fromBalance.compareTo(transferAmount) < 0) {
+            // Keep the benchmark going once the source runs dry, as a refill would
+            fromBalance = fromBalance.add(toBalance);
+            toBalance = new BigDecimal("250.75");
+        }
+        fromBalance = fromBalance.add(transferAmount.negate());
+        toBalance = toBalance.add(transferAmount);
+        return toBalance;
+    }
+
+    @Benchmark
+    public Money transferMoney() {
+        if (!transferMoney.isPositive()) {
+            throw new IllegalArgumentException("Transfer amount must be positive");
+        }
+        if (fromMoney.isLessThan(transferMoney)) {
+            fromMoney = fromMoney.plus(toMoney);
+            toMoney = Money.parse("250.75");
+        }
+        fromMoney = fromMoney.plus(transferMoney.negate());
+        toMoney = toMoney.plus(transferMoney);
+        return toMoney;
+    }
+
+    @Benchmark
+    public BigDecimal parseAmount() {
+        return new BigDecimal(amount); // what Jackson did for every request body amount
+    }
+
+    @Benchmark
+    public Money parseMoney() {
+        return Money.parse(amount); // what MoneyJson.Reader does now
+    }
+}
@@ -61,6 +61,23 @@ const Badge = styled.span<{ kind: 'credit' | 'debit' }>`
   font-size: 0.85rem;
 `;
 
+const LoadMore = styled.button`
+  display: block;
+  margin: 1.5rem auto 0;
+  padding: 0.6rem 1.4rem;
+  border-radius: 999px;
+  border: 1px solid rgba(226, 232, 240, 0.16);
+  background: transparent;
+  color: #e2e8f0;
+  font-weight: 700;
+  cursor: pointer;
+
+  &:disabled {
+    opacity: 0.5;
+    cursor: default;
+  }
+`;
+
 const EmptyState = styled.div`
   padding: 2rem 1rem;
   text-align: center;
@@ -79,12 +96,20 @@ const TransactionHistoryPage: React.FC = () => {
   const [txns, setTxns] = useState<Txn[]>([]);
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  // The history is paged - each response carries the cursor for the next page
+  const loadPage = async (cursor?: string) => {
+    const res = await api.get('/transactions', { params: cursor ? { cursor } : {} });
+    setTxns((prev) => (cursor ? [...prev, ...(res.data?.items || [])] : res.data?.items || []));
+    setNextCursor(res.data?.nextCursor || null);
+  };
 
   useEffect(() => {
     const load = async () => {
       try {
-        const res = await api.get('/transactions');
-        setTxns(res.data || []);
+        await loadPage();
       } catch (err: any) {
         setError('Failed to load transactions.');
       } finally {
@@ -94,6 +119,18 @@ const TransactionHistoryPage: React.FC = () => {
     load();
   }, []);
 
+  const loadMore = async () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    try {
+      await loadPage(nextCursor);
+    } catch (err: any) {
+      setError('Failed to load transactions.');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   return (
     <Container>
       <Card>
@@ -134,6 +171,11 @@ const TransactionHistoryPage: React.FC = () => {
             </tbody>
           </Table>
         )}
+        {!loading && !error && nextCursor && (
+          <LoadMore onClick={loadMore} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load more'}
+          </LoadMore>
+        )}
       </Card>
     </Container>
   );